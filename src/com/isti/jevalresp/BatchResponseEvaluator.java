@@ -0,0 +1,472 @@
+//BatchResponseEvaluator.java:  Evaluates a set of responses over a
+//                              single set of frequencies, entering the
+//                              complex response values into arrays.
+//
+//  10/18/2026 -- [AG]  Initial version.
+//                      Modified to evaluate responses in "total-only" mode.
+//                      Added methods 'setTrigTableCache()' and
+//                      'getTrigTableCache()'.
+//                      Modified to evaluate the responses evaluated by
+//                      each thread into one reused pair of arrays.
+//
+
+package com.isti.jevalresp;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import edu.iris.Fissures.IfNetwork.Response;
+
+/**
+ * Class BatchResponseEvaluator evaluates a set of responses over a
+ * single set of frequencies, entering the complex response values into
+ * caller-supplied arrays (one row per response, or a single row-major
+ * array), with the real and imaginary parts for each frequency
+ * interleaved.  No 'OutputGenerator', 'RespInfoBlk' or 'ComplexBlk'
+ * objects are returned to the caller.  The responses may be evaluated
+ * concurrently (see 'setNumThreads()'), and a stage-spectrum cache
+ * may be used so that stages shared by responses are evaluated once
+ * (see 'setStageSpectrumCache()').  Each thread evaluates its responses
+ * into a single pair of real/imaginary work arrays (see
+ * 'OutputGenerator.setOutputArrays()'), so that no spectra arrays are
+ * allocated for each response.  The given 'Response' objects are not
+ * modified (normalized copies are created and cached; see
+ * 'OutputGenerator.normalizeResponse()').
+ */
+public class BatchResponseEvaluator
+{
+  protected final int outUnitsConvIdx;      //output units conversion
+  protected final int startStageNum;        //first stage to be processed
+  protected final int stopStageNum;         //last stage to be processed
+  protected final boolean useDelayFlag;     //use est delay for phase calc
+  protected final boolean totalSensitFlag;  //use stage 0 sensitivity
+  protected final double b62XValue;         //sample value for poly blkt
+  protected int numThreads = 1;             //# of threads for evaluation
+              //cache of evaluated stage spectra (null if none):
+  protected StageSpectrumCache stageSpectrumCacheObj = null;
+              //cache of trig tables for FIR/IIR stages (null if none):
+  protected TrigTableCache trigTableCacheObj = null;
+              //error messages for responses (null entries if no error):
+  protected String [] respErrorMsgsArr = null;
+  protected String errorMessage = null;     //error message string
+
+  /**
+   * Creates an evaluator for sets of responses.
+   * @param outUnitsConvIdx output units conversion index for the
+   * requested output units type; one of the 'OutputGenerator'
+   * '..._UNIT_CONV' values.
+   * @param startStageNum if greater than zero then the start of the
+   * range of stage sequence numbers to use, otherwise all stages
+   * are used.
+   * @param stopStageNum if greater than zero then the end of the
+   * range of stage sequence numbers to use, otherwise only the single
+   * stage specified by 'startStageNum' is used.
+   * @param useDelayFlag true to use estimated delay in phase calculation.
+   * @param totalSensitFlag true to use stage 0 (total) sensitivity;
+   * false to use computed sensitivity.
+   * @param b62XValue sample value for polynomial blockette (62).
+   */
+  public BatchResponseEvaluator(int outUnitsConvIdx,int startStageNum,
+                                   int stopStageNum,boolean useDelayFlag,
+                                 boolean totalSensitFlag,double b62XValue)
+  {
+    this.outUnitsConvIdx = outUnitsConvIdx;
+    this.startStageNum = startStageNum;
+    this.stopStageNum = stopStageNum;
+    this.useDelayFlag = useDelayFlag;
+    this.totalSensitFlag = totalSensitFlag;
+    this.b62XValue = b62XValue;
+  }
+
+  /**
+   * Creates an evaluator for sets of responses, using all stages and
+   * computed sensitivity.
+   * @param outUnitsConvIdx output units conversion index for the
+   * requested output units type; one of the 'OutputGenerator'
+   * '..._UNIT_CONV' values.
+   */
+  public BatchResponseEvaluator(int outUnitsConvIdx)
+  {
+    this(outUnitsConvIdx,0,0,false,false,0.0);
+  }
+
+  /**
+   * Sets the number of threads used to evaluate the responses.  When
+   * greater than 1, the set of responses is split into contiguous
+   * blocks that are evaluated concurrently.  The default is 1.
+   * @param numThreads number of threads to use.
+   */
+  public void setNumThreads(int numThreads)
+  {
+    this.numThreads = numThreads;
+  }
+
+  /**
+   * Returns the number of threads used to evaluate the responses.
+   * @return The number of threads used to evaluate the responses.
+   */
+  public int getNumThreads()
+  {
+    return numThreads;
+  }
+
+  /**
+   * Sets the cache of evaluated stage spectra to be used when the
+   * responses are evaluated.
+   * @param cacheObj the cache to use, or null for none (the default).
+   */
+  public void setStageSpectrumCache(StageSpectrumCache cacheObj)
+  {
+    stageSpectrumCacheObj = cacheObj;
+  }
+
+  /**
+   * Returns the cache of evaluated stage spectra used when the responses
+   * are evaluated.
+   * @return The cache of evaluated stage spectra, or null if none.
+   */
+  public StageSpectrumCache getStageSpectrumCache()
+  {
+    return stageSpectrumCacheObj;
+  }
+
+  /**
+   * Sets the cache of trig tables to be used when the responses are
+   * evaluated (see 'OutputGenerator.setTrigTableCache()').
+   * @param cacheObj the cache to use, or null for none (the default).
+   */
+  public void setTrigTableCache(TrigTableCache cacheObj)
+  {
+    trigTableCacheObj = cacheObj;
+  }
+
+  /**
+   * Returns the cache of trig tables used when the responses are
+   * evaluated.
+   * @return The cache of trig tables, or null if none.
+   */
+  public TrigTableCache getTrigTableCache()
+  {
+    return trigTableCacheObj;
+  }
+
+  /**
+   * Evaluates the given responses over the given frequencies.  For each
+   * response the values are entered into the corresponding row of the
+   * given array, with the real and imaginary parts of the value for
+   * frequency 'i' at indices '2*i' and '2*i+1'.  The rows for any
+   * responses that could not be evaluated are filled with 'NaN' values
+   * (and 'getRespErrorMessage()' may be used to fetch information about
+   * the errors).
+   * @param respArr array of responses to evaluate.
+   * @param freqArr array of frequency values to use.
+   * @param logSpacingFlag true to indicate that the frequency spacing
+   * is logarithmic; false to indicate linear spacing.
+   * @param outArrs array of rows to receive the response values; there
+   * must be a row for each response, with at least '2*freqArr.length'
+   * elements.
+   * @return true if all responses were evaluated successfully; false if
+   * an error occurred (in which case 'getErrorMessage()' may be used to
+   * fetch information about the error).
+   */
+  public boolean evaluate(Response [] respArr,double [] freqArr,
+                               boolean logSpacingFlag,double [][] outArrs)
+  {
+    clearErrorMessage();
+    if(outArrs == null || outArrs.length < respArr.length)
+    {    //not enough rows; set error message
+      setErrorMessage("Number of output rows less than number of " +
+                                                               "responses");
+      return false;
+    }
+    for(int i=0; i<respArr.length; ++i)
+    {    //for each response; check output row
+      if(outArrs[i] == null || outArrs[i].length < 2*freqArr.length)
+      {  //output row too small; set error message
+        setErrorMessage("Output row #" + i + " too small for number " +
+                                                           "of frequencies");
+        return false;
+      }
+    }
+    return doEvaluate(respArr,freqArr,logSpacingFlag,outArrs,null);
+  }
+
+  /**
+   * Evaluates the given responses over the given frequencies.  The
+   * values are entered into the given array in row-major order, with
+   * the real and imaginary parts of the value for response 'n' and
+   * frequency 'i' at indices 'n*2*M+2*i' and 'n*2*M+2*i+1' (where 'M'
+   * is the number of frequencies).  The rows for any responses that
+   * could not be evaluated are filled with 'NaN' values (and
+   * 'getRespErrorMessage()' may be used to fetch information about the
+   * errors).
+   * @param respArr array of responses to evaluate.
+   * @param freqArr array of frequency values to use.
+   * @param logSpacingFlag true to indicate that the frequency spacing
+   * is logarithmic; false to indicate linear spacing.
+   * @param outArr array to receive the response values, with at least
+   * '2*respArr.length*freqArr.length' elements.
+   * @return true if all responses were evaluated successfully; false if
+   * an error occurred (in which case 'getErrorMessage()' may be used to
+   * fetch information about the error).
+   */
+  public boolean evaluate(Response [] respArr,double [] freqArr,
+                                   boolean logSpacingFlag,double [] outArr)
+  {
+    clearErrorMessage();
+    if(outArr == null ||
+                    outArr.length < 2L*respArr.length*freqArr.length)
+    {    //output array too small; set error message
+      setErrorMessage("Output array too small for number of responses " +
+                                                        "and frequencies");
+      return false;
+    }
+    return doEvaluate(respArr,freqArr,logSpacingFlag,null,outArr);
+  }
+
+  /**
+   * Evaluates the given responses over the given frequencies, entering
+   * the values into the given rows or the given row-major array.
+   * @param respArr array of responses to evaluate.
+   * @param freqArr array of frequency values to use.
+   * @param logSpacingFlag true to indicate that the frequency spacing
+   * is logarithmic; false to indicate linear spacing.
+   * @param outArrs array of rows to receive the response values, or
+   * null to use 'outArr'.
+   * @param outArr row-major array to receive the response values (used
+   * if 'outArrs' is null).
+   * @return true if all responses were evaluated successfully; false if
+   * an error occurred.
+   */
+  protected boolean doEvaluate(final Response [] respArr,
+                        final double [] freqArr,final boolean logSpacingFlag,
+                          final double [][] outArrs,final double [] outArr)
+  {
+    final int numResps = respArr.length;
+    respErrorMsgsArr = new String[numResps];
+    final int numBlocks = Math.min(numThreads,numResps);
+    if(numBlocks > 1)
+    {    //evaluate blocks of responses concurrently
+      final ExecutorService executorObj = Executors.newFixedThreadPool(
+                                              numBlocks,new ThreadFactory()
+          {
+            public Thread newThread(Runnable runObj)
+            {
+              final Thread threadObj =
+                        new Thread(runObj,"BatchResponseEvaluator-eval");
+              threadObj.setDaemon(true);    //don't hold up program exit
+              return threadObj;
+            }
+          });
+      try
+      {
+        final Future [] futuresArr = new Future[numBlocks];
+        for(int i=0; i<numBlocks; ++i)
+        {     //for each block; submit task to evaluate responses in block
+          final int fromIdx = (int)((long)numResps * i / numBlocks);
+          final int toIdx = (int)((long)numResps * (i+1) / numBlocks);
+          futuresArr[i] = executorObj.submit(new Runnable()
+              {
+                public void run()
+                {
+                  evalResponses(respArr,fromIdx,toIdx,freqArr,
+                                             logSpacingFlag,outArrs,outArr);
+                }
+              });
+        }
+        for(int i=0; i<numBlocks; ++i)
+          futuresArr[i].get();         //wait for task to complete
+      }
+      catch(Exception ex)
+      {       //some kind of error occurred; set error message
+        setErrorMessage("Error evaluating responses:  " + ex);
+        return false;
+      }
+      finally
+      {       //release threads
+        executorObj.shutdownNow();
+      }
+    }
+    else
+    {    //evaluate all responses via current thread
+      evalResponses(respArr,0,numResps,freqArr,logSpacingFlag,outArrs,
+                                                                    outArr);
+    }
+    for(int i=0; i<numResps; ++i)
+    {    //for each response; check for error
+      if(respErrorMsgsArr[i] != null)
+      {  //error evaluating response; set error message
+        setErrorMessage("Error evaluating response #" + i + ":  " +
+                                                       respErrorMsgsArr[i]);
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Evaluates a range of the given responses.  The responses are
+   * evaluated into one pair of work arrays that is reused for each
+   * response in the range.
+   * @param respArr array of responses to evaluate.
+   * @param fromIdx index of first response to evaluate.
+   * @param toIdx index of last response to evaluate, plus one.
+   * @param freqArr array of frequency values to use.
+   * @param logSpacingFlag true to indicate that the frequency spacing
+   * is logarithmic; false to indicate linear spacing.
+   * @param outArrs array of rows to receive the response values, or
+   * null to use 'outArr'.
+   * @param outArr row-major array to receive the response values (used
+   * if 'outArrs' is null).
+   */
+  protected void evalResponses(Response [] respArr,int fromIdx,int toIdx,
+                                  double [] freqArr,boolean logSpacingFlag,
+                                      double [][] outArrs,double [] outArr)
+  {
+    final int rowLen = 2 * freqArr.length;
+         //work arrays for response values (reused for each response):
+    final double [] workRealArr = new double[freqArr.length];
+    final double [] workImagArr = new double[freqArr.length];
+    double [] destArr;
+    int destOffs;
+    String errMsgStr;
+    for(int respIdx=fromIdx; respIdx<toIdx; ++respIdx)
+    {    //for each response in range
+      if(outArrs != null)
+      {  //using separate rows
+        destArr = outArrs[respIdx];
+        destOffs = 0;
+      }
+      else
+      {  //using row-major array
+        destArr = outArr;
+        destOffs = respIdx * rowLen;
+      }
+      try
+      {
+        errMsgStr = evalResponse(respArr[respIdx],freqArr,logSpacingFlag,
+                               workRealArr,workImagArr,destArr,destOffs);
+      }
+      catch(Exception ex)
+      {  //some kind of error occurred; setup error message
+        errMsgStr = "Error calculating response:  " + ex;
+      }
+      if(errMsgStr != null)
+      {  //error evaluating response; save message and fill row with NaNs
+        respErrorMsgsArr[respIdx] = errMsgStr;
+        for(int i=0; i<rowLen; ++i)
+          destArr[destOffs+i] = Double.NaN;
+      }
+    }
+  }
+
+  /**
+   * Evaluates the given response, entering the values into the given
+   * array.
+   * @param respObj the response to evaluate.
+   * @param freqArr array of frequency values to use.
+   * @param logSpacingFlag true to indicate that the frequency spacing
+   * is logarithmic; false to indicate linear spacing.
+   * @param workRealArr work array to receive the real parts of the
+   * response values (same length as 'freqArr').
+   * @param workImagArr work array to receive the imaginary parts of the
+   * response values (same length as 'freqArr').
+   * @param destArr array to receive the response values.
+   * @param destOffs index in 'destArr' for first value.
+   * @return null if successful, or an error message if an error
+   * occurred.
+   */
+  protected String evalResponse(Response respObj,double [] freqArr,
+                      boolean logSpacingFlag,double [] workRealArr,
+                     double [] workImagArr,double [] destArr,int destOffs)
+  {
+    if(respObj == null)
+      return "Null response object";
+         //create output generator:
+    final OutputGenerator outGenObj = new OutputGenerator(respObj);
+         //check validity of response (if 'def', don't check units):
+    if(!outGenObj.checkResponse(
+                        outUnitsConvIdx==OutputGenerator.DEFAULT_UNIT_CONV))
+    {
+      return "Error in response:  " + outGenObj.getErrorMessage();
+    }
+         //response checked OK; do normalization:
+    if(!outGenObj.normalizeResponse(startStageNum,stopStageNum))
+      return "Error normalizing response:  " + outGenObj.getErrorMessage();
+    outGenObj.setStageSpectrumCache(stageSpectrumCacheObj);
+    outGenObj.setTrigTableCache(trigTableCacheObj);
+    outGenObj.setTotalOnlyFlag(true);    //separate stage values not needed
+    outGenObj.setOutputArrays(workRealArr,workImagArr);
+         //response normalized OK; calculate output:
+    if(!outGenObj.calculateResponse(freqArr,logSpacingFlag,outUnitsConvIdx,
+                                 startStageNum,stopStageNum,useDelayFlag,
+                       false,false,false,0.0,false,totalSensitFlag,b62XValue))
+    {
+      return "Error calculating response:  " + outGenObj.getErrorMessage();
+    }
+    final double [] realArr = outGenObj.getCSpectraRealArray();
+    final double [] imagArr = outGenObj.getCSpectraImagArray();
+    if(realArr == null || realArr.length != freqArr.length)
+    {    //response not evaluated at requested frequencies (List stage)
+      return "Response values not calculated at requested frequencies";
+    }
+    for(int i=0; i<realArr.length; ++i)
+    {    //for each frequency; enter interleaved real/imaginary values
+      destArr[destOffs++] = realArr[i];
+      destArr[destOffs++] = imagArr[i];
+    }
+    return null;
+  }
+
+  /**
+   * Returns the error message for the given response from the last call
+   * to 'evaluate()'.
+   * @param respIdx index of response.
+   * @return The error message for the response, or null if the response
+   * was evaluated successfully.
+   */
+  public String getRespErrorMessage(int respIdx)
+  {
+    return (respErrorMsgsArr != null && respIdx >= 0 &&
+                                        respIdx < respErrorMsgsArr.length) ?
+                                          respErrorMsgsArr[respIdx] : null;
+  }
+
+  /**
+   * Enters an error message (if none previously entered).
+   * @param str the error message string to enter.
+   */
+  protected void setErrorMessage(String str)
+  {
+    if(errorMessage == null)      //if no previous error then
+      errorMessage = str;         //set error message
+  }
+
+  /**
+   * Returns true if an error was detected.  The error message may be
+   * fetched via the 'getErrorMessage()' method.
+   * @return true if an error was detected.
+   */
+  public boolean getErrorFlag()
+  {
+    return (errorMessage != null);
+  }
+
+  /**
+   * Returns message string for last error (or 'No error' if none).
+   * @return The message string for last error (or 'No error' if none).
+   */
+  public String getErrorMessage()
+  {
+    return (errorMessage != null) ? errorMessage : "No error";
+  }
+
+  /**
+   * Clears the error message string.
+   */
+  public void clearErrorMessage()
+  {
+    errorMessage = null;
+  }
+}
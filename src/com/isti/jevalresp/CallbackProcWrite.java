@@ -38,6 +38,13 @@
 //   1/24/2012 -- [ET]  Modified 'responseInfo()' method to not display
 //                      given filename if empty.
 //  10/22/2013 -- [ET]  Added optional 'b62XValue' parameter to constructor.
+//  10/18/2026 -- [AG]  Modified to only generate response values for all
+//                      stages together ("total-only" mode).
+//                      Modified to check the sensitivity of the normalized
+//                      response (since the given response is no longer
+//                      modified by normalization).
+//                      Added support for "gd" (group delay) response-output
+//                      type.
 //
 
 package com.isti.jevalresp;
@@ -582,7 +589,8 @@ public class CallbackProcWrite implements RespCallback
                        freqArr,logSpacingFlag,outUnitsConvIdx,startStageNum,
                   stopStageNum,useDelayFlag,showInputFlag,listInterpOutFlag,
                                          listInterpInFlag,listInterpTension,
-                        unwrapPhaseFlag,totalSensitFlag,b62XValue)) == null)
+                             unwrapPhaseFlag,totalSensitFlag,b62XValue,true,
+                             (respTypeIndex==Run.RESP_GD_TYPEIDX))) == null)
       {  //error processing response; show error message
         outStmPrintln(respProcObj.getErrorMessage());
         respProcObj.clearErrorMessage();         //clear error message
@@ -596,7 +604,8 @@ public class CallbackProcWrite implements RespCallback
               //if amp/phase output requested then generate (and
               // possibly interpolate) amp/phase data values now:
       final boolean ampPhaOutFlag;
-      if((ampPhaOutFlag=(respTypeIndex!=Run.RESP_CS_TYPEIDX)) &&
+      if((ampPhaOutFlag=(respTypeIndex!=Run.RESP_CS_TYPEIDX &&
+                                  respTypeIndex!=Run.RESP_GD_TYPEIDX)) &&
                                        outGenObj.getAmpPhaseArray() == null)
       {  //error generating amp/phase data
         outStmPrintln(outGenObj.getErrorMessage());
@@ -621,7 +630,8 @@ public class CallbackProcWrite implements RespCallback
       final double fVal;
       if(respObj.stages != null &&
                     outGenObj.getNumCalcStages() >= respObj.stages.length &&
-              !RespUtils.isZero(fVal=RespUtils.getRespSensitivity(respObj)))
+                               !RespUtils.isZero(fVal=RespUtils.
+                         getRespSensitivity(outGenObj.getRespObj())))
       {  //response OK, all stages calc'd & resp sens not zero
               //calc percentage difference in sensitivity values:
         if(Math.abs((fVal-outGenObj.getCalcSensitivity())/fVal) >= 0.05)
@@ -0,0 +1,1714 @@
+//CompiledResponse.java:  Holds a "compiled" version of a 'Response'
+//                        object, with the values needed to evaluate
+//                        each stage resolved into flat arrays.
+//
+//  10/18/2026 -- [AG]  Initial version.
+//  10/18/2026 -- [AG]  Added 'firTransRecur()' and 'iirTransRecur()'
+//                      methods.
+//  10/18/2026 -- [AG]  Added 'firTransRecurLanes()' and
+//                      'iirTransRecurLanes()' methods.
+//  10/18/2026 -- [AG]  Modified 'iirPzTrans()' to evaluate the product of
+//                      the pole and zero terms as a complex value.
+//  10/18/2026 -- [AG]  Added 'polyDerivative()', 'polyDerivatives()' and
+//                      'polyTrans()' methods.
+//  10/18/2026 -- [AG]  Added 'getListStageSplines()' method and
+//                      'ListStageSplines' class.
+//  10/18/2026 -- [AG]  Modified to share the coefficient arrays of stages
+//                      with identical coefficients; added method
+//                      'getSameStageIndex()'.
+//  10/18/2026 -- [AG]  Added 'StageKernel' methods 'iirTransTable()' and
+//                      'firTransTable()'.
+//                      Added 'StageKernel' group-delay methods
+//                      'analogGroupDelay()', 'iirPzGroupDelay()',
+//                      'iirGroupDelay()' and 'firGroupDelay()'.
+//                      Added 'CoeffSet' class, holding the per-term
+//                      tables of a coefficients stage (which do not
+//                      depend on the sample interval), shared by all
+//                      stages with the same coefficients.
+//
+
+package com.isti.jevalresp;
+
+import java.util.HashMap;
+import java.util.Arrays;
+import edu.iris.Fissures.IfNetwork.Response;
+import edu.iris.Fissures.IfNetwork.Stage;
+import edu.iris.Fissures.IfNetwork.TransferType;
+import edu.iris.Fissures.IfNetwork.Filter;
+import edu.iris.Fissures.IfNetwork.FilterType;
+import edu.iris.Fissures.IfNetwork.ComplexNumberErrored;
+import edu.iris.Fissures.IfNetwork.CoefficientErrored;
+import edu.iris.Fissures.IfNetwork.PoleZeroFilter;
+import edu.iris.Fissures.IfNetwork.CoefficientFilter;
+import edu.iris.Fissures.IfNetwork.PolynomialFilter;
+import edu.iris.Fissures.IfNetwork.ListFilter;
+
+/**
+ * Class CompiledResponse holds a "compiled" version of a 'Response'
+ * object.  For each stage the filter type, normalization factor,
+ * sample interval, delay values and filter coefficients are resolved
+ * once (into a 'StageKernel' object), so that a response may be
+ * evaluated over any number of frequencies without traversing the
+ * 'Response' objects.  A 'CompiledResponse' should be created after
+ * the response has been normalized (via 'OutputGenerator' method
+ * 'normalizeResponse()'), and is not modified after it is created.
+ */
+public class CompiledResponse
+{
+    /** Kernel type for stage that is not evaluated (gain-only, etc). */
+  public static final int NO_EVAL_KERNEL = 0;
+    /** Kernel type for analog (Laplace or Hertz) poles/zeros stage. */
+  public static final int ANALOG_PZ_KERNEL = 1;
+    /** Kernel type for digital (Z-transform) poles/zeros stage. */
+  public static final int IIR_PZ_KERNEL = 2;
+    /** Kernel type for FIR coefficients stage. */
+  public static final int FIR_KERNEL = 3;
+    /** Kernel type for IIR coefficients stage. */
+  public static final int IIR_KERNEL = 4;
+    /** Kernel type for response-list stage. */
+  public static final int LIST_KERNEL = 5;
+    /** Kernel type for polynomial stage. */
+  public static final int POLYNOMIAL_KERNEL = 6;
+    /** Kernel type for stage that could not be compiled. */
+  public static final int ERROR_KERNEL = 7;
+    /** Number of terms between re-seedings of rotation recurrences. */
+  public static final int RECUR_RESEED_INTERVAL = 64;
+    /**
+     * Number of frequencies evaluated together by the "...Lanes()"
+     * methods (the 'rotationSumLanes()' method is written for 4).
+     */
+  public static final int NUM_EVAL_LANES = 4;
+
+  protected final Response respObj;                   //source response
+  protected final StageKernel [] stageKernelsArray;   //kernel per stage
+              //index of previous stage with identical kernel (or -1):
+  protected final int [] sameStageIdxArray;
+              //table of List-blockette splines, keyed by stage/tension:
+  protected final HashMap listSplinesMap = new HashMap();
+
+  /**
+   * Creates a compiled version of the given response.  The response
+   * should have already been normalized.  Any errors in the stages are
+   * held in the generated kernels (see 'StageKernel.errorMessage') so
+   * that they may be reported when the stage is evaluated.
+   * @param respObj the response object to use.
+   */
+  public CompiledResponse(Response respObj)
+  {
+    this.respObj = respObj;
+    final int numStages = (respObj.stages != null) ?
+                                                 respObj.stages.length : 0;
+    stageKernelsArray = new StageKernel[numStages];
+    sameStageIdxArray = new int[numStages];
+    StageKernel kernelObj;
+    for(int stageNum=0; stageNum<numStages; ++stageNum)
+    {    //for each stage; create kernel for stage
+      kernelObj = compileStage(respObj.stages[stageNum],stageNum);
+      sameStageIdxArray[stageNum] = -1;
+      if(kernelObj.coeffSetObj != null)
+      {  //coefficients stage; check previous stages (latest first)
+        StageKernel prevObj;
+        for(int i=stageNum-1; i>=0; --i)
+        {
+          prevObj = stageKernelsArray[i];
+          if(prevObj.kernelType == kernelObj.kernelType &&
+                                         prevObj.coeffSetObj != null &&
+                     prevObj.coeffSetObj.sameCoeffs(kernelObj.coeffSetObj))
+          {   //previous stage has same coefficients; share coefficient
+              // set (which does not depend on the sample interval):
+            kernelObj = new StageKernel(kernelObj,prevObj.coeffSetObj);
+            if(kernelObj.sameValues(prevObj))
+              sameStageIdxArray[stageNum] = i;     //same kernel values
+            break;
+          }
+        }
+      }
+      stageKernelsArray[stageNum] = kernelObj;
+    }
+  }
+
+  /**
+   * Returns the response object that was compiled.
+   * @return The response object that was compiled.
+   */
+  public Response getResponse()
+  {
+    return respObj;
+  }
+
+  /**
+   * Returns the number of stages in the compiled response.
+   * @return The number of stages in the compiled response.
+   */
+  public int getNumStages()
+  {
+    return stageKernelsArray.length;
+  }
+
+  /**
+   * Returns the kernel for the given stage.
+   * @param stageIdx the 0-based index of the stage.
+   * @return The 'StageKernel' object for the stage.
+   */
+  public StageKernel getStageKernel(int stageIdx)
+  {
+    return stageKernelsArray[stageIdx];
+  }
+
+  /**
+   * Returns the index of the nearest previous stage whose kernel has the
+   * same values as the kernel for the given stage (same filter type,
+   * coefficients, normalization factor, sample interval and delay
+   * values), so that the value evaluated for that stage (at any
+   * frequency) may be used for the given stage.  Only coefficients
+   * stages are checked.
+   * @param stageIdx the 0-based index of the stage.
+   * @return The 0-based index of the previous stage, or -1 if none.
+   */
+  public int getSameStageIndex(int stageIdx)
+  {
+    return sameStageIdxArray[stageIdx];
+  }
+
+  /**
+   * Returns the splines fitted to the amplitude and phase values of the
+   * Response List Blockette (55) in the given stage.  The splines are
+   * created when first requested for the stage and tension value, and
+   * are then held for reuse (so that the responses of the stage at
+   * different sets of frequencies may be interpolated without fitting
+   * the splines again).  This method is thread-safe.
+   * @param stageIdx the 0-based index of the stage.
+   * @param tension tension value for the splines.
+   * @return A 'ListStageSplines' object (containing any error message
+   * generated while fitting the splines), or null if the stage does
+   * not contain a List filter.
+   */
+  public ListStageSplines getListStageSplines(int stageIdx,double tension)
+  {
+    if(stageKernelsArray[stageIdx].kernelType != LIST_KERNEL)
+      return null;
+    final String keyStr = stageIdx + "," + tension;
+    synchronized(listSplinesMap)
+    {
+      ListStageSplines splinesObj;
+      if((splinesObj=(ListStageSplines)listSplinesMap.get(keyStr)) == null)
+      {  //splines not yet created; create and enter them
+        splinesObj = new ListStageSplines(
+                    respObj.stages[stageIdx].filters[0].list_filter(),tension);
+        listSplinesMap.put(keyStr,splinesObj);
+      }
+      return splinesObj;
+    }
+  }
+
+  /**
+   * Creates a kernel for the given stage.  The checks performed (and
+   * error messages generated) match those done by 'OutputGenerator'
+   * method 'calculateResponse()'.
+   * @param stageObj the stage object to use.
+   * @param stageNum the 0-based index of the stage.
+   * @return A new 'StageKernel' object.
+   */
+  protected static StageKernel compileStage(Stage stageObj,int stageNum)
+  {
+    if(stageObj == null)
+      return new StageKernel("Stage #" + (stageNum+1) + " is null");
+    if(stageObj.filters == null || stageObj.filters.length <= 0)
+      return new StageKernel(NO_EVAL_KERNEL);     //gain-only stage
+    final double normFact;
+    if(stageObj.the_normalization != null &&
+                                    stageObj.the_normalization.length > 0 &&
+                                      stageObj.the_normalization[0] != null)
+    {    //stage contains normalization; save value
+      normFact = stageObj.the_normalization[0].ao_normalization_factor;
+    }
+    else      //stage does not contain normalization
+      normFact = 1.0;        //use default value
+    final Filter filterObj;       //get first filter (assuming only one)
+    if((filterObj=stageObj.filters[0]) == null)
+    {    //no filter object; set error message
+      return new StageKernel("Filter object for stage #" + (stageNum+1) +
+                                                                " is null");
+    }
+    if(filterObj.discriminator().equals(FilterType.POLEZERO))
+    {    //poles/zeros type filter
+      final PoleZeroFilter pzFilterObj = filterObj.pole_zero_filter();
+      if(stageObj.type == TransferType.LAPLACE ||
+                                       stageObj.type == TransferType.ANALOG)
+      {  //analog poles/zeros filter
+        return new StageKernel(ANALOG_PZ_KERNEL,normFact,0.0,
+                  (stageObj.type==TransferType.LAPLACE),pzFilterObj.zeros,
+                                                         pzFilterObj.poles);
+      }
+      if(stageObj.type == TransferType.DIGITAL)
+      {  //digital poles/zeros filter
+        if(pzFilterObj.poles.length <= 0 && pzFilterObj.zeros.length <= 0)
+          return new StageKernel(NO_EVAL_KERNEL);      //empty filter
+        if(stageObj.the_decimation == null ||
+                                        stageObj.the_decimation.length <= 0)
+        {     //decimation required but not given; set error message
+          return new StageKernel("Required decimation not found in " +
+                                                  "stage #" + (stageNum+1));
+        }
+        final Double sIntTimeObj;
+        if((sIntTimeObj=RespUtils.deciToSampIntTime(
+                                       stageObj.the_decimation[0])) == null)
+        {     //unable to process decimation; set error message
+          return new StageKernel("Invalid decimation object in stage #" +
+                                                              (stageNum+1));
+        }
+        return new StageKernel(IIR_PZ_KERNEL,normFact,
+                                   sIntTimeObj.doubleValue(),false,
+                                       pzFilterObj.zeros,pzFilterObj.poles);
+      }
+              //invalid transfer type; set error message
+      return new StageKernel("Invalid transfer type for poles/zeros " +
+                                        "filter in stage #" + (stageNum+1));
+    }
+    if(filterObj.discriminator().equals(FilterType.COEFFICIENT))
+    {    //coefficients type filter
+      if(stageObj.type != TransferType.DIGITAL)
+      {  //invalid transfer type; set error message
+        return new StageKernel("Invalid transfer type for coefficients " +
+                                        "filter in stage #" + (stageNum+1));
+      }
+      if(stageObj.the_decimation == null ||
+                                        stageObj.the_decimation.length <= 0)
+      {  //decimation required but not given; set error message
+        return new StageKernel("Required decimation not found in stage #" +
+                                                              (stageNum+1));
+      }
+      final Double sIntTimeObj;
+      if((sIntTimeObj=RespUtils.deciToSampIntTime(
+                                       stageObj.the_decimation[0])) == null)
+      {  //unable to process decimation; set error message
+        return new StageKernel("Invalid decimation object in stage #" +
+                                                              (stageNum+1));
+      }
+      final CoefficientFilter coeffFilterObj = filterObj.coeff_filter();
+      if(coeffFilterObj.numerator.length <= 0)
+        return new StageKernel(NO_EVAL_KERNEL);        //empty filter
+      if(coeffFilterObj.denominator.length > 0)
+      {  //contains denominators, process as coefficients filter
+        return new StageKernel(normFact,sIntTimeObj.doubleValue(),
+                       coeffFilterObj.numerator,coeffFilterObj.denominator);
+      }
+              //no denominators, process as FIR filter
+      final int firTypeVal = OutputGenerator.determineFirTypeVal(filterObj);
+      final Double estDelayObj,corrAppliedObj;
+      if(firTypeVal == OutputGenerator.FIR_ASYM)
+      {  //asymmetric FIR; fetch delay values for correction
+        estDelayObj = RespUtils.quantityToIntTime(
+                                stageObj.the_decimation[0].estimated_delay);
+        corrAppliedObj = RespUtils.quantityToIntTime(
+                             stageObj.the_decimation[0].correction_applied);
+      }
+      else
+        estDelayObj = corrAppliedObj = null;
+      return new StageKernel(normFact,sIntTimeObj.doubleValue(),
+                     coeffFilterObj.numerator,firTypeVal,estDelayObj,
+                                                            corrAppliedObj);
+    }
+    if(filterObj.discriminator().equals(FilterType.LIST))
+    {    //response list filter
+      final ListFilter lsFilterObj = filterObj.list_filter();
+      return new StageKernel(lsFilterObj.amplitude,lsFilterObj.phase);
+    }
+    if(filterObj.discriminator().equals(FilterType.POLYNOMIAL))
+    {    //polynomial type filter
+      final PolynomialFilter polyFilterObj = filterObj.polynomial_filter();
+      return new StageKernel(polyFilterObj.coeff_err_values);
+    }
+    return new StageKernel(NO_EVAL_KERNEL);      //unknown filter type
+  }
+
+  /**
+   * Converts the given array of coefficients to an array of 'double'
+   * values.
+   * @param coeffsArr array of coefficient objects (may be null).
+   * @return A new array of 'double' values.
+   */
+  protected static double [] toDoubleArray(CoefficientErrored [] coeffsArr)
+  {
+    final int len = (coeffsArr != null) ? coeffsArr.length : 0;
+    final double [] retArr = new double[len];
+    for(int i=0; i<len; ++i)
+      retArr[i] = coeffsArr[i].value;
+    return retArr;
+  }
+
+
+  /**
+   * Class StageKernel holds the values needed to evaluate one stage of
+   * a compiled response.  The calculations done by the '...Trans()'
+   * methods are the same as those done by the corresponding methods
+   * in 'OutputGenerator'.
+   */
+  public static class StageKernel
+  {
+         /** One of the '..._KERNEL' values. */
+    public final int kernelType;
+         /** Error message for stage, or null if none. */
+    public final String errorMessage;
+         /** Normalization factor for stage. */
+    public final double normFact;
+         /** Sample interval time for stage (digital filters). */
+    public final double sIntervalTime;
+         /** True if analog poles/zeros are Laplace (rad/sec). */
+    public final boolean laplaceFlag;
+         /** Real parts of zeros (poles/zeros filters). */
+    public final double [] zerosRealArr;
+         /** Imaginary parts of zeros (poles/zeros filters). */
+    public final double [] zerosImagArr;
+         /** Real parts of poles (poles/zeros filters). */
+    public final double [] polesRealArr;
+         /** Imaginary parts of poles (poles/zeros filters). */
+    public final double [] polesImagArr;
+         /** Numerator values (coefficients filters). */
+    public final double [] numersArr;
+         /** Denominator values (IIR coefficients filters). */
+    public final double [] denomsArr;
+         /** One of the 'OutputGenerator.FIR_...' values (FIR filters). */
+    public final int firTypeVal;
+         /** True if all FIR numerators have the same value. */
+    public final boolean firSameValsFlag;
+         /**
+          * Coefficient values and per-term tables (coefficients
+          * filters), or null if not a coefficients filter.  The object
+          * is shared by all stages with the same coefficients.
+          */
+    public final CoeffSet coeffSetObj;
+         /** Estimated-delay value for FIR_ASYM filter, or null if none. */
+    public final Double estDelayObj;
+         /** Delta ("corrApplied - calcDelay") for FIR_ASYM, or null. */
+    public final Double corrDeltaObj;
+         /** Amplitude values (list filters). */
+    public final float [] listAmpArr;
+         /** Phase values (list filters). */
+    public final float [] listPhaseArr;
+         /** Coefficient values (polynomial filters). */
+    public final float [] polyCoeffsArr;
+
+    /**
+     * Creates a kernel with the given type and no filter values.
+     * @param kernelType one of the '..._KERNEL' values.
+     */
+    protected StageKernel(int kernelType)
+    {
+      this(kernelType,null,1.0,0.0,false,null,null,null,null,null,null,
+                                                   null,null,null,null);
+    }
+
+    /**
+     * Creates a kernel for a stage that could not be compiled.
+     * @param errorMessage the error message for the stage.
+     */
+    protected StageKernel(String errorMessage)
+    {
+      this(ERROR_KERNEL,errorMessage,1.0,0.0,false,null,null,null,null,
+                                              null,null,null,null,null,null);
+    }
+
+    /**
+     * Creates a kernel for a poles/zeros stage.
+     * @param kernelType 'ANALOG_PZ_KERNEL' or 'IIR_PZ_KERNEL'.
+     * @param normFact normalization factor for stage.
+     * @param sIntervalTime sample interval time for stage.
+     * @param laplaceFlag true if analog poles/zeros are Laplace.
+     * @param zerosArr array of zeros.
+     * @param polesArr array of poles.
+     */
+    protected StageKernel(int kernelType,double normFact,
+                     double sIntervalTime,boolean laplaceFlag,
+             ComplexNumberErrored [] zerosArr,ComplexNumberErrored [] polesArr)
+    {
+      this(kernelType,null,normFact,sIntervalTime,laplaceFlag,
+                  realParts(zerosArr),imagParts(zerosArr),realParts(polesArr),
+                        imagParts(polesArr),null,null,null,null,null,null);
+    }
+
+    /**
+     * Creates a kernel for an IIR coefficients stage.
+     * @param normFact normalization factor for stage.
+     * @param sIntervalTime sample interval time for stage.
+     * @param numersArr array of numerators.
+     * @param denomsArr array of denominators.
+     */
+    protected StageKernel(double normFact,double sIntervalTime,
+               CoefficientErrored [] numersArr,CoefficientErrored [] denomsArr)
+    {
+      this(IIR_KERNEL,null,normFact,sIntervalTime,false,null,null,null,null,
+                  new CoeffSet(toDoubleArray(numersArr),
+                             toDoubleArray(denomsArr),
+                                    OutputGenerator.FIR_UNKNOWN,false),
+                                                null,null,null,null,null);
+    }
+
+    /**
+     * Creates a kernel for an FIR coefficients stage.
+     * @param normFact normalization factor for stage.
+     * @param sIntervalTime sample interval time for stage.
+     * @param numersArr array of numerators.
+     * @param firTypeVal one of the 'OutputGenerator.FIR_...' values.
+     * @param estDelayObj estimated-delay value, or null if none.
+     * @param corrAppliedObj correction-applied value, or null if none.
+     */
+    protected StageKernel(double normFact,double sIntervalTime,
+                                  CoefficientErrored [] numersArr,
+                  int firTypeVal,Double estDelayObj,Double corrAppliedObj)
+    {
+      this(FIR_KERNEL,null,normFact,sIntervalTime,false,null,null,null,null,
+                     new CoeffSet(toDoubleArray(numersArr),null,firTypeVal,
+                                            allSameValues(numersArr)),
+                          estDelayObj,
+                            ((corrAppliedObj != null) ? new Double(
+                                         corrAppliedObj.doubleValue() -
+                                    ((((double)(numersArr.length-1))/2) *
+                                              sIntervalTime)) : null),
+                                                          null,null,null);
+    }
+
+    /**
+     * Creates a kernel for a response-list stage.
+     * @param listAmpArr array of amplitude values.
+     * @param listPhaseArr array of phase values.
+     */
+    protected StageKernel(float [] listAmpArr,float [] listPhaseArr)
+    {
+      this(LIST_KERNEL,null,1.0,0.0,false,null,null,null,null,null,null,
+                                         null,listAmpArr,listPhaseArr,null);
+    }
+
+    /**
+     * Creates a kernel for a polynomial stage.
+     * @param coeffsArr array of coefficients (may be null).
+     */
+    protected StageKernel(CoefficientErrored [] coeffsArr)
+    {
+      this(POLYNOMIAL_KERNEL,null,1.0,0.0,false,null,null,null,null,null,
+                               null,null,null,null,toFloatArray(coeffsArr));
+    }
+
+    /**
+     * Creates a copy of the given coefficients-stage kernel that uses
+     * the given coefficient set (from a stage with the same
+     * coefficients), so that the stages share the coefficient arrays
+     * and per-term tables.  The stages may have different sample
+     * intervals.
+     * @param srcObj the kernel to copy.
+     * @param coeffSetObj the coefficient set to use.
+     */
+    protected StageKernel(StageKernel srcObj,CoeffSet coeffSetObj)
+    {
+      this(srcObj.kernelType,srcObj.errorMessage,srcObj.normFact,
+                      srcObj.sIntervalTime,srcObj.laplaceFlag,null,null,null,
+                 null,coeffSetObj,srcObj.estDelayObj,srcObj.corrDeltaObj,
+                                                           null,null,null);
+    }
+
+    /**
+     * Creates a kernel, entering all values.
+     */
+    private StageKernel(int kernelType,String errorMessage,double normFact,
+                            double sIntervalTime,boolean laplaceFlag,
+              double [] zerosRealArr,double [] zerosImagArr,
+              double [] polesRealArr,double [] polesImagArr,
+              CoeffSet coeffSetObj,Double estDelayObj,Double corrDeltaObj,
+                 float [] listAmpArr,float [] listPhaseArr,
+                                                     float [] polyCoeffsArr)
+    {
+      this.kernelType = kernelType;
+      this.errorMessage = errorMessage;
+      this.normFact = normFact;
+      this.sIntervalTime = sIntervalTime;
+      this.laplaceFlag = laplaceFlag;
+      this.zerosRealArr = zerosRealArr;
+      this.zerosImagArr = zerosImagArr;
+      this.polesRealArr = polesRealArr;
+      this.polesImagArr = polesImagArr;
+      this.coeffSetObj = coeffSetObj;
+      if(coeffSetObj != null)
+      {  //coefficients filter; enter values from coefficient set
+        numersArr = coeffSetObj.numersArr;
+        denomsArr = coeffSetObj.denomsArr;
+        firTypeVal = coeffSetObj.firTypeVal;
+        firSameValsFlag = coeffSetObj.firSameValsFlag;
+      }
+      else
+      {  //not coefficients filter
+        numersArr = denomsArr = null;
+        firTypeVal = OutputGenerator.FIR_UNKNOWN;
+        firSameValsFlag = false;
+      }
+      this.estDelayObj = estDelayObj;
+      this.corrDeltaObj = corrDeltaObj;
+      this.listAmpArr = listAmpArr;
+      this.listPhaseArr = listPhaseArr;
+      this.polyCoeffsArr = polyCoeffsArr;
+    }
+
+    /**
+     * Determines if the given coefficients-stage kernel has the same
+     * values as this kernel (where the coefficient sets are compared
+     * by reference).
+     * @param kernelObj the kernel to compare.
+     * @return true if the given kernel has the same values.
+     */
+    protected boolean sameValues(StageKernel kernelObj)
+    {
+      return kernelType == kernelObj.kernelType &&
+                                  coeffSetObj == kernelObj.coeffSetObj &&
+                          Double.doubleToLongBits(normFact) ==
+                             Double.doubleToLongBits(kernelObj.normFact) &&
+                          Double.doubleToLongBits(sIntervalTime) ==
+                        Double.doubleToLongBits(kernelObj.sIntervalTime) &&
+                      sameDoubleObj(estDelayObj,kernelObj.estDelayObj) &&
+                        sameDoubleObj(corrDeltaObj,kernelObj.corrDeltaObj);
+    }
+
+    /**
+     * Determines if the given 'Double' objects are both null or hold the
+     * same value.
+     * @param obj1 first object (may be null).
+     * @param obj2 second object (may be null).
+     * @return true if the objects are both null or hold the same value.
+     */
+    protected static boolean sameDoubleObj(Double obj1,Double obj2)
+    {
+      return (obj1 == null) ? (obj2 == null) : obj1.equals(obj2);
+    }
+
+    /**
+     * Calculates the response of an analog poles/zeros filter.  No
+     * objects are allocated by this method.
+     * @param freq the frequency value to use (in Hertz; converted to
+     * radians/second if a Laplace filter).
+     * @param outArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the response.
+     */
+    public void analogTrans(double freq,double [] outArr)
+    {
+      if(laplaceFlag)                  //if Laplace then convert to
+        freq = OutputGenerator.TWO_PI * freq;       //radians/second
+                        //omega = (0.0,freq); num = denom = (1.0,1.0):
+      double numReal = 1.0, numImag = 1.0, denReal = 1.0, denImag = 1.0;
+      double rVal, iVal, tVal;
+      final int numZeros = zerosRealArr.length;
+      final int numPoles = polesRealArr.length;
+      int i;
+      for(i=0; i<numZeros; i++)
+      {  //for each zero, numerator=numerator*(omega-zero[i])
+        rVal = 0.0 - zerosRealArr[i];
+        iVal = freq - zerosImagArr[i];
+        tVal = numReal*rVal - numImag*iVal;
+        numImag = numImag*rVal + numReal*iVal;
+        numReal = tVal;
+      }
+      for(i=0; i<numPoles; i++)
+      {  //for each pole, denominator=denominator*(omega-pole[i])
+        rVal = 0.0 - polesRealArr[i];
+        iVal = freq - polesImagArr[i];
+        tVal = denReal*rVal - denImag*iVal;
+        denImag = denImag*rVal + denReal*iVal;
+        denReal = tVal;
+      }
+           //gain*num/denum
+      final double conjImag = -denImag;
+      rVal = denReal*numReal - conjImag*numImag;
+      iVal = conjImag*numReal + denReal*numImag;
+      final double modSquared = denReal*denReal + denImag*denImag;
+      rVal /= modSquared;
+      iVal /= modSquared;
+      outArr[0] = normFact*rVal;
+      outArr[1] = normFact*iVal;
+    }
+
+    /**
+     * Calculates the response of a "Digital (Z - transform)" IIR
+     * poles/zeros filter.  The products of the (z - zero) and
+     * (z - pole) terms are formed as complex values and then divided,
+     * so no square-root or arctangent evaluations are needed for each
+     * pole and zero.  No objects are allocated by this method.
+     * @param wVal the frequency value to use (radians/second).
+     * @param outArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the response.
+     */
+    public void iirPzTrans(double wVal,double [] outArr)
+    {
+      final int numZeros = zerosRealArr.length;
+      final int numPoles = polesRealArr.length;
+                        //calculate radial freq. time sample interval:
+      final double wsint = wVal * sIntervalTime;
+      final double cosWsint = Math.cos(wsint);
+      final double sinWsint = Math.sin(wsint);
+      double numReal = 1.0, numImag = 0.0, denReal = 1.0, denImag = 0.0;
+      double rVal, iVal, tVal;
+      int i;
+      for(i=0; i<numZeros; i++)
+      {  //for each zero, numerator=numerator*(z-zero[i])
+        rVal = cosWsint - zerosRealArr[i];
+        iVal = sinWsint - zerosImagArr[i];
+        tVal = numReal*rVal - numImag*iVal;
+        numImag = numImag*rVal + numReal*iVal;
+        numReal = tVal;
+      }
+      for(i=0; i<numPoles; i++)
+      {  //for each pole, denominator=denominator*(z-pole[i])
+        rVal = cosWsint - polesRealArr[i];
+        iVal = sinWsint - polesImagArr[i];
+        tVal = denReal*rVal - denImag*iVal;
+        denImag = denImag*rVal + denReal*iVal;
+        denReal = tVal;
+      }
+      ComplexBlk.zDivide(numReal,numImag,denReal,denImag,outArr);
+      outArr[0] *= normFact;
+      outArr[1] *= normFact;
+    }
+
+    /**
+     * Calculates the response of a digital IIR coefficients filter.  No
+     * objects are allocated by this method.
+     * @param wVal the frequency value to use (radians/second).
+     * @param outArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the response.
+     */
+    public void iirTrans(double wVal,double [] outArr)
+    {
+      final int numNumers = numersArr.length;
+      final int numDenoms = denomsArr.length;
+                        //calculate radial freq. time sample interval:
+      final double wsint = wVal * sIntervalTime;
+      double xre,xim,phase,amp;
+      int i;
+           //process numerator:
+      if(numNumers > 0)
+      {
+        xre = numersArr[0];
+        xim = 0.0;
+        for(i=1; i<numNumers; ++i)
+        {
+          xre += numersArr[i] * Math.cos(-(i*wsint));
+          xim += numersArr[i] * Math.sin(-(i*wsint));
+        }
+        amp = Math.sqrt(xre*xre + xim*xim);
+        phase = Math.atan2(xim,xre);
+      }
+      else
+        amp = phase = 0.0;
+           //process denominator:
+      if(numDenoms > 0)
+      {
+        xre = denomsArr[0];
+        xim = 0.0;
+        for(i=1; i<numDenoms; ++i)
+        {
+          xre += denomsArr[i] * Math.cos(-(i*wsint));
+          xim += denomsArr[i] * Math.sin(-(i*wsint));
+        }
+        amp /= Math.sqrt(xre*xre+xim*xim);
+        phase -= Math.atan2(xim,xre);
+      }
+      outArr[0] = amp*Math.cos(phase)*normFact;
+      outArr[1] = amp*Math.sin(phase)*normFact;
+    }
+
+    /**
+     * Calculates the response of a digital FIR filter.  No objects are
+     * allocated by this method.  The FIR_ASYM delay correction is not
+     * applied by this method.
+     * @param wVal the frequency value to use (radians/second).
+     * @param outArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the response.
+     */
+    public void firTrans(double wVal,double [] outArr)
+    {
+      final int numCoeffs = numersArr.length;
+                        //calculate radial freq. time sample interval:
+      final double wsint = wVal * sIntervalTime;
+      if(numCoeffs <= 0)
+      {  //no coefficients; return dummy value
+        outArr[0] = outArr[1] = 0.0;
+        return;
+      }
+      final double [] tapCoeffsArr = coeffSetObj.tapCoeffsArr;
+      final double [] tapFactsArr = coeffSetObj.tapFactsArr;
+      final int numTaps = tapCoeffsArr.length;
+      if(firTypeVal == OutputGenerator.FIR_SYM1)
+      {  //FIR type is symmetrical 1
+        double rVal = 0.0;
+        for(int i=0; i<numTaps; ++i)
+          rVal += tapCoeffsArr[i] * Math.cos(wsint*tapFactsArr[i]);
+        outArr[0] = (coeffSetObj.centerCoeff+(2.0*rVal))*normFact;
+        outArr[1] = 0.0;
+      }
+      else if(firTypeVal == OutputGenerator.FIR_SYM2)
+      {  //FIR type is symmetrical 2
+        double rVal = 0.0;
+        for(int i=0; i<numTaps; ++i)
+          rVal += tapCoeffsArr[i] * Math.cos(wsint*tapFactsArr[i]);
+        outArr[0] = 2.0*rVal*normFact;
+        outArr[1] = 0.0;
+      }
+      else if(firSameValsFlag)
+      {  //FIR type is asymmetrical and all coefficients have same value
+        outArr[0] = (wsint == 0.0) ? 1.0 :
+                                 ((Math.sin(wsint/2.0*numCoeffs) /
+                                       Math.sin(wsint/2.0))*numersArr[0]);
+        outArr[1] = 0.0;
+      }
+      else
+      {  //FIR type is asymmetrical
+        double val, rVal = 0.0, iVal = 0.0;
+        for(int i=0; i<numTaps; ++i)
+        {
+          val = wsint * tapFactsArr[i];
+          rVal += tapCoeffsArr[i] * Math.cos(val);
+          iVal += tapCoeffsArr[i] * -Math.sin(val);
+        }
+        final double mod = Math.sqrt(rVal*rVal + iVal*iVal);
+        final double pha = Math.atan2(iVal,rVal) +
+                           (wVal*(double)((numCoeffs-1)/2.0)*sIntervalTime);
+        outArr[0] = mod*Math.cos(pha)*normFact;
+        outArr[1] = mod*Math.sin(pha)*normFact;
+      }
+    }
+
+    /**
+     * Calculates the response of a digital IIR coefficients filter,
+     * using cosine/sine values from a table in place of the cosine/sine
+     * calls made by 'iirTrans()' (with the same results).  No objects
+     * are allocated by this method.
+     * @param wVal the frequency value to use (radians/second).
+     * @param cosArr array of cosine values for terms "m*wsint".
+     * @param sinArr array of sine values for terms "m*wsint".
+     * @param offs index of the value for term 0 in the arrays.
+     * @param outArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the response.
+     */
+    public void iirTransTable(double wVal,double [] cosArr,
+                            double [] sinArr,int offs,double [] outArr)
+    {
+      final int numNumers = numersArr.length;
+      final int numDenoms = denomsArr.length;
+      double xre,xim,phase,amp;
+      int i;
+           //process numerator:
+      if(numNumers > 0)
+      {
+        xre = numersArr[0];
+        xim = 0.0;
+        for(i=1; i<numNumers; ++i)
+        {
+          xre += numersArr[i] * cosArr[offs+i];
+          xim += numersArr[i] * -sinArr[offs+i];
+        }
+        amp = Math.sqrt(xre*xre + xim*xim);
+        phase = Math.atan2(xim,xre);
+      }
+      else
+        amp = phase = 0.0;
+           //process denominator:
+      if(numDenoms > 0)
+      {
+        xre = denomsArr[0];
+        xim = 0.0;
+        for(i=1; i<numDenoms; ++i)
+        {
+          xre += denomsArr[i] * cosArr[offs+i];
+          xim += denomsArr[i] * -sinArr[offs+i];
+        }
+        amp /= Math.sqrt(xre*xre+xim*xim);
+        phase -= Math.atan2(xim,xre);
+      }
+      outArr[0] = amp*Math.cos(phase)*normFact;
+      outArr[1] = amp*Math.sin(phase)*normFact;
+    }
+
+    /**
+     * Calculates the response of a digital FIR filter, using cosine/sine
+     * values from a table in place of the cosine/sine calls made by
+     * 'firTrans()' (with the same results).  For FIR_SYM2 filters the
+     * table values are for terms "(m+0.5)*wsint"; otherwise they are
+     * for terms "m*wsint".  No objects are allocated by this method.
+     * The FIR_ASYM delay correction is not applied by this method.
+     * @param wVal the frequency value to use (radians/second).
+     * @param cosArr array of cosine values for terms.
+     * @param sinArr array of sine values for terms.
+     * @param offs index of the value for term 0 in the arrays.
+     * @param outArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the response.
+     */
+    public void firTransTable(double wVal,double [] cosArr,
+                            double [] sinArr,int offs,double [] outArr)
+    {
+      final int numCoeffs = numersArr.length;
+      if(numCoeffs <= 0 || (firSameValsFlag &&
+                                 firTypeVal != OutputGenerator.FIR_SYM1 &&
+                                  firTypeVal != OutputGenerator.FIR_SYM2))
+      {  //no coefficients or all same values; table not used
+        firTrans(wVal,outArr);
+        return;
+      }
+      final double [] tapCoeffsArr = coeffSetObj.tapCoeffsArr;
+      final int [] tapTermsArr = coeffSetObj.tapTermsArr;
+      final int numTaps = tapCoeffsArr.length;
+      if(firTypeVal == OutputGenerator.FIR_SYM1)
+      {  //FIR type is symmetrical 1
+        double rVal = 0.0;
+        for(int i=0; i<numTaps; ++i)
+          rVal += tapCoeffsArr[i] * cosArr[offs+tapTermsArr[i]];
+        outArr[0] = (coeffSetObj.centerCoeff+(2.0*rVal))*normFact;
+        outArr[1] = 0.0;
+      }
+      else if(firTypeVal == OutputGenerator.FIR_SYM2)
+      {  //FIR type is symmetrical 2
+        double rVal = 0.0;
+        for(int i=0; i<numTaps; ++i)
+          rVal += tapCoeffsArr[i] * cosArr[offs+tapTermsArr[i]];
+        outArr[0] = 2.0*rVal*normFact;
+        outArr[1] = 0.0;
+      }
+      else
+      {  //FIR type is asymmetrical
+        double rVal = 0.0, iVal = 0.0;
+        for(int i=0; i<numTaps; ++i)
+        {
+          rVal += tapCoeffsArr[i] * cosArr[offs+tapTermsArr[i]];
+          iVal += tapCoeffsArr[i] * -sinArr[offs+tapTermsArr[i]];
+        }
+        final double mod = Math.sqrt(rVal*rVal + iVal*iVal);
+        final double pha = Math.atan2(iVal,rVal) +
+                           (wVal*(double)((numCoeffs-1)/2.0)*sIntervalTime);
+        outArr[0] = mod*Math.cos(pha)*normFact;
+        outArr[1] = mod*Math.sin(pha)*normFact;
+      }
+    }
+
+    /**
+     * Calculates the group delay (the negated derivative of the phase
+     * with respect to radial frequency) of an analog poles/zeros filter,
+     * from the poles and zeros.  No objects are allocated by this method.
+     * @param freq the frequency value to use (Hz).
+     * @return The group delay, in seconds.
+     */
+    public double analogGroupDelay(double freq)
+    {
+              //the phase of each "(omega-zero)" term is the arctangent of
+              // "(freq-zeroImag)/(-zeroReal)", with derivative (with
+              // respect to 'freq') of "-zeroReal/|omega-zero|^2":
+      final double omegaVal = laplaceFlag ?
+                                    (OutputGenerator.TWO_PI * freq) : freq;
+      double rVal, iVal, sumVal = 0.0;
+      int i;
+      for(i=0; i<zerosRealArr.length; i++)
+      {  //for each zero; add in derivative of phase of term
+        rVal = zerosRealArr[i];
+        iVal = omegaVal - zerosImagArr[i];
+        sumVal -= rVal / (rVal*rVal + iVal*iVal);
+      }
+      for(i=0; i<polesRealArr.length; i++)
+      {  //for each pole; subtract derivative of phase of term
+        rVal = polesRealArr[i];
+        iVal = omegaVal - polesImagArr[i];
+        sumVal += rVal / (rVal*rVal + iVal*iVal);
+      }
+              //negate and convert derivative to be w.r.t. radians/sec:
+      return laplaceFlag ? -sumVal : -sumVal/OutputGenerator.TWO_PI;
+    }
+
+    /**
+     * Calculates the group delay (the negated derivative of the phase
+     * with respect to radial frequency) of a "Digital (Z - transform)"
+     * IIR poles/zeros filter, from the poles and zeros.  No objects are
+     * allocated by this method.
+     * @param wVal the frequency value to use (radians/second).
+     * @return The group delay, in seconds.
+     */
+    public double iirPzGroupDelay(double wVal)
+    {
+              //the derivative of the phase of each "(z-zero)" term (with
+              // respect to 'wsint') is "(1-Re(zero*conj(z)))/|z-zero|^2":
+      final double wsint = wVal * sIntervalTime;
+      final double cosWsint = Math.cos(wsint);
+      final double sinWsint = Math.sin(wsint);
+      double rVal, iVal, sumVal = 0.0;
+      int i;
+      for(i=0; i<zerosRealArr.length; i++)
+      {  //for each zero; add in derivative of phase of term
+        rVal = cosWsint - zerosRealArr[i];
+        iVal = sinWsint - zerosImagArr[i];
+        sumVal += (1.0 - zerosRealArr[i]*cosWsint -
+                 zerosImagArr[i]*sinWsint) / (rVal*rVal + iVal*iVal);
+      }
+      for(i=0; i<polesRealArr.length; i++)
+      {  //for each pole; subtract derivative of phase of term
+        rVal = cosWsint - polesRealArr[i];
+        iVal = sinWsint - polesImagArr[i];
+        sumVal -= (1.0 - polesRealArr[i]*cosWsint -
+                 polesImagArr[i]*sinWsint) / (rVal*rVal + iVal*iVal);
+      }
+      return -sumVal * sIntervalTime;
+    }
+
+    /**
+     * Calculates the group delay (the negated derivative of the phase
+     * with respect to radial frequency) of a digital IIR coefficients
+     * filter, from the coefficients.  No objects are allocated by this
+     * method.
+     * @param wVal the frequency value to use (radians/second).
+     * @return The group delay, in seconds.
+     */
+    public double iirGroupDelay(double wVal)
+    {
+      final double wsint = wVal * sIntervalTime;
+      return (coeffsGroupDelay(numersArr,numersArr.length,wsint) -
+             coeffsGroupDelay(denomsArr,denomsArr.length,wsint)) *
+                                                              sIntervalTime;
+    }
+
+    /**
+     * Calculates the group delay (the negated derivative of the phase
+     * with respect to radial frequency) of a digital FIR filter, from
+     * the coefficients, for the response values calculated by
+     * 'firTrans()'.  The FIR_ASYM delay correction is not applied by
+     * this method.  No objects are allocated by this method.
+     * @param wVal the frequency value to use (radians/second).
+     * @return The group delay, in seconds.
+     */
+    public double firGroupDelay(double wVal)
+    {
+      final int numCoeffs = numersArr.length;
+      if(numCoeffs <= 0 || firSameValsFlag ||
+                                   firTypeVal == OutputGenerator.FIR_SYM1 ||
+                                   firTypeVal == OutputGenerator.FIR_SYM2)
+      {  //response values are real (zero phase)
+        return 0.0;
+      }
+              //'firTrans()' adds "wVal*(numCoeffs-1)/2*sIntervalTime"
+              // to the phase of the FIR_ASYM response:
+      return (coeffsGroupDelay(numersArr,numCoeffs,wVal*sIntervalTime) -
+                         (numCoeffs-1)/2.0) * sIntervalTime;
+    }
+
+    /**
+     * Calculates the negated derivative (with respect to 'wsint') of
+     * the phase of the sum "coeffs[m]*exp(-i*m*wsint)", which is the
+     * real part of "sum(m*coeffs[m]*exp(-i*m*wsint)) /
+     * sum(coeffs[m]*exp(-i*m*wsint))".
+     * @param coeffsArr array of coefficients.
+     * @param numCoeffs number of coefficients to use.
+     * @param wsint radial frequency times sample interval.
+     * @return The negated derivative of the phase, or 0.0 if no
+     * coefficients.
+     */
+    protected static double coeffsGroupDelay(double [] coeffsArr,
+                                               int numCoeffs,double wsint)
+    {
+      if(numCoeffs <= 0)
+        return 0.0;
+      double sumReal = 0.0, sumImag = 0.0, derReal = 0.0, derImag = 0.0;
+      double cosVal, sinVal;
+      for(int m=0; m<numCoeffs; ++m)
+      {  //for each coefficient
+        cosVal = coeffsArr[m] * Math.cos(wsint*m);
+        sinVal = -coeffsArr[m] * Math.sin(wsint*m);
+        sumReal += cosVal;
+        sumImag += sinVal;
+        derReal += m * cosVal;
+        derImag += m * sinVal;
+      }
+      return (derReal*sumReal + derImag*sumImag) /
+                                         (sumReal*sumReal + sumImag*sumImag);
+    }
+
+    /**
+     * Calculates the response of a digital FIR filter, using a complex
+     * rotation recurrence in place of most of the cosine/sine calls
+     * made by 'firTrans()'.  The recurrence is re-seeded with directly
+     * computed values every 'RECUR_RESEED_INTERVAL' terms to bound the
+     * accumulation of rounding error.  No objects are allocated by this
+     * method.  The FIR_ASYM delay correction is not applied by this
+     * method.
+     * @param wVal the frequency value to use (radians/second).
+     * @param outArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the response.
+     */
+    public void firTransRecur(double wVal,double [] outArr)
+    {
+      final int numCoeffs = numersArr.length;
+                        //calculate radial freq. time sample interval:
+      final double wsint = wVal * sIntervalTime;
+      if(numCoeffs <= 0)
+      {  //no coefficients; return dummy value
+        outArr[0] = outArr[1] = 0.0;
+        return;
+      }
+      if(firSameValsFlag && firTypeVal != OutputGenerator.FIR_SYM1 &&
+                                    firTypeVal != OutputGenerator.FIR_SYM2)
+      {  //FIR type is asymmetrical and all coefficients have same value
+        outArr[0] = (wsint == 0.0) ? 1.0 :
+                                 ((Math.sin(wsint/2.0*numCoeffs) /
+                                       Math.sin(wsint/2.0))*numersArr[0]);
+        outArr[1] = 0.0;
+      }
+      else
+      {  //sum "coeffs[m]*exp(i*(startFact+m)*wsint)" over terms
+        rotationSum(numersArr,coeffSetObj.recurFirstIdx,
+                        coeffSetObj.recurIdxStep,coeffSetObj.recurCount,
+                              coeffSetObj.recurStartFact,wsint,outArr);
+        finishFirRecur(wVal,outArr[0],outArr[1],outArr);
+      }
+    }
+
+    /**
+     * Calculates the response of a digital FIR filter over a range of
+     * frequencies, with the same results as calling 'firTransRecur()'
+     * for each frequency.  Groups of 'NUM_EVAL_LANES' frequencies are
+     * evaluated together, in a single pass over the coefficients, so
+     * that the independent recurrences for the frequencies may be
+     * overlapped by the processor.  The FIR_ASYM delay correction is
+     * not applied by this method.
+     * @param freqArray array of frequency values (Hz).
+     * @param fromIdx index of first frequency to evaluate.
+     * @param toIdx index of last frequency to evaluate, plus one.
+     * @param realArr array that receives the real parts of the response
+     * values (at the same indices as the frequencies).
+     * @param imagArr array that receives the imaginary parts of the
+     * response values (at the same indices as the frequencies).
+     */
+    public void firTransRecurLanes(double [] freqArray,int fromIdx,
+                         int toIdx,double [] realArr,double [] imagArr)
+    {
+      final int numCoeffs = numersArr.length;
+      final double [] ofArr = new double[2];
+      int fIdx = fromIdx;
+      if(numCoeffs > 0 && (firTypeVal == OutputGenerator.FIR_SYM1 ||
+                               firTypeVal == OutputGenerator.FIR_SYM2 ||
+                                                         !firSameValsFlag))
+      {  //FIR type evaluated via rotation sums
+        final int firstIdx = coeffSetObj.recurFirstIdx;
+        final int idxStep = coeffSetObj.recurIdxStep;
+        final int count = coeffSetObj.recurCount;
+        final double startFact = coeffSetObj.recurStartFact;
+        final double [] wArr = new double[NUM_EVAL_LANES];
+        final double [] wsintArr = new double[NUM_EVAL_LANES];
+        final double [] rSumArr = new double[NUM_EVAL_LANES];
+        final double [] iSumArr = new double[NUM_EVAL_LANES];
+        int k;
+        while(fIdx + NUM_EVAL_LANES <= toIdx)
+        {     //for each full group of frequencies
+          for(k=0; k<NUM_EVAL_LANES; ++k)
+          {
+            wArr[k] = OutputGenerator.TWO_PI * freqArray[fIdx+k];
+            wsintArr[k] = wArr[k] * sIntervalTime;
+          }
+          rotationSumLanes(numersArr,firstIdx,idxStep,count,startFact,
+                                                 wsintArr,rSumArr,iSumArr);
+          for(k=0; k<NUM_EVAL_LANES; ++k)
+          {
+            finishFirRecur(wArr[k],rSumArr[k],iSumArr[k],ofArr);
+            realArr[fIdx] = ofArr[0];
+            imagArr[fIdx] = ofArr[1];
+            ++fIdx;
+          }
+        }
+      }
+      while(fIdx < toIdx)
+      {  //for each remaining frequency; evaluate separately
+        firTransRecur(OutputGenerator.TWO_PI*freqArray[fIdx],ofArr);
+        realArr[fIdx] = ofArr[0];
+        imagArr[fIdx] = ofArr[1];
+        ++fIdx;
+      }
+    }
+
+    /**
+     * Calculates the response of a digital FIR filter from the sum
+     * generated via 'rotationSum()' (for FIR types other than
+     * asymmetrical with all coefficients the same value).
+     * @param wVal the frequency value to use (radians/second).
+     * @param rSum real part of sum.
+     * @param iSum imaginary part of sum.
+     * @param outArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the response.
+     */
+    protected void finishFirRecur(double wVal,double rSum,double iSum,
+                                                          double [] outArr)
+    {
+      if(firTypeVal == OutputGenerator.FIR_SYM1)
+      {  //FIR type is symmetrical 1
+        outArr[0] = (coeffSetObj.centerCoeff+(2.0*rSum))*normFact;
+        outArr[1] = 0.0;
+      }
+      else if(firTypeVal == OutputGenerator.FIR_SYM2)
+      {  //FIR type is symmetrical 2
+        outArr[0] = 2.0*rSum*normFact;
+        outArr[1] = 0.0;
+      }
+      else
+      {  //FIR type is asymmetrical
+        final double rVal = rSum, iVal = -iSum;
+        final double mod = Math.sqrt(rVal*rVal + iVal*iVal);
+        final double pha = Math.atan2(iVal,rVal) +
+                  (wVal*(double)((numersArr.length-1)/2.0)*sIntervalTime);
+        outArr[0] = mod*Math.cos(pha)*normFact;
+        outArr[1] = mod*Math.sin(pha)*normFact;
+      }
+    }
+
+    /**
+     * Calculates the response of a digital IIR coefficients filter,
+     * using a complex rotation recurrence in place of most of the
+     * cosine/sine calls made by 'iirTrans()'.  The recurrence is
+     * re-seeded with directly computed values every
+     * 'RECUR_RESEED_INTERVAL' terms to bound the accumulation of
+     * rounding error.  No objects are allocated by this method.
+     * @param wVal the frequency value to use (radians/second).
+     * @param outArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the response.
+     */
+    public void iirTransRecur(double wVal,double [] outArr)
+    {
+                        //calculate radial freq. time sample interval:
+      final double wsint = wVal * sIntervalTime;
+      double xre,xim,phase,amp;
+           //process numerator:
+      if(numersArr.length > 0)
+      {
+        rotationSum(numersArr,0,1,numersArr.length,0.0,wsint,outArr);
+        xre = outArr[0];
+        xim = -outArr[1];
+        amp = Math.sqrt(xre*xre + xim*xim);
+        phase = Math.atan2(xim,xre);
+      }
+      else
+        amp = phase = 0.0;
+           //process denominator:
+      if(denomsArr.length > 0)
+      {
+        rotationSum(denomsArr,0,1,denomsArr.length,0.0,wsint,outArr);
+        xre = outArr[0];
+        xim = -outArr[1];
+        amp /= Math.sqrt(xre*xre+xim*xim);
+        phase -= Math.atan2(xim,xre);
+      }
+      outArr[0] = amp*Math.cos(phase)*normFact;
+      outArr[1] = amp*Math.sin(phase)*normFact;
+    }
+
+    /**
+     * Calculates the response of a digital IIR coefficients filter over
+     * a range of frequencies, with the same results as calling
+     * 'iirTransRecur()' for each frequency.  Groups of 'NUM_EVAL_LANES'
+     * frequencies are evaluated together, in a single pass over the
+     * coefficients, so that the independent recurrences for the
+     * frequencies may be overlapped by the processor.
+     * @param freqArray array of frequency values (Hz).
+     * @param fromIdx index of first frequency to evaluate.
+     * @param toIdx index of last frequency to evaluate, plus one.
+     * @param realArr array that receives the real parts of the response
+     * values (at the same indices as the frequencies).
+     * @param imagArr array that receives the imaginary parts of the
+     * response values (at the same indices as the frequencies).
+     */
+    public void iirTransRecurLanes(double [] freqArray,int fromIdx,
+                         int toIdx,double [] realArr,double [] imagArr)
+    {
+      final double [] ofArr = new double[2];
+      int fIdx = fromIdx;
+      if(numersArr.length > 0 && denomsArr.length > 0)
+      {  //numerators and denominators available
+        final double [] wsintArr = new double[NUM_EVAL_LANES];
+        final double [] nRealArr = new double[NUM_EVAL_LANES];
+        final double [] nImagArr = new double[NUM_EVAL_LANES];
+        final double [] dRealArr = new double[NUM_EVAL_LANES];
+        final double [] dImagArr = new double[NUM_EVAL_LANES];
+        double xre,xim,phase,amp;
+        int k;
+        while(fIdx + NUM_EVAL_LANES <= toIdx)
+        {     //for each full group of frequencies
+          for(k=0; k<NUM_EVAL_LANES; ++k)
+          {
+            wsintArr[k] = (OutputGenerator.TWO_PI * freqArray[fIdx+k]) *
+                                                              sIntervalTime;
+          }
+          rotationSumLanes(numersArr,0,1,numersArr.length,0.0,
+                                               wsintArr,nRealArr,nImagArr);
+          rotationSumLanes(denomsArr,0,1,denomsArr.length,0.0,
+                                               wsintArr,dRealArr,dImagArr);
+          for(k=0; k<NUM_EVAL_LANES; ++k)
+          {
+            xre = nRealArr[k];
+            xim = -nImagArr[k];
+            amp = Math.sqrt(xre*xre + xim*xim);
+            phase = Math.atan2(xim,xre);
+            xre = dRealArr[k];
+            xim = -dImagArr[k];
+            amp /= Math.sqrt(xre*xre+xim*xim);
+            phase -= Math.atan2(xim,xre);
+            realArr[fIdx] = amp*Math.cos(phase)*normFact;
+            imagArr[fIdx] = amp*Math.sin(phase)*normFact;
+            ++fIdx;
+          }
+        }
+      }
+      while(fIdx < toIdx)
+      {  //for each remaining frequency; evaluate separately
+        iirTransRecur(OutputGenerator.TWO_PI*freqArray[fIdx],ofArr);
+        realArr[fIdx] = ofArr[0];
+        imagArr[fIdx] = ofArr[1];
+        ++fIdx;
+      }
+    }
+
+    /**
+     * Calculates the first derivative of the MacLaurin polynomial of a
+     * polynomial stage at the given sample value, using Horner's scheme
+     * (so that no powers of the sample value are computed).  No objects
+     * are allocated by this method.
+     * @param xVal the sample value to use.
+     * @return The value of the first derivative of the polynomial.
+     */
+    public double polyDerivative(double xVal)
+    {
+      double val = 0.0;
+      for(int j=polyCoeffsArr.length-1; j>0; --j)
+        val = val*xVal + (double)polyCoeffsArr[j]*j;
+      return val;
+    }
+
+    /**
+     * Calculates the first derivative of the MacLaurin polynomial of a
+     * polynomial stage at each of the given sample values, using
+     * Horner's scheme.  No objects are allocated by this method.
+     * @param xValsArr array of sample values to use.
+     * @param fromIdx index of first sample value to use.
+     * @param toIdx index of last sample value to use, plus one.
+     * @param outArr array that receives the derivative values (at the
+     * same indices as the sample values).
+     */
+    public void polyDerivatives(double [] xValsArr,int fromIdx,int toIdx,
+                                                          double [] outArr)
+    {
+      final float [] coeffsArr = polyCoeffsArr;
+      final int lastIdx = coeffsArr.length - 1;
+      double xVal,val;
+      int j;
+      for(int i=fromIdx; i<toIdx; ++i)
+      {  //for each sample value
+        xVal = xValsArr[i];
+        val = 0.0;
+        for(j=lastIdx; j>0; --j)
+          val = val*xVal + (double)coeffsArr[j]*j;
+        outArr[i] = val;
+      }
+    }
+
+    /**
+     * Calculates the response of a polynomial stage at the given sample
+     * value, as the first derivative of the MacLaurin polynomial with a
+     * phase of zero (or pi if the derivative is negative).  No objects
+     * are allocated by this method.
+     * @param xVal the sample value to use.
+     * @param outArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the response.
+     * @return true if the response was calculated, false if the stage
+     * contains no coefficients (in which case 'outArr' is not changed).
+     */
+    public boolean polyTrans(double xVal,double [] outArr)
+    {
+      if(polyCoeffsArr.length <= 0)
+        return false;
+      final double ampVal = polyDerivative(xVal);
+                        //set phase value based on amplitude
+      final double phaseVal = (ampVal >= 0.0) ? 0.0 : Math.PI;
+      outArr[0] = ampVal*Math.cos(phaseVal);
+      outArr[1] = ampVal*Math.sin(phaseVal);
+      return true;
+    }
+
+    /**
+     * Computes the sum of "coeffsArr[firstIdx+m*idxStep] *
+     * exp(i*(startFact+m)*wsint)" for m = 0..count-1, via a complex
+     * rotation recurrence that is re-seeded with directly computed
+     * values every 'RECUR_RESEED_INTERVAL' terms.
+     * @param coeffsArr array of coefficient values.
+     * @param firstIdx index of coefficient for first term.
+     * @param idxStep coefficient-index step between terms (1 or -1).
+     * @param count number of terms.
+     * @param startFact angle factor for first term.
+     * @param wsint angle step between terms.
+     * @param sumArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the sum.
+     */
+    protected static void rotationSum(double [] coeffsArr,int firstIdx,
+                       int idxStep,int count,double startFact,double wsint,
+                                                          double [] sumArr)
+    {
+      final double stepCos = Math.cos(wsint);
+      final double stepSin = Math.sin(wsint);
+      double cVal = 1.0, sVal = 0.0, tVal, rSum = 0.0, iSum = 0.0;
+      int idx = firstIdx;
+      for(int m=0; m<count; ++m)
+      {  //for each term
+        if(m % RECUR_RESEED_INTERVAL == 0)
+        {     //re-seed rotation value
+          tVal = wsint * (startFact+m);
+          cVal = Math.cos(tVal);
+          sVal = Math.sin(tVal);
+        }
+        else
+        {     //rotate previous value by step angle
+          tVal = cVal*stepCos - sVal*stepSin;
+          sVal = sVal*stepCos + cVal*stepSin;
+          cVal = tVal;
+        }
+        rSum += coeffsArr[idx] * cVal;
+        iSum += coeffsArr[idx] * sVal;
+        idx += idxStep;
+      }
+      sumArr[0] = rSum;
+      sumArr[1] = iSum;
+    }
+
+    /**
+     * Computes the sums generated by 'rotationSum()' for
+     * 'NUM_EVAL_LANES' angle steps at once, in a single pass over the
+     * coefficients.  The recurrence for each angle step is carried in
+     * separate local variables (using the same operations, in the same
+     * order, as 'rotationSum()'), so the results are identical to those
+     * of 'rotationSum()'.
+     * @param coeffsArr array of coefficient values.
+     * @param firstIdx index of coefficient for first term.
+     * @param idxStep coefficient-index step between terms (1 or -1).
+     * @param count number of terms.
+     * @param startFact angle factor for first term.
+     * @param wsintArr array of 'NUM_EVAL_LANES' angle steps.
+     * @param rSumArr array that receives the real parts of the sums.
+     * @param iSumArr array that receives the imaginary parts of the sums.
+     */
+    protected static void rotationSumLanes(double [] coeffsArr,
+                     int firstIdx,int idxStep,int count,double startFact,
+                     double [] wsintArr,double [] rSumArr,double [] iSumArr)
+    {
+      final double w0 = wsintArr[0], w1 = wsintArr[1],
+                                       w2 = wsintArr[2], w3 = wsintArr[3];
+      final double stepCos0 = Math.cos(w0), stepSin0 = Math.sin(w0);
+      final double stepCos1 = Math.cos(w1), stepSin1 = Math.sin(w1);
+      final double stepCos2 = Math.cos(w2), stepSin2 = Math.sin(w2);
+      final double stepCos3 = Math.cos(w3), stepSin3 = Math.sin(w3);
+      double c0 = 1.0, s0 = 0.0, r0 = 0.0, i0 = 0.0;
+      double c1 = 1.0, s1 = 0.0, r1 = 0.0, i1 = 0.0;
+      double c2 = 1.0, s2 = 0.0, r2 = 0.0, i2 = 0.0;
+      double c3 = 1.0, s3 = 0.0, r3 = 0.0, i3 = 0.0;
+      double t0,t1,t2,t3,coeffVal;
+      int idx = firstIdx;
+      for(int m=0; m<count; ++m)
+      {  //for each term
+        if(m % RECUR_RESEED_INTERVAL == 0)
+        {     //re-seed rotation values
+          t0 = w0 * (startFact+m);
+          t1 = w1 * (startFact+m);
+          t2 = w2 * (startFact+m);
+          t3 = w3 * (startFact+m);
+          c0 = Math.cos(t0);
+          s0 = Math.sin(t0);
+          c1 = Math.cos(t1);
+          s1 = Math.sin(t1);
+          c2 = Math.cos(t2);
+          s2 = Math.sin(t2);
+          c3 = Math.cos(t3);
+          s3 = Math.sin(t3);
+        }
+        else
+        {     //rotate previous values by step angles
+          t0 = c0*stepCos0 - s0*stepSin0;
+          t1 = c1*stepCos1 - s1*stepSin1;
+          t2 = c2*stepCos2 - s2*stepSin2;
+          t3 = c3*stepCos3 - s3*stepSin3;
+          s0 = s0*stepCos0 + c0*stepSin0;
+          s1 = s1*stepCos1 + c1*stepSin1;
+          s2 = s2*stepCos2 + c2*stepSin2;
+          s3 = s3*stepCos3 + c3*stepSin3;
+          c0 = t0;
+          c1 = t1;
+          c2 = t2;
+          c3 = t3;
+        }
+        coeffVal = coeffsArr[idx];
+        r0 += coeffVal * c0;
+        r1 += coeffVal * c1;
+        r2 += coeffVal * c2;
+        r3 += coeffVal * c3;
+        i0 += coeffVal * s0;
+        i1 += coeffVal * s1;
+        i2 += coeffVal * s2;
+        i3 += coeffVal * s3;
+        idx += idxStep;
+      }
+      rSumArr[0] = r0;
+      rSumArr[1] = r1;
+      rSumArr[2] = r2;
+      rSumArr[3] = r3;
+      iSumArr[0] = i0;
+      iSumArr[1] = i1;
+      iSumArr[2] = i2;
+      iSumArr[3] = i3;
+    }
+
+    /**
+     * Returns an array containing the real parts of the given values.
+     * @param cArr array of complex values (may be null).
+     * @return A new array of 'double' values.
+     */
+    protected static double [] realParts(ComplexNumberErrored [] cArr)
+    {
+      final int len = (cArr != null) ? cArr.length : 0;
+      final double [] retArr = new double[len];
+      for(int i=0; i<len; ++i)
+        retArr[i] = cArr[i].real;
+      return retArr;
+    }
+
+    /**
+     * Returns an array containing the imaginary parts of the given values.
+     * @param cArr array of complex values (may be null).
+     * @return A new array of 'double' values.
+     */
+    protected static double [] imagParts(ComplexNumberErrored [] cArr)
+    {
+      final int len = (cArr != null) ? cArr.length : 0;
+      final double [] retArr = new double[len];
+      for(int i=0; i<len; ++i)
+        retArr[i] = cArr[i].imaginary;
+      return retArr;
+    }
+
+    /**
+     * Converts the given array of coefficients to an array of 'float'
+     * values.
+     * @param coeffsArr array of coefficient objects (may be null).
+     * @return A new array of 'float' values.
+     */
+    protected static float [] toFloatArray(CoefficientErrored [] coeffsArr)
+    {
+      final int len = (coeffsArr != null) ? coeffsArr.length : 0;
+      final float [] retArr = new float[len];
+      for(int i=0; i<len; ++i)
+        retArr[i] = coeffsArr[i].value;
+      return retArr;
+    }
+
+    /**
+     * Determines if all of the given coefficients have the same value.
+     * @param coeffsArr array of coefficient objects.
+     * @return true if all of the given coefficients have the same value.
+     */
+    protected static boolean allSameValues(CoefficientErrored [] coeffsArr)
+    {
+      final int len = coeffsArr.length;
+      for(int i=1; i<len; ++i)
+      {
+        if(coeffsArr[i].value != coeffsArr[0].value)
+          return false;
+      }
+      return true;
+    }
+  }
+
+
+  /**
+   * Class CoeffSet holds the coefficient values of a coefficients stage
+   * along with the values derived from them that do not depend on the
+   * sample interval of the stage:  the coefficients of the terms
+   * summed for the stage (for symmetrical FIR filters, the one-sided
+   * half of the folded coefficients), the trig-table term index and
+   * phase factor for each of these coefficients, and the parameters
+   * for the rotation-recurrence sums.  A coefficient set is created
+   * once for each distinct set of coefficients in a response and is
+   * shared by the kernels of all stages with those coefficients (which
+   * may have different sample intervals).  The arrays are shared and
+   * must not be modified.
+   */
+  public static class CoeffSet
+  {
+         /** Numerator values. */
+    public final double [] numersArr;
+         /** Denominator values (IIR filters), or null if none. */
+    public final double [] denomsArr;
+         /** One of the 'OutputGenerator.FIR_...' values (FIR filters). */
+    public final int firTypeVal;
+         /** True if all FIR numerators have the same value. */
+    public final boolean firSameValsFlag;
+         /** Number of trig-table terms needed to evaluate the stage. */
+    public final int numTerms;
+         /** Coefficient for each term summed for the stage. */
+    public final double [] tapCoeffsArr;
+         /** Trig-table term index for each summed coefficient. */
+    public final int [] tapTermsArr;
+         /** Phase factor (multiple of "wsint") for each coefficient. */
+    public final double [] tapFactsArr;
+         /** Center coefficient (FIR_SYM1 filters), or 0.0. */
+    public final double centerCoeff;
+         /** Index of coefficient for first rotation-sum term. */
+    public final int recurFirstIdx;
+         /** Coefficient-index step between rotation-sum terms. */
+    public final int recurIdxStep;
+         /** Number of rotation-sum terms. */
+    public final int recurCount;
+         /** Angle factor for first rotation-sum term. */
+    public final double recurStartFact;
+
+    /**
+     * Creates a coefficient set.
+     * @param numersArr array of numerator values.
+     * @param denomsArr array of denominator values, or null if none.
+     * @param firTypeVal one of the 'OutputGenerator.FIR_...' values.
+     * @param firSameValsFlag true if all FIR numerators have the same
+     * value.
+     */
+    public CoeffSet(double [] numersArr,double [] denomsArr,
+                                  int firTypeVal,boolean firSameValsFlag)
+    {
+      this.numersArr = numersArr;
+      this.denomsArr = denomsArr;
+      this.firTypeVal = firTypeVal;
+      this.firSameValsFlag = firSameValsFlag;
+      final int numCoeffs = numersArr.length;
+      int i;
+      if(firTypeVal == OutputGenerator.FIR_SYM1)
+      {  //FIR type is symmetrical 1; sum "numers[n-1-m]*cos(m*wsint)"
+         // for m = 1..n-1 (where n is number of unique coefficients)
+        final int numNumerators = (numCoeffs + 1) / 2;
+        numTerms = numNumerators;
+        tapCoeffsArr = new double[Math.max(numNumerators-1,0)];
+        tapTermsArr = new int[tapCoeffsArr.length];
+        tapFactsArr = new double[tapCoeffsArr.length];
+        for(i=0; i<tapCoeffsArr.length; ++i)
+        {
+          tapCoeffsArr[i] = numersArr[i];
+          tapTermsArr[i] = numNumerators - (i+1);
+          tapFactsArr[i] = tapTermsArr[i];
+        }
+        centerCoeff = (numNumerators > 0) ? numersArr[numNumerators-1] : 0.0;
+        recurFirstIdx = numNumerators - 2;
+        recurIdxStep = -1;
+        recurCount = numNumerators - 1;
+        recurStartFact = 1.0;
+      }
+      else if(firTypeVal == OutputGenerator.FIR_SYM2)
+      {  //FIR type is symmetrical 2; sum "numers[n-1-m]*cos((m+0.5)*wsint)"
+         // for m = 0..n-1 (where n is number of unique coefficients)
+        final int numNumerators = numCoeffs / 2;
+        numTerms = numNumerators;
+        tapCoeffsArr = new double[numNumerators];
+        tapTermsArr = new int[numNumerators];
+        tapFactsArr = new double[numNumerators];
+        for(i=0; i<numNumerators; ++i)
+        {
+          tapCoeffsArr[i] = numersArr[i];
+          tapTermsArr[i] = numNumerators - (i+1);
+          tapFactsArr[i] = (double)tapTermsArr[i] + 0.5;
+        }
+        centerCoeff = 0.0;
+        recurFirstIdx = numNumerators - 1;
+        recurIdxStep = -1;
+        recurCount = numNumerators;
+        recurStartFact = 0.5;
+      }
+      else
+      {  //asymmetrical FIR or IIR; sum "numers[m]*exp(-i*m*wsint)"
+        numTerms = (denomsArr != null) ?
+                            Math.max(numCoeffs,denomsArr.length) : numCoeffs;
+        tapCoeffsArr = numersArr;
+        tapTermsArr = new int[numCoeffs];
+        tapFactsArr = new double[numCoeffs];
+        for(i=0; i<numCoeffs; ++i)
+        {
+          tapTermsArr[i] = i;
+          tapFactsArr[i] = i;
+        }
+        centerCoeff = 0.0;
+        recurFirstIdx = 0;
+        recurIdxStep = 1;
+        recurCount = numCoeffs;
+        recurStartFact = 0.0;
+      }
+    }
+
+    /**
+     * Determines if the given coefficient set has the same coefficients
+     * (and FIR type) as this set.
+     * @param coeffSetObj the coefficient set to compare.
+     * @return true if the given set has the same coefficients.
+     */
+    public boolean sameCoeffs(CoeffSet coeffSetObj)
+    {
+      return firTypeVal == coeffSetObj.firTypeVal &&
+                        Arrays.equals(numersArr,coeffSetObj.numersArr) &&
+                          Arrays.equals(denomsArr,coeffSetObj.denomsArr);
+    }
+  }
+
+
+  /**
+   * Class ListStageSplines holds the splines fitted to the amplitude
+   * and phase values of a Response List Blockette (55).  The phase
+   * spline is fitted to the unwrapped phase values (if the phase values
+   * were wrapped).
+   */
+  public static class ListStageSplines
+  {
+    /** Spline fitted to the amplitude values. */
+    public final ListSpline ampSplineObj;
+    /** Spline fitted to the (unwrapped) phase values. */
+    public final ListSpline phaseSplineObj;
+    /** True if the phase values were unwrapped before fitting. */
+    public final boolean phaseUnwrappedFlag;
+
+    /**
+     * Creates splines fitted to the values of the given List filter.
+     * @param lsFilterObj the List filter to use.
+     * @param tension tension value for the splines.
+     */
+    public ListStageSplines(ListFilter lsFilterObj,double tension)
+    {
+      final double [] freqArr =
+                      RespUtils.floatToDoubleArray(lsFilterObj.frequency);
+      ampSplineObj = new ListSpline(freqArr,toDoubleArray(
+                  lsFilterObj.amplitude,freqArr.length),tension,1.0);
+      final double [] srcPhaseArr =
+                  toDoubleArray(lsFilterObj.phase,freqArr.length);
+      final double [] unwrappedPhaseArr =
+                            OutputGenerator.unwrapPhaseArray(srcPhaseArr);
+      phaseUnwrappedFlag = (unwrappedPhaseArr != srcPhaseArr);
+      phaseSplineObj = new ListSpline(freqArr,unwrappedPhaseArr,tension,1.0);
+    }
+
+    /**
+     * Returns the error message generated while fitting the splines.
+     * @return The error message, or null if no errors occurred.
+     */
+    public String getErrorMessage()
+    {
+      final String errStr = ampSplineObj.getErrorMessage();
+      return (errStr != null) ? errStr : phaseSplineObj.getErrorMessage();
+    }
+
+    /**
+     * Converts the given array of 'float' values to an array of 'double'
+     * values.
+     * @param srcArr the source array (may be null).
+     * @param maxLen the maximum number of values to convert.
+     * @return A new array of 'double' values.
+     */
+    protected static double [] toDoubleArray(float [] srcArr,int maxLen)
+    {
+      final int len = (srcArr != null) ? Math.min(srcArr.length,maxLen) : 0;
+      final double [] retArr = new double[len];
+      for(int i=0; i<len; ++i)
+        retArr[i] = srcArr[i];
+      return retArr;
+    }
+  }
+}
@@ -1,6 +1,9 @@
 //ComplexBlk.java:  Holds a complex number.
 //
 //   11/7/2001 -- [ET]
+//  10/18/2026 -- [AG]  Added static 'zMultiply()' methods that operate on
+//                      values held in 'double' arrays.
+//  10/18/2026 -- [AG]  Added static 'zDivide()' method.
 //
 
 package com.isti.jevalresp;
@@ -44,6 +47,76 @@ public class ComplexBlk
     imag = i;
   }
 
+    /**
+     * Performs complex multiplication on a value held in a pair of
+     * arrays; complex version of (realArr[idx],imagArr[idx]) *=
+     * (realVal,imagVal).  The arithmetic is the same as that done by
+     * the non-static 'zMultiply()' methods.
+     * @param realArr array of real parts.
+     * @param imagArr array of imaginary parts.
+     * @param idx index of value in arrays.
+     * @param realVal real value
+     * @param imagVal imaginary value
+     */
+  public static void zMultiply(double [] realArr,double [] imagArr,int idx,
+                                             double realVal,double imagVal)
+  {
+    final double r = realArr[idx]*realVal - imagArr[idx]*imagVal;
+    final double i = imagArr[idx]*realVal + realArr[idx]*imagVal;
+    realArr[idx] = r;
+    imagArr[idx] = i;
+  }
+
+    /**
+     * Performs complex multiplication on a value held in a 2-element
+     * array (real part at index 0, imaginary part at index 1); complex
+     * version of cValArr *= (realVal,imagVal).
+     * @param cValArr 2-element array holding the value.
+     * @param realVal real value
+     * @param imagVal imaginary value
+     */
+  public static void zMultiply(double [] cValArr,double realVal,
+                                                             double imagVal)
+  {
+    final double r = cValArr[0]*realVal - cValArr[1]*imagVal;
+    final double i = cValArr[1]*realVal + cValArr[0]*imagVal;
+    cValArr[0] = r;
+    cValArr[1] = i;
+  }
+
+    /**
+     * Performs complex division, entering the result into a 2-element
+     * array (real part at index 0, imaginary part at index 1); complex
+     * version of cValArr = (numReal,numImag) / (denReal,denImag).  The
+     * division is scaled (Smith's method) so that the squared modulus of
+     * the denominator is not formed, avoiding overflow or underflow when
+     * the denominator is very large or very small.
+     * @param numReal real part of numerator.
+     * @param numImag imaginary part of numerator.
+     * @param denReal real part of denominator.
+     * @param denImag imaginary part of denominator.
+     * @param cValArr 2-element array that receives the result.
+     */
+  public static void zDivide(double numReal,double numImag,double denReal,
+                                          double denImag,double [] cValArr)
+  {
+    final double ratio, div;
+    if(Math.abs(denReal) >= Math.abs(denImag))
+    {    //real part of denominator is larger
+      ratio = denImag / denReal;
+      div = denReal + denImag*ratio;
+      cValArr[0] = (numReal + numImag*ratio) / div;
+      cValArr[1] = (numImag - numReal*ratio) / div;
+    }
+    else
+    {    //imaginary part of denominator is larger
+      ratio = denReal / denImag;
+      div = denReal*ratio + denImag;
+      cValArr[0] = (numReal*ratio + numImag) / div;
+      cValArr[1] = (numImag*ratio - numReal) / div;
+    }
+  }
+
   public String toString()
   {
     return "real=" + real + ", imag=" + imag;
@@ -0,0 +1,372 @@
+//FirFftEvaluator.java:  Evaluates the response of long FIR filters over
+//                       linearly-spaced frequencies via FFT-based
+//                       (chirp-Z) transforms.
+//
+//  10/18/2026 -- [AG]  Initial version.
+//                      Added method 'inverseRealFft()'.
+//
+
+package com.isti.jevalresp;
+
+/**
+ * Class FirFftEvaluator evaluates the response of FIR filters over
+ * linearly-spaced frequencies via FFT-based transforms.  The direct
+ * evaluation done by 'OutputGenerator.firTrans()' requires a cosine
+ * (and sine) for every coefficient at every frequency; for a grid of
+ * evenly-spaced frequencies the same sums may be computed with a
+ * zero-padded FFT (when the grid matches the FFT bins) or with a
+ * chirp-Z (Bluestein) transform, which uses three FFTs.  Frequency
+ * grids that are not evenly spaced (such as logarithmically-spaced
+ * grids) do not lie on a chirp-Z contour and are not handled here.
+ */
+public class FirFftEvaluator
+{
+    /** Minimum number of FIR coefficients for FFT evaluation. */
+  public static final int MIN_NUM_COEFFS = 32;
+    /** Minimum number of frequencies for FFT evaluation. */
+  public static final int MIN_NUM_FREQS = 32;
+    /** Relative tolerance used when checking for linear spacing. */
+  public static final double LINEAR_SPACING_TOL = 1e-9;
+
+    //private constructor so that no object instances may be created
+    // (static access only)
+  private FirFftEvaluator()
+  {
+  }
+
+  /**
+   * Determines if FFT evaluation should be used for the given FIR-stage
+   * kernel and frequencies.
+   * @param kernelObj the FIR-stage kernel to use.
+   * @param freqArray the array of frequency values to use.
+   * @return true if the number of coefficients and frequencies are at
+   * or above the 'MIN_...' thresholds, the filter is not a "boxcar"
+   * (all-same-value) filter and the frequencies are linearly spaced.
+   */
+  public static boolean isFastEvalSuitable(
+                 CompiledResponse.StageKernel kernelObj,double [] freqArray)
+  {
+    return (kernelObj.kernelType == CompiledResponse.FIR_KERNEL &&
+                         kernelObj.numersArr.length >= MIN_NUM_COEFFS &&
+                                   freqArray.length >= MIN_NUM_FREQS &&
+                                               !kernelObj.firSameValsFlag &&
+                   (kernelObj.firTypeVal == OutputGenerator.FIR_SYM1 ||
+                         kernelObj.firTypeVal == OutputGenerator.FIR_SYM2 ||
+                         kernelObj.firTypeVal == OutputGenerator.FIR_ASYM) &&
+                                                isLinearSpacing(freqArray));
+  }
+
+  /**
+   * Determines if the given frequencies are linearly spaced (in
+   * increasing order).
+   * @param freqArray the array of frequency values to use.
+   * @return true if the given frequencies are linearly spaced.
+   */
+  public static boolean isLinearSpacing(double [] freqArray)
+  {
+    final int numFreqs = freqArray.length;
+    if(numFreqs < 2)
+      return false;
+    final double startVal = freqArray[0];
+    final double stepVal = (freqArray[numFreqs-1]-startVal) / (numFreqs-1);
+    if(!(stepVal > 0.0))          //if not increasing (or NaN) then
+      return false;               //indicate not linear
+    final double tolVal = stepVal * LINEAR_SPACING_TOL;
+    for(int i=1; i<numFreqs; ++i)
+    {    //for each frequency; check if at expected value
+      if(!(Math.abs(freqArray[i]-(startVal+i*stepVal)) <= tolVal))
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Calculates the response of a digital FIR filter for the given
+   * linearly-spaced frequencies.  The values generated are the same
+   * (within rounding error) as those from the kernel's 'firTrans()'
+   * method; the FIR_ASYM delay correction is not applied.
+   * @param kernelObj the FIR-stage kernel to use.
+   * @param freqArray the array of linearly-spaced frequency values.
+   * @param realArr array that receives the real parts of the response
+   * values (must be at least as long as 'freqArray').
+   * @param imagArr array that receives the imaginary parts of the
+   * response values (must be at least as long as 'freqArray').
+   */
+  public static void calcFirSpectra(CompiledResponse.StageKernel kernelObj,
+                  double [] freqArray,double [] realArr,double [] imagArr)
+  {
+    final double [] numersArr = kernelObj.numersArr;
+    final int numCoeffs = numersArr.length;
+    final int numFreqs = freqArray.length;
+    final double sIntervalTime = kernelObj.sIntervalTime;
+    final double normFact = kernelObj.normFact;
+    final double startFreq = freqArray[0];
+    final double stepFreq = (numFreqs > 1) ?
+                      (freqArray[numFreqs-1]-startFreq) / (numFreqs-1) : 0.0;
+         //compute sums of "coeff[n] * exp(-i*w*sint*n)" for all freqs:
+    chirpZ(numersArr,null,numCoeffs,
+                          OutputGenerator.TWO_PI*startFreq*sIntervalTime,
+                           OutputGenerator.TWO_PI*stepFreq*sIntervalTime,
+                                              numFreqs,realArr,imagArr);
+    final double halfLenVal = (numCoeffs-1) / 2.0;
+    double wsint,rVal,iVal,angVal;
+    for(int k=0; k<numFreqs; ++k)
+    {    //for each frequency
+      wsint = OutputGenerator.TWO_PI * freqArray[k] * sIntervalTime;
+      rVal = realArr[k];
+      iVal = imagArr[k];
+      if(kernelObj.firTypeVal == OutputGenerator.FIR_ASYM)
+      {  //FIR type is asymmetrical; apply phase adjustment
+        final double mod = Math.sqrt(rVal*rVal + iVal*iVal);
+        final double pha = Math.atan2(iVal,rVal) + wsint*halfLenVal;
+        realArr[k] = mod*Math.cos(pha)*normFact;
+        imagArr[k] = mod*Math.sin(pha)*normFact;
+      }
+      else
+      {  //FIR type is symmetrical; shift to center of filter (result
+         // is real-valued)
+        angVal = wsint * halfLenVal;
+        realArr[k] = (rVal*Math.cos(angVal) - iVal*Math.sin(angVal)) *
+                                                                  normFact;
+        imagArr[k] = 0.0;
+      }
+    }
+  }
+
+  /**
+   * Computes the chirp-Z transform of the given values; that is, for
+   * each k in 0..numOut-1 computes the sum over n of
+   * "x[n] * exp(-i*n*(startAngle+k*stepAngle))".  If the angles
+   * correspond to the bins of a power-of-2 FFT then a zero-padded FFT
+   * is used; otherwise Bluestein's algorithm is used.
+   * @param xRealArr array of real parts of input values.
+   * @param xImagArr array of imaginary parts of input values, or null
+   * if the input values are real.
+   * @param numIn number of input values.
+   * @param startAngle angle (radians per sample) for first output.
+   * @param stepAngle angle step (radians per sample) between outputs.
+   * @param numOut number of output values.
+   * @param outRealArr array that receives the real parts of the output.
+   * @param outImagArr array that receives the imaginary parts of the
+   * output.
+   */
+  public static void chirpZ(double [] xRealArr,double [] xImagArr,
+                int numIn,double startAngle,double stepAngle,int numOut,
+                                 double [] outRealArr,double [] outImagArr)
+  {
+    int i;
+         //determine if step angle is "2*pi/N" for a power-of-2 N:
+    final double binsVal = (stepAngle > 0.0) ?
+                               OutputGenerator.TWO_PI / stepAngle : 0.0;
+    int fftLen = (binsVal < Integer.MAX_VALUE) ?
+                                             (int)Math.round(binsVal) : 0;
+    if(startAngle == 0.0 && fftLen >= numIn && fftLen >= numOut &&
+                                         fftLen == nextPowerOf2(fftLen) &&
+                    Math.abs(binsVal-fftLen) <= binsVal*LINEAR_SPACING_TOL)
+    {    //outputs are FFT bins; use zero-padded FFT
+      final double [] aRealArr = new double[fftLen];
+      final double [] aImagArr = new double[fftLen];
+      System.arraycopy(xRealArr,0,aRealArr,0,numIn);
+      if(xImagArr != null)
+        System.arraycopy(xImagArr,0,aImagArr,0,numIn);
+      fft(aRealArr,aImagArr,false);
+      System.arraycopy(aRealArr,0,outRealArr,0,numOut);
+      System.arraycopy(aImagArr,0,outImagArr,0,numOut);
+      return;
+    }
+         //use Bluestein's algorithm, with "n*k = (n^2 + k^2 - (k-n)^2)/2":
+    fftLen = nextPowerOf2(numIn + numOut - 1);
+    final int chirpLen = (numIn > numOut) ? numIn : numOut;
+         //chirp values "exp(-i*stepAngle*j^2/2)":
+    final double [] cRealArr = new double[chirpLen];
+    final double [] cImagArr = new double[chirpLen];
+    double angVal;
+    for(i=0; i<chirpLen; ++i)
+    {
+      angVal = stepAngle * ((double)i*i) / 2.0;
+      cRealArr[i] = Math.cos(angVal);
+      cImagArr[i] = -Math.sin(angVal);
+    }
+         //setup "a[n] = x[n] * exp(-i*startAngle*n) * chirp[n]":
+    final double [] aRealArr = new double[fftLen];
+    final double [] aImagArr = new double[fftLen];
+    double xr,xi,sr,si,tr,ti;
+    for(i=0; i<numIn; ++i)
+    {
+      xr = xRealArr[i];
+      xi = (xImagArr != null) ? xImagArr[i] : 0.0;
+      angVal = startAngle * i;
+      sr = Math.cos(angVal);
+      si = -Math.sin(angVal);
+      tr = xr*sr - xi*si;
+      ti = xr*si + xi*sr;
+      aRealArr[i] = tr*cRealArr[i] - ti*cImagArr[i];
+      aImagArr[i] = tr*cImagArr[i] + ti*cRealArr[i];
+    }
+         //setup "b[j] = conj(chirp[|j|])" for j in -(numIn-1)..(numOut-1):
+    final double [] bRealArr = new double[fftLen];
+    final double [] bImagArr = new double[fftLen];
+    for(i=0; i<numOut; ++i)
+    {
+      bRealArr[i] = cRealArr[i];
+      bImagArr[i] = -cImagArr[i];
+    }
+    for(i=1; i<numIn; ++i)
+    {
+      bRealArr[fftLen-i] = cRealArr[i];
+      bImagArr[fftLen-i] = -cImagArr[i];
+    }
+         //convolve via FFTs:
+    fft(aRealArr,aImagArr,false);
+    fft(bRealArr,bImagArr,false);
+    for(i=0; i<fftLen; ++i)
+    {
+      tr = aRealArr[i]*bRealArr[i] - aImagArr[i]*bImagArr[i];
+      aImagArr[i] = aRealArr[i]*bImagArr[i] + aImagArr[i]*bRealArr[i];
+      aRealArr[i] = tr;
+    }
+    fft(aRealArr,aImagArr,true);
+         //multiply results by chirp values:
+    for(i=0; i<numOut; ++i)
+    {
+      outRealArr[i] = aRealArr[i]*cRealArr[i] - aImagArr[i]*cImagArr[i];
+      outImagArr[i] = aRealArr[i]*cImagArr[i] + aImagArr[i]*cRealArr[i];
+    }
+  }
+
+  /**
+   * Performs an in-place radix-2 fast Fourier transform.  The forward
+   * transform uses "exp(-i*2*pi*n*k/N)"; the inverse transform uses
+   * "exp(+i*2*pi*n*k/N)" and divides the results by N.
+   * @param realArr array of real parts (length must be a power of 2).
+   * @param imagArr array of imaginary parts (same length as 'realArr').
+   * @param inverseFlag true for inverse transform; false for forward.
+   */
+  public static void fft(double [] realArr,double [] imagArr,
+                                                        boolean inverseFlag)
+  {
+    final int len = realArr.length;
+    int i,j,k;
+    double tr,ti;
+         //perform bit-reversal permutation:
+    for(i=1,j=0; i<len; ++i)
+    {
+      k = len >> 1;
+      while((j & k) != 0)
+      {
+        j ^= k;
+        k >>= 1;
+      }
+      j |= k;
+      if(i < j)
+      {  //swap entries
+        tr = realArr[i];
+        realArr[i] = realArr[j];
+        realArr[j] = tr;
+        ti = imagArr[i];
+        imagArr[i] = imagArr[j];
+        imagArr[j] = ti;
+      }
+    }
+         //setup table of twiddle factors (computed directly for accuracy):
+    final int halfLen = len / 2;
+    final double [] wRealArr = new double[halfLen];
+    final double [] wImagArr = new double[halfLen];
+    final double signVal = inverseFlag ? 1.0 : -1.0;
+    for(i=0; i<halfLen; ++i)
+    {
+      wRealArr[i] = Math.cos(OutputGenerator.TWO_PI * i / len);
+      wImagArr[i] = signVal * Math.sin(OutputGenerator.TWO_PI * i / len);
+    }
+         //perform butterfly passes:
+    int halfSize,tStep,p,q;
+    double wr,wi;
+    for(int size=2; size<=len; size<<=1)
+    {
+      halfSize = size >> 1;
+      tStep = len / size;
+      for(i=0; i<len; i+=size)
+      {
+        for(j=0; j<halfSize; ++j)
+        {
+          p = i + j;
+          q = p + halfSize;
+          wr = wRealArr[j*tStep];
+          wi = wImagArr[j*tStep];
+          tr = realArr[q]*wr - imagArr[q]*wi;
+          ti = realArr[q]*wi + imagArr[q]*wr;
+          realArr[q] = realArr[p] - tr;
+          imagArr[q] = imagArr[p] - ti;
+          realArr[p] += tr;
+          imagArr[p] += ti;
+        }
+      }
+    }
+    if(inverseFlag)
+    {    //inverse transform; scale results
+      for(i=0; i<len; ++i)
+      {
+        realArr[i] /= len;
+        imagArr[i] /= len;
+      }
+    }
+  }
+
+  /**
+   * Performs an inverse FFT of the spectrum of a real time series, via
+   * a complex FFT of half the length.  The spectrum is given for bins 0
+   * to "fftLength/2" (the other bins are the conjugates of these); the
+   * inverse transform uses "exp(+i*2*pi*n*k/N)" and divides the results
+   * by N (as does 'fft()').
+   * @param realArr array of real parts of the spectrum (at least
+   * "fftLength/2+1" entries).
+   * @param imagArr array of imaginary parts of the spectrum (at least
+   * "fftLength/2+1" entries).
+   * @param fftLength the length of the FFT (a power of 2, at least 2).
+   * @param outArr array to receive the time series (at least
+   * 'fftLength' entries).
+   * @param workRealArr work array with exactly "fftLength/2" entries.
+   * @param workImagArr work array with exactly "fftLength/2" entries.
+   */
+  public static void inverseRealFft(double [] realArr,double [] imagArr,
+                                   int fftLength,double [] outArr,
+                               double [] workRealArr,double [] workImagArr)
+  {
+    final int halfLen = fftLength / 2;
+    double eRe,eIm,oRe,oIm,dRe,dIm,wr,wi;
+    for(int k=0; k<halfLen; ++k)
+    {    //for each bin; separate even- and odd-sample transforms
+         // and combine them into one complex spectrum
+      eRe = (realArr[k] + realArr[halfLen-k]) / 2.0;
+      eIm = (imagArr[k] - imagArr[halfLen-k]) / 2.0;
+      dRe = (realArr[k] - realArr[halfLen-k]) / 2.0;
+      dIm = (imagArr[k] + imagArr[halfLen-k]) / 2.0;
+      wr = Math.cos(OutputGenerator.TWO_PI * k / fftLength);
+      wi = Math.sin(OutputGenerator.TWO_PI * k / fftLength);
+      oRe = dRe*wr - dIm*wi;
+      oIm = dRe*wi + dIm*wr;
+      workRealArr[k] = eRe - oIm;
+      workImagArr[k] = eIm + oRe;
+    }
+    fft(workRealArr,workImagArr,true);
+    for(int m=0; m<halfLen; ++m)
+    {    //for each value; even samples from real parts, odd from imaginary
+      outArr[2*m] = workRealArr[m];
+      outArr[2*m+1] = workImagArr[m];
+    }
+  }
+
+  /**
+   * Returns the smallest power of 2 that is greater than or equal to
+   * the given value.
+   * @param val the value to use.
+   * @return The smallest power of 2 that is >= the given value.
+   */
+  public static int nextPowerOf2(int val)
+  {
+    int retVal = 1;
+    while(retVal < val)
+      retVal <<= 1;
+    return retVal;
+  }
+}
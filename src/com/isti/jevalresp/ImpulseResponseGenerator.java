@@ -0,0 +1,339 @@
+//ImpulseResponseGenerator.java:  Generates time-domain impulse and step
+//                                responses via inverse FFTs.
+//
+//  10/18/2026 -- [AG]  Initial version.
+//
+
+package com.isti.jevalresp;
+
+import java.io.BufferedWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import edu.iris.Fissures.IfNetwork.Response;
+
+/**
+ * Class ImpulseResponseGenerator generates the time-domain impulse (or
+ * step) response of a response.  The response is evaluated at the bins
+ * of a real FFT (via 'OutputGenerator.calculateFftBinResponse()', with
+ * the fast FIR and trig-recurrence evaluations enabled and in
+ * "total-only" mode), and the time series is generated by an inverse
+ * real FFT ('FirFftEvaluator.inverseRealFft()').  The work arrays
+ * (including the array holding the generated time series) are kept by
+ * the generator and reused by subsequent calls for the same FFT length,
+ * so one generator may be used for many channels without allocating
+ * new arrays.  A generator should not be used by more than one thread
+ * at a time.  The impulse response is the output of the response for
+ * an input of a single sample with the value 1 (so its sum is the
+ * response value at zero frequency, or zero if the response is not
+ * defined there; see 'calculateFftBinResponse()').  The step response
+ * is the cumulative sum of the impulse response, so for a DC-coupled
+ * response it settles at the response value at zero frequency.  The
+ * given 'Response' objects are not modified.
+ */
+public class ImpulseResponseGenerator
+{
+  protected final int outUnitsConvIdx;      //output units conversion
+  protected final int startStageNum;        //first stage to be processed
+  protected final int stopStageNum;         //last stage to be processed
+  protected final boolean useDelayFlag;     //use est delay for phase calc
+  protected final boolean totalSensitFlag;  //use stage 0 sensitivity
+  protected final double b62XValue;         //sample value for poly blkt
+  protected int numThreads = 1;             //# of threads for evaluation
+              //cache of evaluated stage spectra (null if none):
+  protected StageSpectrumCache stageSpectrumCacheObj = null;
+  protected int fftLength = 0;              //FFT length for work arrays
+  protected double [] binRealArr = null;    //real parts of response
+  protected double [] binImagArr = null;    //imaginary parts of response
+  protected double [] workRealArr = null;   //work array for inverse FFT
+  protected double [] workImagArr = null;   //work array for inverse FFT
+  protected double [] seriesArr = null;     //generated time series
+  protected int numSamples = 0;             //# of samples generated
+  protected double sampleRate = 0.0;        //sample rate of time series
+  protected boolean stepFlag = false;       //true if step response
+  protected String errorMessage = null;     //error message string
+
+  /**
+   * Creates a generator of impulse and step responses.
+   * @param outUnitsConvIdx output units conversion index for the
+   * requested output units type; one of the 'OutputGenerator'
+   * '..._UNIT_CONV' values.
+   * @param startStageNum if greater than zero then the start of the
+   * range of stage sequence numbers to use, otherwise all stages
+   * are used.
+   * @param stopStageNum if greater than zero then the end of the
+   * range of stage sequence numbers to use, otherwise only the single
+   * stage specified by 'startStageNum' is used.
+   * @param useDelayFlag true to use estimated delay in phase calculation.
+   * @param totalSensitFlag true to use stage 0 (total) sensitivity;
+   * false to use computed sensitivity.
+   * @param b62XValue sample value for polynomial blockette (62).
+   */
+  public ImpulseResponseGenerator(int outUnitsConvIdx,int startStageNum,
+                                   int stopStageNum,boolean useDelayFlag,
+                                 boolean totalSensitFlag,double b62XValue)
+  {
+    this.outUnitsConvIdx = outUnitsConvIdx;
+    this.startStageNum = startStageNum;
+    this.stopStageNum = stopStageNum;
+    this.useDelayFlag = useDelayFlag;
+    this.totalSensitFlag = totalSensitFlag;
+    this.b62XValue = b62XValue;
+  }
+
+  /**
+   * Creates a generator of impulse and step responses, using all stages
+   * and computed sensitivity.
+   * @param outUnitsConvIdx output units conversion index for the
+   * requested output units type; one of the 'OutputGenerator'
+   * '..._UNIT_CONV' values.
+   */
+  public ImpulseResponseGenerator(int outUnitsConvIdx)
+  {
+    this(outUnitsConvIdx,0,0,false,false,0.0);
+  }
+
+  /**
+   * Sets the number of threads used to evaluate each response (see
+   * 'OutputGenerator.setParallelEvalThreads()').  The default is 1.
+   * @param numThreads number of threads to use.
+   */
+  public void setNumThreads(int numThreads)
+  {
+    this.numThreads = numThreads;
+  }
+
+  /**
+   * Returns the number of threads used to evaluate each response.
+   * @return The number of threads used to evaluate each response.
+   */
+  public int getNumThreads()
+  {
+    return numThreads;
+  }
+
+  /**
+   * Sets the cache of evaluated stage spectra to be used when the
+   * responses are evaluated.
+   * @param cacheObj the cache to use, or null for none (the default).
+   */
+  public void setStageSpectrumCache(StageSpectrumCache cacheObj)
+  {
+    stageSpectrumCacheObj = cacheObj;
+  }
+
+  /**
+   * Returns the cache of evaluated stage spectra used when the responses
+   * are evaluated.
+   * @return The cache of evaluated stage spectra, or null if none.
+   */
+  public StageSpectrumCache getStageSpectrumCache()
+  {
+    return stageSpectrumCacheObj;
+  }
+
+  /**
+   * Generates the impulse or step response for the given response.  The
+   * FFT length used is the smallest power of 2 that is at least twice
+   * the number of samples, so that the end of the generated time series
+   * is not wrapped around onto its start.  The time series may be
+   * fetched via the 'getTimeSeriesArray()' method or written via the
+   * 'writeTimeSeries()' method.
+   * @param respObj the response to use.
+   * @param sampleRate the sample rate (in Hz) of the time series.
+   * @param numSamples the number of samples to generate.
+   * @param stepFlag true to generate the step response; false to
+   * generate the impulse response.
+   * @return true if successful, false if an error occurred (in which
+   * case 'getErrorMessage()' may be used to fetch information about
+   * the error).
+   */
+  public boolean generate(Response respObj,double sampleRate,
+                                          int numSamples,boolean stepFlag)
+  {
+    this.numSamples = 0;               //clear any previous time series
+    if(respObj == null)
+    {
+      setErrorMessage("Null response object");
+      return false;
+    }
+    if(numSamples <= 0 || !(sampleRate > 0.0))
+    {
+      setErrorMessage("Invalid sample rate or number of samples");
+      return false;
+    }
+    setupWorkArrays(FirFftEvaluator.nextPowerOf2(2*numSamples));
+         //create output generator:
+    final OutputGenerator outGenObj = new OutputGenerator(respObj);
+         //check validity of response (if 'def', don't check units):
+    if(!outGenObj.checkResponse(
+                        outUnitsConvIdx==OutputGenerator.DEFAULT_UNIT_CONV))
+    {
+      setErrorMessage("Error in response:  " + outGenObj.getErrorMessage());
+      return false;
+    }
+    outGenObj.setTrigRecurEvalFlag(true);    //use fastest evaluations
+    outGenObj.setTotalOnlyFlag(true);    //separate stage values not needed
+    outGenObj.setParallelEvalThreads(numThreads);
+    outGenObj.setStageSpectrumCache(stageSpectrumCacheObj);
+    if(!outGenObj.calculateFftBinResponse(sampleRate,fftLength,
+                           outUnitsConvIdx,startStageNum,stopStageNum,
+                             useDelayFlag,totalSensitFlag,b62XValue,
+                                                   binRealArr,binImagArr))
+    {
+      setErrorMessage("Error calculating response:  " +
+                                              outGenObj.getErrorMessage());
+      return false;
+    }
+    FirFftEvaluator.inverseRealFft(binRealArr,binImagArr,fftLength,
+                                         seriesArr,workRealArr,workImagArr);
+    if(stepFlag)
+    {    //step response; enter cumulative sum of impulse response
+      for(int i=1; i<numSamples; ++i)
+        seriesArr[i] += seriesArr[i-1];
+    }
+    this.numSamples = numSamples;
+    this.sampleRate = sampleRate;
+    this.stepFlag = stepFlag;
+    return true;
+  }
+
+  /**
+   * Allocates the work arrays for the given FFT length (if the arrays
+   * for the length are not already allocated).
+   * @param fftLength the FFT length to use.
+   */
+  protected void setupWorkArrays(int fftLength)
+  {
+    if(fftLength == this.fftLength)
+      return;           //if arrays already setup then return
+    binRealArr = new double[fftLength/2+1];
+    binImagArr = new double[fftLength/2+1];
+    workRealArr = new double[fftLength/2];
+    workImagArr = new double[fftLength/2];
+    seriesArr = new double[fftLength];
+    this.fftLength = fftLength;
+  }
+
+  /**
+   * Returns the array holding the time series generated by the last
+   * call to 'generate()'.  The returned array is the generator's work
+   * array (which is overwritten by the next call to 'generate()'); only
+   * the first 'getNumSamples()' entries are part of the time series.
+   * @return The time-series array, or null if 'generate()' has not
+   * been successfully performed.
+   */
+  public double [] getTimeSeriesArray()
+  {
+    return (numSamples > 0) ? seriesArr : null;
+  }
+
+  /**
+   * Returns the number of samples in the time series generated by the
+   * last call to 'generate()'.
+   * @return The number of samples, or zero if 'generate()' has not been
+   * successfully performed.
+   */
+  public int getNumSamples()
+  {
+    return numSamples;
+  }
+
+  /**
+   * Returns the FFT length used by the last call to 'generate()'.
+   * @return The FFT length.
+   */
+  public int getFftLength()
+  {
+    return fftLength;
+  }
+
+  /**
+   * Writes the time series generated by the last call to 'generate()'
+   * to the given output stream.  Each outputted line contains 2
+   * numbers:  the time (in seconds) followed by the value of the time
+   * series.  Each number is written in floating-point exponent format
+   * with 7 significant digits.
+   * @param outStm output stream to write to.
+   * @param fName file name associated with output stream.
+   * @param headerStr a String of header information to be included in
+   * the output, or null to indicate no header information.
+   * @return true if successful, false if error (in which case an error
+   * message may be fetched via the 'getErrorMessage()' method).
+   */
+  public boolean writeTimeSeries(Writer outStm,String fName,
+                                                           String headerStr)
+  {
+    if(numSamples <= 0)
+    {    //no time series; set error message
+      setErrorMessage("Method 'generate()' not yet performed");
+      return false;
+    }
+    try
+    {
+      final PrintWriter out = new PrintWriter(new BufferedWriter(outStm));
+      if(headerStr != null)
+      {  //header string was provided
+        out.println(headerStr);                  //show provided header info
+        out.println(Run.HDR_CMT_STR + (stepFlag ? "Step" : "Impulse") +
+                                     " response, sample rate " +
+                                     RespUtils.fmtNumber(sampleRate) + " Hz");
+        out.println(Run.HDR_CMT_STR.trim());     //add blank line
+                                                 //add column headers:
+        out.println(Run.HDR_CMT_STR + "  Time        Value");
+      }
+      for(int i=0; i<numSamples; ++i)
+      {  //for each sample; write line of output
+        out.println(RespUtils.fmtNumber(i/sampleRate) + " " +
+                                          RespUtils.fmtNumber(seriesArr[i]));
+      }
+      if(!out.checkError())       //if no stream errors flagged then
+        return true;              //return OK flag
+         //stream error flagged; set error message
+      setErrorMessage("Stream error writing to output (filename=\"" +
+                                                              fName + "\"");
+    }
+    catch(Exception ex)
+    {    //exception error occurred; set error message
+      setErrorMessage("Error writing to output (filename=\"" + fName +
+                                                             "\"):  " + ex);
+    }
+    return false;       //return error flag
+  }
+
+  /**
+   * Enters an error message (if none previously entered).
+   * @param str the error message string to enter.
+   */
+  protected void setErrorMessage(String str)
+  {
+    if(errorMessage == null)      //if no previous error then
+      errorMessage = str;         //set error message
+  }
+
+  /**
+   * Returns true if an error was detected.  The error message may be
+   * fetched via the 'getErrorMessage()' method.
+   * @return true if an error was detected.
+   */
+  public boolean getErrorFlag()
+  {
+    return (errorMessage != null);
+  }
+
+  /**
+   * Returns message string for last error (or 'No error' if none).
+   * @return The message string for last error (or 'No error' if none).
+   */
+  public String getErrorMessage()
+  {
+    return (errorMessage != null) ? errorMessage : "No error";
+  }
+
+  /**
+   * Clears the error message string.
+   */
+  public void clearErrorMessage()
+  {
+    errorMessage = null;
+  }
+}
@@ -0,0 +1,414 @@
+//InverseResponseFilter.java:  Generates and caches inverse-response
+//                             (deconvolution) spectra for the bins of
+//                             a real FFT.
+//
+//  10/18/2026 -- [AG]  Initial version.
+//
+
+package com.isti.jevalresp;
+
+import java.util.HashMap;
+import java.util.WeakHashMap;
+import edu.iris.Fissures.IfNetwork.Response;
+
+/**
+ * Class InverseResponseFilter generates inverse-response spectra, used
+ * to deconvolve (remove the instrument response from) time series.  For
+ * a given response, sample rate and FFT length, the response is
+ * evaluated once at the frequencies of the FFT bins (with the output
+ * units conversions performed by 'OutputGenerator'), a water level is
+ * applied, the values are inverted and a cosine-tapered pre-filter is
+ * applied.  The resulting spectra are held in a cache keyed on the
+ * 'Response' object, the sample rate and the FFT length, so that a
+ * streaming deconvolution job evaluates the response once per channel
+ * and FFT length instead of once per window.  Cache entries are removed
+ * when the 'Response' object is no longer referenced.  The given
+ * 'Response' objects are not modified.
+ */
+public class InverseResponseFilter
+{
+  protected final int outUnitsConvIdx;      //output units conversion
+  protected final int startStageNum;        //first stage to be processed
+  protected final int stopStageNum;         //last stage to be processed
+  protected final boolean useDelayFlag;     //use est delay for phase calc
+  protected final boolean totalSensitFlag;  //use stage 0 sensitivity
+  protected final double b62XValue;         //sample value for poly blkt
+  protected final double waterLevel;        //water level (frac of max amp)
+              //pre-filter corner frequencies (f1,f2,f3,f4), or null:
+  protected final double [] preFiltFreqsArr;
+              //table of 'Response' objects to tables of inverse spectra
+              // keyed by FFT length and sample rate:
+  protected final WeakHashMap cacheMap = new WeakHashMap();
+  protected String errorMessage = null;     //error message string
+
+  /**
+   * Creates a generator of inverse-response spectra.
+   * @param outUnitsConvIdx output units conversion index for the
+   * requested output units type; one of the 'OutputGenerator'
+   * '..._UNIT_CONV' values.
+   * @param startStageNum if greater than zero then the start of the
+   * range of stage sequence numbers to use, otherwise all stages
+   * are used.
+   * @param stopStageNum if greater than zero then the end of the
+   * range of stage sequence numbers to use, otherwise only the single
+   * stage specified by 'startStageNum' is used.
+   * @param useDelayFlag true to use estimated delay in phase calculation.
+   * @param totalSensitFlag true to use stage 0 (total) sensitivity;
+   * false to use computed sensitivity.
+   * @param b62XValue sample value for polynomial blockette (62).
+   * @param waterLevel the water level, as a fraction of the maximum
+   * amplitude of the response; response values with smaller amplitudes
+   * are raised to this amplitude (keeping their phase) before they are
+   * inverted.  A value of zero disables the water level.
+   * @param preFiltFreqsArr an array of four frequency values (f1, f2,
+   * f3, f4) for the pre-filter; the inverse spectrum is multiplied by
+   * a cosine taper that rises from zero at 'f1' to one at 'f2' and falls
+   * from one at 'f3' to zero at 'f4', or null for no pre-filter.
+   */
+  public InverseResponseFilter(int outUnitsConvIdx,int startStageNum,
+                                   int stopStageNum,boolean useDelayFlag,
+                                 boolean totalSensitFlag,double b62XValue,
+                                double waterLevel,double [] preFiltFreqsArr)
+  {
+    this.outUnitsConvIdx = outUnitsConvIdx;
+    this.startStageNum = startStageNum;
+    this.stopStageNum = stopStageNum;
+    this.useDelayFlag = useDelayFlag;
+    this.totalSensitFlag = totalSensitFlag;
+    this.b62XValue = b62XValue;
+    this.waterLevel = waterLevel;
+    this.preFiltFreqsArr = (preFiltFreqsArr != null) ?
+                                  (double [])preFiltFreqsArr.clone() : null;
+  }
+
+  /**
+   * Creates a generator of inverse-response spectra, using all stages
+   * and computed sensitivity.
+   * @param outUnitsConvIdx output units conversion index for the
+   * requested output units type; one of the 'OutputGenerator'
+   * '..._UNIT_CONV' values.
+   * @param waterLevel the water level, as a fraction of the maximum
+   * amplitude of the response, or zero for none.
+   * @param preFiltFreqsArr an array of four frequency values (f1, f2,
+   * f3, f4) for the pre-filter, or null for no pre-filter.
+   */
+  public InverseResponseFilter(int outUnitsConvIdx,double waterLevel,
+                                                 double [] preFiltFreqsArr)
+  {
+    this(outUnitsConvIdx,0,0,false,false,0.0,waterLevel,preFiltFreqsArr);
+  }
+
+  /**
+   * Returns the inverse-response spectrum for the given response,
+   * sample rate and FFT length.  The spectrum is fetched from the cache
+   * if available; otherwise it is generated and entered into the cache.
+   * @param respObj the response to use.
+   * @param sampleRate the sample rate (in Hz) of the time series.
+   * @param fftLength the length of the FFT.
+   * @return The 'InverseSpectrum' object, or null if an error occurred
+   * (in which case 'getErrorMessage()' may be used to fetch information
+   * about the error).
+   */
+  public InverseSpectrum getInverseSpectrum(Response respObj,
+                                          double sampleRate,int fftLength)
+  {
+    if(respObj == null)
+    {
+      setErrorMessage("Null response object");
+      return null;
+    }
+    final String keyStr = fftLength + "," + sampleRate;
+    Object obj;
+    synchronized(cacheMap)
+    {
+      if((obj=cacheMap.get(respObj)) != null &&
+                                  (obj=((HashMap)obj).get(keyStr)) != null)
+      {  //matching entry found in cache
+        return (InverseSpectrum)obj;
+      }
+    }
+    final InverseSpectrum specObj;
+    if((specObj=createInverseSpectrum(respObj,sampleRate,fftLength)) == null)
+      return null;
+    synchronized(cacheMap)
+    {
+      HashMap specsMap;
+      if((specsMap=(HashMap)cacheMap.get(respObj)) == null)
+      {  //no entries for response; create table
+        specsMap = new HashMap();
+        cacheMap.put(respObj,specsMap);
+      }
+      if((obj=specsMap.get(keyStr)) != null)
+        return (InverseSpectrum)obj;   //if entered by other thread then use
+      specsMap.put(keyStr,specObj);
+    }
+    return specObj;
+  }
+
+  /**
+   * Generates the inverse-response spectrum for the given response,
+   * sample rate and FFT length.
+   * @param respObj the response to use.
+   * @param sampleRate the sample rate (in Hz) of the time series.
+   * @param fftLength the length of the FFT.
+   * @return A new 'InverseSpectrum' object, or null if an error occurred
+   * (in which case 'getErrorMessage()' may be used to fetch information
+   * about the error).
+   */
+  protected InverseSpectrum createInverseSpectrum(Response respObj,
+                                          double sampleRate,int fftLength)
+  {
+    if(preFiltFreqsArr != null && (preFiltFreqsArr.length != 4 ||
+                      !(preFiltFreqsArr[0] <= preFiltFreqsArr[1]) ||
+                      !(preFiltFreqsArr[1] <= preFiltFreqsArr[2]) ||
+                      !(preFiltFreqsArr[2] <= preFiltFreqsArr[3])))
+    {
+      setErrorMessage("Invalid pre-filter frequencies");
+      return null;
+    }
+    if(!(waterLevel >= 0.0))
+    {
+      setErrorMessage("Invalid water level value (" + waterLevel + ")");
+      return null;
+    }
+         //create output generator:
+    final OutputGenerator outGenObj = new OutputGenerator(respObj);
+         //check validity of response (if 'def', don't check units):
+    if(!outGenObj.checkResponse(
+                        outUnitsConvIdx==OutputGenerator.DEFAULT_UNIT_CONV))
+    {
+      setErrorMessage("Error in response:  " + outGenObj.getErrorMessage());
+      return null;
+    }
+    outGenObj.setTotalOnlyFlag(true);    //separate stage values not needed
+    final int numBins = fftLength/2 + 1;
+    final double [] realArr = new double[numBins];
+    final double [] imagArr = new double[numBins];
+    if(!outGenObj.calculateFftBinResponse(sampleRate,fftLength,
+                           outUnitsConvIdx,startStageNum,stopStageNum,
+                             useDelayFlag,totalSensitFlag,b62XValue,
+                                                         realArr,imagArr))
+    {
+      setErrorMessage("Error calculating response:  " +
+                                              outGenObj.getErrorMessage());
+      return null;
+    }
+         //find maximum amplitude (squared) for water level:
+    double maxAmpSq = 0.0, ampSq;
+    for(int i=0; i<numBins; ++i)
+    {
+      if((ampSq=realArr[i]*realArr[i]+imagArr[i]*imagArr[i]) > maxAmpSq)
+        maxAmpSq = ampSq;
+    }
+    final double levelSq = maxAmpSq * waterLevel * waterLevel;
+    double scaleVal;
+    for(int i=0; i<numBins; ++i)
+    {    //for each bin; invert value (1/H == conj(H)/|H|^2)
+      ampSq = realArr[i]*realArr[i] + imagArr[i]*imagArr[i];
+      if(ampSq <= 0.0 || (scaleVal=calcPreFilterValue(
+                  i*sampleRate/fftLength,preFiltFreqsArr)) <= 0.0)
+      {  //no response or outside of pre-filter; enter zero
+        realArr[i] = imagArr[i] = 0.0;
+        continue;
+      }
+      if(ampSq < levelSq)
+      {  //below water level; raise amplitude to water level
+        scaleVal /= Math.sqrt(levelSq * ampSq);
+      }
+      else
+        scaleVal /= ampSq;
+      realArr[i] *= scaleVal;
+      imagArr[i] *= -scaleVal;
+    }
+    return new InverseSpectrum(sampleRate,fftLength,realArr,imagArr);
+  }
+
+  /**
+   * Returns the value of the cosine-tapered pre-filter at the given
+   * frequency.
+   * @param freqVal the frequency value to use.
+   * @param preFiltFreqsArr an array of four frequency values (f1, f2,
+   * f3, f4) for the pre-filter, or null for no pre-filter.
+   * @return The value of the pre-filter, from 0.0 to 1.0.
+   */
+  public static double calcPreFilterValue(double freqVal,
+                                                 double [] preFiltFreqsArr)
+  {
+    if(preFiltFreqsArr == null)
+      return 1.0;
+    if(freqVal <= preFiltFreqsArr[0] || freqVal >= preFiltFreqsArr[3])
+      return 0.0;
+    if(freqVal < preFiltFreqsArr[1])
+    {    //rising section of taper
+      return 0.5 * (1.0 - Math.cos(Math.PI * (freqVal-preFiltFreqsArr[0]) /
+                                  (preFiltFreqsArr[1]-preFiltFreqsArr[0])));
+    }
+    if(freqVal > preFiltFreqsArr[2])
+    {    //falling section of taper
+      return 0.5 * (1.0 + Math.cos(Math.PI * (freqVal-preFiltFreqsArr[2]) /
+                                  (preFiltFreqsArr[3]-preFiltFreqsArr[2])));
+    }
+    return 1.0;
+  }
+
+  /**
+   * Removes all entries from the cache of inverse spectra.
+   */
+  public void clearCache()
+  {
+    synchronized(cacheMap)
+    {
+      cacheMap.clear();
+    }
+  }
+
+  /**
+   * Enters an error message (if none previously entered).
+   * @param str the error message string to enter.
+   */
+  protected void setErrorMessage(String str)
+  {
+    if(errorMessage == null)      //if no previous error then
+      errorMessage = str;         //set error message
+  }
+
+  /**
+   * Returns true if an error was detected.  The error message may be
+   * fetched via the 'getErrorMessage()' method.
+   * @return true if an error was detected.
+   */
+  public boolean getErrorFlag()
+  {
+    return (errorMessage != null);
+  }
+
+  /**
+   * Returns message string for last error (or 'No error' if none).
+   * @return The message string for last error (or 'No error' if none).
+   */
+  public String getErrorMessage()
+  {
+    return (errorMessage != null) ? errorMessage : "No error";
+  }
+
+  /**
+   * Clears the error message string.
+   */
+  public void clearErrorMessage()
+  {
+    errorMessage = null;
+  }
+
+
+  /**
+   * Class InverseSpectrum holds an inverse-response spectrum for the
+   * bins of a real FFT (bins 0 to "fftLength/2").  An 'InverseSpectrum'
+   * is not modified after it is created, and may be shared by any
+   * number of threads.
+   */
+  public static class InverseSpectrum
+  {
+    protected final double sampleRate;      //sample rate of time series
+    protected final int fftLength;          //length of FFT
+    protected final double [] realArr;      //real parts of values
+    protected final double [] imagArr;      //imaginary parts of values
+
+    /**
+     * Creates an inverse-response spectrum.
+     * @param sampleRate the sample rate (in Hz) of the time series.
+     * @param fftLength the length of the FFT.
+     * @param realArr the real parts of the values for the bins.
+     * @param imagArr the imaginary parts of the values for the bins.
+     */
+    public InverseSpectrum(double sampleRate,int fftLength,
+                                        double [] realArr,double [] imagArr)
+    {
+      this.sampleRate = sampleRate;
+      this.fftLength = fftLength;
+      this.realArr = realArr;
+      this.imagArr = imagArr;
+    }
+
+    /**
+     * Returns the sample rate of the time series.
+     * @return The sample rate (in Hz) of the time series.
+     */
+    public double getSampleRate()
+    {
+      return sampleRate;
+    }
+
+    /**
+     * Returns the length of the FFT.
+     * @return The length of the FFT.
+     */
+    public int getFftLength()
+    {
+      return fftLength;
+    }
+
+    /**
+     * Returns the number of bins ("fftLength/2+1").
+     * @return The number of bins.
+     */
+    public int getNumBins()
+    {
+      return realArr.length;
+    }
+
+    /**
+     * Returns the real parts of the values for the bins.  The returned
+     * array is shared and must not be modified.
+     * @return The array of real parts.
+     */
+    public double [] getRealArray()
+    {
+      return realArr;
+    }
+
+    /**
+     * Returns the imaginary parts of the values for the bins.  The
+     * returned array is shared and must not be modified.
+     * @return The array of imaginary parts.
+     */
+    public double [] getImagArray()
+    {
+      return imagArr;
+    }
+
+    /**
+     * Multiplies the given full-length spectrum (such as generated by
+     * 'FirFftEvaluator.fft()' from a real time series) by this inverse
+     * spectrum, in place.  The values for bins above "fftLength/2" are
+     * multiplied by the conjugates of the values for the corresponding
+     * lower bins, so the real part of the inverse transform of the
+     * result is the deconvolved time series.
+     * @param specRealArr the real parts of the spectrum ('fftLength'
+     * entries).
+     * @param specImagArr the imaginary parts of the spectrum
+     * ('fftLength' entries).
+     */
+    public void applyTo(double [] specRealArr,double [] specImagArr)
+    {
+      double re,im,tr;
+      int j;
+      for(int i=0; i<fftLength; ++i)
+      {
+        if(i < realArr.length)
+        {     //lower bin; use value
+          re = realArr[i];
+          im = imagArr[i];
+        }
+        else
+        {     //upper bin; use conjugate of value for corresponding bin
+          j = fftLength - i;
+          re = realArr[j];
+          im = -imagArr[j];
+        }
+        tr = specRealArr[i]*re - specImagArr[i]*im;
+        specImagArr[i] = specRealArr[i]*im + specImagArr[i]*re;
+        specRealArr[i] = tr;
+      }
+    }
+  }
+}
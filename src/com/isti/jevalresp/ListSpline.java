@@ -0,0 +1,344 @@
+//ListSpline.java:  Interpolating spline under tension, fitted once to a
+//                  set of data points and then evaluated at any number
+//                  of abscissa values.
+//
+//  10/18/2026 -- [AG]  Initial version.
+//
+
+package com.isti.jevalresp;
+
+/**
+ * Class ListSpline holds an interpolating spline under tension fitted to
+ * a set of data points (such as the amplitude or phase values of a
+ * Response List Blockette (55)).  The spline uses the same formulation
+ * as the 'spline' program of GNU plotutils (and the 'CubicSpline' class
+ * used previously):  a tension of zero gives a cubic spline, a positive
+ * tension a hyperbolic spline and a negative tension a trigonometric
+ * spline, and the second derivative at each end point is 'k' times the
+ * second derivative at the adjacent point.  The tridiagonal system for
+ * the second derivatives is solved once, when the spline is created;
+ * each evaluation then takes O(log N) time (or O(1) when the abscissa
+ * values are in increasing order).  A 'ListSpline' is not modified
+ * after it is created, so it may be shared by any number of threads.
+ */
+public class ListSpline
+{
+    /** Below this value of tension*h the cubic-spline limit is used. */
+  public static final double TENSION_ARG_MIN = 0.001;
+
+  protected final double [] tArr;           //abscissa values (increasing)
+  protected final double [] yArr;           //ordinate values
+  protected final double [] zArr;           //second derivatives at points
+  protected final double tension;           //tension value for spline
+  protected final String errorMessage;      //error message, or null
+
+  /**
+   * Creates a spline fitted to the given data points.  If an error
+   * occurs then it is reported via the 'getErrorMessage()' method.
+   * @param tArr array of abscissa values, strictly increasing or
+   * strictly decreasing.
+   * @param yArr array of ordinate values.
+   * @param tension tension value for the spline.
+   * @param kVal boundary-condition value (the second derivative at each
+   * end point is 'kVal' times the second derivative at the adjacent
+   * point).
+   */
+  public ListSpline(double [] tArr,double [] yArr,double tension,
+                                                                double kVal)
+  {
+    this.tension = tension;
+    final int numPts = tArr.length;
+    String errMsgStr = null;
+    if(numPts < 2)
+      errMsgStr = "At least 2 data points required";
+    else if(yArr.length != numPts)
+      errMsgStr = "Number of abscissa and ordinate values differ";
+    else if(tArr[numPts-1] < tArr[0])
+    {    //abscissa values decreasing; reverse arrays
+      final double [] revTArr = new double[numPts];
+      final double [] revYArr = new double[numPts];
+      for(int i=0; i<numPts; ++i)
+      {
+        revTArr[i] = tArr[numPts-1-i];
+        revYArr[i] = yArr[numPts-1-i];
+      }
+      tArr = revTArr;
+      yArr = revYArr;
+    }
+    if(errMsgStr == null)
+    {    //no errors so far; check that abscissa values are increasing
+      for(int i=1; i<numPts; ++i)
+      {
+        if(!(tArr[i] > tArr[i-1]))
+        {
+          errMsgStr = "Abscissa values not strictly monotonic";
+          break;
+        }
+      }
+    }
+    this.tArr = tArr;
+    this.yArr = yArr;
+    if(errMsgStr == null)
+    {    //data points OK; fit spline
+      zArr = new double[numPts];
+      errMsgStr = fitSpline(tArr,yArr,tension,kVal,zArr);
+    }
+    else
+      zArr = null;
+    errorMessage = errMsgStr;
+  }
+
+  /**
+   * Returns the error message generated while fitting the spline.
+   * @return The error message, or null if the spline was fitted
+   * successfully.
+   */
+  public String getErrorMessage()
+  {
+    return errorMessage;
+  }
+
+  /**
+   * Returns the first abscissa value of the spline.
+   * @return The first (smallest) abscissa value.
+   */
+  public double getFirstAbscissa()
+  {
+    return tArr[0];
+  }
+
+  /**
+   * Returns the last abscissa value of the spline.
+   * @return The last (largest) abscissa value.
+   */
+  public double getLastAbscissa()
+  {
+    return tArr[tArr.length-1];
+  }
+
+  /**
+   * Returns the tension value for the spline.
+   * @return The tension value for the spline.
+   */
+  public double getTension()
+  {
+    return tension;
+  }
+
+  /**
+   * Evaluates the spline at the given abscissa value.  Values outside
+   * the range of the data points are extrapolated from the first or
+   * last segment.
+   * @param xVal the abscissa value to use.
+   * @return The interpolated value.
+   */
+  public double valueAt(double xVal)
+  {
+    return evalSegment(findSegment(xVal,0),xVal);
+  }
+
+  /**
+   * Evaluates the spline at each of the given abscissa values.  Values
+   * outside the range of the data points are extrapolated from the
+   * first or last segment.
+   * @param xValsArr array of abscissa values to use.
+   * @return A new array containing the interpolated values, or null if
+   * the spline could not be fitted (see 'getErrorMessage()').
+   */
+  public double [] interpolate(double [] xValsArr)
+  {
+    if(errorMessage != null)
+      return null;
+    final double [] retArr = new double[xValsArr.length];
+    interpolate(xValsArr,retArr);
+    return retArr;
+  }
+
+  /**
+   * Evaluates the spline at each of the given abscissa values.  Values
+   * outside the range of the data points are extrapolated from the
+   * first or last segment.  No objects are allocated by this method.
+   * @param xValsArr array of abscissa values to use.
+   * @param outArr array that receives the interpolated values (at the
+   * same indices as the abscissa values).
+   */
+  public void interpolate(double [] xValsArr,double [] outArr)
+  {
+    int segIdx = 0;
+    double xVal;
+    for(int i=0; i<xValsArr.length; ++i)
+    {    //for each abscissa value; find segment (starting with previous)
+      xVal = xValsArr[i];
+      segIdx = findSegment(xVal,segIdx);
+      outArr[i] = evalSegment(segIdx,xVal);
+    }
+  }
+
+  /**
+   * Returns the index of the segment containing the given abscissa
+   * value.  The given "hint" segment and the one after it are checked
+   * first, so that increasing abscissa values are found in constant
+   * time; otherwise a binary search is performed.
+   * @param xVal the abscissa value to use.
+   * @param hintIdx index of segment to check first.
+   * @return The index of the first data point of the segment.
+   */
+  protected int findSegment(double xVal,int hintIdx)
+  {
+    final int lastSegIdx = tArr.length - 2;
+    if(xVal >= tArr[hintIdx])
+    {    //value not before "hint" segment
+      if(hintIdx >= lastSegIdx || xVal <= tArr[hintIdx+1])
+        return hintIdx;
+      if(hintIdx+1 >= lastSegIdx || xVal <= tArr[hintIdx+2])
+        return hintIdx + 1;
+    }
+    else if(hintIdx <= 0)
+      return 0;
+    int loIdx = 0, hiIdx = lastSegIdx + 1, midIdx;
+    while(hiIdx - loIdx > 1)
+    {    //binary search for segment
+      midIdx = (loIdx + hiIdx) >>> 1;
+      if(tArr[midIdx] > xVal)
+        hiIdx = midIdx;
+      else
+        loIdx = midIdx;
+    }
+    return loIdx;
+  }
+
+  /**
+   * Evaluates the given segment of the spline.
+   * @param segIdx index of the first data point of the segment.
+   * @param xVal the abscissa value to use.
+   * @return The interpolated value.
+   */
+  protected double evalSegment(int segIdx,double xVal)
+  {
+    final double hVal = tArr[segIdx+1] - tArr[segIdx];
+    final double diff = xVal - tArr[segIdx];
+    final double upDiff = tArr[segIdx+1] - xVal;
+    final double z0 = zArr[segIdx], z1 = zArr[segIdx+1];
+    final double y0 = yArr[segIdx], y1 = yArr[segIdx+1];
+    final double sVal = Math.abs(tension);
+    if(sVal*hVal < TENSION_ARG_MIN)
+    {    //cubic spline (or tension small enough to use cubic limit)
+      final double aVal = upDiff / hVal, bVal = diff / hVal;
+      return aVal*y0 + bVal*y1 + ((aVal*aVal*aVal-aVal)*z0 +
+                                (bVal*bVal*bVal-bVal)*z1) * (hVal*hVal)/6.0;
+    }
+    final double sSq = sVal * sVal;
+    if(tension > 0.0)
+    {    //hyperbolic spline
+      return (z0/sSq) * (sinhRatio(sVal*upDiff,sVal*hVal) - upDiff/hVal) +
+                  (z1/sSq) * (sinhRatio(sVal*diff,sVal*hVal) - diff/hVal) +
+                                          (y0*upDiff + y1*diff) / hVal;
+    }
+                   //trigonometric spline
+    final double sinH = Math.sin(sVal*hVal);
+    return -(z0/sSq) * (Math.sin(sVal*upDiff)/sinH - upDiff/hVal) -
+                          (z1/sSq) * (Math.sin(sVal*diff)/sinH - diff/hVal) +
+                                          (y0*upDiff + y1*diff) / hVal;
+  }
+
+  /**
+   * Fits the spline, entering the second derivative at each data point
+   * into the given array.
+   * @param tArr array of abscissa values (strictly increasing).
+   * @param yArr array of ordinate values.
+   * @param tension tension value for the spline.
+   * @param kVal boundary-condition value.
+   * @param zArr array that receives the second derivatives.
+   * @return null if successful, or an error message if the system of
+   * equations is singular.
+   */
+  protected static String fitSpline(double [] tArr,double [] yArr,
+                               double tension,double kVal,double [] zArr)
+  {
+    final int numPts = tArr.length;
+    final int numSegs = numPts - 1;
+    if(numSegs < 2)
+    {    //single segment; straight line
+      zArr[0] = zArr[1] = 0.0;
+      return null;
+    }
+    final double [] alphaArr = new double[numSegs];    //off-diagonal terms
+    final double [] betaArr = new double[numSegs];     //diagonal terms
+    final double [] bArr = new double[numSegs];        //right-hand terms
+    final double sVal = Math.abs(tension);
+    final double sSq = sVal * sVal;
+    double hVal,xVal,xSq;
+    for(int i=0; i<numSegs; ++i)
+    {    //for each segment
+      hVal = tArr[i+1] - tArr[i];
+      bArr[i] = 6.0 * (yArr[i+1] - yArr[i]) / hVal;
+      xVal = sVal * hVal;
+      if(xVal < TENSION_ARG_MIN)
+      {  //cubic spline (or series expansion for small tension)
+        xSq = (tension > 0.0) ? xVal*xVal : -xVal*xVal;
+        alphaArr[i] = hVal * (1.0 - 7.0*xSq/60.0);
+        betaArr[i] = 2.0 * hVal * (1.0 - xSq/15.0);
+      }
+      else if(tension > 0.0)
+      {  //hyperbolic spline; use (x/sinh(x)) and (x/tanh(x)) via
+         // exponentials (to avoid overflow for large arguments)
+        final double eVal = Math.exp(-xVal);
+        final double e2Val = -Math.expm1(-2.0*xVal);   //1 - exp(-2x)
+        alphaArr[i] = (6.0/sSq) * (1.0/hVal - sVal*2.0*eVal/e2Val);
+        betaArr[i] = (6.0/sSq) *
+                              (sVal*(2.0-e2Val)/e2Val - 1.0/hVal);
+      }
+      else
+      {  //trigonometric spline
+        final double sinVal = Math.sin(xVal);
+        if(sinVal == 0.0)
+          return "Specified negative tension value is singular";
+        alphaArr[i] = (6.0/sSq) * (sVal/sinVal - 1.0/hVal);
+        betaArr[i] = (6.0/sSq) * (1.0/hVal - sVal/Math.tan(xVal));
+      }
+    }
+         //setup tridiagonal system for interior points (1..numPts-2),
+         // with z[0]=k*z[1] and z[numPts-1]=k*z[numPts-2]:
+    final int lastIdx = numPts - 2;
+    final double [] diagArr = new double[numPts];
+    final double [] rhsArr = new double[numPts];
+    for(int i=1; i<=lastIdx; ++i)
+    {
+      diagArr[i] = betaArr[i-1] + betaArr[i];
+      rhsArr[i] = bArr[i] - bArr[i-1];
+    }
+    diagArr[1] += kVal * alphaArr[0];
+    diagArr[lastIdx] += kVal * alphaArr[lastIdx];
+         //forward elimination:
+    for(int i=2; i<=lastIdx; ++i)
+    {
+      if(diagArr[i-1] == 0.0)
+        return "Singular system of equations for spline";
+      final double fVal = alphaArr[i-1] / diagArr[i-1];
+      diagArr[i] -= fVal * alphaArr[i-1];
+      rhsArr[i] -= fVal * rhsArr[i-1];
+    }
+    if(diagArr[lastIdx] == 0.0)
+      return "Singular system of equations for spline";
+         //back substitution:
+    zArr[lastIdx] = rhsArr[lastIdx] / diagArr[lastIdx];
+    for(int i=lastIdx-1; i>=1; --i)
+      zArr[i] = (rhsArr[i] - alphaArr[i]*zArr[i+1]) / diagArr[i];
+    zArr[0] = kVal * zArr[1];
+    zArr[numPts-1] = kVal * zArr[lastIdx];
+    return null;
+  }
+
+  /**
+   * Returns sinh(a)/sinh(b) for 0 <= a <= b, computed via exponentials
+   * (so that large arguments do not overflow).
+   * @param aVal the numerator argument.
+   * @param bVal the denominator argument (greater than zero).
+   * @return The value of sinh(a)/sinh(b).
+   */
+  protected static double sinhRatio(double aVal,double bVal)
+  {
+    return Math.exp(aVal-bVal) * Math.expm1(-2.0*aVal) /
+                                                     Math.expm1(-2.0*bVal);
+  }
+}
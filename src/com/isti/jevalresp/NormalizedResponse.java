@@ -0,0 +1,327 @@
+//NormalizedResponse.java:  Holds a normalized copy of a 'Response' object
+//                          and the values calculated while normalizing it.
+//
+//  10/18/2026 -- [AG]  Initial version.
+//
+
+package com.isti.jevalresp;
+
+import java.util.HashMap;
+import java.util.WeakHashMap;
+import edu.iris.Fissures.IfNetwork.Response;
+import edu.iris.Fissures.IfNetwork.Stage;
+import edu.iris.Fissures.IfNetwork.Filter;
+import edu.iris.Fissures.IfNetwork.FilterType;
+import edu.iris.Fissures.IfNetwork.CoefficientFilter;
+import edu.iris.Fissures.IfNetwork.CoefficientErrored;
+import edu.iris.Fissures.IfNetwork.Normalization;
+import edu.iris.Fissures.IfNetwork.Gain;
+import edu.iris.Fissures.IfNetwork.Sensitivity;
+import edu.iris.Fissures.model.UnitImpl;
+import edu.iris.Fissures.Unit;
+
+/**
+ * Class NormalizedResponse holds a normalized copy of a 'Response'
+ * object, along with the sensitivity values calculated by the
+ * normalization (see 'OutputGenerator.normalizeResponse()').  The
+ * source 'Response' object is not modified by the normalization, and
+ * a 'NormalizedResponse' is not modified after it is created, so one
+ * parsed response may be evaluated by any number of 'OutputGenerator'
+ * objects (and threads) without being parsed again.  Normalized
+ * responses are held in a cache keyed on the source 'Response' object
+ * and the requested range of stage numbers; entries are removed when
+ * the source 'Response' object is no longer referenced.
+ */
+public class NormalizedResponse
+{
+              //table of source 'Response' objects to tables of
+              // normalized responses keyed by range of stage numbers:
+  protected static final WeakHashMap cacheMap = new WeakHashMap();
+
+  protected final Response respObj;              //normalized response
+         //calculated sensitivity values for stages (idx 0 == all stages):
+  protected final double [] calcSensitivityArray;
+  protected final double calcSenseFrequency;     //calculated sens. freq
+  protected final Unit firstUnitProc;       //first unit in stages processed
+  protected final Unit lastUnitProc;        //last unit in stages processed
+  protected final String infoMessage;       //info message from normalizing
+              //compiled version of response (created when first needed):
+  protected CompiledResponse compiledRespObj = null;
+
+  /**
+   * Creates a normalized response.
+   * @param respObj the normalized 'Response' object (which must not be
+   * modified after this constructor is called).
+   * @param calcSensitivityArray calculated sensitivity values for the
+   * stages (index 0 == all stages).
+   * @param calcSenseFrequency frequency used for the calculated
+   * sensitivity values.
+   * @param firstUnitProc first unit in the stages processed.
+   * @param lastUnitProc last unit in the stages processed.
+   * @param infoMessage informational message generated while normalizing
+   * the response, or null if none.
+   */
+  public NormalizedResponse(Response respObj,double [] calcSensitivityArray,
+                    double calcSenseFrequency,Unit firstUnitProc,
+                                    Unit lastUnitProc,String infoMessage)
+  {
+    this.respObj = respObj;
+    this.calcSensitivityArray = calcSensitivityArray;
+    this.calcSenseFrequency = calcSenseFrequency;
+    this.firstUnitProc = firstUnitProc;
+    this.lastUnitProc = lastUnitProc;
+    this.infoMessage = infoMessage;
+  }
+
+  /**
+   * Returns the normalized 'Response' object.  The returned object is
+   * shared and must not be modified.
+   * @return The normalized 'Response' object.
+   */
+  public Response getResponse()
+  {
+    return respObj;
+  }
+
+  /**
+   * Returns the calculated sensitivity values for the stages.
+   * @return A new array containing the calculated sensitivity values
+   * (index 0 == all stages).
+   */
+  public double [] getCalcSensitivityArray()
+  {
+    return (double [])calcSensitivityArray.clone();
+  }
+
+  /**
+   * Returns the frequency used for the calculated sensitivity values.
+   * @return The frequency used for the calculated sensitivity values.
+   */
+  public double getCalcSenseFrequency()
+  {
+    return calcSenseFrequency;
+  }
+
+  /**
+   * Returns the first unit in the stages processed.
+   * @return The first unit in the stages processed.
+   */
+  public UnitImpl getFirstUnitProc()
+  {
+    return RespUtils.unitToUnitImpl(firstUnitProc);
+  }
+
+  /**
+   * Returns the last unit in the stages processed.
+   * @return The last unit in the stages processed.
+   */
+  public UnitImpl getLastUnitProc()
+  {
+    return RespUtils.unitToUnitImpl(lastUnitProc);
+  }
+
+  /**
+   * Returns the informational message generated while normalizing the
+   * response.
+   * @return The informational message, or null if none.
+   */
+  public String getInfoMessage()
+  {
+    return infoMessage;
+  }
+
+  /**
+   * Returns the compiled version of the normalized response, creating
+   * it if needed.
+   * @return The 'CompiledResponse' object for the normalized response.
+   */
+  public synchronized CompiledResponse getCompiledResponse()
+  {
+    if(compiledRespObj == null)
+      compiledRespObj = new CompiledResponse(respObj);
+    return compiledRespObj;
+  }
+
+  /**
+   * Returns the cached normalized response for the given source
+   * response and range of stage numbers.
+   * @param srcRespObj the source 'Response' object.
+   * @param startStageNum the start of the range of stage sequence
+   * numbers (as given to 'OutputGenerator.normalizeResponse()').
+   * @param stopStageNum the end of the range of stage sequence
+   * numbers (as given to 'OutputGenerator.normalizeResponse()').
+   * @return The matching 'NormalizedResponse' object, or null if none
+   * found.
+   */
+  public static NormalizedResponse getCachedInstance(Response srcRespObj,
+                                         int startStageNum,int stopStageNum)
+  {
+    synchronized(cacheMap)
+    {
+      final HashMap rangesMap;
+      if((rangesMap=(HashMap)cacheMap.get(srcRespObj)) == null)
+        return null;
+      return (NormalizedResponse)rangesMap.get(
+                                 toRangeKey(startStageNum,stopStageNum));
+    }
+  }
+
+  /**
+   * Enters the given normalized response into the cache.  If a matching
+   * entry already exists (entered by another thread) then that entry
+   * is kept and returned.
+   * @param srcRespObj the source 'Response' object.
+   * @param startStageNum the start of the range of stage sequence
+   * numbers (as given to 'OutputGenerator.normalizeResponse()').
+   * @param stopStageNum the end of the range of stage sequence
+   * numbers (as given to 'OutputGenerator.normalizeResponse()').
+   * @param normRespObj the normalized response to enter.
+   * @return The 'NormalizedResponse' object held by the cache.
+   */
+  public static NormalizedResponse cacheInstance(Response srcRespObj,
+                                          int startStageNum,int stopStageNum,
+                                             NormalizedResponse normRespObj)
+  {
+    synchronized(cacheMap)
+    {
+      HashMap rangesMap;
+      if((rangesMap=(HashMap)cacheMap.get(srcRespObj)) == null)
+      {  //no entries for source response; create table
+        rangesMap = new HashMap();
+        cacheMap.put(srcRespObj,rangesMap);
+      }
+      final Long keyObj = toRangeKey(startStageNum,stopStageNum);
+      final Object obj;
+      if((obj=rangesMap.get(keyObj)) != null)
+        return (NormalizedResponse)obj;      //if entry exists then use it
+      rangesMap.put(keyObj,normRespObj);
+      return normRespObj;
+    }
+  }
+
+  /**
+   * Removes all entries from the cache of normalized responses.
+   */
+  public static void clearCache()
+  {
+    synchronized(cacheMap)
+    {
+      cacheMap.clear();
+    }
+  }
+
+  /**
+   * Returns the key for the given range of stage numbers.
+   * @param startStageNum start of range of stage sequence numbers.
+   * @param stopStageNum end of range of stage sequence numbers.
+   * @return A 'Long' object holding both stage numbers.
+   */
+  protected static Long toRangeKey(int startStageNum,int stopStageNum)
+  {
+    return Long.valueOf(((long)startStageNum << 32) |
+                                        (stopStageNum & 0xFFFFFFFFL));
+  }
+
+  /**
+   * Creates a copy of the given response that may be normalized without
+   * modifying the given response.  The sensitivity, gain and
+   * normalization objects and the numerators of coefficients filters
+   * (the values modified by normalization) are copied; the other
+   * values are shared with the given response.
+   * @param srcRespObj the source 'Response' object.
+   * @return A new 'Response' object, or null if the given response
+   * is null.
+   */
+  public static Response copyResponse(Response srcRespObj)
+  {
+    if(srcRespObj == null)
+      return null;
+    final Sensitivity sensObj = srcRespObj.the_sensitivity;
+    final Stage [] srcStagesArr = srcRespObj.stages;
+    Stage [] stagesArr = null;
+    if(srcStagesArr != null)
+    {    //response contains stages array; copy each stage
+      stagesArr = new Stage[srcStagesArr.length];
+      Stage stageObj;
+      for(int i=0; i<srcStagesArr.length; ++i)
+      {
+        if((stageObj=srcStagesArr[i]) != null)
+        {
+          stagesArr[i] = new Stage(stageObj.type,stageObj.input_units,
+                                                      stageObj.output_units,
+                             copyNormalizations(stageObj.the_normalization),
+                                 ((stageObj.the_gain != null) ?
+                                  new Gain(stageObj.the_gain.gain_factor,
+                                     stageObj.the_gain.frequency) : null),
+                                                    stageObj.the_decimation,
+                                              copyFilters(stageObj.filters));
+        }
+      }
+    }
+    return new Response(((sensObj != null) ? new Sensitivity(
+               sensObj.sensitivity_factor,sensObj.frequency) : null),stagesArr);
+  }
+
+  /**
+   * Creates a copy of the given array of normalization objects.
+   * @param srcArr the source array.
+   * @return A new array, or null if the given array is null.
+   */
+  protected static Normalization [] copyNormalizations(
+                                                    Normalization [] srcArr)
+  {
+    if(srcArr == null)
+      return null;
+    final Normalization [] retArr = new Normalization[srcArr.length];
+    for(int i=0; i<srcArr.length; ++i)
+    {
+      if(srcArr[i] != null)
+      {
+        retArr[i] = new Normalization(srcArr[i].ao_normalization_factor,
+                                              srcArr[i].normalization_freq);
+      }
+    }
+    return retArr;
+  }
+
+  /**
+   * Creates a copy of the given array of filter objects, with the
+   * numerators of any coefficients filters copied.
+   * @param srcArr the source array.
+   * @return A new array, or null if the given array is null.
+   */
+  protected static Filter [] copyFilters(Filter [] srcArr)
+  {
+    if(srcArr == null)
+      return null;
+    final Filter [] retArr = new Filter[srcArr.length];
+    Filter filterObj;
+    CoefficientFilter coeffFilterObj;
+    CoefficientErrored [] numersArr;
+    for(int i=0; i<srcArr.length; ++i)
+    {
+      if((filterObj=srcArr[i]) != null &&
+                 FilterType.COEFFICIENT.equals(filterObj.discriminator()) &&
+                        (coeffFilterObj=filterObj.coeff_filter()) != null &&
+                             (numersArr=coeffFilterObj.numerator) != null)
+      {  //coefficients filter with numerators; copy numerators
+        final CoefficientErrored [] newNumersArr =
+                                    new CoefficientErrored[numersArr.length];
+        for(int j=0; j<numersArr.length; ++j)
+        {
+          if(numersArr[j] != null)
+          {
+            newNumersArr[j] = new CoefficientErrored(numersArr[j].value,
+                                                          numersArr[j].error);
+          }
+        }
+        retArr[i] = new Filter();
+        retArr[i].coeff_filter(new CoefficientFilter(newNumersArr,
+                                              coeffFilterObj.denominator));
+      }
+      else    //not coefficients filter; use same object
+        retArr[i] = filterObj;
+    }
+    return retArr;
+  }
+}
@@ -95,12 +95,96 @@
 //                      only call 'checkFixFirFreq0Norm()' if filter type
 //                      is 'FIR_ASYM'; added 'B62_x' value to method
 //                      'getOutputHeaderString()'.
+//  10/18/2026 -- [AG]  Modified 'calculateResponse()' to enter response
+//                      values directly into primitive real/imaginary
+//                      arrays (via 'RespArraysInfo') so that no objects
+//                      are allocated while iterating through frequencies;
+//                      added versions of 'analogTrans()', 'iirPzTrans()',
+//                      'iirTrans()' and 'firTrans()' that enter their
+//                      results into a given array; added methods
+//                      'getCSpectraRealArray()' and 'getCSpectraImagArray()'.
+//                      Modified 'calculateResponse()' to evaluate stages
+//                      via a 'CompiledResponse' object that is created
+//                      once (after normalization) and then reused; added
+//                      method 'getCompiledResponse()'.
+//                      Modified 'calculateResponse()' to evaluate long
+//                      FIR stages over linearly-spaced frequencies via
+//                      'FirFftEvaluator'; added 'setFastFirEvalFlag()'
+//                      and 'getFastFirEvalFlag()' methods.
+//                      Added optional trig-recurrence evaluation of FIR
+//                      and IIR coefficients stages; added methods
+//                      'setTrigRecurEvalFlag()' and
+//                      'getTrigRecurEvalFlag()'.
+//                      Added optional parallel evaluation of chunks of
+//                      frequencies (via 'FreqRangeEvaluator' objects);
+//                      added methods 'setParallelEvalThreads()' and
+//                      'getParallelEvalThreads()'.
+//                      Added optional use of a 'StageSpectrumCache' by
+//                      'calculateResponse()'; added methods
+//                      'setStageSpectrumCache()',
+//                      'getStageSpectrumCache()' and 'getFirDelayObj()'.
+//                      Modified trig-recurrence evaluation to evaluate
+//                      groups of frequencies together (via
+//                      'CompiledResponse' "...Lanes()" methods); added
+//                      methods 'setLaneEvalFlag()', 'getLaneEvalFlag()'
+//                      and 'applyDelayCorrection()'.
+//                      Added methods 'calculateSingleResponse()' and
+//                      'calcSingleViaArrays()'.
+//                      Added optional "total-only" mode, where only the
+//                      values for all stages together are generated;
+//                      added methods 'setTotalOnlyFlag()' and
+//                      'getTotalOnlyFlag()'.  Modified 'calculateResponse()'
+//                      to accumulate the all-stages value while each
+//                      stage is evaluated.
+//                      Modified 'iirPzTrans()' to evaluate the product of
+//                      the pole and zero terms as a complex value (instead
+//                      of via a square root and arctangent for each term).
+//                      Modified 'normalizeResponse()' to normalize a copy
+//                      of the given response (via 'NormalizedResponse',
+//                      which caches normalized responses for reuse) so
+//                      that the given response is not modified; added
+//                      methods 'createNormalizedResponse()',
+//                      'getRespObj()' and 'getNormalizedResponse()'.
+//                      Modified to evaluate polynomial stages via
+//                      'CompiledResponse' method 'polyTrans()' (using
+//                      Horner's scheme), once per call instead of once
+//                      per frequency; added methods
+//                      'calculatePolynomialGains()' and
+//                      'calcSingleResponse()'.
+//                      Modified List-blockette interpolation to use
+//                      'ListSpline' objects (instead of 'CubicSpline'),
+//                      with the splines for List-blockette input values
+//                      fitted once and held by the 'CompiledResponse'.
+//                      Added adaptive frequency spacing (methods
+//                      'generateAdaptiveFreqArray()' and
+//                      'calculateAdaptiveResponse()').
+//                      Added method 'calculateFftBinResponse()'.
+//                      Modified 'calculateResponse()' to reuse the values
+//                      evaluated for a stage for later stages with the
+//                      same values.
+//                      Added optional use of a 'TrigTableCache' by
+//                      'calculateResponse()'; added methods
+//                      'setTrigTableCache()' and 'getTrigTableCache()'.
+//                      Added optional calculation of group-delay values
+//                      by 'calculateResponse()'; added methods
+//                      'setGroupDelayFlag()', 'getGroupDelayFlag()',
+//                      'getGroupDelayArray()', 'calcStageGroupDelay()'
+//                      and 'writeGroupDelayData()'.
+//                      Added method 'setOutputArrays()'.
+//                      Modified 'calcSingleResponse()' to use method
+//                      'getFirDelayObj()'.
 //
 
 package com.isti.jevalresp;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.io.*;
 import java.text.NumberFormat;
 import edu.iris.Fissures.Unit;
@@ -122,7 +206,6 @@ import edu.iris.Fissures.IfNetwork.CoefficientFilter;
 import edu.iris.Fissures.IfNetwork.PolynomialFilter;
 import edu.iris.Fissures.IfNetwork.ListFilter;
 import com.isti.util.UtilFns;
-import com.isti.util.math.CubicSpline;
 
 /**
  * Class OutputGenerator generates 'evalresp'-style output from a FISSURES
@@ -153,6 +236,16 @@ public class OutputGenerator
   public static final double TWO_PI = Math.PI * 2;
     /** Tolerance value used by 'checkFixFirFreq0Norm()' method. */
   public static final double FIR_NORM_TOL = 0.02;
+    /**
+     * Minimum number of frequencies in each chunk evaluated by a separate
+     * thread when parallel evaluation is enabled.
+     */
+  public static final int MIN_PARALLEL_CHUNK_SIZE = 256;
+    /**
+     * Smallest ratio between adjacent frequencies for which an interval
+     * is refined by 'generateAdaptiveFreqArray()'.
+     */
+  public static final double ADAPTIVE_MIN_FREQ_RATIO = 1.000001;
 
     /** Formatter object for displaying floating-point decimal values. */
   public static final NumberFormat decValFormatObj =
@@ -171,7 +264,11 @@ public class OutputGenerator
   protected static final int FIR_UNKNOWN = 3;
 
 //  protected static final boolean XDEBUG_FLAG = true;   //true for messages
-  protected final Response respObj;         //response object
+  protected final Response srcRespObj;      //source response object
+              //response object (normalized copy after normalization):
+  protected Response respObj;
+              //normalized response (set after normalization):
+  protected NormalizedResponse normRespObj = null;
          //calculated sensitivity values for stages (idx 0 == all stages):
   protected double [] calcSensitivityArray = null;
   protected double calcSenseFrequency = 0.0;     //calculated sens. freq
@@ -195,6 +292,27 @@ public class OutputGenerator
   protected boolean listStageFlag = false;  //true if list stage in response
          //array of response arrays/info objects:
   protected RespArraysInfo [] respArraysInfoArray = null;
+              //compiled version of response (created after normalization):
+  protected CompiledResponse compiledRespObj = null;
+              //true to allow FFT evaluation of FIR stages:
+  protected boolean fastFirEvalFlag = true;
+              //true to use trig recurrence for FIR/IIR coefficients:
+  protected boolean trigRecurEvalFlag = false;
+              //true to evaluate groups of frequencies via recurrence:
+  protected boolean laneEvalFlag = true;
+              //true to only generate values for all stages together:
+  protected boolean totalOnlyFlag = false;
+              //arrays to receive all-stages values (null if none):
+  protected double [] outputRealArray = null;
+  protected double [] outputImagArray = null;
+              //true to calculate group-delay values:
+  protected boolean groupDelayFlag = false;
+              //number of threads for evaluating frequencies (1 == serial):
+  protected int parallelEvalThreads = 1;
+              //cache of evaluated stage spectra (null if none):
+  protected StageSpectrumCache stageSpectrumCacheObj = null;
+              //cache of trig tables for FIR/IIR stages (null if none):
+  protected TrigTableCache trigTableCacheObj = null;
          //flag set true after 'getAllStagesAmpPhaseArrays()' called:
   protected boolean allStagesAmpPhaseCalcFlag = false;
          //flag for 'anyAmpsNotPositive()' method:
@@ -228,6 +346,7 @@ public class OutputGenerator
      */
   public OutputGenerator(Response respObj)
   {
+    srcRespObj = respObj;
     this.respObj = respObj;
 
 //    if(XDEBUG_FLAG)
@@ -259,7 +378,7 @@ public class OutputGenerator
     this.logSpacingFlag = logSpacingFlag;
     this.useEstDelayFlag = useEstDelayFlag;
     this.showInputFlag = showInputFlag;
-    respObj = null;
+    srcRespObj = respObj = null;
   }
 
     /**
@@ -299,7 +418,7 @@ public class OutputGenerator
     this.logSpacingFlag = logSpacingFlag;
     this.useEstDelayFlag = useEstDelayFlag;
     this.showInputFlag = showInputFlag;
-    respObj = null;                         //no response object
+    srcRespObj = respObj = null;            //no response object
     outUnitsConv = DEFAULT_UNIT_CONV;       //"Default" units conversion
   }
 
@@ -619,10 +738,14 @@ public class OutputGenerator
 
     /**
      * Normalizes the response and calculates the sensitivity for
-     * all the stages in the response.  Normalization objects may be
-     * added to the stages to hold the normalization values, and the
-     * gain factor and frequency for stages may be modified.  The
-     * calculated sensitivity value is retrievable via the
+     * all the stages in the response.  The normalization is performed
+     * on a copy of the response given to the constructor (which is not
+     * modified); in the copy, normalization objects may be added to the
+     * stages to hold the normalization values, and the gain factor and
+     * frequency for stages may be modified.  The normalized copy is
+     * cached (see 'NormalizedResponse') so that other output generators
+     * using the same response object and range of stages may reuse it.
+     * The calculated sensitivity value is retrievable via the
      * 'getCalcSensitivity()' method.  Note that this method assumes
      * that each stage contains only one filter object in its 'filters[]'
      * array.
@@ -638,10 +761,58 @@ public class OutputGenerator
      */
   public boolean normalizeResponse(int startStageNum,int stopStageNum)
   {
+    NormalizedResponse nRespObj;
+    if((nRespObj=NormalizedResponse.getCachedInstance(
+                         srcRespObj,startStageNum,stopStageNum)) == null)
+    {    //normalized response not found in cache; create it
+      if((nRespObj=createNormalizedResponse(
+                                     startStageNum,stopStageNum)) == null)
+      {  //error creating normalized response (error message was set)
+        return false;
+      }
+              //enter into cache (or use entry from another thread):
+      nRespObj = NormalizedResponse.cacheInstance(srcRespObj,
+                                    startStageNum,stopStageNum,nRespObj);
+    }
+    else if(nRespObj.getInfoMessage() != null)
+      setInfoMessage(nRespObj.getInfoMessage());   //replay info message
+    normRespObj = nRespObj;
+    respObj = nRespObj.getResponse();        //use normalized response
+    calcSensitivityArray = nRespObj.calcSensitivityArray;
+    calcSenseFrequency = nRespObj.calcSenseFrequency;
+    firstUnitProc = nRespObj.firstUnitProc;
+    lastUnitProc = nRespObj.lastUnitProc;
+    compiledRespObj = null;            //clear any previous compiled resp
+    normalizedFlag = true;             //indicate normalization performed
+    return true;                       //return OK flag
+  }
+
+    /**
+     * Creates a normalized copy of the response given to the constructor
+     * and calculates the sensitivity for the stages in the response
+     * (see 'normalizeResponse()').  The response given to the
+     * constructor is not modified.
+     * @param startStageNum if greater than zero then the start of the
+     * range of stage sequence numbers to use, otherwise all stages
+     * are used.
+     * @param stopStageNum if greater than zero then the end of the
+     * range of stage sequence numbers to use, otherwise only the single
+     * stage specified by 'startStageNum' is used.
+     * @return A new 'NormalizedResponse' object, or null if an error
+     * occurred (in which case 'getErorMessage()' may be used to fetch
+     * information about the error).
+     */
+  protected NormalizedResponse createNormalizedResponse(int startStageNum,
+                                                           int stopStageNum)
+  {
+    final String prevInfoMsgStr = infoMessage;   //save current info msg
+    infoMessage = null;                          //clear for this call
     try
     {
+              //create copy of source response to be normalized:
+      final Response nRespObj = NormalizedResponse.copyResponse(srcRespObj);
       double cSenseFreq;            //local copy of sensitivity frequency
-      final int numStages = respObj.stages.length;    //get # of stages
+      final int numStages = nRespObj.stages.length;    //get # of stages
       int stageNum;
               //allocate array of calculated sensitivity values,
               // 1 per stage, idx 0 == all-stages value:
@@ -653,13 +824,13 @@ public class OutputGenerator
          // frequency value among the stage gains (since filters are
          // typically for low pass purposes, the last non-zero frequency
          // is likely the best choice, as its pass band is the narrowest):
-      if(!RespUtils.isSensObjValid(respObj.the_sensitivity))
+      if(!RespUtils.isSensObjValid(nRespObj.the_sensitivity))
       {    //no sensitivity for response
         cSenseFreq = 0.0;         //put in default frequency value
         for(stageNum=0; stageNum<numStages; ++stageNum)
         {    //for each stage in response; find last gain with non-zero freq
           if(RespUtils.isGainObjValid(
-                               gainObj=respObj.stages[stageNum].the_gain) &&
+                               gainObj=nRespObj.stages[stageNum].the_gain) &&
                                        !RespUtils.isZero(gainObj.frequency))
           {   //stage contains valid gain entry with non-zero frequency
             cSenseFreq = gainObj.frequency;      //use freq from gain entry
@@ -667,7 +838,7 @@ public class OutputGenerator
         }
       }
       else    //sensitivity exists for response; use its frequency
-        cSenseFreq = respObj.the_sensitivity.frequency;
+        cSenseFreq = nRespObj.the_sensitivity.frequency;
 //      if(XDEBUG_FLAG)
 //      {  //send debug message to default log file
 //        LogFile.getGlobalLogObj().debug(
@@ -687,11 +858,11 @@ public class OutputGenerator
       if(startStageNum >= numStages)
       {  //no stages match; set error message
         setErrorMessage("No match for requested range of stage numbers");
-        return false;
+        return null;
       }
          //save units for first and last stage processed:
-      firstUnitProc = respObj.stages[startStageNum].input_units;
-      lastUnitProc = respObj.stages[stopStageNum].output_units;
+      final Unit firstUnitObj = nRespObj.stages[startStageNum].input_units;
+      final Unit lastUnitObj = nRespObj.stages[stopStageNum].output_units;
          //process stages:
       final double wVal = TWO_PI * cSenseFreq;
       Stage stageObj;
@@ -708,7 +879,7 @@ public class OutputGenerator
 //          LogFile.getGlobalLogObj().debug("Normalizing stage #" +
 //                                                              (stageNum+1));
 //        }
-        stageObj = respObj.stages[stageNum];
+        stageObj = nRespObj.stages[stageNum];
         if(stageObj != null && stageObj.filters != null &&
                                                 stageObj.filters.length > 0)
         {     //stage contains filters (not gain-only stage)
@@ -717,7 +888,7 @@ public class OutputGenerator
           {     //no filter object; set error message
             setErrorMessage("Filter[0] of stage #" + (stageNum+1) +
                                                                 " is null");
-            return false;
+            return null;
           }
         }
         else
@@ -731,19 +902,19 @@ public class OutputGenerator
             {   //more than one stage in response; set error message
               setErrorMessage("No gain value for stage #" + (stageNum+1) +
                                                   " of multi-stage response");
-              return false;
+              return null;
             }
-            if(!RespUtils.isSensObjValid(respObj.the_sensitivity))
+            if(!RespUtils.isSensObjValid(nRespObj.the_sensitivity))
             {       //no stage 0 sensitivity for response; set error message
               setErrorMessage("No 'stage 0' response sensitivity or gain " +
                                                       "value for single stage");
-              return false;
+              return null;
             }
           }
               //enter overall sensitivity as gain for single stage:
           gainObj = stageObj.the_gain =
-                        new Gain(respObj.the_sensitivity.sensitivity_factor,
-                                         respObj.the_sensitivity.frequency);
+                        new Gain(nRespObj.the_sensitivity.sensitivity_factor,
+                                         nRespObj.the_sensitivity.frequency);
         }
         if(filterObj != null)
         {     //stage contains filters (not gain-only stage)
@@ -756,7 +927,7 @@ public class OutputGenerator
             {     //no normalization; set error message
               setErrorMessage("No normalization for poles/zeros " +
                                     "filter in stage #" + (stageNum+1));
-              return false;
+              return null;
             }
           }
           else  //filter is not poles/zeros type
@@ -782,7 +953,7 @@ public class OutputGenerator
                   {  //zero values returned from transformation; set message
                     setErrorMessage("Zero frequency in bandpass analog " +
                                         "filter in stage #" + (stageNum+1));
-                    return false;
+                    return null;
                   }
                 }
                 else if(stageObj.type == TransferType.DIGITAL)
@@ -792,14 +963,14 @@ public class OutputGenerator
                   {  //decimation required but not given; set error message
                     setErrorMessage("Required decimation not found in " +
                                                   "stage #" + (stageNum+1));
-                    return false;
+                    return null;
                   }
                   if((sIntTimeObj=RespUtils.deciToSampIntTime(
                                        stageObj.the_decimation[0])) == null)
                   {  //unable to process decimation; set error message
                     setErrorMessage("Invalid decimation object in stage #" +
                                                               (stageNum+1));
-                    return false;
+                    return null;
                   }
                   dfNum = iirPzTrans(filterObj.pole_zero_filter(),1.0,
                         sIntTimeObj.doubleValue(),TWO_PI*gainObj.frequency);
@@ -810,7 +981,7 @@ public class OutputGenerator
                 {  //invalid transfer type; set error message
                   setErrorMessage("Invalid transfer type for poles/zeros " +
                                         "filter in stage #" + (stageNum+1));
-                  return false;
+                  return null;
                 }
               }
               else if(filterObj.discriminator().equals(FilterType.COEFFICIENT))
@@ -819,21 +990,21 @@ public class OutputGenerator
                 {  //invalid transfer type; set error message
                   setErrorMessage("Invalid transfer type for coefficients " +
                                         "filter in stage #" + (stageNum+1));
-                  return false;
+                  return null;
                 }
                 if(stageObj.the_decimation == null ||
                                         stageObj.the_decimation.length <= 0)
                 {  //decimation required but not given; set error message
                   setErrorMessage("Required decimation not found in stage #" +
                                                               (stageNum+1));
-                  return false;
+                  return null;
                 }
                 if((sIntTimeObj=RespUtils.deciToSampIntTime(
                                        stageObj.the_decimation[0])) == null)
                 {  //unable to process decimation; set error message
                   setErrorMessage("Invalid decimation object in stage #" +
                                                               (stageNum+1));
-                  return false;
+                  return null;
                 }
                 coeffFilterObj = filterObj.coeff_filter();
                 if(coeffFilterObj.denominator.length <= 0)
@@ -909,26 +1080,29 @@ public class OutputGenerator
       if(numStages == 1 && startStageNum < 1)
       {     //single stage response and stage wasn't skipped
                  //enter calc sensitivity as overall response sensitivity:
-        if(respObj.the_sensitivity != null)
+        if(nRespObj.the_sensitivity != null)
         {   //already contains sensitivity object; modify it
-          respObj.the_sensitivity.sensitivity_factor = (float)calcSensArr[0];
-          respObj.the_sensitivity.frequency = (float)cSenseFreq;
+          nRespObj.the_sensitivity.sensitivity_factor = (float)calcSensArr[0];
+          nRespObj.the_sensitivity.frequency = (float)cSenseFreq;
         }
         else
         {   //no previous sensitivity object; create and enter new one
-          respObj.the_sensitivity = new Sensitivity((float)calcSensArr[0],
+          nRespObj.the_sensitivity = new Sensitivity((float)calcSensArr[0],
                                                        (float)cSenseFreq);
         }
       }
-      calcSensitivityArray = calcSensArr;   //save calc sensitivity values
-      calcSenseFrequency = cSenseFreq;      //save frequency used
-      normalizedFlag = true;           //indicate normalization performed
-      return true;                     //return OK flag
+      return new NormalizedResponse(nRespObj,calcSensArr,cSenseFreq,
+                                    firstUnitObj,lastUnitObj,infoMessage);
     }
     catch(Exception ex)
     {         //some kind of error occurred; set error message
       setErrorMessage("Error normalizing response:  " + ex);
-      return false;
+      return null;
+    }
+    finally
+    {         //restore previous info message if none entered by this call
+      if(infoMessage == null)
+        infoMessage = prevInfoMsgStr;
     }
   }
 
@@ -1032,33 +1206,33 @@ public class OutputGenerator
                       "List stage:  All requested freqencies out of range");
             return false;
           }
-          final CubicSpline splineObj = new CubicSpline();
+                   //get splines for List blockette amp/phase values
+                   // (fitted once and held by compiled response):
+          final CompiledResponse.ListStageSplines splinesObj =
+                                      normRespObj.getCompiledResponse().
+                               getListStageSplines(0,listInterpTension);
+          String errStr;
                    //interpolate List blockette amplitude values:
-          if((listInterpAmpArr=splineObj.calcSpline(freqArray,
-                        RespUtils.floatToDoubleArray(lsFilterObj.amplitude),
-                               listInterpTension,1.0,newFreqArray)) == null)
+          if((errStr=splinesObj.ampSplineObj.getErrorMessage()) != null)
           {   //error interploating values
             setErrorMessage("Error interpolating amplitude values in " +
-                                                  "Response List stage:  " +
-                                         splineObj.getErrorMessageString());
+                                         "Response List stage:  " + errStr);
             return false;
           }
-          final double [] srcPhaseArr =     //get List phase data
-                            RespUtils.floatToDoubleArray(lsFilterObj.phase);
-                                            //unwrap phase data:
-          final double [] unwrappedPhaseArr = unwrapPhaseArray(srcPhaseArr);
-                   //interpolate List blockette phase values:
-          if((listInterpPhaseArr=splineObj.calcSpline(
-                              freqArray,unwrappedPhaseArr,listInterpTension,
-                                                 1.0,newFreqArray)) == null)
+          listInterpAmpArr =
+                          splinesObj.ampSplineObj.interpolate(newFreqArray);
+                   //interpolate List blockette phase values
+                   // (fitted to unwrapped phase data):
+          if((errStr=splinesObj.phaseSplineObj.getErrorMessage()) != null)
           {   //error interploating values
             setErrorMessage("Error interpolating phase values in " +
-                                                  "Response List stage:  " +
-                                         splineObj.getErrorMessageString());
+                                         "Response List stage:  " + errStr);
             return false;
           }
+          listInterpPhaseArr =
+                        splinesObj.phaseSplineObj.interpolate(newFreqArray);
               //if phase data was unwrapped then wrap interpolated data:
-          if(unwrappedPhaseArr != srcPhaseArr)
+          if(splinesObj.phaseUnwrappedFlag)
             listInterpPhaseArr = wrapPhaseArray(listInterpPhaseArr);
           freqArray = newFreqArray;    //use new frequency array
         }
@@ -1118,13 +1292,20 @@ public class OutputGenerator
       int stageNum;
          //create array of 'RespArraysInfo' objects, one for each stage;
          // stage-index-zero entry holds the response value for all stages;
-         // then the proceeding entries are for the separate stages:
+         // then the proceeding entries are for the separate stages
+         // (which are left null if only generating all-stages values):
       final RespArraysInfo [] rArrsInfoArr =
                                             new RespArraysInfo[numStages+1];
               //enter 'RespArraysInfo' object for all-stages response:
-      rArrsInfoArr[0] = new RespArraysInfo(numFreq,freqArray,"Response");
+      rArrsInfoArr[0] = (outputRealArray != null &&
+                                       outputRealArray.length == numFreq &&
+                                      outputImagArray.length == numFreq) ?
+                       new RespArraysInfo(outputRealArray,outputImagArray,
+                                                  freqArray,"Response") :
+                         new RespArraysInfo(numFreq,freqArray,"Response");
       String typeStr;
-      for(stageNum=startStageNum; stageNum<=stopStageNum; ++stageNum)
+      for(stageNum=startStageNum; !totalOnlyFlag && stageNum<=stopStageNum;
+                                                                ++stageNum)
       {  //for each stage to be processed; get type ID for stage
         if((typeStr=getTypeStrForStage(respObj.stages[stageNum])) != null &&
                                                        typeStr.length() > 0)
@@ -1154,276 +1335,192 @@ public class OutputGenerator
                                               "\" output units conversion");
         return false;
       }
-         //process set of stages for each frequency:
-      Stage stageObj;
-      double freqVal,wVal,normFact,ampVal,phaseVal;
-      int numCoeffs,j;
-      PoleZeroFilter pzFilterObj;
-      CoefficientFilter coeffFilterObj;
-      Double sIntTimeObj,tDoubleObj;
-      double deltaVal;
-      ComplexBlk ofNum = null;
-      final ComplexBlk cNum = new ComplexBlk(1.0,0.0);
-      boolean evalFlag;
-      for(int fIdx=0; fIdx<numFreq; ++fIdx)
-      {  //for each frequency value
-        freqVal = freqArray[fIdx];
-        wVal = TWO_PI * freqVal;
-        for(stageNum=startStageNum; stageNum<=stopStageNum; ++stageNum)
-        {     //for each stage in desired range
-          cNum.real = 1.0;
-          cNum.imag = 0.0;
-//          if(XDEBUG_FLAG)
-//          {        //send debug message to default log file
-//            LogFile.getGlobalLogObj().debug(
-//                          "Calculating response of stage #" + (stageNum+1) +
-//                                                " at frequency " + freqVal);
-//          }
-          stageObj = respObj.stages[stageNum];
-          if(stageObj.filters != null && stageObj.filters.length > 0)
-          {   //stage contains filters (not a gain-only stage)
-            if(stageObj.the_normalization != null &&
-                                    stageObj.the_normalization.length > 0 &&
-                                      stageObj.the_normalization[0] != null)
-            {   //stage contains normalization; save value
-              normFact =
-                      stageObj.the_normalization[0].ao_normalization_factor;
-            }
-            else     //stage does not contain normalization
-              normFact = 1.0;       //use default value
-                //get first filter object (we're assuming only one):
-            if((filterObj=stageObj.filters[0]) == null)
-            {   //no filter object; set error message
-              setErrorMessage("Filter object for stage #" + (stageNum+1) +
-                                                                " is null");
-              return false;
-            }
-            evalFlag = false;       //set true if evaluation performed
-            if(filterObj.discriminator().equals(FilterType.POLEZERO))
-            {   //poles/zeros type filter
-              pzFilterObj = filterObj.pole_zero_filter();
-              if(stageObj.type == TransferType.LAPLACE ||
-                                       stageObj.type == TransferType.ANALOG)
-              {      //analog poles/zeros filter
-                ofNum = analogTrans(pzFilterObj,normFact,
-                                    ((stageObj.type==TransferType.LAPLACE) ?
-                                                 TWO_PI*freqVal : freqVal));
-                evalFlag = true;         //indicate evaluation performed
-              }
-              else if(stageObj.type == TransferType.DIGITAL)
-              {      //digital poles/zeros filter
-                if(pzFilterObj.poles.length > 0 ||
-                                               pzFilterObj.zeros.length > 0)
-                {    //filter is not empty
-                  if(stageObj.the_decimation == null ||
-                                        stageObj.the_decimation.length <= 0)
-                  {  //decimation required but not given; set error message
-                    setErrorMessage("Required decimation not found in " +
-                                                  "stage #" + (stageNum+1));
-                    return false;
-                  }
-                  if((sIntTimeObj=RespUtils.deciToSampIntTime(
-                                       stageObj.the_decimation[0])) == null)
-                  {  //unable to process decimation; set error message
-                    setErrorMessage("Invalid decimation object in stage #" +
-                                                              (stageNum+1));
-                    return false;
-                  }
-                  ofNum = iirPzTrans(pzFilterObj,normFact,
-                                            sIntTimeObj.doubleValue(),wVal);
-                  evalFlag = true;       //indicate evaluation performed
-                }
-              }
-              else
-              {      //invalid transfer type; set error message
-                setErrorMessage("Invalid transfer type for poles/zeros " +
-                                        "filter in stage #" + (stageNum+1));
-                return false;
-              }
-            }
-            else if(filterObj.discriminator().equals(FilterType.COEFFICIENT))
-            {   //coefficients type filter
-              if(stageObj.type != TransferType.DIGITAL)
-              {      //invalid transfer type; set error message
-                setErrorMessage("Invalid transfer type for coefficients " +
-                                        "filter in stage #" + (stageNum+1));
-                return false;
-              }
-              if(stageObj.the_decimation == null ||
-                                        stageObj.the_decimation.length <= 0)
-              {      //decimation required but not given; set error message
-                setErrorMessage("Required decimation not found in stage #" +
-                                                              (stageNum+1));
-                return false;
-              }
-              if((sIntTimeObj=RespUtils.deciToSampIntTime(
-                                       stageObj.the_decimation[0])) == null)
-              {      //unable to process decimation; set error message
-                setErrorMessage("Invalid decimation object in stage #" +
-                                                              (stageNum+1));
-                return false;
-              }
-              coeffFilterObj = filterObj.coeff_filter();
-              if(coeffFilterObj.denominator.length <= 0)
-              {      //no denominators, process as FIR filter
-                if(coeffFilterObj.numerator.length > 0)
-                {    //more than zero numerators
-                             //determine if asymmetrical or symmetrical FIR:
-                  final int firTypeVal = determineFirTypeVal(filterObj);
-                  ofNum = firTrans(coeffFilterObj,normFact,
-                                 sIntTimeObj.doubleValue(),wVal,firTypeVal);
-                  if(firTypeVal == FIR_ASYM)
-                  {  //asymmetric FIR; requires delay correction
-                    if(useEstDelayFlag)
-                    {  //using estimated delay in phase calc correction
-                      if((tDoubleObj=RespUtils.quantityToIntTime(
-                             stageObj.the_decimation[0].estimated_delay)) !=
-                                                                       null)
-                      {  //estimated-delay time value fetched OK
-                        deltaVal = tDoubleObj.doubleValue();
-                                  //factor in estimated-delay value:
-                        ofNum.zMultiply(Math.cos(wVal*deltaVal),
-                                                   Math.sin(wVal*deltaVal));
-                      }
-                    }
-                    else
-                    {  //not using estimated delay in phase calc correction
-                      if((tDoubleObj=RespUtils.quantityToIntTime(
-                          stageObj.the_decimation[0].correction_applied)) !=
-                                                                       null)
-                      {  //correction-applied time value fetched OK
-                             //calculate "delta = corrApplied - calcDelay":
-                        deltaVal = tDoubleObj.doubleValue() - ((((double)
-                                   (coeffFilterObj.numerator.length-1))/2) *
-                                                 sIntTimeObj.doubleValue());
-                                  //factor in calculated-delay value:
-                        ofNum.zMultiply(Math.cos(wVal*deltaVal),
-                                                   Math.sin(wVal*deltaVal));
-                      }
-                    }
-                  }
-                  evalFlag = true;     //indicate evaluation performed
-                }
-              }
-              else if(coeffFilterObj.numerator.length > 0)
-              {      //process as coefficients filter
-                ofNum = iirTrans(coeffFilterObj,normFact,
-                                            sIntTimeObj.doubleValue(),wVal);
-                evalFlag = true;         //indicate evaluation performed
-              }
-            }
-            else if(filterObj.discriminator().equals(FilterType.LIST))
-            {   //response list filter
-              listStageFlag = true;      //indicate list stage in response
-              if(listInterpInFlag)
-              {    //using interpolated amp/phase values
-                ampVal = listInterpAmpArr[fIdx];   //get amplitude value
-                     //get phase value, convert degrees to radians (if nec):
-                phaseVal = listInterpPhaseArr[fIdx] * phaseConvVal;
-              }
-              else
-              {    //using amp/phase values from List blockette
-                lsFilterObj = filterObj.list_filter();
-                ampVal = lsFilterObj.amplitude[fIdx];   //get amplitude value
-                     //get phase value, convert degrees to radians (if nec):
-                phaseVal = lsFilterObj.phase[fIdx] * phaseConvVal;
-              }
-              ofNum = new ComplexBlk(ampVal*Math.cos(phaseVal),
-                                                 ampVal*Math.sin(phaseVal));
-              evalFlag = true;           //indicate evaluation performed
-            }
-            else if(filterObj.discriminator().equals(FilterType.POLYNOMIAL))
-            {   //polynomial type filter
-              if(b62XValue <= 0.0)
-              {  //b62_x value not positive
-                setErrorMessage("Valid 'b62_x' value must be specified " +
-                                                 "for polynomial response");
-                return false;
-              }
-              ampVal = 0.0;       //initialize amplitude value
-                        //get array of coefficient and error values:
-              final CoefficientErrored [] coeffsArr =
-                             filterObj.polynomial_filter().coeff_err_values;
-              numCoeffs = (coeffsArr != null) ? coeffsArr.length : 0;
-              if(numCoeffs > 0)
-              {  //array not empty
-                        //compute first derivate of MacLaurin polynomial:
-                for(j = 1; j<numCoeffs; ++j)
-                {
-                   ampVal += coeffsArr[j].value * j *
-                                                    Math.pow(b62XValue,j-1);
-                }
-                        //set phase value based on amplitude
-                phaseVal = (ampVal >= 0.0) ? 0.0 : Math.PI;
-                        //apply values:
-                ofNum = new ComplexBlk(ampVal*Math.cos(phaseVal),
-                                                 ampVal*Math.sin(phaseVal));
-                evalFlag = true;            //indicate evaluation performed
-              }
-            }
-            if(evalFlag)                 //if filter was evaluated then
-              cNum.zMultiply(ofNum);     //multply in new value
+         //setup handles to real/imaginary arrays for all-stages
+         // entry and for each stage entry (values are entered directly
+         // into these arrays so that no objects are allocated while
+         // iterating through the frequencies):
+      final double [][] realArrs = new double[numStages+1][];
+      final double [][] imagArrs = new double[numStages+1][];
+      for(stageNum=0; stageNum<=numStages; ++stageNum)
+      {  //for each possible stage entry
+        if((rArrInfoObj=rArrsInfoArr[stageNum]) != null)
+        {     //stage entry exists; set handles to arrays
+          realArrs[stageNum] = rArrInfoObj.getRealArray();
+          imagArrs[stageNum] = rArrInfoObj.getImagArray();
+        }
+      }
+         //if calculating group delay then setup arrays for all-stages
+         // entry and for each stage entry:
+      final double [][] groupDelayArrs;
+      if(groupDelayFlag)
+      {  //calculating group delay
+        groupDelayArrs = new double[numStages+1][];
+        for(stageNum=0; stageNum<=numStages; ++stageNum)
+        {     //for each possible stage entry
+          if((rArrInfoObj=rArrsInfoArr[stageNum]) != null)
+          {   //stage entry exists; create and enter array
+            groupDelayArrs[stageNum] = new double[numFreq];
+            rArrInfoObj.setGroupDelayArray(groupDelayArrs[stageNum]);
           }
-                   //enter response value (at frequency) for given stage
-                   // (response value for all stages calculated below):
-          rArrsInfoArr[stageNum+1].enterCSpectraVal(fIdx,cNum);
         }
-              //calculate response value for all stages put together:
-        cNum.real = 1.0;
-        cNum.imag = 0.0;
-        for(stageNum=startStageNum; stageNum<=stopStageNum; ++stageNum)
-          cNum.zMultiply(rArrsInfoArr[stageNum+1].cSpectraArray[fIdx]);
-                             //enter value into zero index in array:
-        rArrsInfoArr[0].enterCSpectraVal(fIdx,cNum);
-              //if using stage 0 (total) sensitivity then save value:
-        final float totalSensitVal = (totalSensitFlag &&
+      }
+      else    //not calculating group delay
+        groupDelayArrs = null;
+         //if using stage 0 (total) sensitivity then save value:
+      final float totalSensitVal = (totalSensitFlag &&
                                           respObj.the_sensitivity != null) ?
                     respObj.the_sensitivity.sensitivity_factor : (float)1.0;
-        double calcSensVal;
-              //process conversions for each stage entry:
-        for(stageNum=0; stageNum<=numStages; ++stageNum)
-        {     //for each possible stage entry
-          if((rArrInfoObj=rArrsInfoArr[stageNum]) != null &&
-                            (ofNum=rArrInfoObj.cSpectraArray[fIdx]) != null)
-          {   //stage entry contains data
-            if(totalSensitFlag)
-            {  //using stage 0 (total) sensitivity
-                   //multiply in sensitivity and unit conv scale factor:
-              ofNum.real *= totalSensitVal * unitScaleFact;
-              ofNum.imag *= totalSensitVal * unitScaleFact;
+         //get compiled version of response (created once, after
+         // normalization, and then reused for later calculations):
+      if(compiledRespObj == null)
+        compiledRespObj = normRespObj.getCompiledResponse();
+      final CompiledResponse compRespObj = compiledRespObj;
+      CompiledResponse.StageKernel kernelObj;
+      StageSpectrumCache.StageKey keyObj;
+      Double delayObj;
+      double [][] specArrs;
+      boolean fftFlag;
+         //arrays of precomputed values for stages (with any delay
+         // correction applied), fetched from cache or calculated via FFT:
+      final double [][] preRealArrs = new double[numStages][];
+      final double [][] preImagArrs = new double[numStages][];
+         //arrays to receive values for stages to be entered into cache:
+      final double [][] storeRealArrs = new double[numStages][];
+      final double [][] storeImagArrs = new double[numStages][];
+         //flags set for stages whose precomputed values are to be
+         // calculated (by evaluators) for groups of frequencies:
+      final boolean [] laneStagesArr = new boolean[numStages];
+         //keys for stages to be entered into cache:
+      final StageSpectrumCache.StageKey [] cacheKeysArr =
+                                  new StageSpectrumCache.StageKey[numStages];
+      final StageSpectrumCache cacheObj = stageSpectrumCacheObj;
+         //trig tables for stages to be evaluated directly (if cache
+         // of tables in use):
+      final TrigTableCache tableCacheObj =
+                               trigRecurEvalFlag ? null : trigTableCacheObj;
+      final TrigTableCache.TrigTable [] trigTablesArr =
+                                 new TrigTableCache.TrigTable[numStages];
+      final int freqHashVal = (cacheObj != null || tableCacheObj != null) ?
+                                             Arrays.hashCode(freqArray) : 0;
+      for(stageNum=startStageNum; stageNum<=stopStageNum; ++stageNum)
+      {  //for each stage in desired range
+        if(compRespObj.getSameStageIndex(stageNum) >= startStageNum)
+          continue;   //if values from previous stage to be used then skip
+        kernelObj = compRespObj.getStageKernel(stageNum);
+        delayObj = getFirDelayObj(kernelObj);
+              //evaluate any long FIR stages over all frequencies via FFT
+              // (if frequencies are linearly spaced):
+        fftFlag = fastFirEvalFlag &&
+                     FirFftEvaluator.isFastEvalSuitable(kernelObj,freqArray);
+        if(cacheObj != null && StageSpectrumCache.isCacheable(kernelObj))
+        {     //stage-spectrum cache in use and stage may be cached
+          keyObj = new StageSpectrumCache.StageKey(kernelObj,delayObj,
+                    (fftFlag ? StageSpectrumCache.FFT_EVAL_MODE :
+                      ((trigRecurEvalFlag && kernelObj.kernelType !=
+                                      CompiledResponse.ANALOG_PZ_KERNEL &&
+                             kernelObj.kernelType !=
+                                        CompiledResponse.IIR_PZ_KERNEL) ?
+                                StageSpectrumCache.RECUR_EVAL_MODE : 0)),
+                                                  freqArray,freqHashVal);
+          if((specArrs=cacheObj.get(keyObj)) != null)
+          {   //matching entry found in cache; use values
+            preRealArrs[stageNum] = specArrs[0];
+            preImagArrs[stageNum] = specArrs[1];
+            continue;
+          }
+          cacheKeysArr[stageNum] = keyObj;       //enter key for stage
+          if(!fftFlag)
+          {   //stage to be evaluated directly; setup arrays for values
+            storeRealArrs[stageNum] = new double[numFreq];
+            storeImagArrs[stageNum] = new double[numFreq];
+          }
+        }
+        if(fftFlag)
+        {     //FFT evaluation should be used for stage
+          preRealArrs[stageNum] = new double[numFreq];
+          preImagArrs[stageNum] = new double[numFreq];
+          FirFftEvaluator.calcFirSpectra(kernelObj,freqArray,
+                               preRealArrs[stageNum],preImagArrs[stageNum]);
+          if(delayObj != null)
+          {   //delay correction needed; factor in delay value
+            applyDelayCorrection(freqArray,0,numFreq,delayObj.doubleValue(),
+                               preRealArrs[stageNum],preImagArrs[stageNum]);
+          }
+        }
+        else if(trigRecurEvalFlag && laneEvalFlag &&
+                  (kernelObj.kernelType == CompiledResponse.FIR_KERNEL ||
+                      kernelObj.kernelType == CompiledResponse.IIR_KERNEL))
+        {     //stage to be evaluated for groups of frequencies
+          preRealArrs[stageNum] = new double[numFreq];
+          preImagArrs[stageNum] = new double[numFreq];
+          laneStagesArr[stageNum] = true;
+          storeRealArrs[stageNum] = storeImagArrs[stageNum] = null;
+        }
+        else if(tableCacheObj != null)
+        {     //stage to be evaluated directly; get any table for stage
+          trigTablesArr[stageNum] =
+                       tableCacheObj.getTable(kernelObj,freqArray,freqHashVal);
+        }
+      }
+         //create evaluator for full range of frequencies:
+      final FreqRangeEvaluator fullEvalObj = new FreqRangeEvaluator(
+                   freqArray,realArrs,imagArrs,groupDelayArrs,compRespObj,
+           preRealArrs,preImagArrs,storeRealArrs,storeImagArrs,laneStagesArr,
+                 trigTablesArr,listInterpAmpArr,listInterpPhaseArr,
+                       phaseConvVal,totalSensitVal,unitScaleFact,inpUnitsConv,
+                         outUnitsConv,startStageNum,stopStageNum,0,numFreq);
+         //determine number of frequency chunks to evaluate concurrently:
+      final int numChunks = (parallelEvalThreads > 1) ? Math.min(
+                parallelEvalThreads,numFreq/MIN_PARALLEL_CHUNK_SIZE) : 1;
+      final FreqRangeEvaluator [] evalObjsArr;
+      if(numChunks > 1)
+      {  //evaluate chunks of frequencies in parallel
+        evalObjsArr = new FreqRangeEvaluator[numChunks];
+        int fromIdx = 0, toIdx;
+        for(int i=0; i<numChunks; ++i)
+        {     //for each chunk; create evaluator for range of indices
+          toIdx = (int)((long)numFreq * (i+1) / numChunks);
+          evalObjsArr[i] = new FreqRangeEvaluator(fullEvalObj,fromIdx,toIdx);
+          fromIdx = toIdx;
+        }
+        runEvaluators(evalObjsArr);
+      }
+      else
+      {  //evaluate all frequencies via current thread
+        evalObjsArr = new FreqRangeEvaluator [] { fullEvalObj };
+        fullEvalObj.run();
+      }
+         //check results in frequency order (so that any error reported
+         // is the same as it would be for serial evaluation):
+      FreqRangeEvaluator evalObj;
+      for(int i=0; i<evalObjsArr.length; ++i)
+      {  //for each evaluator
+        evalObj = evalObjsArr[i];
+        if(evalObj.listStageEvalFlag)       //if list stage evaluated then
+          listStageFlag = true;             //indicate list stage in resp
+        if(evalObj.exceptionObj != null)    //if exception then
+          throw evalObj.exceptionObj;       //pass it along
+        if(evalObj.errorMessage != null)
+        {     //error evaluating stages; set error message
+          setErrorMessage(evalObj.errorMessage);
+          return false;
+        }
+      }
+      if(cacheObj != null)
+      {  //stage-spectrum cache in use; enter newly-evaluated stage values
+        for(stageNum=startStageNum; stageNum<=stopStageNum; ++stageNum)
+        {     //for each stage in desired range
+          if(cacheKeysArr[stageNum] != null)
+          {   //stage values to be entered into cache
+            if(storeRealArrs[stageNum] != null)
+            {      //stage was evaluated directly
+              cacheObj.put(cacheKeysArr[stageNum],storeRealArrs[stageNum],
+                                                   storeImagArrs[stageNum]);
             }
             else
-            {  //using computed sensitivity from each stage
-                   //get calculated sensitivity value for stage index:
-              calcSensVal = (calcSensitivityArray != null &&
-                                   stageNum < calcSensitivityArray.length) ?
-                                       calcSensitivityArray[stageNum] : 1.0;
-                   //multiply in sensitivity and unit conv scale factor:
-              ofNum.real *= calcSensVal * unitScaleFact;
-              ofNum.imag *= calcSensVal * unitScaleFact;
-            }
-                   //handle any units conversions:
-            if(outUnitsConv != inpUnitsConv)
-            {      //requested output units different from input units
-              if(inpUnitsConv == DISPLACE_UNIT_CONV)
-              {    //input unit is 'displacement'; convert to 'velocity'
-                if(wVal != 0.0)
-                  ofNum.zMultiply(0.0,-1.0/wVal);
-                else
-                  ofNum.real = ofNum.imag = 0.0;
-              }    //if input unit is 'accel' then convert to 'velocity':
-              else if(inpUnitsConv == ACCEL_UNIT_CONV)
-                ofNum.zMultiply(0.0,wVal);
-                   //if requested output is 'displacement' then convert:
-              if(outUnitsConv == DISPLACE_UNIT_CONV)
-                ofNum.zMultiply(0.0,wVal);
-              else if(outUnitsConv == ACCEL_UNIT_CONV)
-              {    //requested output is 'acceleration'; convert it
-                if(wVal != 0.0)
-                  ofNum.zMultiply(0.0,-1.0/wVal);
-                else
-                  ofNum.real = ofNum.imag = 0.0;
-              }
+            {      //stage values were precomputed
+              cacheObj.put(cacheKeysArr[stageNum],preRealArrs[stageNum],
+                                                     preImagArrs[stageNum]);
             }
           }
         }
@@ -1688,17 +1785,1126 @@ public class OutputGenerator
   }
 
     /**
-     * Returns the array of complex spectra response values generated by
-     * 'calculateResponse()'.
-     * @return The array of complex spectra response values generated by
-     * 'calculateResponse()', or null if 'calculateResponse()' has not
-     * yet been performed.
+     * Calculates the response at a single frequency, entering the
+     * complex response value (for all stages in the range) into the
+     * given array.  Unlike 'calculateResponse()', no arrays or per-stage
+     * results are created and the results of any previous call to
+     * 'calculateResponse()' are not affected, so this method may be
+     * called repeatedly to quickly evaluate a response at different
+     * frequencies.  The value is the same as that generated by
+     * 'calculateResponse()' for the frequency.  If 'normalizeResponse()'
+     * has not yet been called then it is called first.  If the stages
+     * include a List stage then the response is evaluated via
+     * 'calculateResponse()' (and the first value generated is used).
+     * @param freqVal the frequency value to use.
+     * @param outUnitsConv output units conversion value for the requested
+     * output units type; one of the '..._UNIT_CONV' values.
+     * @param startStageNum if greater than zero then the start of the
+     * range of stage sequence numbers to use, otherwise all stages
+     * are used.
+     * @param stopStageNum if greater than zero then the end of the
+     * range of stage sequence numbers to use, otherwise only the single
+     * stage specified by 'startStageNum' is used.
+     * @param useEstDelayFlag true to use estimated delay in phase
+     * calculations on asymmetrical FIR filters.
+     * @param totalSensitFlag true to use stage 0 (total) sensitivity;
+     * false to use computed sensitivity.
+     * @param b62XValue sample value for polynomial blockette (62).
+     * @param outArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the response value.
+     * @return true if successful, false if an error occurred
+     * (in which case 'getErorMessage()' may be used to fetch
+     * information about the error).
      */
-  public ComplexBlk [] getCSpectraArray()
+  public boolean calculateSingleResponse(double freqVal,int outUnitsConv,
+                   int startStageNum,int stopStageNum,boolean useEstDelayFlag,
+                  boolean totalSensitFlag,double b62XValue,double [] outArr)
   {
-    return (respArraysInfoArray != null && respArraysInfoArray.length > 0 &&
-                                           respArraysInfoArray[0] != null) ?
-                                respArraysInfoArray[0].cSpectraArray : null;
+    return calcSingleResponse(freqVal,outUnitsConv,startStageNum,
+                                  stopStageNum,useEstDelayFlag,totalSensitFlag,
+                                                  b62XValue,null,null,outArr);
+  }
+
+    /**
+     * Calculates the gain of the response for each of the given sample
+     * values for polynomial blockettes (62), at a single frequency.  The
+     * response for the stages other than polynomial stages is evaluated
+     * once, and the first derivative of the polynomial for each
+     * polynomial stage is calculated once per sample value (via Horner's
+     * scheme), so that long series of sample values (such as readings
+     * from a MEMS or temperature sensor) may be converted quickly.  Each
+     * gain value is the same as the amplitude of the value generated by
+     * 'calculateSingleResponse()' for the sample value, except that
+     * sample values that are not positive are allowed.  If the stages
+     * include a List stage then an error is generated.
+     * @param b62XValsArr array of sample values for polynomial
+     * blockettes (62).
+     * @param freqVal the frequency value to use.
+     * @param outUnitsConv output units conversion value for the requested
+     * output units type; one of the '..._UNIT_CONV' values.
+     * @param startStageNum if greater than zero then the start of the
+     * range of stage sequence numbers to use, otherwise all stages
+     * are used.
+     * @param stopStageNum if greater than zero then the end of the
+     * range of stage sequence numbers to use, otherwise only the single
+     * stage specified by 'startStageNum' is used.
+     * @param totalSensitFlag true to use stage 0 (total) sensitivity;
+     * false to use computed sensitivity.
+     * @return A new array containing the gain value for each sample
+     * value, or null if an error occurred (in which case
+     * 'getErorMessage()' may be used to fetch information about the
+     * error).
+     */
+  public double [] calculatePolynomialGains(double [] b62XValsArr,
+                                           double freqVal,int outUnitsConv,
+                                          int startStageNum,int stopStageNum,
+                                                    boolean totalSensitFlag)
+  {
+    final double [] gainsArr = new double[b62XValsArr.length];
+    Arrays.fill(gainsArr,1.0);
+    final double [] outArr = new double[2];
+    if(!calcSingleResponse(freqVal,outUnitsConv,startStageNum,
+                               stopStageNum,false,totalSensitFlag,0.0,
+                                              b62XValsArr,gainsArr,outArr))
+    {
+      return null;
+    }
+              //multiply in amplitude of response for non-polynomial stages:
+    final double ampVal = Math.sqrt(outArr[0]*outArr[0] +
+                                                       outArr[1]*outArr[1]);
+    for(int i=0; i<gainsArr.length; ++i)
+      gainsArr[i] *= ampVal;
+    return gainsArr;
+  }
+
+    /**
+     * Calculates the response at the frequencies of the bins of a real
+     * FFT of the given length ("k*sampleRate/fftLength" for bins 0 to
+     * "fftLength/2"), entering the complex response values into the
+     * given arrays.  The response is evaluated via 'calculateResponse()'
+     * (with linear spacing, so that the fast FIR evaluation may be used).
+     * The response at zero frequency (bin 0) is evaluated via
+     * 'calculateSingleResponse()'; if the value is undefined there (an
+     * output units conversion that divides by the frequency, or a pole
+     * at zero frequency) then zero is entered for bin 0.
+     * @param sampleRate the sample rate (in Hz) of the time series.
+     * @param fftLength the length of the FFT.
+     * @param outUnitsConv output units conversion value for the requested
+     * output units type; one of the '..._UNIT_CONV' values.
+     * @param startStageNum if greater than zero then the start of the
+     * range of stage sequence numbers to use, otherwise all stages
+     * are used.
+     * @param stopStageNum if greater than zero then the end of the
+     * range of stage sequence numbers to use, otherwise only the single
+     * stage specified by 'startStageNum' is used.
+     * @param useEstDelayFlag true to use estimated delay in phase
+     * calculations on asymmetrical FIR filters.
+     * @param totalSensitFlag true to use stage 0 (total) sensitivity;
+     * false to use computed sensitivity.
+     * @param b62XValue sample value for polynomial blockette (62).
+     * @param realArr array to receive the real parts of the values (at
+     * least "fftLength/2+1" entries).
+     * @param imagArr array to receive the imaginary parts of the values
+     * (at least "fftLength/2+1" entries).
+     * @return true if successful, false if an error occurred
+     * (in which case 'getErorMessage()' may be used to fetch
+     * information about the error).
+     */
+  public boolean calculateFftBinResponse(double sampleRate,int fftLength,
+                       int outUnitsConv,int startStageNum,int stopStageNum,
+                         boolean useEstDelayFlag,boolean totalSensitFlag,
+                     double b62XValue,double [] realArr,double [] imagArr)
+  {
+    if(fftLength < 2 || !(sampleRate > 0.0))
+    {
+      setErrorMessage("Invalid sample rate or FFT length");
+      return false;
+    }
+    final int numBins = fftLength/2 + 1;
+    final double [] freqArr = new double[numBins-1];
+    for(int i=0; i<freqArr.length; ++i)
+      freqArr[i] = (i+1) * sampleRate / fftLength;
+    if(!calculateResponse(freqArr,false,outUnitsConv,startStageNum,
+                     stopStageNum,useEstDelayFlag,false,false,false,0.0,
+                                         false,totalSensitFlag,b62XValue))
+    {
+      return false;
+    }
+    final double [] calcRealArr = getCSpectraRealArray();
+    final double [] calcImagArr = getCSpectraImagArray();
+    if(calcRealArr == null || calcRealArr.length != freqArr.length)
+    {    //response not evaluated at requested frequencies (List stage)
+      setErrorMessage(
+                  "Response values not calculated at requested frequencies");
+      return false;
+    }
+    System.arraycopy(calcRealArr,0,realArr,1,freqArr.length);
+    System.arraycopy(calcImagArr,0,imagArr,1,freqArr.length);
+    final double [] valsArr = new double[2];
+    if(!calcSingleResponse(0.0,outUnitsConv,startStageNum,stopStageNum,
+                         useEstDelayFlag,totalSensitFlag,b62XValue,null,
+                                                             null,valsArr))
+    {
+      return false;
+    }
+    if(Double.isInfinite(valsArr[0]) || Double.isNaN(valsArr[0]) ||
+             Double.isInfinite(valsArr[1]) || Double.isNaN(valsArr[1]))
+    {    //response value undefined at zero frequency; enter zero
+      realArr[0] = imagArr[0] = 0.0;
+    }
+    else
+    {    //enter response value at zero frequency
+      realArr[0] = valsArr[0];
+      imagArr[0] = valsArr[1];
+    }
+    return true;
+  }
+
+    /**
+     * Generates a non-uniform array of frequency values that resolves
+     * the response to within the given tolerances.  A log-spaced array
+     * of 'initNumFreqs' values is refined by evaluating the response at
+     * the (geometric) midpoint of each interval; if the amplitude or
+     * (unwrapped) phase at the midpoint differs by more than the given
+     * tolerances from the value interpolated (log-log for amplitude,
+     * log-linear for phase) between the ends of the interval then the
+     * midpoint is added and both halves are refined in the next pass,
+     * otherwise the interval is left as is.  The passes continue until
+     * all intervals are resolved or until 'maxNumFreqs' values have
+     * been generated, so flat passbands are covered by few values and
+     * corners and resonances by many.  Note that 'initNumFreqs' should be
+     * large enough that no feature of the response falls entirely
+     * between adjacent initial values.  The response is evaluated via
+     * 'calculateSingleResponse()', so the results of any previous call
+     * to 'calculateResponse()' are not affected (except for responses
+     * containing a List stage).
+     * @param minFreq the minimum frequency to generate.
+     * @param maxFreq the maximum frequency to generate.
+     * @param initNumFreqs the number of log-spaced frequencies to start
+     * with (at least 2).
+     * @param maxNumFreqs the maximum number of frequencies to generate.
+     * @param ampTolerance the tolerance for amplitude values, relative
+     * to the amplitude (i.e., 0.01 == 1%).
+     * @param phaseTolerance the tolerance for phase values, in degrees.
+     * @param outUnitsConv output units conversion value for the requested
+     * output units type; one of the '..._UNIT_CONV' values.
+     * @param startStageNum if greater than zero then the start of the
+     * range of stage sequence numbers to use, otherwise all stages
+     * are used.
+     * @param stopStageNum if greater than zero then the end of the
+     * range of stage sequence numbers to use, otherwise only the single
+     * stage specified by 'startStageNum' is used.
+     * @param useEstDelayFlag true to use estimated delay in phase
+     * calculations on asymmetrical FIR filters.
+     * @param totalSensitFlag true to use stage 0 (total) sensitivity;
+     * false to use computed sensitivity.
+     * @param b62XValue sample value for polynomial blockette (62).
+     * @return A new array of increasing frequency values, or null if an
+     * error occurred (in which case 'getErorMessage()' may be used to
+     * fetch information about the error).
+     */
+  public double [] generateAdaptiveFreqArray(double minFreq,double maxFreq,
+                                        int initNumFreqs,int maxNumFreqs,
+                                  double ampTolerance,double phaseTolerance,
+                       int outUnitsConv,int startStageNum,int stopStageNum,
+                                boolean useEstDelayFlag,
+                                  boolean totalSensitFlag,double b62XValue)
+  {
+    final String str;
+    if((str=RespUtils.checkFreqArrayParams(
+                               minFreq,maxFreq,initNumFreqs,true)) != null)
+    {    //frequency array parameter invalid
+      setErrorMessage(str);
+      return null;
+    }
+    if(initNumFreqs < 2 || RespUtils.isZero(maxFreq-minFreq))
+    {
+      setErrorMessage("At least two different frequency values required " +
+                                                     "for adaptive spacing");
+      return null;
+    }
+    if(maxNumFreqs < initNumFreqs || !(ampTolerance > 0.0) ||
+                                                     !(phaseTolerance > 0.0))
+    {
+      setErrorMessage("Invalid parameters for adaptive frequency spacing");
+      return null;
+    }
+         //generate and evaluate initial (log-spaced) frequencies:
+    double [] freqArr =
+         RespUtils.generateFreqArray(minFreq,maxFreq,initNumFreqs,true);
+    int numFreqs = freqArr.length;
+    double [] ampArr = new double[numFreqs];
+    double [] phaseArr = new double[numFreqs];
+         //flags set for intervals (after each value) to be refined:
+    boolean [] refineArr = new boolean[numFreqs];
+    final double [] outArr = new double[2];
+    for(int i=0; i<numFreqs; ++i)
+    {
+      if(!calculateSingleResponse(freqArr[i],outUnitsConv,startStageNum,
+                                   stopStageNum,useEstDelayFlag,
+                                       totalSensitFlag,b62XValue,outArr))
+      {
+        return null;
+      }
+      ampArr[i] = Math.sqrt(outArr[0]*outArr[0] + outArr[1]*outArr[1]);
+      phaseArr[i] = Math.toDegrees(Math.atan2(outArr[1],outArr[0]));
+      refineArr[i] = (i < numFreqs-1);
+    }
+    int numRefine = numFreqs - 1;      //number of intervals to be refined
+    double fMid, ampMid, phaseMid, ampInterp, endPhase;
+    while(numRefine > 0 && numFreqs < maxNumFreqs)
+    {    //for each pass; refine flagged intervals
+      final double [] newFreqArr = new double[numFreqs+numRefine];
+      final double [] newAmpArr = new double[newFreqArr.length];
+      final double [] newPhaseArr = new double[newFreqArr.length];
+      final boolean [] newRefineArr = new boolean[newFreqArr.length];
+      numRefine = 0;
+      int n = 0;
+      for(int i=0; i<numFreqs; ++i)
+      {
+        newFreqArr[n] = freqArr[i];         //copy existing value
+        newAmpArr[n] = ampArr[i];
+        newPhaseArr[n] = phaseArr[i];
+        ++n;
+        if(!refineArr[i] || n+numFreqs-i > maxNumFreqs ||
+                           freqArr[i+1] < freqArr[i]*ADAPTIVE_MIN_FREQ_RATIO)
+        {     //interval not flagged, no room for more values or too small
+          continue;
+        }
+        fMid = Math.sqrt(freqArr[i]*freqArr[i+1]);
+        if(!calculateSingleResponse(fMid,outUnitsConv,startStageNum,
+                                   stopStageNum,useEstDelayFlag,
+                                       totalSensitFlag,b62XValue,outArr))
+        {
+          return null;
+        }
+        ampMid = Math.sqrt(outArr[0]*outArr[0] + outArr[1]*outArr[1]);
+        ampInterp = Math.sqrt(ampArr[i]*ampArr[i+1]);
+              //unwrap midpoint phase relative to start of interval
+              // and end phase relative to midpoint:
+        phaseMid = Math.toDegrees(Math.atan2(outArr[1],outArr[0]));
+        phaseMid += 360.0 * Math.rint((phaseArr[i]-phaseMid)/360.0);
+        endPhase = phaseArr[i+1] +
+                        360.0 * Math.rint((phaseMid-phaseArr[i+1])/360.0);
+        if(Math.abs(ampMid-ampInterp) >
+                                ampTolerance*Math.max(ampMid,ampInterp) ||
+                              Math.abs(phaseMid-(phaseArr[i]+endPhase)/2.0) >
+                                                              phaseTolerance)
+        {     //midpoint not within tolerance; add it and refine halves
+          newFreqArr[n] = fMid;
+          newAmpArr[n] = ampMid;
+          newPhaseArr[n] = phaseMid;
+          newRefineArr[n-1] = newRefineArr[n] = true;
+          ++n;
+          numRefine += 2;
+        }
+      }
+      freqArr = newFreqArr;
+      ampArr = newAmpArr;
+      phaseArr = newPhaseArr;
+      refineArr = newRefineArr;
+      numFreqs = n;
+    }
+    if(numFreqs < freqArr.length)
+    {    //array not full; trim it
+      final double [] retArr = new double[numFreqs];
+      System.arraycopy(freqArr,0,retArr,0,numFreqs);
+      return retArr;
+    }
+    return freqArr;
+  }
+
+    /**
+     * Calculates a response for a non-uniform array of frequency values
+     * that resolves the response to within the given tolerances (see
+     * 'generateAdaptiveFreqArray()').  The frequency values used may be
+     * fetched via the 'getCalcFreqArray()' method, and the results via
+     * the same methods as for 'calculateResponse()'.
+     * @param minFreq the minimum frequency to use.
+     * @param maxFreq the maximum frequency to use.
+     * @param initNumFreqs the number of log-spaced frequencies to start
+     * with (at least 2).
+     * @param maxNumFreqs the maximum number of frequencies to use.
+     * @param ampTolerance the tolerance for amplitude values, relative
+     * to the amplitude (i.e., 0.01 == 1%).
+     * @param phaseTolerance the tolerance for phase values, in degrees.
+     * @param outUnitsConv output units conversion value for the requested
+     * output units type; one of the '..._UNIT_CONV' values.
+     * @param startStageNum if greater than zero then the start of the
+     * range of stage sequence numbers to use, otherwise all stages
+     * are used.
+     * @param stopStageNum if greater than zero then the end of the
+     * range of stage sequence numbers to use, otherwise only the single
+     * stage specified by 'startStageNum' is used.
+     * @param useEstDelayFlag true to use estimated delay in phase
+     * calculations on asymmetrical FIR filters.
+     * @param unwrapPhaseFlag true to unwrap phase output values.
+     * @param totalSensitFlag true to use stage 0 (total) sensitivity;
+     * false to use computed sensitivity.
+     * @param b62XValue sample value for polynomial blockette (62).
+     * @return true if successful, false if an error occurred
+     * (in which case 'getErorMessage()' may be used to fetch
+     * information about the error).
+     */
+  public boolean calculateAdaptiveResponse(double minFreq,double maxFreq,
+                                        int initNumFreqs,int maxNumFreqs,
+                                  double ampTolerance,double phaseTolerance,
+                       int outUnitsConv,int startStageNum,int stopStageNum,
+                          boolean useEstDelayFlag,boolean unwrapPhaseFlag,
+                                  boolean totalSensitFlag,double b62XValue)
+  {
+    final double [] freqArr;
+    if((freqArr=generateAdaptiveFreqArray(minFreq,maxFreq,initNumFreqs,
+                         maxNumFreqs,ampTolerance,phaseTolerance,outUnitsConv,
+                            startStageNum,stopStageNum,useEstDelayFlag,
+                                        totalSensitFlag,b62XValue)) == null)
+    {
+      return false;
+    }
+    return calculateResponse(freqArr,true,outUnitsConv,startStageNum,
+                        stopStageNum,useEstDelayFlag,false,false,false,0.0,
+                                 unwrapPhaseFlag,totalSensitFlag,b62XValue);
+  }
+
+    /**
+     * Calculates the response at a single frequency (see
+     * 'calculateSingleResponse()').
+     * @param freqVal the frequency value to use.
+     * @param outUnitsConv output units conversion value for the requested
+     * output units type; one of the '..._UNIT_CONV' values.
+     * @param startStageNum start of range of stage sequence numbers.
+     * @param stopStageNum end of range of stage sequence numbers.
+     * @param useEstDelayFlag true to use estimated delay in phase
+     * calculations on asymmetrical FIR filters.
+     * @param totalSensitFlag true to use stage 0 (total) sensitivity;
+     * false to use computed sensitivity.
+     * @param b62XValue sample value for polynomial blockette (62).
+     * @param b62XValsArr array of sample values for polynomial
+     * blockettes (62), or null to use 'b62XValue'.  If given then
+     * polynomial stages are not included in the response value;
+     * instead, the absolute value of the first derivative of the
+     * polynomial for each sample value is multiplied into the
+     * corresponding entry of 'gainsArr'.
+     * @param gainsArr array of gain values for 'b62XValsArr' (or null).
+     * @param outArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the response value.
+     * @return true if successful, false if an error occurred.
+     */
+  protected boolean calcSingleResponse(double freqVal,int outUnitsConv,
+                   int startStageNum,int stopStageNum,boolean useEstDelayFlag,
+                         boolean totalSensitFlag,double b62XValue,
+                 double [] b62XValsArr,double [] gainsArr,double [] outArr)
+  {
+    if(!normalizedFlag)
+    {    //not yet normalized; do it now
+      if(!normalizeResponse(startStageNum,stopStageNum))
+        return false;   //if error then return
+    }
+    try
+    {
+      final int numStages = respObj.stages.length;    //get # of stages
+      final int reqOutUnitsConv = outUnitsConv;
+      final double unitScaleFact;
+      int inpUnitsConv;
+      if(outUnitsConv >= 0 && outUnitsConv != DEFAULT_UNIT_CONV &&
+                                                            numStages > 0 &&
+         (inpUnitsConv=toUnitConvIndex(respObj.stages[0].input_units)) >= 0)
+      {  //not default units, >0 stages and input units conversion factor OK
+              //use negated power of first input unit for unit scale factor:
+        unitScaleFact = RespUtils.pow10(
+                -RespUtils.toFirstUnitPower(respObj.stages[0].input_units));
+      }
+      else
+      {  //default units or zero stages in response
+        unitScaleFact = 1.0;               //set default unit scale factor
+                        //set default conversions (none performed):
+        outUnitsConv = inpUnitsConv = DEFAULT_UNIT_CONV;
+      }
+         //interpret start/stop stage numbers:
+      final int reqStartStageNum = startStageNum;
+      final int reqStopStageNum = stopStageNum;
+      if(startStageNum <= 0)      //if start value too small then
+        startStageNum = 1;        //setup to use first stage
+      --startStageNum;            //decrement for 0-based array access
+      if(stopStageNum > startStageNum)
+      {  //stop value OK; decrement for 0-based array access
+        if(--stopStageNum >= numStages)     //if stop value too large then
+          stopStageNum = numStages - 1;     //setup to use last stage
+      }
+      else    //stop value too small; if 0 then last stage, else single stage
+        stopStageNum = (stopStageNum <= 0) ? numStages-1 : startStageNum;
+      if(startStageNum >= numStages)
+      {  //no stages match; set error message
+        setErrorMessage("No match for requested range of stage numbers");
+        return false;
+      }
+         //if input units Pascal, Tesla or Centigrade then output
+         // units conversion must be Velocity or Default:
+      final Unit firstUnitObj = respObj.stages[startStageNum].input_units;
+      if((RespUtils.PASCAL_UNITIMPL_OBJ.equals(firstUnitObj) ||
+                        RespUtils.TESLA_UNITIMPL_OBJ.equals(firstUnitObj) ||
+                  RespUtils.CENTIGRADE_UNITIMPL_OBJ.equals(firstUnitObj)) &&
+                                   reqOutUnitsConv != VELOCITY_UNIT_CONV &&
+                                      reqOutUnitsConv != DEFAULT_UNIT_CONV)
+      {
+        setErrorMessage("Input units \"" +
+                                    RespUtils.unitToUnitImpl(firstUnitObj) +
+                                                  "\" not allowed with \"" +
+                                   getLongUnitConvString(reqOutUnitsConv) +
+                                              "\" output units conversion");
+        return false;
+      }
+         //get compiled version of response:
+      if(compiledRespObj == null)
+        compiledRespObj = normRespObj.getCompiledResponse();
+      final CompiledResponse compRespObj = compiledRespObj;
+      final double wVal = TWO_PI * freqVal;
+      CompiledResponse.StageKernel kernelObj;
+      Double tDoubleObj;
+      double deltaVal,stgReal,stgImag,tVal;
+      double totalReal = 1.0, totalImag = 0.0;
+      boolean evalFlag;
+      int stageNum;
+      for(stageNum=startStageNum; stageNum<=stopStageNum; ++stageNum)
+      {  //for each stage in desired range
+        kernelObj = compRespObj.getStageKernel(stageNum);
+        evalFlag = false;           //set true if evaluation performed
+        switch(kernelObj.kernelType)
+        {
+          case CompiledResponse.ANALOG_PZ_KERNEL:
+                        //analog poles/zeros filter
+            kernelObj.analogTrans(freqVal,outArr);
+            evalFlag = true;             //indicate evaluation performed
+            break;
+          case CompiledResponse.IIR_PZ_KERNEL:
+                        //digital poles/zeros filter
+            kernelObj.iirPzTrans(wVal,outArr);
+            evalFlag = true;             //indicate evaluation performed
+            break;
+          case CompiledResponse.FIR_KERNEL:
+                        //FIR coefficients filter
+            if(trigRecurEvalFlag)
+              kernelObj.firTransRecur(wVal,outArr);
+            else
+              kernelObj.firTrans(wVal,outArr);
+                        //if asymmetric FIR with delay value then
+                        // factor in delay correction:
+            if((tDoubleObj=getFirDelayObj(kernelObj,useEstDelayFlag)) !=
+                                                                       null)
+            {    //delay value available
+              deltaVal = tDoubleObj.doubleValue();
+              ComplexBlk.zMultiply(outArr,Math.cos(wVal*deltaVal),
+                                                   Math.sin(wVal*deltaVal));
+            }
+            evalFlag = true;             //indicate evaluation performed
+            break;
+          case CompiledResponse.IIR_KERNEL:
+                        //IIR coefficients filter
+            if(trigRecurEvalFlag)
+              kernelObj.iirTransRecur(wVal,outArr);
+            else
+              kernelObj.iirTrans(wVal,outArr);
+            evalFlag = true;             //indicate evaluation performed
+            break;
+          case CompiledResponse.LIST_KERNEL:
+                        //response list filter; use array-based method
+            if(b62XValsArr != null)
+            {  //multiple sample values not supported; set error message
+              setErrorMessage("Multiple 'b62_x' values not supported " +
+                                            "for response with List stage");
+              return false;
+            }
+            return calcSingleViaArrays(freqVal,reqOutUnitsConv,
+                                      reqStartStageNum,reqStopStageNum,
+                           useEstDelayFlag,totalSensitFlag,b62XValue,outArr);
+          case CompiledResponse.POLYNOMIAL_KERNEL:
+                        //polynomial type filter
+            if(b62XValsArr != null)
+            {  //multiple sample values; apply derivative values to gains
+              if(kernelObj.polyCoeffsArr.length > 0)
+              {     //coefficients array not empty
+                for(int i=0; i<b62XValsArr.length; ++i)
+                {
+                  gainsArr[i] *=
+                           Math.abs(kernelObj.polyDerivative(b62XValsArr[i]));
+                }
+              }
+              break;
+            }
+            if(b62XValue <= 0.0)
+            {  //b62_x value not positive
+              setErrorMessage("Valid 'b62_x' value must be specified " +
+                                                 "for polynomial response");
+              return false;
+            }
+                        //compute first derivative of MacLaurin polynomial
+                        // (if coefficients array not empty):
+            if(kernelObj.polyTrans(b62XValue,outArr))
+              evalFlag = true;           //indicate evaluation performed
+            break;
+          case CompiledResponse.ERROR_KERNEL:
+                        //stage could not be compiled; set error message
+            setErrorMessage(kernelObj.errorMessage);
+            return false;
+        }
+              //stage value (same operations as in 'calculateResponse()'):
+        stgReal = 1.0;
+        stgImag = 0.0;
+        if(evalFlag)
+        {     //filter was evaluated; multiply in new value
+          tVal = stgReal*outArr[0] - stgImag*outArr[1];
+          stgImag = stgImag*outArr[0] + stgReal*outArr[1];
+          stgReal = tVal;
+        }
+              //multiply stage value into value for all stages:
+        tVal = totalReal*stgReal - totalImag*stgImag;
+        totalImag = totalImag*stgReal + totalReal*stgImag;
+        totalReal = tVal;
+      }
+      outArr[0] = totalReal;
+      outArr[1] = totalImag;
+         //multiply in sensitivity and unit conv scale factor:
+      if(totalSensitFlag)
+      {  //using stage 0 (total) sensitivity
+        final float totalSensitVal = (respObj.the_sensitivity != null) ?
+                    respObj.the_sensitivity.sensitivity_factor : (float)1.0;
+        outArr[0] *= totalSensitVal * unitScaleFact;
+        outArr[1] *= totalSensitVal * unitScaleFact;
+      }
+      else
+      {  //using computed sensitivity
+        final double calcSensVal = (calcSensitivityArray != null &&
+                                          calcSensitivityArray.length > 0) ?
+                                              calcSensitivityArray[0] : 1.0;
+        outArr[0] *= calcSensVal * unitScaleFact;
+        outArr[1] *= calcSensVal * unitScaleFact;
+      }
+         //handle any units conversions:
+      if(outUnitsConv != inpUnitsConv)
+      {  //requested output units different from input units
+        if(inpUnitsConv == DISPLACE_UNIT_CONV)
+        {     //input unit is 'displacement'; convert to 'velocity'
+          if(wVal != 0.0)
+            ComplexBlk.zMultiply(outArr,0.0,-1.0/wVal);
+          else
+            outArr[0] = outArr[1] = 0.0;
+        }     //if input unit is 'accel' then convert to 'velocity':
+        else if(inpUnitsConv == ACCEL_UNIT_CONV)
+          ComplexBlk.zMultiply(outArr,0.0,wVal);
+              //if requested output is 'displacement' then convert:
+        if(outUnitsConv == DISPLACE_UNIT_CONV)
+          ComplexBlk.zMultiply(outArr,0.0,wVal);
+        else if(outUnitsConv == ACCEL_UNIT_CONV)
+        {     //requested output is 'acceleration'; convert it
+          if(wVal != 0.0)
+            ComplexBlk.zMultiply(outArr,0.0,-1.0/wVal);
+          else
+            outArr[0] = outArr[1] = 0.0;
+        }
+      }
+      return true;
+    }
+    catch(Exception ex)
+    {         //some kind of error occurred; set error message
+      setErrorMessage("Error calculating response:  " + ex);
+      return false;
+    }
+  }
+
+    /**
+     * Calculates the response at a single frequency via
+     * 'calculateResponse()', entering the first complex response value
+     * generated into the given array.  Used by 'calculateSingleResponse()'
+     * for responses containing List stages.
+     * @param freqVal the frequency value to use.
+     * @param outUnitsConv output units conversion value for the requested
+     * output units type; one of the '..._UNIT_CONV' values.
+     * @param startStageNum start of range of stage sequence numbers.
+     * @param stopStageNum end of range of stage sequence numbers.
+     * @param useEstDelayFlag true to use estimated delay in phase
+     * calculations on asymmetrical FIR filters.
+     * @param totalSensitFlag true to use stage 0 (total) sensitivity;
+     * false to use computed sensitivity.
+     * @param b62XValue sample value for polynomial blockette (62).
+     * @param outArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the response value.
+     * @return true if successful, false if an error occurred.
+     */
+  protected boolean calcSingleViaArrays(double freqVal,int outUnitsConv,
+                   int startStageNum,int stopStageNum,boolean useEstDelayFlag,
+                  boolean totalSensitFlag,double b62XValue,double [] outArr)
+  {
+    if(!calculateResponse(new double [] { freqVal },true,outUnitsConv,
+                      startStageNum,stopStageNum,useEstDelayFlag,false,false,
+                                 false,0.0,false,totalSensitFlag,b62XValue))
+    {
+      return false;
+    }
+    final double [] realArr = getCSpectraRealArray();
+    final double [] imagArr = getCSpectraImagArray();
+    if(realArr == null || realArr.length <= 0)
+    {    //no values generated; set error message
+      setErrorMessage("Unable to calculate response value");
+      return false;
+    }
+    outArr[0] = realArr[0];
+    outArr[1] = imagArr[0];
+    return true;
+  }
+
+    /**
+     * Returns the array of complex spectra response values generated by
+     * 'calculateResponse()'.
+     * @return The array of complex spectra response values generated by
+     * 'calculateResponse()', or null if 'calculateResponse()' has not
+     * yet been performed.
+     */
+  public ComplexBlk [] getCSpectraArray()
+  {
+    return (respArraysInfoArray != null && respArraysInfoArray.length > 0 &&
+                                           respArraysInfoArray[0] != null) ?
+                            respArraysInfoArray[0].getCSpectraArray() : null;
+  }
+
+    /**
+     * Returns the array of group-delay values (for all stages together)
+     * generated by 'calculateResponse()' when enabled via
+     * 'setGroupDelayFlag()'.  The returned array is not a copy and
+     * should be treated as read-only.
+     * @return The array of group-delay values (in seconds), or null if
+     * 'calculateResponse()' has not yet been performed with group delay
+     * enabled.
+     */
+  public double [] getGroupDelayArray()
+  {
+    return (respArraysInfoArray != null && respArraysInfoArray.length > 0 &&
+                                           respArraysInfoArray[0] != null) ?
+                           respArraysInfoArray[0].getGroupDelayArray() : null;
+  }
+
+    /**
+     * Returns the array of real parts of the complex spectra response
+     * values generated by 'calculateResponse()'.  Unlike the
+     * 'getCSpectraArray()' method, no 'ComplexBlk' objects are created.
+     * The returned array is not a copy and should be treated as read-only.
+     * @return The array of real parts of the complex spectra response
+     * values, or null if 'calculateResponse()' has not yet been performed.
+     */
+  public double [] getCSpectraRealArray()
+  {
+    return (respArraysInfoArray != null && respArraysInfoArray.length > 0 &&
+                                           respArraysInfoArray[0] != null) ?
+                                respArraysInfoArray[0].getRealArray() : null;
+  }
+
+    /**
+     * Returns the array of imaginary parts of the complex spectra response
+     * values generated by 'calculateResponse()'.  Unlike the
+     * 'getCSpectraArray()' method, no 'ComplexBlk' objects are created.
+     * The returned array is not a copy and should be treated as read-only.
+     * @return The array of imaginary parts of the complex spectra response
+     * values, or null if 'calculateResponse()' has not yet been performed.
+     */
+  public double [] getCSpectraImagArray()
+  {
+    return (respArraysInfoArray != null && respArraysInfoArray.length > 0 &&
+                                           respArraysInfoArray[0] != null) ?
+                                respArraysInfoArray[0].getImagArray() : null;
+  }
+
+  /**
+   * Returns the compiled version of the response that was used by
+   * 'calculateResponse()'.  The compiled response is created once
+   * (after the response is normalized) and then reused by subsequent
+   * calls to 'calculateResponse()'.
+   * @return The 'CompiledResponse' object, or null if a response has
+   * not yet been calculated.
+   */
+  public CompiledResponse getCompiledResponse()
+  {
+    return compiledRespObj;
+  }
+
+  /**
+   * Returns the response object used by this generator.  After the
+   * response is normalized, this is the normalized copy of the response
+   * given to the constructor.  The returned object may be shared with
+   * other generators and must not be modified.
+   * @return The response object used by this generator, or null if
+   * none.
+   */
+  public Response getRespObj()
+  {
+    return respObj;
+  }
+
+  /**
+   * Returns the normalized response that was created (or fetched from
+   * the cache) by 'normalizeResponse()'.
+   * @return The 'NormalizedResponse' object, or null if the response
+   * has not been normalized.
+   */
+  public NormalizedResponse getNormalizedResponse()
+  {
+    return normRespObj;
+  }
+
+  /**
+   * Sets whether or not FIR stages may be evaluated via FFT-based
+   * transforms.  When enabled (the default), FIR stages with at least
+   * 'FirFftEvaluator.MIN_NUM_COEFFS' coefficients that are evaluated
+   * over at least 'FirFftEvaluator.MIN_NUM_FREQS' linearly-spaced
+   * frequencies are computed via 'FirFftEvaluator'; the results match
+   * those of direct evaluation to within rounding error.
+   * @param flgVal true to allow FFT evaluation of FIR stages; false to
+   * always use direct evaluation.
+   */
+  public void setFastFirEvalFlag(boolean flgVal)
+  {
+    fastFirEvalFlag = flgVal;
+  }
+
+  /**
+   * Returns the flag for whether or not FIR stages may be evaluated via
+   * FFT-based transforms.
+   * @return true if FFT evaluation of FIR stages is allowed.
+   */
+  public boolean getFastFirEvalFlag()
+  {
+    return fastFirEvalFlag;
+  }
+
+  /**
+   * Sets whether or not FIR and IIR coefficients stages are evaluated
+   * using a complex rotation recurrence (re-seeded every
+   * 'CompiledResponse.RECUR_RESEED_INTERVAL' terms) in place of a
+   * cosine and sine call for every coefficient.  This is faster for
+   * filters with many coefficients; the results differ from those of
+   * direct evaluation by rounding error only.  The default is false.
+   * @param flgVal true to use trig-recurrence evaluation; false to use
+   * direct evaluation.
+   */
+  public void setTrigRecurEvalFlag(boolean flgVal)
+  {
+    trigRecurEvalFlag = flgVal;
+  }
+
+  /**
+   * Returns the flag for whether or not FIR and IIR coefficients stages
+   * are evaluated using a complex rotation recurrence.
+   * @return true if trig-recurrence evaluation is used.
+   */
+  public boolean getTrigRecurEvalFlag()
+  {
+    return trigRecurEvalFlag;
+  }
+
+  /**
+   * Sets whether or not groups of frequencies are evaluated together
+   * when trig-recurrence evaluation is enabled (via
+   * 'setTrigRecurEvalFlag()').  When enabled (the default), FIR and IIR
+   * coefficients stages are evaluated for 'CompiledResponse.NUM_EVAL_LANES'
+   * frequencies in each pass over the coefficients, which allows the
+   * independent recurrences to be overlapped; the results are
+   * identical to those of evaluating each frequency separately.
+   * @param flgVal true to evaluate groups of frequencies together;
+   * false to evaluate each frequency separately.
+   */
+  public void setLaneEvalFlag(boolean flgVal)
+  {
+    laneEvalFlag = flgVal;
+  }
+
+  /**
+   * Returns the flag for whether or not groups of frequencies are
+   * evaluated together when trig-recurrence evaluation is enabled.
+   * @return true if groups of frequencies are evaluated together.
+   */
+  public boolean getLaneEvalFlag()
+  {
+    return laneEvalFlag;
+  }
+
+  /**
+   * Sets whether or not only the response values for all stages put
+   * together are generated by 'calculateResponse()'.  When enabled,
+   * the separate response values for each stage are not held (so
+   * 'getAllStagesAmpPhaseArrays()' returns only the all-stages entry),
+   * which reduces the memory used by a factor of the number of stages.
+   * The all-stages response values are the same in either case.
+   * @param flgVal true to only generate values for all stages together;
+   * false to also generate values for each stage (the default).
+   */
+  public void setTotalOnlyFlag(boolean flgVal)
+  {
+    totalOnlyFlag = flgVal;
+  }
+
+  /**
+   * Sets the arrays to receive the real and imaginary parts of the
+   * all-stages response values generated by 'calculateResponse()', in
+   * place of newly-allocated arrays, so that a caller evaluating many
+   * responses over the same frequencies may reuse one pair of arrays.
+   * The arrays are used only if their lengths equal the number of
+   * frequencies evaluated.  The arrays are returned by
+   * 'getCSpectraRealArray()' and 'getCSpectraImagArray()', so their
+   * contents must be used before the arrays are given to another
+   * generator.
+   * @param realArr array to receive the real parts, or null to
+   * allocate new arrays (the default).
+   * @param imagArr array to receive the imaginary parts, or null to
+   * allocate new arrays (the default).
+   */
+  public void setOutputArrays(double [] realArr,double [] imagArr)
+  {
+    if(realArr != null && imagArr != null)
+    {
+      outputRealArray = realArr;
+      outputImagArray = imagArr;
+    }
+    else
+      outputRealArray = outputImagArray = null;
+  }
+
+  /**
+   * Returns the flag for whether or not only the response values for
+   * all stages put together are generated by 'calculateResponse()'.
+   * @return true if only the values for all stages together are
+   * generated.
+   */
+  public boolean getTotalOnlyFlag()
+  {
+    return totalOnlyFlag;
+  }
+
+  /**
+   * Sets whether or not group-delay values are calculated by
+   * 'calculateResponse()'.  When enabled, the group delay (the negated
+   * derivative of the phase with respect to radial frequency) is
+   * calculated analytically for each stage (from the poles/zeros or
+   * coefficients and any FIR delay correction) in the same pass as the
+   * response values, and may be fetched via 'getGroupDelayArray()' (or
+   * 'RespArraysInfo.getGroupDelayArray()' for each stage entry) or
+   * written via 'writeGroupDelayData()'.  Group-delay values are not
+   * available for responses containing List stages (NaN values are
+   * entered).
+   * @param flgVal true to calculate group-delay values; false for not
+   * (the default).
+   */
+  public void setGroupDelayFlag(boolean flgVal)
+  {
+    groupDelayFlag = flgVal;
+  }
+
+  /**
+   * Returns the flag for whether or not group-delay values are
+   * calculated by 'calculateResponse()'.
+   * @return true if group-delay values are calculated.
+   */
+  public boolean getGroupDelayFlag()
+  {
+    return groupDelayFlag;
+  }
+
+  /**
+   * Calculates the group delay of the given stage kernel (as evaluated
+   * by 'calculateResponse()', including any FIR delay correction).
+   * Changes of sign in the response values of real-valued stages (such
+   * as symmetrical FIR filters) are not included.
+   * @param kernelObj the stage kernel to use.
+   * @param freqVal the frequency value to use (Hz).
+   * @return The group delay, in seconds (NaN for a List stage).
+   */
+  protected double calcStageGroupDelay(
+                         CompiledResponse.StageKernel kernelObj,double freqVal)
+  {
+    final double wVal = TWO_PI * freqVal;
+    switch(kernelObj.kernelType)
+    {
+      case CompiledResponse.ANALOG_PZ_KERNEL:
+        return kernelObj.analogGroupDelay(freqVal);
+      case CompiledResponse.IIR_PZ_KERNEL:
+        return kernelObj.iirPzGroupDelay(wVal);
+      case CompiledResponse.FIR_KERNEL:
+        final Double delayObj = getFirDelayObj(kernelObj);
+              //delay correction multiplies response by "exp(i*w*delay)":
+        return (delayObj != null) ? kernelObj.firGroupDelay(wVal) -
+                 delayObj.doubleValue() : kernelObj.firGroupDelay(wVal);
+      case CompiledResponse.IIR_KERNEL:
+        return kernelObj.iirGroupDelay(wVal);
+      case CompiledResponse.LIST_KERNEL:
+        return Double.NaN;
+      default:
+        return 0.0;
+    }
+  }
+
+  /**
+   * Sets the number of threads used to evaluate the response over the
+   * requested frequencies.  When greater than 1, the frequencies are
+   * split into contiguous chunks (of at least 'MIN_PARALLEL_CHUNK_SIZE'
+   * frequencies each) that are evaluated concurrently; each frequency
+   * is evaluated exactly as it would be by the serial path, so the
+   * results are identical.  The default is 1 (serial evaluation).
+   * @param numThreads number of threads to use, or 1 (or less) for
+   * serial evaluation.
+   */
+  public void setParallelEvalThreads(int numThreads)
+  {
+    parallelEvalThreads = numThreads;
+  }
+
+  /**
+   * Returns the number of threads used to evaluate the response over the
+   * requested frequencies.
+   * @return The number of threads used, or 1 (or less) for serial
+   * evaluation.
+   */
+  public int getParallelEvalThreads()
+  {
+    return parallelEvalThreads;
+  }
+
+  /**
+   * Sets the cache of evaluated stage spectra to be used by
+   * 'calculateResponse()'.  Before a poles/zeros or coefficients stage
+   * is evaluated the cache is checked for a stage with the same
+   * content (evaluated over the same frequencies); if found then its
+   * values are used, otherwise the stage is evaluated and its values
+   * are entered into the cache.  The same cache object may be shared
+   * by any number of 'OutputGenerator' objects.
+   * @param cacheObj the cache to use, or null for none (the default).
+   */
+  public void setStageSpectrumCache(StageSpectrumCache cacheObj)
+  {
+    stageSpectrumCacheObj = cacheObj;
+  }
+
+  /**
+   * Returns the cache of evaluated stage spectra used by
+   * 'calculateResponse()'.
+   * @return The cache of evaluated stage spectra, or null if none.
+   */
+  public StageSpectrumCache getStageSpectrumCache()
+  {
+    return stageSpectrumCacheObj;
+  }
+
+  /**
+   * Sets the cache of trig tables to be used by 'calculateResponse()'.
+   * When FIR or IIR coefficients stages are evaluated directly (not via
+   * FFT or trig recurrence), the cosine/sine values for the stage are
+   * fetched from a table held by the cache (or calculated and entered
+   * into the cache), so that the values for each distinct sample
+   * interval are calculated once.  The results are the same as those
+   * without the cache.  The same cache object may be shared by any
+   * number of 'OutputGenerator' objects.
+   * @param cacheObj the cache to use, or null for none (the default).
+   */
+  public void setTrigTableCache(TrigTableCache cacheObj)
+  {
+    trigTableCacheObj = cacheObj;
+  }
+
+  /**
+   * Returns the cache of trig tables used by 'calculateResponse()'.
+   * @return The cache of trig tables, or null if none.
+   */
+  public TrigTableCache getTrigTableCache()
+  {
+    return trigTableCacheObj;
+  }
+
+  /**
+   * Returns the delay value to be applied to the given stage kernel.
+   * The delay correction is only applied to asymmetrical FIR stages,
+   * using the estimated delay if 'useEstDelayFlag' is true, otherwise
+   * the calculated delta.
+   * @param kernelObj the stage kernel to use.
+   * @return The delay value to be applied, or null if none.
+   */
+  protected Double getFirDelayObj(CompiledResponse.StageKernel kernelObj)
+  {
+    return getFirDelayObj(kernelObj,useEstDelayFlag);
+  }
+
+  /**
+   * Returns the delay value to be applied to the given stage kernel.
+   * The delay correction is only applied to asymmetrical FIR stages,
+   * using the estimated delay if 'useEstDelayFlag' is true, otherwise
+   * the calculated delta.
+   * @param kernelObj the stage kernel to use.
+   * @param useEstDelayFlag true to use the estimated delay, false to
+   * use the calculated delta.
+   * @return The delay value to be applied, or null if none.
+   */
+  protected static Double getFirDelayObj(
+               CompiledResponse.StageKernel kernelObj, boolean useEstDelayFlag)
+  {
+    if(kernelObj.kernelType != CompiledResponse.FIR_KERNEL ||
+                                          kernelObj.firTypeVal != FIR_ASYM)
+    {    //not asymmetrical FIR stage
+      return null;
+    }
+    return useEstDelayFlag ? kernelObj.estDelayObj : kernelObj.corrDeltaObj;
+  }
+
+  /**
+   * Factors the given delay value into a range of response values.
+   * @param freqArray array of frequency values.
+   * @param fromIdx index of first value to correct.
+   * @param toIdx index of last value to correct, plus one.
+   * @param deltaVal delay value to use.
+   * @param realArr array of real parts of response values.
+   * @param imagArr array of imaginary parts of response values.
+   */
+  protected static void applyDelayCorrection(double [] freqArray,
+                                     int fromIdx,int toIdx,double deltaVal,
+                                       double [] realArr,double [] imagArr)
+  {
+    double wVal;
+    for(int fIdx=fromIdx; fIdx<toIdx; ++fIdx)
+    {
+      wVal = TWO_PI * freqArray[fIdx];
+      ComplexBlk.zMultiply(realArr,imagArr,fIdx,
+                           Math.cos(wVal*deltaVal),Math.sin(wVal*deltaVal));
+    }
+  }
+
+  /**
+   * Runs the given frequency-range evaluators concurrently, using a
+   * thread pool that is shut down before this method returns.
+   * @param evalObjsArr array of evaluators to be run.
+   * @throws InterruptedException if the current thread was interrupted
+   * while waiting for the evaluators.
+   * @throws ExecutionException if an evaluator terminated via an error.
+   */
+  protected void runEvaluators(FreqRangeEvaluator [] evalObjsArr)
+                               throws InterruptedException,ExecutionException
+  {
+    final ExecutorService executorObj = Executors.newFixedThreadPool(
+                                   evalObjsArr.length,new ThreadFactory()
+        {
+          public Thread newThread(Runnable runObj)
+          {
+            final Thread threadObj =
+                               new Thread(runObj,"OutputGenerator-eval");
+            threadObj.setDaemon(true);      //don't hold up program exit
+            return threadObj;
+          }
+        });
+    try
+    {
+      final Future [] futuresArr = new Future[evalObjsArr.length];
+      for(int i=0; i<evalObjsArr.length; ++i)
+        futuresArr[i] = executorObj.submit(evalObjsArr[i]);
+      for(int i=0; i<futuresArr.length; ++i)
+        futuresArr[i].get();           //wait for evaluator to complete
+    }
+    finally
+    {    //release threads
+      executorObj.shutdownNow();
+    }
   }
 
   /**
@@ -1715,13 +2921,15 @@ public class OutputGenerator
     final AmpPhaseBlk [] ampPhaseArr;
     try
     {
-      final int len = rArrsInfoObj.cSpectraArray.length;
+      final double [] realArr = rArrsInfoObj.getRealArray();
+      final double [] imagArr = rArrsInfoObj.getImagArray();
+      final int len = realArr.length;
       ampPhaseArr = new AmpPhaseBlk[len];
       double real,imag;
       while(i < len)
       {  //for each element in complex spectra array, convert to amp/phase
-        real = rArrsInfoObj.cSpectraArray[i].real;
-        imag = rArrsInfoObj.cSpectraArray[i].imag;
+        real = realArr[i];
+        imag = imagArr[i];
         ampPhaseArr[i] = new AmpPhaseBlk(Math.sqrt(real*real+imag*imag),
                             Math.atan2(imag,real+1.0e-200)*180.0/Math.PI);
         ++i;
@@ -1747,31 +2955,32 @@ public class OutputGenerator
                                    "All requested freqencies out of range");
           return false;
         }
-        final CubicSpline splineObj = new CubicSpline();
-        final double [] listInterpAmpArr;
+        ListSpline splineObj;
                    //interpolate List blockette amplitude values:
-        if((listInterpAmpArr=splineObj.calcSpline(
-                 rArrsInfoObj.frequencyArr,fetchAmpPhaAmpArray(ampPhaseArr),
-                               listInterpTension,1.0,newFreqArray)) == null)
+        if((splineObj=new ListSpline(rArrsInfoObj.frequencyArr,
+                                        fetchAmpPhaAmpArray(ampPhaseArr),
+                         listInterpTension,1.0)).getErrorMessage() != null)
         {     //error interploating values
           setErrorMessage("Error interpolating amplitude output values:  " +
-                                         splineObj.getErrorMessageString());
+                                               splineObj.getErrorMessage());
           return false;
         }
+        final double [] listInterpAmpArr =
+                                         splineObj.interpolate(newFreqArray);
                                             //get generated phase data:
         final double [] srcPhaseArr = fetchAmpPhaPhaseArray(ampPhaseArr);
                                             //unwrap phase data:
         final double [] unwrappedPhaseArr = unwrapPhaseArray(srcPhaseArr);
-        double [] listInterpPhaseArr;
                    //interpolate List blockette phase values:
-        if((listInterpPhaseArr=splineObj.calcSpline(
-                                rArrsInfoObj.frequencyArr,unwrappedPhaseArr,
-                               listInterpTension,1.0,newFreqArray)) == null)
+        if((splineObj=new ListSpline(rArrsInfoObj.frequencyArr,
+                                                        unwrappedPhaseArr,
+                         listInterpTension,1.0)).getErrorMessage() != null)
         {     //error interploating values
           setErrorMessage("Error interpolating phase output values:  " +
-                                         splineObj.getErrorMessageString());
+                                               splineObj.getErrorMessage());
           return false;
         }
+        double [] listInterpPhaseArr = splineObj.interpolate(newFreqArray);
               //if unwrap flag not set and phase data was unwrapped
               // then wrap interpolated data:
         if(!unwrapPhaseFlag && unwrappedPhaseArr != srcPhaseArr)
@@ -1834,7 +3043,7 @@ public class OutputGenerator
               //if amp/phase array already created then return it:
       if(respArraysInfoArray[0].ampPhaseArray != null)
         return respArraysInfoArray[0].ampPhaseArray;
-      if(respArraysInfoArray[0].cSpectraArray != null)
+      if(respArraysInfoArray[0].containsCSpectra())
       {  //complex spectra array exists; calc amp/phase vals for all stages
         calcAmpPhaseArray(respArraysInfoArray[0],0);
         return respArraysInfoArray[0].ampPhaseArray;
@@ -1860,7 +3069,8 @@ public class OutputGenerator
 
     /**
      * Returns the arrays of amplitude/phase response values generated
-     * by 'calculateResponse()' for all stages in the response.
+     * by 'calculateResponse()' for all stages in the response.  The
+     * 'cSpectraArray' fields of the returned objects are also filled in.
      * @return An array of 'RespArraysInfo' objects whose amplitude/phase
      * values have been calculated and entered, or null if
      * 'calculateResponse()' has not yet been performed or if
@@ -1879,12 +3089,15 @@ public class OutputGenerator
               //if single entry or rest of stages already calculated
               // then return array of response arrays/info objects:
         if(respArraysInfoArray.length <= 1 || allStagesAmpPhaseCalcFlag)
+        {
+          respArraysInfoArray[0].getCSpectraArray();  //make sure created
           return respArraysInfoArray;
+        }
         ampPhaseArrCreatedFlag = true;           //indicate array created
       }
       else    //amp/phase array has not been created
         ampPhaseArrCreatedFlag = false;          //ind array not created
-      if(respArraysInfoArray[0].cSpectraArray != null)
+      if(respArraysInfoArray[0].containsCSpectra())
       {  //complex spectra array exists
               //if amp/phase array not yet created then do it now:
         if(!ampPhaseArrCreatedFlag)
@@ -1898,6 +3111,12 @@ public class OutputGenerator
             if(respArraysInfoArray[i] != null)
               calcAmpPhaseArray(respArraysInfoArray[i],i);
           }
+        }
+              //make sure 'ComplexBlk' arrays are created for all entries:
+        for(int i=0; i<respArraysInfoArray.length; ++i)
+        {
+          if(respArraysInfoArray[i] != null)
+            respArraysInfoArray[i].getCSpectraArray();
         }
         return respArraysInfoArray;
       }
@@ -1953,7 +3172,7 @@ public class OutputGenerator
       {
         if(respArraysInfoArray != null && respArraysInfoArray.length > 0 &&
                                            respArraysInfoArray[0] != null &&
-                            (respArraysInfoArray[0].cSpectraArray != null ||
+                            (respArraysInfoArray[0].containsCSpectra() ||
                               respArraysInfoArray[0].ampPhaseArray != null))
         {
           getAllStagesAmpPhaseArrays();     //calc amp/phase for all stages
@@ -2150,8 +3369,9 @@ public class OutputGenerator
   public boolean writeCSpectraData(Writer outStm,String fName,
                                                            String headerStr)
   {
-    final ComplexBlk [] cSpectraArr;
-    if((cSpectraArr=getCSpectraArray()) == null)
+    final double [] realArr, imagArr;
+    if((realArr=getCSpectraRealArray()) == null ||
+                                    (imagArr=getCSpectraImagArray()) == null)
     {    //no complex spectra array; set error message
       setErrorMessage("Method 'calculateResponse()' not yet performed");
       return false;
@@ -2172,8 +3392,8 @@ public class OutputGenerator
       for(int i=0; i<len; ++i)
       {  //for each entry in arrays; write line of output
         out.println(RespUtils.fmtNumber(freqArr[i]) + " " +
-                            RespUtils.fmtNumber(cSpectraArr[i].real) + " " +
-                                  RespUtils.fmtNumber(cSpectraArr[i].imag));
+                                  RespUtils.fmtNumber(realArr[i]) + " " +
+                                        RespUtils.fmtNumber(imagArr[i]));
       }
       if(!out.checkError())       //if no stream errors flagged then
         return true;              //return OK flag
@@ -2241,6 +3461,96 @@ public class OutputGenerator
     return retFlag;
   }
 
+    /**
+     * Writes the group-delay values generated by 'calculateResponse()'
+     * (when enabled via 'setGroupDelayFlag()') to the given output
+     * stream.  Each outputted line contains 2 numbers:  the frequency
+     * followed by the group delay (in seconds) for the frequency.  Each
+     * number is written in floating-point exponent format with 7
+     * significant digits.
+     * @param outStm output stream to write to.
+     * @param fName file name associated with output stream.
+     * @param headerStr a String of header information to be included in
+     * the output, or null to indicate no header information.
+     * @return true if successful, false if error (in which case an error
+     * message may be fetched via the 'getErrorMessage()' method).
+     */
+  public boolean writeGroupDelayData(Writer outStm,String fName,
+                                                           String headerStr)
+  {
+    final double [] groupDelayArr;
+    if((groupDelayArr=getGroupDelayArray()) == null)
+    {    //no group-delay array; set error message
+      setErrorMessage("Group delay not calculated by " +
+                                                "'calculateResponse()'");
+      return false;
+    }
+    try
+    {
+      final PrintWriter out = new PrintWriter(new BufferedWriter(outStm));
+      if(headerStr != null)
+      {  //header string was provided
+        out.println(headerStr);                  //show provided header info
+        out.println(getDescHeaderString());      //add frequency info
+        out.println(Run.HDR_CMT_STR.trim());     //add blank line
+                                                 //add column headers:
+        out.println(Run.HDR_CMT_STR + "  Freq        Group delay (sec)");
+      }
+      final double [] freqArr = getCalcFreqArray();
+      final int len = freqArr.length;
+      for(int i=0; i<len; ++i)
+      {  //for each entry in arrays; write line of output
+        out.println(RespUtils.fmtNumber(freqArr[i]) + " " +
+                                      RespUtils.fmtNumber(groupDelayArr[i]));
+      }
+      if(!out.checkError())       //if no stream errors flagged then
+        return true;              //return OK flag
+         //stream error flagged; set error message
+      setErrorMessage("Stream error writing to output (filename=\"" +
+                                                              fName + "\"");
+    }
+    catch(Exception ex)
+    {    //exception error occurred; set error message
+      setErrorMessage("Error writing to output (filename=\"" + fName +
+                                                             "\"):  " + ex);
+    }
+    return false;       //return error flag
+  }
+
+    /**
+     * Writes the group-delay values generated by 'calculateResponse()'
+     * (when enabled via 'setGroupDelayFlag()') to a file with the given
+     * name.  Each outputted line contains 2 numbers:  the frequency
+     * followed by the group delay (in seconds) for the frequency.  Each
+     * number is written in floating-point exponent format with 7
+     * significant digits.
+     * @param outputDirectory output directory or null for current directory.
+     * @param fName file name associated with output stream.
+     * @param headerStr a String of header information to be included in
+     * the output, or null to indicate no header information.
+     * @return true if successful, false if error (in which case an error
+     * message may be fetched via the 'getErrorMessage()' method).
+     */
+  public boolean writeGroupDelayData(
+      File outputDirectory,String fName,String headerStr)
+  {
+    final FileWriter out;
+    try
+    {         //open file for output:
+      out = openFileWriter(outputDirectory,fName);
+    }
+    catch(Exception ex)
+    {         //error opening file; set error message
+      setErrorMessage("Error opening file (\"" + fName +
+                                                  "\") for output:  " + ex);
+      return false;
+    }
+    final boolean retFlag = writeGroupDelayData(out,fName,headerStr);
+    try { out.close(); }          //close output file
+    catch(IOException ex) {}
+    return retFlag;
+  }
+
     /**
      * Calculates and writes amplitude/phase response values generated
      * by 'calculateResponse()' to the two given output streams.
@@ -3641,14 +4951,32 @@ public class OutputGenerator
   public static ComplexBlk analogTrans(PoleZeroFilter filterObj,
                                                 double normFact,double freq)
   {
+    final double [] outArr = new double[2];
+    analogTrans(filterObj,normFact,freq,outArr);
+    return new ComplexBlk(outArr[0],outArr[1]);
+  }
+
+    /**
+     * Calculates the response of an analog poles/zeros filter.  No
+     * objects are allocated by this method.
+     * @param filterObj a poles/zeros filter object.
+     * @param normFact the normalization factor to use.
+     * @param freq the frequency value to use.  If a Laplace filter then
+     * the frequency should be multplied by 2*pi.
+     * @param outArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the response.
+     */
+  public static void analogTrans(PoleZeroFilter filterObj,
+                             double normFact,double freq,double [] outArr)
+  {
 //    if(XDEBUG_FLAG)
 //    {    //send debug message to default log file
 //      LogFile.getGlobalLogObj().debug("analogTrans() input:  norm=" +
 //                                               normFact + ", freq=" + freq);
 //    }
-    final ComplexBlk omega = new ComplexBlk(0.0,freq);
-    final ComplexBlk num = new ComplexBlk(1.0,1.0);
-    final ComplexBlk denom = new ComplexBlk(1.0,1.0);
+                        //omega = (0.0,freq); num = denom = (1.0,1.0):
+    double numReal = 1.0, numImag = 1.0, denReal = 1.0, denImag = 1.0;
+    double rVal, iVal, tVal;
                         //get number of zeros:
     final int numZeros = (filterObj != null && filterObj.zeros != null) ?
                                                  filterObj.zeros.length : 0;
@@ -3658,32 +4986,34 @@ public class OutputGenerator
     int i;
     for(i=0; i<numZeros; i++)
     {    //for each zero, numerator=numerator*(omega-zero[i])
-//      temp.real = omega.real - filterObj.zeros[i].real;
-//      temp.imag = omega.imag - filterObj.zeros[i].imaginary;
-//      zMultiply(num,temp);
-      num.zMultiply(omega.real-filterObj.zeros[i].real,
-                                   omega.imag-filterObj.zeros[i].imaginary);
+      rVal = 0.0 - filterObj.zeros[i].real;
+      iVal = freq - filterObj.zeros[i].imaginary;
+      tVal = numReal*rVal - numImag*iVal;
+      numImag = numImag*rVal + numReal*iVal;
+      numReal = tVal;
     }
     for(i=0; i<numPoles; i++)
     {    //for each pole, denominator=denominator*(omega-pole[i])
-//      temp.real = omega.real - filterObj.poles[i].real;
-//      temp.imag = omega.imag - filterObj.poles[i].imaginary;
-//      zMultiply(denom,temp);
-      denom.zMultiply(omega.real-filterObj.poles[i].real,
-                                   omega.imag-filterObj.poles[i].imaginary);
+      rVal = 0.0 - filterObj.poles[i].real;
+      iVal = freq - filterObj.poles[i].imaginary;
+      tVal = denReal*rVal - denImag*iVal;
+      denImag = denImag*rVal + denReal*iVal;
+      denReal = tVal;
     }
          //gain*num/denum
-    final ComplexBlk temp = new ComplexBlk(denom.real,-denom.imag);
-    temp.zMultiply(num);
-    final double modSquared = denom.real*denom.real + denom.imag*denom.imag;
-    temp.real /= modSquared;
-    temp.imag /= modSquared;
+    final double conjImag = -denImag;
+    rVal = denReal*numReal - conjImag*numImag;
+    iVal = conjImag*numReal + denReal*numImag;
+    final double modSquared = denReal*denReal + denImag*denImag;
+    rVal /= modSquared;
+    iVal /= modSquared;
 //    if(XDEBUG_FLAG)
 //    {    //send debug message to default log file
 //      LogFile.getGlobalLogObj().debug("analogTrans() output:  out.real=" +
-//                   normFact*temp.real + ", out.imag=" + normFact*temp.imag);
+//                             normFact*rVal + ", out.imag=" + normFact*iVal);
 //    }
-    return new ComplexBlk(normFact*temp.real,normFact*temp.imag);
+    outArr[0] = normFact*rVal;
+    outArr[1] = normFact*iVal;
   }
 
     /**
@@ -3698,6 +5028,24 @@ public class OutputGenerator
   public static ComplexBlk iirPzTrans(PoleZeroFilter filterObj,
                            double normFact,double sIntervalTime,double wVal)
   {
+    final double [] outArr = new double[2];
+    iirPzTrans(filterObj,normFact,sIntervalTime,wVal,outArr);
+    return new ComplexBlk(outArr[0],outArr[1]);
+  }
+
+    /**
+     * Calculates the response of a "Digital (Z - transform)" IIR poles/zeros
+     * filter.  No objects are allocated by this method.
+     * @param filterObj a poles/zeros filter object.
+     * @param normFact the normalization factor to use.
+     * @param sIntervalTime the sample interval time to use.
+     * @param wVal the frequency value to use.
+     * @param outArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the response.
+     */
+  public static void iirPzTrans(PoleZeroFilter filterObj,double normFact,
+                        double sIntervalTime,double wVal,double [] outArr)
+  {
 //    if(XDEBUG_FLAG)
 //    {    //send debug message to default log file
 //      LogFile.getGlobalLogObj().debug("iirPzTrans() input:  norm=" +
@@ -3714,31 +5062,32 @@ public class OutputGenerator
     final double cosWsint = Math.cos(wsint);
     final double sinWsint = Math.sin(wsint);
     int i;
-    double rVal, iVal, mod = 1.0, pha = 0.0;
+    double numReal = 1.0, numImag = 0.0, denReal = 1.0, denImag = 0.0;
+    double rVal, iVal, tVal;
     for(i=0; i<numZeros; i++)
-    {    //for each zero
+    {    //for each zero, numerator=numerator*(z-zero[i])
       rVal = cosWsint - filterObj.zeros[i].real;      //10/22/2003:  + to -
       iVal = sinWsint - filterObj.zeros[i].imaginary; //10/22/2003:  + to -
-      mod *= Math.sqrt(rVal*rVal + iVal*iVal);
-      if(rVal != 0.0 || iVal != 0.0)
-        pha += Math.atan2(iVal,rVal);
+      tVal = numReal*rVal - numImag*iVal;
+      numImag = numImag*rVal + numReal*iVal;
+      numReal = tVal;
     }
     for(i=0; i<numPoles; i++)
-    {    //for each pole
+    {    //for each pole, denominator=denominator*(z-pole[i])
       rVal = cosWsint - filterObj.poles[i].real;      //10/22/2003:  + to -
       iVal = sinWsint - filterObj.poles[i].imaginary; //10/22/2003:  + to -
-      mod /= Math.sqrt(rVal*rVal + iVal*iVal);
-      if(rVal != 0.0 || iVal != 0.0)
-        pha -= Math.atan2(iVal,rVal);
+      tVal = denReal*rVal - denImag*iVal;
+      denImag = denImag*rVal + denReal*iVal;
+      denReal = tVal;
     }
+    ComplexBlk.zDivide(numReal,numImag,denReal,denImag,outArr);
+    outArr[0] *= normFact;
+    outArr[1] *= normFact;
 //    if(XDEBUG_FLAG)
 //    {    //send debug message to default log file
 //      LogFile.getGlobalLogObj().debug("iizPzTrans() output:  out.real=" +
-//                               mod*Math.cos(pha)*normFact + ", out.imag=" +
-//                                               mod*Math.sin(pha)*normFact);
+//                                 outArr[0] + ", out.imag=" + outArr[1]);
 //    }
-    return new ComplexBlk(mod*Math.cos(pha)*normFact,
-                                                mod*Math.sin(pha)*normFact);
   }
 
     /**
@@ -3753,6 +5102,25 @@ public class OutputGenerator
   public static ComplexBlk iirTrans(CoefficientFilter filterObj,
                            double normFact,double sIntervalTime,double wVal)
   {
+    final double [] outArr = new double[2];
+    iirTrans(filterObj,normFact,sIntervalTime,wVal,outArr);
+    return new ComplexBlk(outArr[0],outArr[1]);
+  }
+
+    /**
+     * Calculates the response of a digital IIR filter.  It evaluates phase
+     * directly from imaginary and real parts of IIR filter coefficients.
+     * No objects are allocated by this method.
+     * @param filterObj a coefficients filter object.
+     * @param normFact the normalization factor to use.
+     * @param sIntervalTime the sample interval time to use.
+     * @param wVal the frequency value to use.
+     * @param outArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the response.
+     */
+  public static void iirTrans(CoefficientFilter filterObj,double normFact,
+                        double sIntervalTime,double wVal,double [] outArr)
+  {
 //    if(XDEBUG_FLAG)
 //    {    //send debug message to default log file
 //      LogFile.getGlobalLogObj().debug("iirTrans() input:  norm=" +
@@ -3803,9 +5171,9 @@ public class OutputGenerator
 //                              amp*Math.cos(phase)*normFact + ", out.imag=" +
 //                                              amp*Math.sin(phase)*normFact);
 //    }
-    return new ComplexBlk(amp*Math.cos(phase)*normFact,
-                                              amp*Math.sin(phase)*normFact);
- }
+    outArr[0] = amp*Math.cos(phase)*normFact;
+    outArr[1] = amp*Math.sin(phase)*normFact;
+  }
 
     /**
      * Calculates the response of a digital FIR filter.  Only the
@@ -3820,6 +5188,26 @@ public class OutputGenerator
   public static ComplexBlk firTrans(CoefficientFilter filterObj,
           double normFact,double sIntervalTime,double wVal,int firTypeVal)
   {
+    final double [] outArr = new double[2];
+    firTrans(filterObj,normFact,sIntervalTime,wVal,firTypeVal,outArr);
+    return new ComplexBlk(outArr[0],outArr[1]);
+  }
+
+    /**
+     * Calculates the response of a digital FIR filter.  Only the
+     * numerators of the given filter object are used.  No objects are
+     * allocated by this method.
+     * @param filterObj a coefficients filter object.
+     * @param normFact the normalization factor to use.
+     * @param sIntervalTime the sample interval time to use.
+     * @param wVal the frequency value to use.
+     * @param firTypeVal one of the 'FIR_...' values.
+     * @param outArr a 2-element array that receives the real (index 0)
+     * and imaginary (index 1) parts of the response.
+     */
+  public static void firTrans(CoefficientFilter filterObj,double normFact,
+        double sIntervalTime,double wVal,int firTypeVal,double [] outArr)
+  {
 //    if(XDEBUG_FLAG)
 //    {    //send debug message to default log file
 //      LogFile.getGlobalLogObj().debug("firTrans() input:  norm=" +
@@ -3836,8 +5224,11 @@ public class OutputGenerator
               filterObj.numerator != null) ? filterObj.numerator.length : 0;
                         //calculate radial freq. time sample interval:
     final double wsint = wVal * sIntervalTime;
-    if(numCoeffs <= 0)       //if no coefficients then return dummy value
-      return new ComplexBlk(0.0,0.0);
+    if(numCoeffs <= 0)
+    {    //no coefficients; return dummy value
+      outArr[0] = outArr[1] = 0.0;
+      return;
+    }
     if(firTypeVal == FIR_SYM1)
     {  //FIR type is symmetrical 1
       final int numNumerators = (numCoeffs + 1) / 2;
@@ -3848,8 +5239,8 @@ public class OutputGenerator
         factVal = numNumerators - (i+1);
         rVal += filterObj.numerator[i].value * Math.cos(wsint*factVal);
       }
-      return new ComplexBlk(
-                    (filterObj.numerator[i].value+(2.0*rVal))*normFact,0.0);
+      outArr[0] = (filterObj.numerator[i].value+(2.0*rVal))*normFact;
+      outArr[1] = 0.0;
     }
     else if(firTypeVal == FIR_SYM2)
     {  //FIR type is symmetrical 2
@@ -3862,7 +5253,8 @@ public class OutputGenerator
         rVal += filterObj.numerator[i].value *
                                       Math.cos(wsint*((double)factVal+0.5));
       }
-      return new ComplexBlk(2.0*rVal*normFact,0.0);
+      outArr[0] = 2.0*rVal*normFact;
+      outArr[1] = 0.0;
     }
     else
     {  //FIR type is asymmetrical
@@ -3873,8 +5265,10 @@ public class OutputGenerator
       {
         if(++i >= numCoeffs)
         {  //all coefficients checked
-          return new ComplexBlk(((wsint == 0.0) ? 1.0 :
-              ((Math.sin(wsint/2.0*numCoeffs)/Math.sin(wsint/2.0))*val)),0.0);
+          outArr[0] = (wsint == 0.0) ? 1.0 :
+                ((Math.sin(wsint/2.0*numCoeffs)/Math.sin(wsint/2.0))*val);
+          outArr[1] = 0.0;
+          return;
         }
       }
       while(filterObj.numerator[i].value == val);
@@ -3898,7 +5292,8 @@ public class OutputGenerator
 //        LogFile.getGlobalLogObj().debug("firTrans() output:  out.real=" +
 //                             rVal*normFact + ", out.imag=" + iVal*normFact);
 //      }
-      return new ComplexBlk(rVal*normFact,iVal*normFact);
+      outArr[0] = rVal*normFact;
+      outArr[1] = iVal*normFact;
     }
   }
 
@@ -4002,6 +5397,443 @@ public class OutputGenerator
   }
 
 
+  /**
+   * Class FreqRangeEvaluator evaluates the stages of a compiled response
+   * over a range of frequency indices, entering the results directly
+   * into the given real/imaginary arrays.  Each evaluator holds its own
+   * temporary values, so evaluators for separate (non-overlapping)
+   * ranges of indices may be run concurrently.
+   */
+  protected class FreqRangeEvaluator implements Runnable
+  {
+    protected final double [] freqArray;           //frequency values
+    protected final double [][] realArrs;          //real values for stages
+    protected final double [][] imagArrs;          //imag values for stages
+    protected final double [][] groupDelayArrs;    //group-delay values
+    protected final CompiledResponse compRespObj;  //compiled response
+    protected final double [][] preRealArrs;       //precomputed values
+    protected final double [][] preImagArrs;       // for stages
+    protected final double [][] storeRealArrs;     //arrays to receive
+    protected final double [][] storeImagArrs;     // values for stages
+    protected final boolean [] laneStagesArr;      //group-eval stages
+    protected final TrigTableCache.TrigTable [] trigTablesArr;  //tables
+    protected final double [] listInterpAmpArr;    //interpolated List
+    protected final double [] listInterpPhaseArr;  // amp/phase values
+    protected final double phaseConvVal;      //List phase conversion value
+    protected final float totalSensitVal;     //stage 0 sensitivity value
+    protected final double unitScaleFact;     //unit conversion scale factor
+    protected final int inpUnitsConv;         //input units conversion
+    protected final int outUnitsConv;         //output units conversion
+    protected final int startStageNum;        //first stage (0-based)
+    protected final int stopStageNum;         //last stage (0-based)
+    protected final int fromIdx;              //first frequency index
+    protected final int toIdx;                //last frequency index + 1
+              //array to hold real/imag result of stage filter evaluation:
+    protected final double [] ofArr = new double[2];
+              //real/imag results for stages at current frequency (for
+              // stages with the same values as previous stages):
+    protected double [] stageValsArr = null;
+              //set true if list stage evaluated:
+    protected boolean listStageEvalFlag = false;
+    protected String errorMessage = null;     //error message from eval
+    protected Exception exceptionObj = null;  //exception thrown by eval
+
+    /**
+     * Creates an evaluator for the given range of frequency indices.
+     * @param freqArray array of frequency values.
+     * @param realArrs arrays of real values for all-stages entry (index
+     * zero) and for each stage entry.
+     * @param imagArrs arrays of imaginary values for all-stages entry
+     * (index zero) and for each stage entry.
+     * @param groupDelayArrs arrays of group-delay values for all-stages
+     * entry (index zero) and for each stage entry, or null if group
+     * delay is not to be calculated.
+     * @param compRespObj compiled response to be evaluated.
+     * @param preRealArrs arrays of precomputed real values for stages,
+     * with any delay correction applied (null entries for stages to be
+     * evaluated).
+     * @param preImagArrs arrays of precomputed imaginary values for
+     * stages, with any delay correction applied (null entries for stages
+     * to be evaluated).
+     * @param storeRealArrs arrays to receive the evaluated real values
+     * for stages (null entries for stages whose values are not needed).
+     * @param storeImagArrs arrays to receive the evaluated imaginary
+     * values for stages (null entries for stages whose values are not
+     * needed).
+     * @param laneStagesArr flags set for stages whose precomputed values
+     * are to be calculated by this evaluator, for groups of frequencies.
+     * @param trigTablesArr trig tables for stages to be evaluated
+     * directly (null entries for stages evaluated without tables).
+     * @param listInterpAmpArr interpolated List amplitude values, or null.
+     * @param listInterpPhaseArr interpolated List phase values, or null.
+     * @param phaseConvVal conversion factor for List phase values.
+     * @param totalSensitVal stage 0 (total) sensitivity value.
+     * @param unitScaleFact unit conversion scale factor.
+     * @param inpUnitsConv input units conversion value.
+     * @param outUnitsConv output units conversion value.
+     * @param startStageNum first stage to evaluate (0-based).
+     * @param stopStageNum last stage to evaluate (0-based).
+     * @param fromIdx first frequency index to evaluate.
+     * @param toIdx last frequency index to evaluate, plus one.
+     */
+    public FreqRangeEvaluator(double [] freqArray,double [][] realArrs,
+                     double [][] imagArrs,double [][] groupDelayArrs,
+                                              CompiledResponse compRespObj,
+                   double [][] preRealArrs,double [][] preImagArrs,
+                 double [][] storeRealArrs,double [][] storeImagArrs,
+                                                boolean [] laneStagesArr,
+                               TrigTableCache.TrigTable [] trigTablesArr,
+                  double [] listInterpAmpArr,double [] listInterpPhaseArr,
+                 double phaseConvVal,float totalSensitVal,
+                 double unitScaleFact,int inpUnitsConv,int outUnitsConv,
+                   int startStageNum,int stopStageNum,int fromIdx,int toIdx)
+    {
+      this.freqArray = freqArray;
+      this.realArrs = realArrs;
+      this.imagArrs = imagArrs;
+      this.groupDelayArrs = groupDelayArrs;
+      this.compRespObj = compRespObj;
+      this.preRealArrs = preRealArrs;
+      this.preImagArrs = preImagArrs;
+      this.storeRealArrs = storeRealArrs;
+      this.storeImagArrs = storeImagArrs;
+      this.laneStagesArr = laneStagesArr;
+      this.trigTablesArr = trigTablesArr;
+      this.listInterpAmpArr = listInterpAmpArr;
+      this.listInterpPhaseArr = listInterpPhaseArr;
+      this.phaseConvVal = phaseConvVal;
+      this.totalSensitVal = totalSensitVal;
+      this.unitScaleFact = unitScaleFact;
+      this.inpUnitsConv = inpUnitsConv;
+      this.outUnitsConv = outUnitsConv;
+      this.startStageNum = startStageNum;
+      this.stopStageNum = stopStageNum;
+      this.fromIdx = fromIdx;
+      this.toIdx = toIdx;
+    }
+
+    /**
+     * Creates an evaluator using the same response values as the given
+     * evaluator, but for a different range of frequency indices.
+     * @param srcObj source evaluator.
+     * @param fromIdx first frequency index to evaluate.
+     * @param toIdx last frequency index to evaluate, plus one.
+     */
+    public FreqRangeEvaluator(FreqRangeEvaluator srcObj,int fromIdx,
+                                                                 int toIdx)
+    {
+      this(srcObj.freqArray,srcObj.realArrs,srcObj.imagArrs,
+                 srcObj.groupDelayArrs,srcObj.compRespObj,
+                                   srcObj.preRealArrs,srcObj.preImagArrs,
+       srcObj.storeRealArrs,srcObj.storeImagArrs,srcObj.laneStagesArr,
+                      srcObj.trigTablesArr,srcObj.listInterpAmpArr,
+                                                 srcObj.listInterpPhaseArr,
+                srcObj.phaseConvVal,srcObj.totalSensitVal,
+                   srcObj.unitScaleFact,srcObj.inpUnitsConv,
+                   srcObj.outUnitsConv,srcObj.startStageNum,
+                                       srcObj.stopStageNum,fromIdx,toIdx);
+    }
+
+    /**
+     * Evaluates the range of frequencies.  Any error message is entered
+     * into 'errorMessage' and any exception is entered into
+     * 'exceptionObj'.
+     */
+    public void run()
+    {
+      try
+      {
+        calcFreqRange();
+      }
+      catch(Exception ex)
+      {       //some kind of error occurred; save exception
+        exceptionObj = ex;
+      }
+    }
+
+    /**
+     * Evaluates the range of frequencies.
+     * @return true if successful, false if an error occurred (in which
+     * case the error message is entered into 'errorMessage').
+     */
+    protected boolean calcFreqRange()
+    {
+      CompiledResponse.StageKernel kernelObj;
+      double freqVal,wVal,ampVal,phaseVal,calcSensVal;
+      int stageNum;
+      Double tDoubleObj;
+      double deltaVal;
+      double [] stgRealArr,stgImagArr;
+      double stgReal,stgImag,totalReal,totalImag,tVal;
+      double stgGroupDelay,totalGroupDelay = 0.0;
+      boolean evalFlag;
+      int sameStageIdx;
+      TrigTableCache.TrigTable tableObj;
+      final int numStages = realArrs.length - 1;
+      for(stageNum=startStageNum; stageNum<=stopStageNum; ++stageNum)
+      {  //for each stage in desired range
+        if(compRespObj.getSameStageIndex(stageNum) >= startStageNum &&
+                                                      stageValsArr == null)
+        {     //stage has same values as previous stage; setup array
+          stageValsArr = new double[2*numStages];
+        }
+        if(laneStagesArr[stageNum])
+        {     //evaluate stage for groups of frequencies in range
+          kernelObj = compRespObj.getStageKernel(stageNum);
+          if(kernelObj.kernelType == CompiledResponse.FIR_KERNEL)
+          {   //FIR coefficients filter
+            kernelObj.firTransRecurLanes(freqArray,fromIdx,toIdx,
+                               preRealArrs[stageNum],preImagArrs[stageNum]);
+            if((tDoubleObj=getFirDelayObj(kernelObj)) != null)
+            {      //delay correction needed; factor in delay value
+              applyDelayCorrection(freqArray,fromIdx,toIdx,
+                                                 tDoubleObj.doubleValue(),
+                               preRealArrs[stageNum],preImagArrs[stageNum]);
+            }
+          }
+          else
+          {   //IIR coefficients filter
+            kernelObj.iirTransRecurLanes(freqArray,fromIdx,toIdx,
+                               preRealArrs[stageNum],preImagArrs[stageNum]);
+          }
+        }
+      }
+              //evaluate any polynomial stages (the value does not depend
+              // on frequency, so it is calculated once):
+      double [] polyValsArr = null;
+      for(stageNum=startStageNum; stageNum<=stopStageNum; ++stageNum)
+      {  //for each stage in desired range
+        kernelObj = compRespObj.getStageKernel(stageNum);
+        if(kernelObj.kernelType == CompiledResponse.POLYNOMIAL_KERNEL &&
+                                                           fromIdx < toIdx)
+        {     //polynomial stage and at least one frequency to evaluate
+          if(b62XValue <= 0.0)
+          {  //b62_x value not positive
+            errorMessage = "Valid 'b62_x' value must be specified " +
+                                                 "for polynomial response";
+            return false;
+          }
+          if(polyValsArr == null)      //if not yet allocated then do so
+            polyValsArr = new double[2*(numStages+1)];
+          if(kernelObj.polyTrans(b62XValue,ofArr))
+          {   //coefficients array not empty; save value for stage
+            polyValsArr[2*stageNum] = ofArr[0];
+            polyValsArr[2*stageNum+1] = ofArr[1];
+          }
+        }
+      }
+      for(int fIdx=fromIdx; fIdx<toIdx; ++fIdx)
+      {  //for each frequency value
+        freqVal = freqArray[fIdx];
+        wVal = TWO_PI * freqVal;
+        totalReal = 1.0;          //initialize value for all stages
+        totalImag = 0.0;
+        if(groupDelayArrs != null)          //if calculating group delay
+          totalGroupDelay = 0.0;            // then initialize total
+        for(stageNum=startStageNum; stageNum<=stopStageNum; ++stageNum)
+        {     //for each stage in desired range
+          stgReal = 1.0;          //initialize value for stage
+          stgImag = 0.0;
+//          if(XDEBUG_FLAG)
+//          {        //send debug message to default log file
+//            LogFile.getGlobalLogObj().debug(
+//                          "Calculating response of stage #" + (stageNum+1) +
+//                                                " at frequency " + freqVal);
+//          }
+          kernelObj = compRespObj.getStageKernel(stageNum);
+          evalFlag = false;         //set true if evaluation performed
+          if((sameStageIdx=compRespObj.getSameStageIndex(stageNum)) >=
+                                                             startStageNum)
+          {   //stage has same values as previous stage; use its value
+            ofArr[0] = stageValsArr[2*sameStageIdx];
+            ofArr[1] = stageValsArr[2*sameStageIdx+1];
+            evalFlag = true;             //indicate evaluation performed
+          }
+          else if(preRealArrs[stageNum] != null)
+          {   //values for stage were precomputed; use them
+            ofArr[0] = preRealArrs[stageNum][fIdx];
+            ofArr[1] = preImagArrs[stageNum][fIdx];
+            evalFlag = true;             //indicate evaluation performed
+          }
+          else switch(kernelObj.kernelType)
+          {
+            case CompiledResponse.ANALOG_PZ_KERNEL:
+                        //analog poles/zeros filter
+              kernelObj.analogTrans(freqVal,ofArr);
+              evalFlag = true;           //indicate evaluation performed
+              break;
+            case CompiledResponse.IIR_PZ_KERNEL:
+                        //digital poles/zeros filter
+              kernelObj.iirPzTrans(wVal,ofArr);
+              evalFlag = true;           //indicate evaluation performed
+              break;
+            case CompiledResponse.FIR_KERNEL:
+                        //FIR coefficients filter
+              if(trigRecurEvalFlag)
+                kernelObj.firTransRecur(wVal,ofArr);
+              else if((tableObj=trigTablesArr[stageNum]) != null)
+              {    //trig table available for stage; use it
+                kernelObj.firTransTable(wVal,tableObj.cosArr,
+                               tableObj.sinArr,fIdx*tableObj.numTerms,ofArr);
+              }
+              else
+                kernelObj.firTrans(wVal,ofArr);
+                        //if asymmetric FIR with delay value then
+                        // factor in delay correction:
+              if((tDoubleObj=getFirDelayObj(kernelObj)) != null)
+              {    //delay value available
+                deltaVal = tDoubleObj.doubleValue();
+                ComplexBlk.zMultiply(ofArr,Math.cos(wVal*deltaVal),
+                                                   Math.sin(wVal*deltaVal));
+              }
+              evalFlag = true;           //indicate evaluation performed
+              break;
+            case CompiledResponse.IIR_KERNEL:
+                        //IIR coefficients filter
+              if(trigRecurEvalFlag)
+                kernelObj.iirTransRecur(wVal,ofArr);
+              else if((tableObj=trigTablesArr[stageNum]) != null)
+              {    //trig table available for stage; use it
+                kernelObj.iirTransTable(wVal,tableObj.cosArr,
+                               tableObj.sinArr,fIdx*tableObj.numTerms,ofArr);
+              }
+              else
+                kernelObj.iirTrans(wVal,ofArr);
+              evalFlag = true;           //indicate evaluation performed
+              break;
+            case CompiledResponse.LIST_KERNEL:
+                        //response list filter
+              listStageEvalFlag = true;  //indicate list stage evaluated
+              if(listInterpInFlag)
+              {    //using interpolated amp/phase values
+                ampVal = listInterpAmpArr[fIdx];   //get amplitude value
+                     //get phase value, convert degrees to radians (if nec):
+                phaseVal = listInterpPhaseArr[fIdx] * phaseConvVal;
+              }
+              else
+              {    //using amp/phase values from List blockette
+                ampVal = kernelObj.listAmpArr[fIdx];    //get amplitude
+                     //get phase value, convert degrees to radians (if nec):
+                phaseVal = kernelObj.listPhaseArr[fIdx] * phaseConvVal;
+              }
+              ofArr[0] = ampVal*Math.cos(phaseVal);
+              ofArr[1] = ampVal*Math.sin(phaseVal);
+              evalFlag = true;           //indicate evaluation performed
+              break;
+            case CompiledResponse.POLYNOMIAL_KERNEL:
+                        //polynomial type filter
+                        //use value calculated before frequency loop
+                        // (if coefficients array not empty):
+              if(kernelObj.polyCoeffsArr.length > 0)
+              {
+                ofArr[0] = polyValsArr[2*stageNum];
+                ofArr[1] = polyValsArr[2*stageNum+1];
+                evalFlag = true;            //indicate evaluation performed
+              }
+              break;
+            case CompiledResponse.ERROR_KERNEL:
+                        //stage could not be compiled; set error message
+              errorMessage = kernelObj.errorMessage;
+              return false;
+          }
+          if(evalFlag)              //if filter was evaluated then
+          {                         //multply in new value
+            if(stageValsArr != null)
+            {      //value may be needed by later stage; save value
+              stageValsArr[2*stageNum] = ofArr[0];
+              stageValsArr[2*stageNum+1] = ofArr[1];
+            }
+            if(storeRealArrs[stageNum] != null)
+            {      //values for stage needed; save value
+              storeRealArrs[stageNum][fIdx] = ofArr[0];
+              storeImagArrs[stageNum][fIdx] = ofArr[1];
+            }
+            tVal = stgReal*ofArr[0] - stgImag*ofArr[1];
+            stgImag = stgImag*ofArr[0] + stgReal*ofArr[1];
+            stgReal = tVal;
+          }
+          if(realArrs[stageNum+1] != null)
+          {   //values for stage entry needed; enter value
+            realArrs[stageNum+1][fIdx] = stgReal;
+            imagArrs[stageNum+1][fIdx] = stgImag;
+          }
+          if(groupDelayArrs != null)
+          {   //calculating group delay; add in value for stage
+            stgGroupDelay = calcStageGroupDelay(kernelObj,freqVal);
+            if(groupDelayArrs[stageNum+1] != null)
+              groupDelayArrs[stageNum+1][fIdx] = stgGroupDelay;
+            totalGroupDelay += stgGroupDelay;
+          }
+              //multiply stage value into value for all stages:
+          tVal = totalReal*stgReal - totalImag*stgImag;
+          totalImag = totalImag*stgReal + totalReal*stgImag;
+          totalReal = tVal;
+        }
+              //enter response value for all stages put together
+              // into zero index in array:
+        realArrs[0][fIdx] = totalReal;
+        imagArrs[0][fIdx] = totalImag;
+        if(groupDelayArrs != null)               //if calculating then
+          groupDelayArrs[0][fIdx] = totalGroupDelay;  //enter group delay
+              //process conversions for each stage entry:
+        for(stageNum=0; stageNum<=numStages; ++stageNum)
+        {     //for each possible stage entry
+          if((stgRealArr=realArrs[stageNum]) != null)
+          {   //stage entry contains data
+            stgImagArr = imagArrs[stageNum];
+            if(totalSensitFlag)
+            {  //using stage 0 (total) sensitivity
+                   //multiply in sensitivity and unit conv scale factor:
+              stgRealArr[fIdx] *= totalSensitVal * unitScaleFact;
+              stgImagArr[fIdx] *= totalSensitVal * unitScaleFact;
+            }
+            else
+            {  //using computed sensitivity from each stage
+                   //get calculated sensitivity value for stage index:
+              calcSensVal = (calcSensitivityArray != null &&
+                                   stageNum < calcSensitivityArray.length) ?
+                                       calcSensitivityArray[stageNum] : 1.0;
+                   //multiply in sensitivity and unit conv scale factor:
+              stgRealArr[fIdx] *= calcSensVal * unitScaleFact;
+              stgImagArr[fIdx] *= calcSensVal * unitScaleFact;
+            }
+                   //handle any units conversions:
+            if(outUnitsConv != inpUnitsConv)
+            {      //requested output units different from input units
+              if(inpUnitsConv == DISPLACE_UNIT_CONV)
+              {    //input unit is 'displacement'; convert to 'velocity'
+                if(wVal != 0.0)
+                {
+                  ComplexBlk.zMultiply(stgRealArr,stgImagArr,fIdx,
+                                                           0.0,-1.0/wVal);
+                }
+                else
+                  stgRealArr[fIdx] = stgImagArr[fIdx] = 0.0;
+              }    //if input unit is 'accel' then convert to 'velocity':
+              else if(inpUnitsConv == ACCEL_UNIT_CONV)
+                ComplexBlk.zMultiply(stgRealArr,stgImagArr,fIdx,0.0,wVal);
+                   //if requested output is 'displacement' then convert:
+              if(outUnitsConv == DISPLACE_UNIT_CONV)
+                ComplexBlk.zMultiply(stgRealArr,stgImagArr,fIdx,0.0,wVal);
+              else if(outUnitsConv == ACCEL_UNIT_CONV)
+              {    //requested output is 'acceleration'; convert it
+                if(wVal != 0.0)
+                {
+                  ComplexBlk.zMultiply(stgRealArr,stgImagArr,fIdx,
+                                                           0.0,-1.0/wVal);
+                }
+                else
+                  stgRealArr[fIdx] = stgImagArr[fIdx] = 0.0;
+              }
+            }
+          }
+        }
+      }
+      return true;
+    }
+  }
+
+
   /**
    * Class TypeNormStringBlock defines a data block containing two
    * strings, one for "type" and one for "normalization".
@@ -4,6 +4,15 @@
 //  3/25/2005 -- [ET]  Initial version.
 // 10/27/2005 -- [ET]  Added methods 'setFrequencyArray()' and
 //                     'setAmpPhaseArray()'.
+// 10/18/2026 -- [AG]  Modified to hold complex-spectra values in primitive
+//                     real/imaginary arrays, with the 'ComplexBlk' array
+//                     created only when requested; added methods
+//                     'getCSpectraArray()', 'getRealArray()',
+//                     'getImagArray()' and 'containsCSpectra()'.
+//                     Added methods 'setGroupDelayArray()' and
+//                     'getGroupDelayArray()'.
+//                     Added constructor that uses given real/imaginary
+//                     arrays.
 //
 
 package com.isti.jevalresp;
@@ -14,14 +23,24 @@ package com.isti.jevalresp;
  */
 public class RespArraysInfo
 {
-    /** Array of complex-spectra values for response. */
-  public final ComplexBlk [] cSpectraArray;
+    /**
+     * Array of complex-spectra values for response.  When the values are
+     * held in the real/imaginary arrays this array is not created until
+     * 'getCSpectraArray()' is called.
+     */
+  public ComplexBlk [] cSpectraArray;
     /** Array of corresponding frequency values. */
   public double [] frequencyArr;
     /** Identification string for response information. */
   public final String identifyStr;
     /** Handle to array of amplitude/phase values for response. */
   public AmpPhaseBlk [] ampPhaseArray = null;
+    /** Array of real parts of complex-spectra values (or null). */
+  protected double [] realArray;
+    /** Array of imaginary parts of complex-spectra values (or null). */
+  protected double [] imagArray;
+    /** Array of group-delay values, in seconds (or null). */
+  protected double [] groupDelayArray = null;
 
   /**
    * Creates a response arrays/information object.
@@ -34,9 +53,9 @@ public class RespArraysInfo
   public RespArraysInfo(int cSpectraArrayLen, double [] frequencyArr,
                            String identifyStr, AmpPhaseBlk [] ampPhaseArray)
   {
-    cSpectraArray = new ComplexBlk[cSpectraArrayLen];
-    for(int i=0; i<cSpectraArrayLen; ++i)
-      cSpectraArray[i] = null;
+    cSpectraArray = null;              //created when requested
+    realArray = new double[cSpectraArrayLen];
+    imagArray = new double[cSpectraArrayLen];
     this.frequencyArr = frequencyArr;
     this.identifyStr = identifyStr;
     this.ampPhaseArray = ampPhaseArray;
@@ -55,6 +74,24 @@ public class RespArraysInfo
     this(cSpectraArrayLen,frequencyArr,identifyStr,null);
   }
 
+  /**
+   * Creates a response arrays/information object that holds the
+   * complex-spectra values in the given arrays (which are not copied).
+   * @param realArray array to hold the real parts of the values.
+   * @param imagArray array to hold the imaginary parts of the values.
+   * @param frequencyArr array of corresponding frequency values.
+   * @param identifyStr identification string for response.
+   */
+  public RespArraysInfo(double [] realArray, double [] imagArray,
+                               double [] frequencyArr, String identifyStr)
+  {
+    cSpectraArray = null;              //created when requested
+    this.realArray = realArray;
+    this.imagArray = imagArray;
+    this.frequencyArr = frequencyArr;
+    this.identifyStr = identifyStr;
+  }
+
   /**
    * Creates a response arrays/information object.
    * @param cSpectraArray array of complex-spectra values for response.
@@ -66,6 +103,7 @@ public class RespArraysInfo
                            String identifyStr, AmpPhaseBlk [] ampPhaseArray)
   {
     this.cSpectraArray = cSpectraArray;
+    realArray = imagArray = null;      //created when requested
     this.frequencyArr = frequencyArr;
     this.identifyStr = identifyStr;
     this.ampPhaseArray = ampPhaseArray;
@@ -86,14 +124,131 @@ public class RespArraysInfo
   /**
    * Enters the given value into the array of complex-spectra values for
    * the response.  The values from the given 'ComplexBlk' object are
-   * copied into a new 'ComplexBlk' object which is then entered into
-   * the array.
+   * copied into the real/imaginary arrays.
    * @param idx the array index value to use.
    * @param cBlkObj the 'ComplexBlk' object from which to take the values.
    */
   public void enterCSpectraVal(int idx, ComplexBlk cBlkObj)
   {
-    cSpectraArray[idx] = new ComplexBlk(cBlkObj.real,cBlkObj.imag);
+    enterCSpectraVal(idx,cBlkObj.real,cBlkObj.imag);
+  }
+
+  /**
+   * Enters the given value into the array of complex-spectra values for
+   * the response.
+   * @param idx the array index value to use.
+   * @param realVal the real part of the value.
+   * @param imagVal the imaginary part of the value.
+   */
+  public void enterCSpectraVal(int idx, double realVal, double imagVal)
+  {
+    getRealArray()[idx] = realVal;
+    getImagArray()[idx] = imagVal;
+    if(cSpectraArray != null)          //if 'ComplexBlk' array created then
+      cSpectraArray[idx] = new ComplexBlk(realVal,imagVal);   //update it
+  }
+
+  /**
+   * Returns the array of complex-spectra values for the response.  If
+   * the values are held in the real/imaginary arrays then the 'ComplexBlk'
+   * array is created (once) from them.
+   * @return The array of complex-spectra values for the response, or
+   * null if none are available.
+   */
+  public ComplexBlk [] getCSpectraArray()
+  {
+    if(cSpectraArray == null && realArray != null && imagArray != null)
+    {    //values held in real/imaginary arrays; create 'ComplexBlk' array
+      final int len = realArray.length;
+      final ComplexBlk [] cArr = new ComplexBlk[len];
+      for(int i=0; i<len; ++i)
+        cArr[i] = new ComplexBlk(realArray[i],imagArray[i]);
+      cSpectraArray = cArr;
+    }
+    return cSpectraArray;
+  }
+
+  /**
+   * Returns the array of real parts of the complex-spectra values for
+   * the response.  The returned array is not a copy and should be
+   * treated as read-only.
+   * @return The array of real parts of the complex-spectra values, or
+   * null if none are available.
+   */
+  public double [] getRealArray()
+  {
+    if(realArray == null)
+      fillArraysFromCSpectra();
+    return realArray;
+  }
+
+  /**
+   * Returns the array of imaginary parts of the complex-spectra values
+   * for the response.  The returned array is not a copy and should be
+   * treated as read-only.
+   * @return The array of imaginary parts of the complex-spectra values,
+   * or null if none are available.
+   */
+  public double [] getImagArray()
+  {
+    if(imagArray == null)
+      fillArraysFromCSpectra();
+    return imagArray;
+  }
+
+  /**
+   * Enters the array of group-delay values for the response.
+   * @param groupDelayArray array of group-delay values (in seconds),
+   * or null for none.
+   */
+  public void setGroupDelayArray(double [] groupDelayArray)
+  {
+    this.groupDelayArray = groupDelayArray;
+  }
+
+  /**
+   * Returns the array of group-delay values for the response.  The
+   * returned array is not a copy and should be treated as read-only.
+   * @return The array of group-delay values (in seconds), or null if
+   * none are available.
+   */
+  public double [] getGroupDelayArray()
+  {
+    return groupDelayArray;
+  }
+
+  /**
+   * Determines if complex-spectra values are held by this object.
+   * @return true if complex-spectra values are held by this object.
+   */
+  public boolean containsCSpectra()
+  {
+    return (realArray != null || cSpectraArray != null);
+  }
+
+  /**
+   * Creates the real/imaginary arrays from the 'ComplexBlk' array (if
+   * the 'ComplexBlk' array exists).
+   */
+  protected void fillArraysFromCSpectra()
+  {
+    if(cSpectraArray != null)
+    {    //'ComplexBlk' array exists; copy over values
+      final int len = cSpectraArray.length;
+      final double [] rArr = new double[len];
+      final double [] iArr = new double[len];
+      ComplexBlk cBlkObj;
+      for(int i=0; i<len; ++i)
+      {  //for each entry; copy values (null entry left as zero)
+        if((cBlkObj=cSpectraArray[i]) != null)
+        {
+          rArr[i] = cBlkObj.real;
+          iArr[i] = cBlkObj.imag;
+        }
+      }
+      realArray = rArr;
+      imagArray = iArr;
+    }
   }
 
   /**
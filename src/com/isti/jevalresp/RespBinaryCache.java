@@ -0,0 +1,1157 @@
+//RespBinaryCache.java:  Binary cache of the parsed responses in a RESP
+//                       (or StationXML) file, saved in a sidecar file
+//                       next to the source file.
+//
+//  10/18/2026 -- [AG]  Initial version.
+//                      Modified 'save()' to write the data section
+//                      directly to a temporary file (with long offsets)
+//                      that is then renamed to the cache file; modified
+//                      'build()' to keep the responses that could not
+//                      be parsed as error entries; modified
+//                      'getResponse()' to parse the response from the
+//                      source file if its cached data is invalid.
+//
+
+package com.isti.jevalresp;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.zip.CRC32;
+import edu.iris.Fissures.Quantity;
+import edu.iris.Fissures.Sampling;
+import edu.iris.Fissures.Time;
+import edu.iris.Fissures.Unit;
+import edu.iris.Fissures.UnitBase;
+import edu.iris.Fissures.IfNetwork.ChannelId;
+import edu.iris.Fissures.IfNetwork.CoefficientErrored;
+import edu.iris.Fissures.IfNetwork.CoefficientFilter;
+import edu.iris.Fissures.IfNetwork.ComplexNumberErrored;
+import edu.iris.Fissures.IfNetwork.Decimation;
+import edu.iris.Fissures.IfNetwork.Filter;
+import edu.iris.Fissures.IfNetwork.FilterType;
+import edu.iris.Fissures.IfNetwork.Gain;
+import edu.iris.Fissures.IfNetwork.ListFilter;
+import edu.iris.Fissures.IfNetwork.NetworkId;
+import edu.iris.Fissures.IfNetwork.Normalization;
+import edu.iris.Fissures.IfNetwork.PoleZeroFilter;
+import edu.iris.Fissures.IfNetwork.PolynomialFilter;
+import edu.iris.Fissures.IfNetwork.Response;
+import edu.iris.Fissures.IfNetwork.Sensitivity;
+import edu.iris.Fissures.IfNetwork.Stage;
+import edu.iris.Fissures.IfNetwork.TransferType;
+import edu.iris.Fissures.model.SamplingImpl;
+import edu.iris.Fissures.model.TimeInterval;
+import edu.iris.Fissures.model.UnitImpl;
+
+/**
+ * Class RespBinaryCache holds the channel IDs, effective dates and
+ * parsed responses of all of the responses in a RESP (or StationXML)
+ * file, in a compact binary form that is saved to a sidecar file (the
+ * source file name plus 'CACHE_FILE_SUFFIX').  When the cache file is
+ * valid for the current source file it is memory mapped and the
+ * responses are decoded directly from the mapped data, so that the
+ * source file does not need to be tokenized (or converted from XML)
+ * at all.  The cache file holds the size, last-modified time and CRC-32
+ * checksum of the source file; if the size differs, or if the
+ * last-modified time differs and the checksum does not match, then the
+ * cache is stale and is rebuilt.
+ * <p>
+ * The cache file (big-endian, as written by 'DataOutputStream') holds a
+ * header (ending with the offset of the directory), a data section with
+ * the responses and a directory with one entry per response (channel ID
+ * codes, start time string, start and end times in milliseconds, info
+ * message, error message and the offset of the response data).  Each
+ * response is stored as its sensitivity followed by its stages, with
+ * the poles, zeros, coefficients, gains and decimation values of each
+ * stage stored as primitive values.  Responses are decoded only when
+ * fetched via 'getResponse()'; if the data for a response cannot be
+ * decoded then the response is parsed from the source file instead
+ * (and the cache file is removed, so that it is rebuilt).  A response
+ * that could not be parsed when the cache was built is kept as an entry
+ * with an error message, so that the error is reported in the same way
+ * as when parsing the source file.
+ */
+public class RespBinaryCache
+{
+    /** Suffix added to the source file name for the cache file. */
+  public static final String CACHE_FILE_SUFFIX = ".rbc";
+    /** Value at the start of the cache file ("RBC1"). */
+  public static final int CACHE_MAGIC_VALUE = 0x52424331;
+    /** Format version of the cache file. */
+  public static final int CACHE_VERSION = 2;
+    /** Largest cache file supported (the size that may be mapped). */
+  public static final long MAX_CACHE_FILE_SIZE = Integer.MAX_VALUE;
+              //position of directory offset in cache file header:
+  protected static final int DIR_OFFSET_POS = 32;
+              //position of data section in cache file:
+  protected static final int DATA_SECTION_POS = DIR_OFFSET_POS + 8;
+              //value used for "none" in directory time values:
+  protected static final long NO_TIME_VALUE = Long.MIN_VALUE;
+              //name of character set for strings in cache file:
+  protected static final String CHARSET_NAME = "UTF-8";
+
+  protected final String srcFileName;            //name of source file
+  protected final File srcFileObj;               //source file object
+  protected final File cacheFileObj;             //cache file object
+  protected Entry [] entriesArr = new Entry[0];  //array of entries
+  protected ByteBuffer dataBufferObj = null;     //data section of cache
+  protected long srcFileSize = 0;                //size of source file
+  protected long srcFileModified = 0;            //mod time of source
+  protected long srcFileChecksum = 0;            //CRC-32 of source file
+  protected RespChannelIndex srcIndexObj = null; //index of source file
+  protected String errorMessage = null;          //error message
+
+  /**
+   * Creates an (empty) response cache for the given source file.  One
+   * of the 'load()', 'build()' or 'loadOrBuild()' methods should be
+   * used to fill in the cache.
+   * @param srcFileName the name of the RESP (or StationXML) file.
+   */
+  public RespBinaryCache(String srcFileName)
+  {
+    this.srcFileName = srcFileName;
+    srcFileObj = new File(srcFileName);
+    cacheFileObj = new File(srcFileName + CACHE_FILE_SUFFIX);
+  }
+
+  /**
+   * Loads the cache from its sidecar file if the file is valid for the
+   * current source file; otherwise builds the cache from the source file
+   * and saves it to the sidecar file.  A failure to save the cache file
+   * (for instance, for a read-only directory) does not cause this method
+   * to fail.
+   * @return true if successful; false if an error occurred (in which
+   * case 'getErrorMessage()' may be used to see information about the
+   * error).
+   */
+  public boolean loadOrBuild()
+  {
+    if(load())
+      return true;
+    if(!build())
+      return false;
+    save();             //save cache file (failure is not fatal)
+    clearErrorMessage();
+    return true;
+  }
+
+  /**
+   * Loads the cache from its sidecar file, which is memory mapped (the
+   * responses are decoded when fetched via 'getResponse()').
+   * @return true if successful; false if the cache file does not exist,
+   * does not match the current source file or could not be read (in
+   * which case 'getErrorMessage()' may be used to see information about
+   * the error).
+   */
+  public boolean load()
+  {
+    clearErrorMessage();
+    if(!cacheFileObj.isFile() || !srcFileObj.isFile())
+    {
+      setErrorMessage("Cache file \"" + cacheFileObj.getPath() +
+                                                       "\" not found");
+      return false;
+    }
+    RandomAccessFile rafObj = null;
+    try
+    {
+      rafObj = new RandomAccessFile(cacheFileObj,"r");
+      final FileChannel chObj = rafObj.getChannel();
+      if(chObj.size() > MAX_CACHE_FILE_SIZE)
+      {  //file too large to be mapped
+        setErrorMessage("Cache file \"" + cacheFileObj.getPath() +
+                                                      "\" is too large");
+        return false;
+      }
+      final ByteBuffer bufObj = chObj.map(
+                              FileChannel.MapMode.READ_ONLY,0,chObj.size());
+      if(bufObj.getInt() != CACHE_MAGIC_VALUE ||
+                                         bufObj.getInt() != CACHE_VERSION)
+      {  //not a cache file of this version
+        setErrorMessage("Invalid cache file \"" +
+                                           cacheFileObj.getPath() + "\"");
+        return false;
+      }
+      final long sizeVal = bufObj.getLong();
+      final long modVal = bufObj.getLong();
+      final long checksumVal = bufObj.getLong();
+      if(sizeVal != srcFileObj.length() ||
+                           (modVal != srcFileObj.lastModified() &&
+                                checksumVal != calcSourceChecksum()))
+      {  //cache file does not match current source file
+        setErrorMessage("Cache file \"" + cacheFileObj.getPath() +
+                                 "\" does not match \"" + srcFileName + "\"");
+        return false;
+      }
+      final long dirOffset = bufObj.getLong();
+      if(dirOffset < DATA_SECTION_POS || dirOffset > bufObj.limit())
+      {  //directory offset not valid
+        setErrorMessage("Invalid cache file \"" +
+                                           cacheFileObj.getPath() + "\"");
+        return false;
+      }
+      final int dataLength = (int)dirOffset - DATA_SECTION_POS;
+      final ByteBuffer dataBufObj = bufObj.slice();
+      dataBufObj.limit(dataLength);
+      bufObj.position((int)dirOffset);
+      final int numEntries = bufObj.getInt();
+      if(numEntries < 0)
+      {
+        setErrorMessage("Invalid cache file \"" +
+                                           cacheFileObj.getPath() + "\"");
+        return false;
+      }
+      final Entry [] arr = new Entry[numEntries];
+      String netName,staName,siteName,chaName,dateStr,infoMsgStr,errMsgStr;
+      long startTime,endTime,dataOffset;
+      Time fissTimeObj;
+      for(int i=0; i<numEntries; ++i)
+      {  //for each directory entry
+        netName = readString(bufObj);
+        staName = readString(bufObj);
+        siteName = readString(bufObj);
+        chaName = readString(bufObj);
+        dateStr = readString(bufObj);
+        startTime = bufObj.getLong();
+        endTime = bufObj.getLong();
+        infoMsgStr = readString(bufObj);
+        errMsgStr = readString(bufObj);
+        dataOffset = bufObj.getLong();
+        if(dataOffset >= dataLength || (dataOffset < 0 &&
+                                                       errMsgStr == null))
+        {     //data offset not valid
+          setErrorMessage("Invalid cache file \"" +
+                                           cacheFileObj.getPath() + "\"");
+          return false;
+        }
+        fissTimeObj = new Time(dateStr,-1);
+        arr[i] = new Entry(new ChanIdHldr(new ChannelId(
+                       new NetworkId(netName,fissTimeObj),staName,siteName,
+                                                      chaName,fissTimeObj),
+               ((endTime != NO_TIME_VALUE) ? new Date(endTime) : null)),
+                        new Date(startTime),infoMsgStr,errMsgStr,dataOffset);
+      }
+      dataBufferObj = dataBufObj;
+      entriesArr = arr;
+      srcFileSize = sizeVal;
+      srcFileModified = modVal;
+      srcFileChecksum = checksumVal;
+      return true;
+    }
+    catch(BufferUnderflowException ex)
+    {
+      setErrorMessage("Invalid cache file \"" +
+                                           cacheFileObj.getPath() + "\"");
+    }
+    catch(IOException ex)
+    {
+      setErrorMessage("Error reading cache file \"" +
+                                       cacheFileObj.getPath() + "\":  " + ex);
+    }
+    finally
+    {
+      try
+      {       //close file (mapping remains valid):
+        if(rafObj != null)
+          rafObj.close();
+      }
+      catch(IOException ex) {}
+    }
+    return false;
+  }
+
+  /**
+   * Builds the cache by parsing all of the responses in the source file.
+   * A response that cannot be parsed is kept as an entry holding the
+   * error message (see 'getResponse()'), and parsing continues with the
+   * next response in the file (found via a 'RespChannelIndex').
+   * @return true if successful; false if an error occurred (such as an
+   * error parsing a station/channel ID, or a response that cannot be
+   * parsed in a file that cannot be indexed), in which case
+   * 'getErrorMessage()' may be used to see information about the error.
+   */
+  public boolean build()
+  {
+    clearErrorMessage();
+    try
+    {         //get size, time and checksum before parsing source file:
+      srcFileSize = srcFileObj.length();
+      srcFileModified = srcFileObj.lastModified();
+      srcFileChecksum = calcSourceChecksum();
+    }
+    catch(IOException ex)
+    {
+      setErrorMessage("Error reading input file \"" + srcFileName +
+                                                             "\":  " + ex);
+      return false;
+    }
+    final RespFileParser parserObj = new RespFileParser(srcFileName);
+    try
+    {
+      if(parserObj.getErrorFlag())
+      {  //error opening or reading file
+        setErrorMessage(parserObj.getErrorMessage());
+        return false;
+      }
+      final ArrayList listObj = new ArrayList();
+      ChanIdHldr chanIdHldrObj;
+      Response respObj;
+      Date startDateObj;
+      String infoMsgStr,errMsgStr;
+      RespChannelIndex indexObj;
+      int nextIdx;
+      do
+      {  //for each response in file
+        if((chanIdHldrObj=parserObj.findChannelId((String [])null,
+                     (String [])null,(String [])null,(String [])null,null,
+                                                          null)) == null)
+        {     //error parsing station/channel ID
+          setErrorMessage(parserObj.getErrorMessage());
+          return false;
+        }
+        errMsgStr = ((respObj=parserObj.readResponse()) == null) ?
+                                         parserObj.getErrorMessage() : null;
+        if(parserObj.getInfoFlag())
+        {     //info message available for response; keep it
+          infoMsgStr = parserObj.getInfoMessage();
+          parserObj.clearInfoMessage();
+        }
+        else
+          infoMsgStr = null;
+        try
+        {     //convert start date (same format used by 'findChannelId()'):
+          synchronized(RespUtils.fissDateFormatter)
+          {   //synchronize on shared formatter
+            startDateObj = RespUtils.fissDateFormatter.parse(
+                          chanIdHldrObj.channelIdObj.begin_time.date_time);
+          }
+        }
+        catch(ParseException ex)
+        {     //unable to convert start date
+          setErrorMessage("Unable to convert start date in \"" +
+                                                      srcFileName + "\"");
+          return false;
+        }
+        listObj.add(new Entry(chanIdHldrObj,startDateObj,infoMsgStr,
+                                                       respObj,errMsgStr));
+        if(respObj == null)
+        {     //error parsing response; move to next response via index
+          nextIdx = listObj.size();
+          if((indexObj=getSourceIndex(nextIdx-1,chanIdHldrObj)) == null)
+            return false;
+          if(nextIdx >= indexObj.getNumEntries())
+            break;           //if no more responses then exit loop
+          if(!parserObj.seekChannelId(indexObj.getEntry(nextIdx)))
+          {   //unable to move to next response
+            setErrorMessage(parserObj.getErrorMessage());
+            return false;
+          }
+        }
+      }         //loop while next station/channel ID entry was read
+      while(parserObj.getChannelIdLineNum() >= 0);
+      entriesArr = (Entry [])listObj.toArray(new Entry[listObj.size()]);
+      dataBufferObj = null;
+      return true;
+    }
+    finally
+    {
+      parserObj.close();
+    }
+  }
+
+  /**
+   * Saves the cache to its sidecar file.  The cache is written to a
+   * temporary file in the same directory (with the responses encoded
+   * directly to the file), which is then renamed to the cache file (so
+   * that a partially-written cache file is never seen by 'load()').  If
+   * an error occurs then the temporary file is removed.
+   * @return true if successful; false if an error occurred (in which
+   * case 'getErrorMessage()' may be used to see information about the
+   * error).
+   */
+  public boolean save()
+  {
+    clearErrorMessage();
+    File tmpFileObj = null;
+    FileOutputStream fileStmObj = null;
+    try
+    {
+      tmpFileObj = RespUtils.createReplacementFile(cacheFileObj);
+      fileStmObj = new FileOutputStream(tmpFileObj);
+      final CountingOutputStream cntStmObj = new CountingOutputStream(
+                                      new BufferedOutputStream(fileStmObj));
+      final DataOutputStream outStmObj = new DataOutputStream(cntStmObj);
+      outStmObj.writeInt(CACHE_MAGIC_VALUE);
+      outStmObj.writeInt(CACHE_VERSION);
+      outStmObj.writeLong(srcFileSize);
+      outStmObj.writeLong(srcFileModified);
+      outStmObj.writeLong(srcFileChecksum);
+      outStmObj.writeLong(0);          //directory offset (entered below)
+              //encode responses into data section:
+      final long [] offsetsArr = new long[entriesArr.length];
+      Response respObj;
+      for(int i=0; i<entriesArr.length; ++i)
+      {  //for each entry; encode response
+        if(entriesArr[i].errMsgStr != null)
+        {     //response could not be parsed; no data for entry
+          offsetsArr[i] = -1;
+          continue;
+        }
+        if((respObj=getResponse(i)) == null)
+          throw new IOException(getErrorMessage());
+        offsetsArr[i] = cntStmObj.getByteCount() - DATA_SECTION_POS;
+        writeResponse(outStmObj,respObj);
+        if(cntStmObj.getByteCount() > MAX_CACHE_FILE_SIZE)
+          throw new IOException("Cache file too large");
+      }
+      final long dirOffset = cntStmObj.getByteCount();
+      outStmObj.writeInt(entriesArr.length);
+      Entry entryObj;
+      ChannelId chIdObj;
+      for(int i=0; i<entriesArr.length; ++i)
+      {  //for each entry; write directory entry
+        entryObj = entriesArr[i];
+        chIdObj = entryObj.chanIdHldrObj.channelIdObj;
+        writeString(outStmObj,chIdObj.network_id.network_code);
+        writeString(outStmObj,chIdObj.station_code);
+        writeString(outStmObj,chIdObj.site_code);
+        writeString(outStmObj,chIdObj.channel_code);
+        writeString(outStmObj,chIdObj.begin_time.date_time);
+        outStmObj.writeLong(entryObj.startDateObj.getTime());
+        outStmObj.writeLong(
+                      (entryObj.chanIdHldrObj.respEndDateObj != null) ?
+                 entryObj.chanIdHldrObj.respEndDateObj.getTime() :
+                                                            NO_TIME_VALUE);
+        writeString(outStmObj,entryObj.infoMsgStr);
+        writeString(outStmObj,entryObj.errMsgStr);
+        outStmObj.writeLong(offsetsArr[i]);
+      }
+      outStmObj.flush();
+      if(cntStmObj.getByteCount() > MAX_CACHE_FILE_SIZE)
+        throw new IOException("Cache file too large");
+              //enter directory offset into header:
+      final ByteBuffer offsBufObj = ByteBuffer.allocate(8);
+      offsBufObj.putLong(0,dirOffset);
+      fileStmObj.getChannel().write(offsBufObj,DIR_OFFSET_POS);
+      fileStmObj.close();
+      fileStmObj = null;
+      if(RespUtils.replaceFile(tmpFileObj,cacheFileObj))
+        return true;
+      setErrorMessage("Unable to rename temporary file to cache file \"" +
+                                             cacheFileObj.getPath() + "\"");
+      return false;
+    }
+    catch(IOException ex)
+    {
+      setErrorMessage("Error writing cache file \"" +
+                                       cacheFileObj.getPath() + "\":  " + ex);
+    }
+    catch(RuntimeException ex)
+    {         //unexpected content in response (such as null element)
+      setErrorMessage("Unable to encode response for cache file \"" +
+                                       cacheFileObj.getPath() + "\":  " + ex);
+    }
+    try
+    {
+      if(fileStmObj != null)
+        fileStmObj.close();
+    }
+    catch(IOException ex) {}
+    if(tmpFileObj != null)
+      tmpFileObj.delete();             //remove partial temporary file
+    return false;
+  }
+
+  /**
+   * Returns the number of responses in the cache.
+   * @return The number of responses in the cache.
+   */
+  public int getNumEntries()
+  {
+    return entriesArr.length;
+  }
+
+  /**
+   * Returns the channel ID and end date for the given response.
+   * @param idx the index of the response (responses are in file order).
+   * @return The 'ChanIdHldr' object for the response.
+   */
+  public ChanIdHldr getChanIdHldr(int idx)
+  {
+    return entriesArr[idx].chanIdHldrObj;
+  }
+
+  /**
+   * Returns the info message generated while parsing the given response.
+   * @param idx the index of the response (responses are in file order).
+   * @return The info message, or null if none.
+   */
+  public String getInfoMessage(int idx)
+  {
+    return entriesArr[idx].infoMsgStr;
+  }
+
+  /**
+   * Determines if the given response matches the given patterns and
+   * dates (as used by 'RespFileParser.findChannelId()').
+   * @param idx the index of the response (responses are in file order).
+   * @param stationPatArr an array of station name patterns, or a null
+   * or empty array to accept all station names.
+   * @param channelPatArr an array of channel name patterns, or a null
+   * or empty array to accept all channel names.
+   * @param networkPatArr an array of network name patterns, or a null
+   * or empty array to accept all network names.
+   * @param sitePatArr an array of site name patterns, or a null or
+   * empty array to accept all site names.
+   * @param beginDateObj the beginning of the date range to match, or
+   * null for no begin date.
+   * @param endDateObj the end of the date range to match, or null for
+   * no end date.
+   * @return true if the response matches.
+   */
+  public boolean entryMatches(int idx,String [] stationPatArr,
+                            String [] channelPatArr,String [] networkPatArr,
+                     String [] sitePatArr,Date beginDateObj,Date endDateObj)
+  {
+    final Entry entryObj = entriesArr[idx];
+    final ChannelId chIdObj = entryObj.chanIdHldrObj.channelIdObj;
+    return RespFileParser.channelIdMatches(chIdObj.station_code,
+                      chIdObj.channel_code,chIdObj.network_id.network_code,
+                                 chIdObj.site_code,entryObj.startDateObj,
+                                      entryObj.chanIdHldrObj.respEndDateObj,
+                                  stationPatArr,channelPatArr,networkPatArr,
+                                       sitePatArr,beginDateObj,endDateObj);
+  }
+
+  /**
+   * Returns the given response, decoding it from the cache file data
+   * if the cache was loaded.  Each call decodes a new 'Response' object,
+   * and this method may be called concurrently.  If the response data
+   * in the cache file is invalid then the cache file is removed (so that
+   * it is rebuilt) and the response is parsed from the source file.
+   * @param idx the index of the response (responses are in file order).
+   * @return The response object, or null if the response could not be
+   * parsed from the source file (in which case 'getErrorMessage()' may
+   * be used to see the parsing error message).
+   */
+  public Response getResponse(int idx)
+  {
+    final Entry entryObj = entriesArr[idx];
+    if(entryObj.errMsgStr != null)
+    {    //response could not be parsed; enter error message
+      setErrorMessage(entryObj.errMsgStr);
+      return null;
+    }
+    if(entryObj.respObj != null)       //if built from source then
+      return entryObj.respObj;         //return parsed response
+    try
+    {         //use separate buffer position for each call:
+      final ByteBuffer bufObj = dataBufferObj.duplicate();
+      bufObj.position((int)entryObj.dataOffset);
+      return readResponse(bufObj);
+    }
+    catch(RuntimeException ex)
+    {         //buffer underflow, bad position or invalid enum value
+      cacheFileObj.delete();           //remove invalid cache file
+      return parseResponse(idx);       //parse response from source file
+    }
+  }
+
+  /**
+   * Parses the given response from the source file (via its index).
+   * @param idx the index of the response (responses are in file order).
+   * @return The response object, or null if the response could not be
+   * parsed (in which case 'getErrorMessage()' may be used to see
+   * information about the error).
+   */
+  protected Response parseResponse(int idx)
+  {
+    final RespChannelIndex indexObj;
+    if((indexObj=getSourceIndex(idx,entriesArr[idx].chanIdHldrObj)) ==
+                                                                      null)
+    {
+      return null;
+    }
+    final RespFileParser parserObj = new RespFileParser(srcFileName);
+    try
+    {
+      final Response respObj;
+      if(parserObj.getErrorFlag() ||
+                        !parserObj.seekChannelId(indexObj.getEntry(idx)) ||
+                         parserObj.findChannelId((String [])null,
+                     (String [])null,(String [])null,(String [])null,null,
+                                                          null) == null ||
+                                   (respObj=parserObj.readResponse()) == null)
+      {  //error parsing response; enter error message
+        setErrorMessage(parserObj.getErrorMessage());
+        return null;
+      }
+      return respObj;
+    }
+    finally
+    {
+      parserObj.close();
+    }
+  }
+
+  /**
+   * Returns the channel index for the source file, building it if
+   * needed, and checks that its given entry matches the given channel
+   * ID.
+   * @param idx the index of the response (responses are in file order).
+   * @param chanIdHldrObj the channel ID for the response.
+   * @return The 'RespChannelIndex' object, or null if the index could
+   * not be built or does not match (in which case 'getErrorMessage()'
+   * may be used to see information about the error).
+   */
+  protected synchronized RespChannelIndex getSourceIndex(int idx,
+                                                   ChanIdHldr chanIdHldrObj)
+  {
+    if(srcIndexObj == null)
+    {    //index not yet built; build it now
+      final RespChannelIndex indexObj = new RespChannelIndex(srcFileName);
+      if(!indexObj.build())
+      {
+        setErrorMessage(indexObj.getErrorMessage());
+        return null;
+      }
+      srcIndexObj = indexObj;
+    }
+    final ChannelId chIdObj = chanIdHldrObj.channelIdObj;
+    final RespChannelIndex.Entry entryObj;
+    if(idx >= srcIndexObj.getNumEntries() ||
+                        !(entryObj=srcIndexObj.getEntry(idx)).staName.equals(
+                                                     chIdObj.station_code) ||
+                               !entryObj.chaName.equals(chIdObj.channel_code))
+    {    //index does not match responses
+      setErrorMessage("Index for \"" + srcFileName +
+                                        "\" does not match its responses");
+      return null;
+    }
+    return srcIndexObj;
+  }
+
+  /**
+   * Returns the name of the cache file.
+   * @return The name of the cache file.
+   */
+  public String getCacheFileName()
+  {
+    return cacheFileObj.getPath();
+  }
+
+  /**
+   * Returns the error message (if any).
+   * @return The error message, or null if none.
+   */
+  public String getErrorMessage()
+  {
+    return errorMessage;
+  }
+
+  /**
+   * Sets the error message.
+   * @param str the error message.
+   */
+  protected void setErrorMessage(String str)
+  {
+    errorMessage = str;
+  }
+
+  /**
+   * Clears the error message.
+   */
+  protected void clearErrorMessage()
+  {
+    errorMessage = null;
+  }
+
+    //Calculates the CRC-32 checksum of the source file.
+  protected long calcSourceChecksum() throws IOException
+  {
+    final CRC32 crcObj = new CRC32();
+    final FileInputStream stmObj = new FileInputStream(srcFileObj);
+    try
+    {
+      final byte [] bArr = new byte[65536];
+      int len;
+      while((len=stmObj.read(bArr)) > 0)
+        crcObj.update(bArr,0,len);
+    }
+    finally
+    {
+      stmObj.close();
+    }
+    return crcObj.getValue();
+  }
+
+    //Writes the given response.
+  protected static void writeResponse(DataOutputStream stmObj,
+                                      Response respObj) throws IOException
+  {
+    final Sensitivity sensObj = respObj.the_sensitivity;
+    stmObj.writeBoolean(sensObj != null);
+    if(sensObj != null)
+    {
+      stmObj.writeFloat(sensObj.sensitivity_factor);
+      stmObj.writeFloat(sensObj.frequency);
+    }
+    final Stage [] stagesArr = respObj.stages;
+    stmObj.writeInt((stagesArr != null) ? stagesArr.length : -1);
+    if(stagesArr == null)
+      return;
+    Stage stageObj;
+    for(int i=0; i<stagesArr.length; ++i)
+    {    //for each stage
+      stageObj = stagesArr[i];
+      stmObj.writeInt((stageObj.type != null) ? stageObj.type.value() : -1);
+      writeUnit(stmObj,stageObj.input_units);
+      writeUnit(stmObj,stageObj.output_units);
+      final Normalization [] normArr = stageObj.the_normalization;
+      stmObj.writeInt((normArr != null) ? normArr.length : -1);
+      for(int j=0; normArr!=null && j<normArr.length; ++j)
+      {  //for each normalization
+        stmObj.writeFloat(normArr[j].ao_normalization_factor);
+        stmObj.writeFloat(normArr[j].normalization_freq);
+      }
+      stmObj.writeBoolean(stageObj.the_gain != null);
+      if(stageObj.the_gain != null)
+      {
+        stmObj.writeFloat(stageObj.the_gain.gain_factor);
+        stmObj.writeFloat(stageObj.the_gain.frequency);
+      }
+      final Decimation [] deciArr = stageObj.the_decimation;
+      stmObj.writeInt((deciArr != null) ? deciArr.length : -1);
+      for(int j=0; deciArr!=null && j<deciArr.length; ++j)
+      {  //for each decimation
+        final Sampling sampObj = deciArr[j].input_rate;
+        stmObj.writeBoolean(sampObj != null);
+        if(sampObj != null)
+        {
+          stmObj.writeInt(sampObj.numPoints);
+          writeQuantity(stmObj,sampObj.interval);
+        }
+        stmObj.writeInt(deciArr[j].factor);
+        stmObj.writeInt(deciArr[j].offset);
+        writeQuantity(stmObj,deciArr[j].estimated_delay);
+        writeQuantity(stmObj,deciArr[j].correction_applied);
+      }
+      final Filter [] filtersArr = stageObj.filters;
+      stmObj.writeInt((filtersArr != null) ? filtersArr.length : -1);
+      for(int j=0; filtersArr!=null && j<filtersArr.length; ++j)
+        writeFilter(stmObj,filtersArr[j]);
+    }
+  }
+
+    //Reads a response.
+  protected static Response readResponse(ByteBuffer bufObj)
+  {
+    final Sensitivity sensObj = bufObj.get() != 0 ?
+             new Sensitivity(bufObj.getFloat(),bufObj.getFloat()) : null;
+    final int numStages = readCount(bufObj,1);
+    if(numStages < 0)
+      return new Response(sensObj,null);
+    final Stage [] stagesArr = new Stage[numStages];
+    int val;
+    for(int i=0; i<numStages; ++i)
+    {    //for each stage
+      val = bufObj.getInt();
+      final TransferType typeObj = (val >= 0) ?
+                                          TransferType.from_int(val) : null;
+      final Unit inUnitObj = readUnit(bufObj);
+      final Unit outUnitObj = readUnit(bufObj);
+      final Normalization [] normArr = ((val=readCount(bufObj,8)) >= 0) ?
+                                              new Normalization[val] : null;
+      for(int j=0; normArr!=null && j<normArr.length; ++j)
+      {  //for each normalization
+        normArr[j] = new Normalization(bufObj.getFloat(),
+                                                        bufObj.getFloat());
+      }
+      final Gain gainObj = bufObj.get() != 0 ?
+                      new Gain(bufObj.getFloat(),bufObj.getFloat()) : null;
+      final Decimation [] deciArr = ((val=readCount(bufObj,1)) >= 0) ?
+                                                 new Decimation[val] : null;
+      for(int j=0; deciArr!=null && j<deciArr.length; ++j)
+      {  //for each decimation
+        Sampling sampObj = null;
+        if(bufObj.get() != 0)
+        {
+          val = bufObj.getInt();
+          sampObj = new SamplingImpl(val,(TimeInterval)readQuantity(bufObj));
+        }
+        final int factorVal = bufObj.getInt();
+        final int offsetVal = bufObj.getInt();
+        final Quantity delayObj = readQuantity(bufObj);
+        deciArr[j] = new Decimation(sampObj,factorVal,offsetVal,delayObj,
+                                                     readQuantity(bufObj));
+      }
+      final Filter [] filtersArr = ((val=readCount(bufObj,1)) >= 0) ?
+                                                     new Filter[val] : null;
+      for(int j=0; filtersArr!=null && j<filtersArr.length; ++j)
+        filtersArr[j] = readFilter(bufObj);
+      stagesArr[i] = new Stage(typeObj,inUnitObj,outUnitObj,normArr,
+                                                gainObj,deciArr,filtersArr);
+    }
+    return new Response(sensObj,stagesArr);
+  }
+
+    //Writes the given filter.
+  protected static void writeFilter(DataOutputStream stmObj,
+                                        Filter filterObj) throws IOException
+  {
+    final FilterType typeObj = filterObj.discriminator();
+    stmObj.writeInt(typeObj.value());
+    if(typeObj.equals(FilterType.POLEZERO))
+    {
+      final PoleZeroFilter pzObj = filterObj.pole_zero_filter();
+      writeComplexArr(stmObj,pzObj.poles);
+      writeComplexArr(stmObj,pzObj.zeros);
+    }
+    else if(typeObj.equals(FilterType.COEFFICIENT))
+    {
+      final CoefficientFilter coeffObj = filterObj.coeff_filter();
+      writeCoeffArr(stmObj,coeffObj.numerator);
+      writeCoeffArr(stmObj,coeffObj.denominator);
+    }
+    else if(typeObj.equals(FilterType.LIST))
+    {
+      final ListFilter listObj = filterObj.list_filter();
+      writeFloatArr(stmObj,listObj.frequency);
+      writeFloatArr(stmObj,listObj.amplitude);
+      writeFloatArr(stmObj,listObj.amplitude_error);
+      writeFloatArr(stmObj,listObj.phase);
+      writeFloatArr(stmObj,listObj.phase_error);
+      writeUnit(stmObj,listObj.frequency_unit);
+      writeUnit(stmObj,listObj.phase_unit);
+    }
+    else if(typeObj.equals(FilterType.POLYNOMIAL))
+    {
+      final PolynomialFilter polyObj = filterObj.polynomial_filter();
+      writeCoeffArr(stmObj,polyObj.coeff_err_values);
+      writeString(stmObj,polyObj.approximation_type);
+      writeString(stmObj,polyObj.frequency_units);
+      writeUnit(stmObj,polyObj.approximation_units);
+      stmObj.writeFloat(polyObj.lower_freq_bound);
+      stmObj.writeFloat(polyObj.upper_freq_bound);
+      stmObj.writeFloat(polyObj.lower_approx_bound);
+      stmObj.writeFloat(polyObj.upper_approx_bound);
+      stmObj.writeFloat(polyObj.max_abs_error);
+    }
+    else
+      throw new IllegalArgumentException("Unknown filter type " +
+                                                          typeObj.value());
+  }
+
+    //Reads a filter.
+  protected static Filter readFilter(ByteBuffer bufObj)
+  {
+    final FilterType typeObj = FilterType.from_int(bufObj.getInt());
+    final Filter filterObj = new Filter();
+    if(typeObj.equals(FilterType.POLEZERO))
+    {
+      final ComplexNumberErrored [] polesArr = readComplexArr(bufObj);
+      filterObj.pole_zero_filter(
+                   new PoleZeroFilter(polesArr,readComplexArr(bufObj)));
+    }
+    else if(typeObj.equals(FilterType.COEFFICIENT))
+    {
+      final CoefficientErrored [] numerArr = readCoeffArr(bufObj);
+      filterObj.coeff_filter(
+                   new CoefficientFilter(numerArr,readCoeffArr(bufObj)));
+    }
+    else if(typeObj.equals(FilterType.LIST))
+    {
+      final ListFilter listObj = new ListFilter();
+      listObj.frequency = readFloatArr(bufObj);
+      listObj.amplitude = readFloatArr(bufObj);
+      listObj.amplitude_error = readFloatArr(bufObj);
+      listObj.phase = readFloatArr(bufObj);
+      listObj.phase_error = readFloatArr(bufObj);
+      listObj.frequency_unit = readUnit(bufObj);
+      listObj.phase_unit = readUnit(bufObj);
+      filterObj.list_filter(listObj);
+    }
+    else if(typeObj.equals(FilterType.POLYNOMIAL))
+    {
+      final PolynomialFilter polyObj = new PolynomialFilter();
+      polyObj.coeff_err_values = readCoeffArr(bufObj);
+      polyObj.approximation_type = readString(bufObj);
+      polyObj.frequency_units = readString(bufObj);
+      polyObj.approximation_units = readUnit(bufObj);
+      polyObj.lower_freq_bound = bufObj.getFloat();
+      polyObj.upper_freq_bound = bufObj.getFloat();
+      polyObj.lower_approx_bound = bufObj.getFloat();
+      polyObj.upper_approx_bound = bufObj.getFloat();
+      polyObj.max_abs_error = bufObj.getFloat();
+      filterObj.polynomial_filter(polyObj);
+    }
+    else
+      throw new IllegalArgumentException("Unknown filter type " +
+                                                          typeObj.value());
+    return filterObj;
+  }
+
+    //Writes the given unit (and its elements).
+  protected static void writeUnit(DataOutputStream stmObj,Unit unitObj)
+                                                          throws IOException
+  {
+    stmObj.writeBoolean(unitObj != null);
+    if(unitObj == null)
+      return;
+    stmObj.writeInt((unitObj.the_unit_base != null) ?
+                                        unitObj.the_unit_base.value() : -1);
+    stmObj.writeInt(unitObj.power);
+    writeString(stmObj,unitObj.name);
+    stmObj.writeDouble(unitObj.multi_factor);
+    stmObj.writeInt(unitObj.exponent);
+    final Unit [] elemsArr = unitObj.elements;
+    stmObj.writeInt((elemsArr != null) ? elemsArr.length : -1);
+    for(int i=0; elemsArr!=null && i<elemsArr.length; ++i)
+      writeUnit(stmObj,elemsArr[i]);
+  }
+
+    //Reads a unit (and its elements).
+  protected static Unit readUnit(ByteBuffer bufObj)
+  {
+    if(bufObj.get() == 0)
+      return null;
+    final int baseVal = bufObj.getInt();
+    final UnitBase baseObj = (baseVal >= 0) ? UnitBase.from_int(baseVal) :
+                                                                      null;
+    final int powerVal = bufObj.getInt();
+    final String nameStr = readString(bufObj);
+    final double multiVal = bufObj.getDouble();
+    final int expVal = bufObj.getInt();
+    final int numElems = readCount(bufObj,1);
+    final Unit [] elemsArr = (numElems >= 0) ? new Unit[numElems] : null;
+    for(int i=0; i<numElems; ++i)
+      elemsArr[i] = readUnit(bufObj);
+         //build 'UnitImpl' (same as 'RespUtils.unitToUnitImpl()'):
+    return (baseObj != null && baseObj.equals(UnitBase.COMPOSITE)) ?
+               new UnitImpl(elemsArr,powerVal,nameStr,multiVal,expVal) :
+                new UnitImpl(baseObj,powerVal,nameStr,multiVal,expVal);
+  }
+
+    //Writes the given quantity (with its units).
+  protected static void writeQuantity(DataOutputStream stmObj,
+                                      Quantity quantObj) throws IOException
+  {
+    stmObj.writeBoolean(quantObj != null);
+    if(quantObj != null)
+    {
+      stmObj.writeDouble(quantObj.value);
+      writeUnit(stmObj,quantObj.the_units);
+    }
+  }
+
+    //Reads a quantity (decimation quantities are all time intervals).
+  protected static Quantity readQuantity(ByteBuffer bufObj)
+  {
+    if(bufObj.get() == 0)
+      return null;
+    final double val = bufObj.getDouble();
+    return new TimeInterval(val,RespUtils.unitToUnitImpl(readUnit(bufObj)));
+  }
+
+    //Writes the given array of errored complex values.
+  protected static void writeComplexArr(DataOutputStream stmObj,
+                        ComplexNumberErrored [] valsArr) throws IOException
+  {
+    stmObj.writeInt((valsArr != null) ? valsArr.length : -1);
+    for(int i=0; valsArr!=null && i<valsArr.length; ++i)
+    {
+      stmObj.writeFloat(valsArr[i].real);
+      stmObj.writeFloat(valsArr[i].real_error);
+      stmObj.writeFloat(valsArr[i].imaginary);
+      stmObj.writeFloat(valsArr[i].imaginary_error);
+    }
+  }
+
+    //Reads an array of errored complex values.
+  protected static ComplexNumberErrored [] readComplexArr(ByteBuffer bufObj)
+  {
+    final int len = readCount(bufObj,16);
+    if(len < 0)
+      return null;
+    final ComplexNumberErrored [] valsArr = new ComplexNumberErrored[len];
+    for(int i=0; i<len; ++i)
+    {
+      valsArr[i] = new ComplexNumberErrored(bufObj.getFloat(),
+                  bufObj.getFloat(),bufObj.getFloat(),bufObj.getFloat());
+    }
+    return valsArr;
+  }
+
+    //Writes the given array of errored coefficient values.
+  protected static void writeCoeffArr(DataOutputStream stmObj,
+                          CoefficientErrored [] valsArr) throws IOException
+  {
+    stmObj.writeInt((valsArr != null) ? valsArr.length : -1);
+    for(int i=0; valsArr!=null && i<valsArr.length; ++i)
+    {
+      stmObj.writeFloat(valsArr[i].value);
+      stmObj.writeFloat(valsArr[i].error);
+    }
+  }
+
+    //Reads an array of errored coefficient values.
+  protected static CoefficientErrored [] readCoeffArr(ByteBuffer bufObj)
+  {
+    final int len = readCount(bufObj,8);
+    if(len < 0)
+      return null;
+    final CoefficientErrored [] valsArr = new CoefficientErrored[len];
+    for(int i=0; i<len; ++i)
+    {
+      valsArr[i] = new CoefficientErrored(bufObj.getFloat(),
+                                                         bufObj.getFloat());
+    }
+    return valsArr;
+  }
+
+    //Writes the given array of float values.
+  protected static void writeFloatArr(DataOutputStream stmObj,
+                                       float [] valsArr) throws IOException
+  {
+    stmObj.writeInt((valsArr != null) ? valsArr.length : -1);
+    for(int i=0; valsArr!=null && i<valsArr.length; ++i)
+      stmObj.writeFloat(valsArr[i]);
+  }
+
+    //Reads an array of float values.
+  protected static float [] readFloatArr(ByteBuffer bufObj)
+  {
+    final int len = readCount(bufObj,4);
+    if(len < 0)
+      return null;
+    final float [] valsArr = new float[len];
+    bufObj.asFloatBuffer().get(valsArr);
+    bufObj.position(bufObj.position() + len*4);
+    return valsArr;
+  }
+
+    //Writes the given string (length and UTF-8 bytes; -1 for null).
+  protected static void writeString(DataOutputStream stmObj,String str)
+                                                          throws IOException
+  {
+    if(str == null)
+    {
+      stmObj.writeInt(-1);
+      return;
+    }
+    final byte [] bArr = str.getBytes(CHARSET_NAME);
+    stmObj.writeInt(bArr.length);
+    stmObj.write(bArr);
+  }
+
+    //Reads an array-length value (-1 for null), checking that the given
+    // number of bytes per element are available in the buffer.
+  protected static int readCount(ByteBuffer bufObj,int elemSize)
+  {
+    final int val = bufObj.getInt();
+    if(val > bufObj.remaining() / elemSize)
+      throw new BufferUnderflowException();
+    return val;
+  }
+
+    //Reads a string.
+  protected static String readString(ByteBuffer bufObj)
+  {
+    final int len = readCount(bufObj,1);
+    if(len < 0)
+      return null;
+    final byte [] bArr = new byte[len];
+    bufObj.get(bArr);
+    try
+    {
+      return new String(bArr,CHARSET_NAME);
+    }
+    catch(UnsupportedEncodingException ex)
+    {         //shouldn't happen (UTF-8 is always supported)
+      throw new IllegalStateException(ex.toString());
+    }
+  }
+
+  /**
+   * Class Entry holds the channel ID, dates, info message and response
+   * (or response data offset, or error message) for one response in
+   * the cache.
+   */
+  protected static class Entry
+  {
+    public final ChanIdHldr chanIdHldrObj;
+    public final Date startDateObj;
+    public final String infoMsgStr;
+    public final String errMsgStr;     //parsing error message, or null
+    public final Response respObj;     //parsed response, or null if loaded
+    public final long dataOffset;      //offset of data, or -1 if parsed
+
+    public Entry(ChanIdHldr chanIdHldrObj,Date startDateObj,
+                      String infoMsgStr,Response respObj,String errMsgStr)
+    {
+      this.chanIdHldrObj = chanIdHldrObj;
+      this.startDateObj = startDateObj;
+      this.infoMsgStr = infoMsgStr;
+      this.errMsgStr = errMsgStr;
+      this.respObj = respObj;
+      dataOffset = -1;
+    }
+
+    public Entry(ChanIdHldr chanIdHldrObj,Date startDateObj,
+                     String infoMsgStr,String errMsgStr,long dataOffset)
+    {
+      this.chanIdHldrObj = chanIdHldrObj;
+      this.startDateObj = startDateObj;
+      this.infoMsgStr = infoMsgStr;
+      this.errMsgStr = errMsgStr;
+      respObj = null;
+      this.dataOffset = dataOffset;
+    }
+  }
+
+  /**
+   * Class CountingOutputStream passes data to an output stream while
+   * counting the bytes written (so that file offsets beyond the range
+   * of 'DataOutputStream.size()' may be tracked).
+   */
+  protected static class CountingOutputStream extends FilterOutputStream
+  {
+    protected long byteCount = 0;      //number of bytes written
+
+    public CountingOutputStream(OutputStream stmObj)
+    {
+      super(stmObj);
+    }
+
+    public void write(int val) throws IOException
+    {
+      out.write(val);
+      ++byteCount;
+    }
+
+    public void write(byte [] bArr,int off,int len) throws IOException
+    {
+      out.write(bArr,off,len);
+      byteCount += len;
+    }
+
+    public long getByteCount()
+    {
+      return byteCount;
+    }
+  }
+}
@@ -0,0 +1,822 @@
+//RespByteLexer.java:  Byte-level lexer for 'rdseed' ASCII ("RESP") file
+//                     parsing.
+//
+//  10/18/2026 -- [AG]  Initial version.
+//
+
+package com.isti.jevalresp;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.IOException;
+import java.io.StreamTokenizer;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Class RespByteLexer splits 'rdseed' ASCII ("RESP") data into word and
+ * end-of-line tokens, working directly on the bytes held in a
+ * 'ByteBuffer' (which may be a heap buffer or a memory-mapped file
+ * region).  Tokens follow the same rules as 'RespTokenizer' (whitespace
+ * separated words, '#' comments to end of line, significant end-of-line
+ * tokens with "\r\n" counted as one), except that bytes above 127 are
+ * treated as word characters (multi-byte UTF-8 characters stay within
+ * their word).  Each word token is available as an offset/length slice
+ * of the buffer ('getBuffer()', 'getTokenOffset()', 'getTokenLength()');
+ * the 'parseToken...()' methods convert tokens to numeric values without
+ * creating a 'String' in the common cases, and 'getTokenString()'
+ * creates a 'String' only when requested.  Token slices are only valid
+ * until the next call to 'nextToken()'.
+ */
+public class RespByteLexer
+{
+    /** Token type value returned at end of input. */
+  public static final int TT_EOF = StreamTokenizer.TT_EOF;
+    /** Token type value returned at end of line. */
+  public static final int TT_EOL = StreamTokenizer.TT_EOL;
+    /** Token type value returned for a word token. */
+  public static final int TT_WORD = StreamTokenizer.TT_WORD;
+    /** Initial size of the buffer used for stream and reader input. */
+  public static final int STREAM_BUFFER_SIZE = 65536;
+    /** Files up to this size are read into a heap buffer (not mapped). */
+  public static final int MAP_MIN_FILE_SIZE = 1048576;
+    /** Size of memory-mapped windows for large files. */
+  public static final int MAP_WINDOW_SIZE = 64*1048576;
+  private static final int COMMENT_CHAR = '#';   //define comment character
+                   //powers of ten that are exactly representable:
+  private static final double [] EXACT_POW10_ARR = { 1e0, 1e1, 1e2, 1e3,
+                 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13,
+                 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+                   //largest mantissa exactly representable in a double:
+  private static final long MAX_EXACT_MANTISSA = 1L << 53;
+                   //float/double mantissa-bits difference:
+  private static final int FLOAT_DROP_BITS = 52 - 23;
+                   //lower-bits pattern for a double at a float midpoint:
+  private static final long FLOAT_MIDPOINT_BITS = 1L << (FLOAT_DROP_BITS-1);
+  private static final long FLOAT_DROP_MASK = (1L << FLOAT_DROP_BITS) - 1;
+                   //smallest normalized float value:
+  private static final double FLOAT_MIN_NORMAL =
+                                             Float.intBitsToFloat(0x800000);
+                   //minimum free space for stream or reader input:
+  private static final int MIN_READ_SPACE = 16;
+              //values for checking 8 bytes at once in 'hasLineEndByte()':
+  private static final long LOW_BYTES_VAL = 0x0101010101010101L;
+  private static final long HIGH_BITS_VAL = 0x8080808080808080L;
+  private static final long LF_BYTES_VAL = 0x0A0A0A0A0A0A0A0AL;
+  private static final long CR_BYTES_VAL = 0x0D0D0D0D0D0D0D0DL;
+  private ByteBuffer bufferObj;        //buffer holding current data
+  private int bufferLimit;             //number of valid bytes in buffer
+  private int scanPos = 0;             //current scan position in buffer
+  private int markPos = -1;            //start of partial token (or -1)
+  private final InputStream inStreamObj;   //input stream (or null)
+  private final Reader readerObj;          //input reader (or null)
+  private final CharsetEncoder encoderObj; //encoder for reader input
+  private final CharBuffer charBufferObj;  //buffer for reader input
+  private final FileChannel channelObj;    //mapped file channel (or null)
+  private final long channelSize;          //size of mapped file
+  private long bufferFilePos = 0;          //input offset of buffer start
+  private int windowSize = MAP_WINDOW_SIZE;    //size of mapped windows
+  private boolean endOfInputFlag = false;  //true after end of input
+  private boolean readerDoneFlag = false;  //true after end of reader
+  private boolean skipLfFlag = false;      //true to skip LF after CR
+  private int lineNum = 1;                 //current line number
+  private int tokenType = TT_EOL;          //type of current token
+  private int tokenOffset = 0;             //offset of current word token
+  private int tokenLength = 0;             //length of current word token
+  private String tokenString = null;       //string for current token
+
+    /**
+     * Creates a lexer that reads the remaining bytes in the given buffer.
+     * The buffer is not modified.
+     * @param bufObj the buffer to read from.
+     */
+  public RespByteLexer(ByteBuffer bufObj)
+  {
+    bufferObj = bufObj.slice();
+    bufferLimit = bufferObj.limit();
+    inStreamObj = null;
+    readerObj = null;
+    encoderObj = null;
+    charBufferObj = null;
+    channelObj = null;
+    channelSize = 0;
+  }
+
+    /**
+     * Creates a lexer that reads from the given input stream.
+     * @param stmObj the input stream to read from.
+     * @param bufSize the initial size of the buffer (enlarged as needed
+     * to hold long tokens).
+     */
+  public RespByteLexer(InputStream stmObj,int bufSize)
+  {
+    bufferObj = ByteBuffer.allocate(Math.max(bufSize,2*MIN_READ_SPACE));
+    bufferLimit = 0;
+    inStreamObj = stmObj;
+    readerObj = null;
+    encoderObj = null;
+    charBufferObj = null;
+    channelObj = null;
+    channelSize = 0;
+  }
+
+    /**
+     * Creates a lexer that reads from the given input stream.
+     * @param stmObj the input stream to read from.
+     */
+  public RespByteLexer(InputStream stmObj)
+  {
+    this(stmObj,STREAM_BUFFER_SIZE);
+  }
+
+    /**
+     * Creates a lexer that reads from the given reader.  The characters
+     * are encoded as UTF-8 bytes before they are split into tokens.
+     * @param rdrObj the reader to read from.
+     */
+  public RespByteLexer(Reader rdrObj)
+  {
+    bufferObj = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+    bufferLimit = 0;
+    inStreamObj = null;
+    readerObj = rdrObj;
+    encoderObj = Charset.forName("UTF-8").newEncoder().
+                         onMalformedInput(CodingErrorAction.REPLACE).
+                         onUnmappableCharacter(CodingErrorAction.REPLACE);
+    charBufferObj = CharBuffer.allocate(STREAM_BUFFER_SIZE);
+    charBufferObj.flip();              //start with no characters
+    channelObj = null;
+    channelSize = 0;
+  }
+
+    /**
+     * Creates a lexer that reads the given file, from its beginning.
+     * Files larger than 'MAP_MIN_FILE_SIZE' are read via memory-mapped
+     * windows of 'MAP_WINDOW_SIZE' bytes; smaller files are read into a
+     * heap buffer.  The channel is closed by 'close()'.
+     * @param chObj the file channel to read from.
+     * @throws IOException if an I/O error occurs.
+     */
+  public RespByteLexer(FileChannel chObj) throws IOException
+  {
+    this(chObj,((chObj.size() > MAP_MIN_FILE_SIZE) ? MAP_WINDOW_SIZE : 0));
+  }
+
+    /**
+     * Creates a lexer that reads the given file, from its beginning.
+     * The channel is closed by 'close()'.
+     * @param chObj the file channel to read from.
+     * @param winSize the size of the memory-mapped windows to use (a
+     * window is enlarged if needed to hold a long token), or 0 to read
+     * all of the file into a heap buffer.
+     * @throws IOException if an I/O error occurs.
+     */
+  public RespByteLexer(FileChannel chObj,int winSize) throws IOException
+  {
+    final long size = chObj.size();
+    inStreamObj = null;
+    readerObj = null;
+    encoderObj = null;
+    charBufferObj = null;
+    channelObj = chObj;
+    if(winSize <= 0)
+    {    //read all of file into a heap buffer
+      if(size > Integer.MAX_VALUE)
+        throw new IOException("File too large for heap buffer");
+      bufferObj = ByteBuffer.allocate((int)size);
+      while(bufferObj.hasRemaining())
+      {  //for each block read (file offset same as buffer position)
+        if(chObj.read(bufferObj,bufferObj.position()) < 0)
+          break;             //if end of file then exit loop
+      }
+      bufferLimit = bufferObj.position();
+      channelSize = bufferLimit;
+    }
+    else
+    {    //map the first window
+      channelSize = size;
+      windowSize = winSize;
+      bufferObj = chObj.map(FileChannel.MapMode.READ_ONLY,0,
+                                     Math.min((long)windowSize,size));
+      bufferLimit = bufferObj.limit();
+    }
+  }
+
+    /**
+     * Parses the next token.
+     * @return 'TT_WORD' if a word token was found (see 'getTokenOffset()',
+     * 'getTokenLength()' and 'getTokenString()'); 'TT_EOL' if the end of
+     * a line was reached; or 'TT_EOF' if the end of the input was reached.
+     * @throws IOException if an I/O error occurs.
+     */
+  public int nextToken() throws IOException
+  {
+    tokenString = null;
+    tokenLength = 0;
+    int c;
+    if(skipLfFlag)
+    {    //previous token was CR end-of-line; skip following LF
+      skipLfFlag = false;
+      if((scanPos < bufferLimit || fillBuffer()) &&
+                                            bufferObj.get(scanPos) == '\n')
+      {
+        ++scanPos;
+      }
+    }
+    while(true)
+    {    //for each whitespace or comment character
+      if(scanPos >= bufferLimit && !fillBuffer())
+        return (tokenType=TT_EOF);
+      c = bufferObj.get(scanPos) & 0xFF;
+      if(c > ' ' && c != COMMENT_CHAR)
+        break;              //if start of word then exit loop
+      ++scanPos;
+      if(c == '\n')
+      {  //end of line
+        ++lineNum;
+        return (tokenType=TT_EOL);
+      }
+      if(c == '\r')
+      {  //end of line; skip LF if next
+        ++lineNum;
+        skipLfFlag = true;
+        return (tokenType=TT_EOL);
+      }
+      if(c == COMMENT_CHAR)
+      {  //comment; skip to end of line (but not past it)
+        while(true)
+        {
+          if(scanPos >= bufferLimit && !fillBuffer())
+            return (tokenType=TT_EOF);
+          if((c=bufferObj.get(scanPos)) == '\n' || c == '\r')
+            break;
+          ++scanPos;
+        }
+      }
+    }
+    markPos = scanPos;       //mark start of word
+    while(true)
+    {    //for each word character
+      if(++scanPos >= bufferLimit && !fillBuffer())
+        break;
+      if(((c=bufferObj.get(scanPos) & 0xFF) <= ' ' || c == COMMENT_CHAR))
+        break;
+    }
+    tokenOffset = markPos;
+    tokenLength = scanPos - markPos;
+    markPos = -1;
+    return (tokenType=TT_WORD);
+  }
+
+    /**
+     * Skips input, without tokenizing it, up to the next line whose first
+     * non-blank characters match the given prefix.  The rest of the
+     * current line is skipped first (unless the last token was an
+     * end-of-line or no token has been fetched yet).  Line numbers are
+     * counted as with 'nextToken()'.  After a successful return the next
+     * call to 'nextToken()' returns the word token starting with the
+     * prefix.  Lines starting with the comment character are not
+     * matched.
+     * @param prefixArr the bytes of the prefix to search for.
+     * @return true if a matching line was found; false if the end of the
+     * input was reached.
+     * @throws IOException if an I/O error occurs.
+     */
+  public boolean skipToLinePrefix(byte [] prefixArr) throws IOException
+  {
+    tokenString = null;
+    tokenLength = 0;
+    final int prefixLen = prefixArr.length;
+    boolean lineStartFlag = (tokenType == TT_EOL);
+    ByteBuffer bufObj;
+    int c, i, limit;
+    while(true)
+    {    //for each line scanned
+      if(skipLfFlag)
+      {  //previous line ended with CR; skip following LF
+        skipLfFlag = false;
+        if((scanPos < bufferLimit || fillBuffer()) &&
+                                            bufferObj.get(scanPos) == '\n')
+        {
+          ++scanPos;
+        }
+      }
+      if(lineStartFlag)
+      {  //at start of line; skip leading whitespace
+        while(true)
+        {
+          if(scanPos >= bufferLimit && !fillBuffer())
+          {   //end of input reached
+            tokenType = TT_EOF;
+            return false;
+          }
+          if((c=bufferObj.get(scanPos) & 0xFF) > ' ' ||
+                                                   c == '\n' || c == '\r')
+          {
+            break;
+          }
+          ++scanPos;
+        }
+        markPos = scanPos;        //keep prefix bytes in buffer
+        while(bufferLimit - markPos < prefixLen && fillBuffer());
+        scanPos = markPos;
+        markPos = -1;
+        if(bufferLimit - scanPos >= prefixLen)
+        {     //enough bytes available; check for prefix
+          i = 0;
+          while(i < prefixLen && bufferObj.get(scanPos+i) == prefixArr[i])
+            ++i;
+          if(i >= prefixLen)
+          {   //prefix matched; leave position at start of word
+            tokenType = TT_EOL;
+            return true;
+          }
+        }
+      }
+      while(true)
+      {  //scan to end of line
+        bufObj = bufferObj;
+        limit = bufferLimit;
+        i = scanPos;
+        while(i + 8 <= limit && !hasLineEndByte(bufObj.getLong(i)))
+          i += 8;            //skip 8 bytes at a time while no line end
+        while(i < limit && (c=bufObj.get(i)) != '\n' && c != '\r')
+          ++i;
+        scanPos = i;
+        if(i < limit)
+          break;             //if end of line found then exit loop
+        if(!fillBuffer())
+        {     //end of input reached
+          tokenType = TT_EOF;
+          return false;
+        }
+      }
+      ++lineNum;
+      if(bufferObj.get(scanPos++) == '\r')
+        skipLfFlag = true;        //skip LF after CR
+      lineStartFlag = true;
+    }
+  }
+
+    /**
+     * Returns the current line number.
+     * @return The current line number (starting at 1).
+     */
+  public int lineno()
+  {
+    return lineNum;
+  }
+
+    /**
+     * Returns the input position of the current word token.
+     * @return The offset (in bytes) of the current word token from the
+     * start of the input (for reader input this is an offset into the
+     * encoded data).
+     */
+  public long getTokenFilePos()
+  {
+    return bufferFilePos + tokenOffset;
+  }
+
+    /**
+     * Returns the current input position (after the current token).
+     * @return The offset (in bytes) from the start of the input.
+     */
+  public long getScanFilePos()
+  {
+    return bufferFilePos + scanPos;
+  }
+
+    /**
+     * Determines whether the 'seek()' method is supported (the lexer
+     * reads from a file channel).
+     * @return true if 'seek()' is supported.
+     */
+  public boolean isSeekable()
+  {
+    return (channelObj != null);
+  }
+
+    /**
+     * Moves to the given position in the file.  The next token will be
+     * parsed from that position.
+     * @param filePos the offset (in bytes) from the start of the file.
+     * @param lineNo the line number at the given position (returned by
+     * 'lineno()').
+     * @return true if successful; false if the lexer does not read from
+     * a file channel or the position is beyond the end of the file.
+     * @throws IOException if an I/O error occurs.
+     */
+  public boolean seek(long filePos,int lineNo) throws IOException
+  {
+    if(channelObj == null || filePos < 0 || filePos > channelSize)
+      return false;
+    if(filePos < bufferFilePos || filePos > bufferFilePos + bufferLimit)
+    {    //position not within current window; map new window
+      bufferObj = channelObj.map(FileChannel.MapMode.READ_ONLY,filePos,
+                             Math.min((long)windowSize,channelSize-filePos));
+      bufferFilePos = filePos;
+      bufferLimit = bufferObj.limit();
+      scanPos = 0;
+    }
+    else
+      scanPos = (int)(filePos - bufferFilePos);
+    markPos = -1;
+    endOfInputFlag = false;
+    skipLfFlag = false;
+    lineNum = lineNo;
+    tokenType = TT_EOL;
+    tokenLength = 0;
+    tokenString = null;
+    return true;
+  }
+
+    /**
+     * Returns the type of the token fetched by 'nextToken()'.
+     * @return One of the 'TT_...' values.
+     */
+  public int getTokenType()
+  {
+    return tokenType;
+  }
+
+    /**
+     * Returns the buffer holding the current word token.
+     * @return The buffer holding the current word token (only valid until
+     * the next call to 'nextToken()').
+     */
+  public ByteBuffer getBuffer()
+  {
+    return bufferObj;
+  }
+
+    /**
+     * Returns the offset of the current word token in the buffer.
+     * @return The offset of the current word token in the buffer returned
+     * by 'getBuffer()'.
+     */
+  public int getTokenOffset()
+  {
+    return tokenOffset;
+  }
+
+    /**
+     * Returns the length (in bytes) of the current word token.
+     * @return The length of the current word token, or 0 if the current
+     * token is not a word token.
+     */
+  public int getTokenLength()
+  {
+    return tokenLength;
+  }
+
+    /**
+     * Returns a byte of the current word token.
+     * @param idx the index of the byte in the token.
+     * @return The byte value (0-255).
+     */
+  public int getTokenByte(int idx)
+  {
+    return bufferObj.get(tokenOffset+idx) & 0xFF;
+  }
+
+    /**
+     * Returns the token string fetched by 'nextToken()'.  The string is
+     * created on the first call for each token.
+     * @return the token string, or null if the current token is not
+     * a word token.
+     */
+  public String getTokenString()
+  {
+    if(tokenString == null && tokenType == TT_WORD)
+    {    //string not yet created for word token
+      final char [] charsArr = new char[tokenLength];
+      int c;
+      for(int i=0; i<tokenLength; ++i)
+      {  //for each byte in token
+        if((c=bufferObj.get(tokenOffset+i)) < 0)
+        {     //non-ASCII byte found; decode as UTF-8
+          final byte [] bytesArr = new byte[tokenLength];
+          for(int j=0; j<tokenLength; ++j)
+            bytesArr[j] = bufferObj.get(tokenOffset+j);
+          try
+          {
+            return (tokenString=new String(bytesArr,"UTF-8"));
+          }
+          catch(UnsupportedEncodingException ex)
+          {   //shouldn't happen; UTF-8 is always supported
+            throw new RuntimeException(ex.toString());
+          }
+        }
+        charsArr[i] = (char)c;
+      }
+      tokenString = new String(charsArr);
+    }
+    return tokenString;
+  }
+
+    /**
+     * Returns the token string fetched by 'nextToken()'.
+     * @return the token string, or an empty string if none available.
+     */
+  public String getNonNullTokenString()
+  {
+    final String str;
+    return ((str=getTokenString()) != null) ? str : "";
+  }
+
+    /**
+     * Determines whether the current word token ends with the given
+     * (ASCII) character.
+     * @param ch the character to check.
+     * @return true if the current token is a word token ending with the
+     * given character.
+     */
+  public boolean tokenEndsWith(char ch)
+  {
+    return tokenLength > 0 &&
+                      bufferObj.get(tokenOffset+tokenLength-1) == (byte)ch;
+  }
+
+    /**
+     * Parses a run of decimal digits in the current word token.
+     * @param idx the index of the first digit in the token.
+     * @param numDigits the number of digits (no more than 9).
+     * @return The parsed value, or -1 if the given range contains
+     * anything other than digits.
+     */
+  public int parseTokenDigits(int idx,int numDigits)
+  {
+    if(idx < 0 || numDigits <= 0 || idx+numDigits > tokenLength)
+      return -1;
+    int val = 0, d;
+    for(int i=tokenOffset+idx; i<tokenOffset+idx+numDigits; ++i)
+    {    //for each digit
+      if((d=bufferObj.get(i)-'0') < 0 || d > 9)
+        return -1;
+      val = val*10 + d;
+    }
+    return val;
+  }
+
+    /**
+     * Parses the current word token as an integer value, with the same
+     * results as 'Integer.parseInt()'.
+     * @return The parsed value.
+     * @throws NumberFormatException if the token is not a valid integer.
+     */
+  public int parseTokenInt() throws NumberFormatException
+  {
+    final boolean negFlag = (tokenLength > 1 &&
+                                         bufferObj.get(tokenOffset) == '-');
+    final int numDigits = negFlag ? tokenLength-1 : tokenLength;
+    final int val;
+    if(numDigits > 9 ||
+               (val=parseTokenDigits((negFlag ? 1 : 0),numDigits)) < 0)
+    {    //too many digits or not plain digits; use general parsing
+      return Integer.parseInt(getNonNullTokenString());
+    }
+    return negFlag ? -val : val;
+  }
+
+    /**
+     * Parses the current word token as a double value, with the same
+     * results as 'Double.parseDouble()'.  Plain decimal values with up to
+     * 15 significant digits and small exponents are converted directly;
+     * other forms are passed to 'Double.parseDouble()'.
+     * @return The parsed value.
+     * @throws NumberFormatException if the token is not a valid number.
+     */
+  public double parseTokenDouble() throws NumberFormatException
+  {
+    final double val;
+    if(Double.isNaN(val=parseTokenFast()))
+      return Double.parseDouble(getNonNullTokenString());
+    return val;
+  }
+
+    /**
+     * Parses the current word token as a float value, with the same
+     * results as 'Float.parseFloat()'.  Plain decimal values with up to
+     * 15 significant digits and small exponents are converted directly;
+     * other forms are passed to 'Float.parseFloat()'.
+     * @return The parsed value.
+     * @throws NumberFormatException if the token is not a valid number.
+     */
+  public float parseTokenFloat() throws NumberFormatException
+  {
+    final double val = parseTokenFast();
+    final double absVal = Math.abs(val);
+    if(absVal != 0.0 && (Double.isNaN(val) || absVal < FLOAT_MIN_NORMAL ||
+                                                absVal > Float.MAX_VALUE ||
+         (Double.doubleToRawLongBits(val) & FLOAT_DROP_MASK) ==
+                                                      FLOAT_MIDPOINT_BITS))
+    {    //not converted, out of normal float range or exactly halfway
+         // between two float values (where rounding the double value
+         // could differ from rounding the decimal value); use general
+         // parsing:
+      return Float.parseFloat(getNonNullTokenString());
+    }
+    return (float)val;
+  }
+
+    //Converts the current word token to a correctly-rounded double value
+    // if it is a plain decimal number ([+-]digits[.digits][(e|E)[+-]digits])
+    // whose mantissa and power of ten are both exactly representable
+    // (so that a single multiply or divide gives the correctly-rounded
+    // result); returns NaN if not.
+  private double parseTokenFast()
+  {
+    int i = tokenOffset;
+    final int endPos = tokenOffset + tokenLength;
+    if(i >= endPos)
+      return Double.NaN;
+    int c = bufferObj.get(i);
+    final boolean negFlag = (c == '-');
+    if(negFlag || c == '+')
+      ++i;
+    long mantVal = 0;
+    int numDigits = 0, sigDigits = 0, expVal = 0;
+    boolean pointFlag = false;
+    while(i < endPos)
+    {    //for each mantissa character
+      c = bufferObj.get(i) - '0';
+      if(c >= 0 && c <= 9)
+      {  //digit
+        ++numDigits;
+        if(mantVal != 0 || c != 0)
+        {     //not a leading zero
+          if(++sigDigits > 15)
+            return Double.NaN;
+          mantVal = mantVal*10 + c;
+        }
+        if(pointFlag)
+          --expVal;
+      }
+      else if(c == '.'-'0' && !pointFlag)
+        pointFlag = true;
+      else
+        break;
+      ++i;
+    }
+    if(numDigits <= 0)
+      return Double.NaN;
+    if(i < endPos)
+    {    //exponent expected
+      if((c=bufferObj.get(i)) != 'e' && c != 'E')
+        return Double.NaN;
+      if(++i < endPos && ((c=bufferObj.get(i)) == '-' || c == '+'))
+        ++i;
+      final boolean negExpFlag = (c == '-');
+      int expDigits = 0, e = 0;
+      while(i < endPos)
+      {  //for each exponent digit
+        if((c=bufferObj.get(i)-'0') < 0 || c > 9 || ++expDigits > 4)
+          return Double.NaN;
+        e = e*10 + c;
+        ++i;
+      }
+      if(expDigits <= 0)
+        return Double.NaN;
+      expVal += negExpFlag ? -e : e;
+    }
+    if(mantVal == 0)
+      return negFlag ? -0.0 : 0.0;
+    if(mantVal > MAX_EXACT_MANTISSA || expVal < -22 || expVal > 22)
+      return Double.NaN;
+    final double val = (expVal < 0) ? mantVal / EXACT_POW10_ARR[-expVal] :
+                                      mantVal * EXACT_POW10_ARR[expVal];
+    return negFlag ? -val : val;
+  }
+
+    /**
+     * Closes the input source used by this lexer.
+     * @throws IOException if an I/O error occurs.
+     */
+  public void close() throws IOException
+  {
+    if(inStreamObj != null)
+      inStreamObj.close();
+    if(readerObj != null)
+      readerObj.close();
+    if(channelObj != null)
+      channelObj.close();
+  }
+
+    //Returns true if any of the 8 bytes in the given value is a CR or
+    // LF character (checks all bytes at once; see "Bit Twiddling Hacks",
+    // "Determine if a word has a byte equal to n").
+  private static boolean hasLineEndByte(long val)
+  {
+    final long lfVal = val ^ LF_BYTES_VAL, crVal = val ^ CR_BYTES_VAL;
+    return ((((lfVal - LOW_BYTES_VAL) & ~lfVal) |
+             ((crVal - LOW_BYTES_VAL) & ~crVal)) & HIGH_BITS_VAL) != 0;
+  }
+
+    //Fetches more input data into the buffer, keeping any partial token
+    // (from 'markPos') and adjusting the buffer positions.  Returns true
+    // if more data is available; false if at end of input.
+  private boolean fillBuffer() throws IOException
+  {
+    if(endOfInputFlag)
+      return false;
+    final int keepPos = (markPos >= 0) ? markPos : scanPos;
+    final boolean moreFlag;
+    if(channelObj != null)
+      moreFlag = mapNextWindow(keepPos);
+    else if(inStreamObj != null || readerObj != null)
+      moreFlag = readNextBlock(keepPos);
+    else
+      moreFlag = false;
+    if(!moreFlag)
+      endOfInputFlag = true;
+    return moreFlag;
+  }
+
+    //Maps the next window of the file channel, starting at the given
+    // buffer position.
+  private boolean mapNextWindow(int keepPos) throws IOException
+  {
+    final long startPos = bufferFilePos + keepPos;
+    if(bufferFilePos + bufferLimit >= channelSize)
+      return false;          //if all of file mapped then return
+    final int keepLen = bufferLimit - keepPos;
+    if(keepLen >= windowSize)     //if partial token fills window then
+    {                             //double window size:
+      windowSize = (int)Math.min(2L*windowSize,(long)Integer.MAX_VALUE);
+    }
+    bufferObj = channelObj.map(FileChannel.MapMode.READ_ONLY,startPos,
+                           Math.min((long)windowSize,channelSize-startPos));
+    bufferLimit = bufferObj.limit();
+    shiftPositions(keepPos);
+    return true;
+  }
+
+    //Reads the next block from the input stream or reader into the heap
+    // buffer, after moving the data from the given position to the
+    // start of the buffer.
+  private boolean readNextBlock(int keepPos) throws IOException
+  {
+    byte [] bytesArr = bufferObj.array();
+    final int keepLen = bufferLimit - keepPos;
+    if(keepLen > bytesArr.length - MIN_READ_SPACE)
+    {    //partial token fills buffer; enlarge buffer
+      final byte [] newArr = new byte[2*bytesArr.length];
+      System.arraycopy(bytesArr,keepPos,newArr,0,keepLen);
+      bufferObj = ByteBuffer.wrap(bytesArr=newArr);
+    }
+    else if(keepPos > 0)     //move partial token to start of buffer
+      System.arraycopy(bytesArr,keepPos,bytesArr,0,keepLen);
+    bufferLimit = keepLen;
+    shiftPositions(keepPos);
+    if(inStreamObj != null)
+    {    //reading from stream
+      final int n;
+      if((n=inStreamObj.read(bytesArr,bufferLimit,
+                                        bytesArr.length-bufferLimit)) <= 0)
+      {
+        return false;
+      }
+      bufferLimit += n;
+      return true;
+    }
+    if(readerDoneFlag)       //if end of reader already reached then
+      return false;          //indicate no more data
+    bufferObj.position(bufferLimit);
+    while(true)
+    {    //until some characters have been encoded
+      encoderObj.encode(charBufferObj,bufferObj,false);
+      if(bufferObj.position() > bufferLimit)
+        break;               //if some data encoded then exit loop
+      charBufferObj.compact();
+      final int n = readerObj.read(charBufferObj);
+      charBufferObj.flip();
+      if(n < 0)
+      {  //end of reader input; encode any remaining characters
+        encoderObj.encode(charBufferObj,bufferObj,true);
+        encoderObj.flush(bufferObj);
+        readerDoneFlag = true;
+        break;
+      }
+    }
+    final int n = bufferObj.position() - bufferLimit;
+    bufferLimit = bufferObj.position();
+    bufferObj.clear();
+    return (n > 0);
+  }
+
+    //Adjusts the buffer positions after data from the given position
+    // has been moved to the start of the buffer.
+  private void shiftPositions(int keepPos)
+  {
+    bufferFilePos += keepPos;
+    scanPos -= keepPos;
+    if(markPos >= 0)
+      markPos -= keepPos;
+  }
+}
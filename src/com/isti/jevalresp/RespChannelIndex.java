@@ -0,0 +1,482 @@
+//RespChannelIndex.java:  Index of the station/channel ID entries in a
+//                        RESP file, with their file offsets, saved in a
+//                        sidecar file next to the RESP file.
+//
+//  10/18/2026 -- [AG]  Initial version.
+//                      Modified 'save()' to write to a temporary file
+//                      that is then renamed to the index file; added
+//                      number of entries to index-file header (checked
+//                      by 'load()').
+//
+
+package com.isti.jevalresp;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import edu.iris.Fissures.IfNetwork.ChannelId;
+
+/**
+ * Class RespChannelIndex holds the network, station, location and
+ * channel codes and the effective dates of each response in a RESP
+ * file, along with the file offset and line number of the response's
+ * station/channel ID ("B050F03") entry.  With the index in place,
+ * 'RespFileParser.findChannelId()' can seek directly to each matching
+ * response instead of tokenizing all of the non-matching responses in
+ * the file, which for a large multi-channel file is most of the work.
+ * The index is saved to a sidecar file (the RESP file name plus
+ * 'INDEX_FILE_SUFFIX'), which holds the size and last-modified time of
+ * the RESP file so that a stale index is detected and rebuilt.  The
+ * sidecar file is a text file with a three-line header (the last line
+ * holding the number of entries, so that a truncated index file is
+ * detected) followed by one tab-separated line per response:  file
+ * offset, line number, network, station, location, channel, start time
+ * and end time (both in milliseconds; an empty end time means "No
+ * Ending Time").
+ */
+public class RespChannelIndex
+{
+    /** Suffix added to the RESP file name for the index file. */
+  public static final String INDEX_FILE_SUFFIX = ".idx";
+    /** First line of the index file. */
+  public static final String INDEX_HEADER_STR = "#RespChannelIndex 2";
+    /** Prefix for the number-of-entries line of the index file. */
+  public static final String NUM_ENTRIES_PREFIX_STR = "#entries=";
+
+  protected final String respFileName;           //name of RESP file
+  protected final File respFileObj;              //RESP file object
+  protected final File indexFileObj;             //index file object
+  protected Entry [] entriesArr = new Entry[0];  //array of entries
+  protected String errorMessage = null;          //error message
+
+  /**
+   * Creates an (empty) channel index for the given RESP file.  One of
+   * the 'load()', 'build()' or 'loadOrBuild()' methods should be used
+   * to fill in the index.
+   * @param respFileName the name of the RESP file.
+   */
+  public RespChannelIndex(String respFileName)
+  {
+    this.respFileName = respFileName;
+    respFileObj = new File(respFileName);
+    indexFileObj = new File(respFileName + INDEX_FILE_SUFFIX);
+  }
+
+  /**
+   * Loads the index from its sidecar file if the file is valid for the
+   * current RESP file; otherwise builds the index from the RESP file and
+   * saves it to the sidecar file.  A failure to save the index file
+   * (for instance, for a read-only directory) does not cause this method
+   * to fail.
+   * @return true if successful; false if an error occurred (in which
+   * case 'getErrorMessage()' may be used to see information about the
+   * error).
+   */
+  public boolean loadOrBuild()
+  {
+    if(load())
+      return true;
+    if(!build())
+      return false;
+    save();             //save index file (failure is not fatal)
+    clearErrorMessage();
+    return true;
+  }
+
+  /**
+   * Loads the index from its sidecar file.
+   * @return true if successful; false if the index file does not exist,
+   * does not match the current RESP file or could not be read (in which
+   * case 'getErrorMessage()' may be used to see information about the
+   * error).
+   */
+  public boolean load()
+  {
+    clearErrorMessage();
+    if(!indexFileObj.isFile())
+    {
+      setErrorMessage("Index file \"" + indexFileObj.getPath() +
+                                                       "\" not found");
+      return false;
+    }
+    BufferedReader rdrObj = null;
+    try
+    {
+      rdrObj = new BufferedReader(new FileReader(indexFileObj));
+      String str;
+      if(!INDEX_HEADER_STR.equals(rdrObj.readLine()) ||
+                                         (str=rdrObj.readLine()) == null ||
+                                              !str.equals(getFileInfoStr()))
+      {  //header does not match current RESP file
+        setErrorMessage("Index file \"" + indexFileObj.getPath() +
+                                 "\" does not match \"" + respFileName + "\"");
+        return false;
+      }
+      if((str=rdrObj.readLine()) == null ||
+                                       !str.startsWith(NUM_ENTRIES_PREFIX_STR))
+      {  //number-of-entries line not found
+        setErrorMessage("Invalid header in index file \"" +
+                                           indexFileObj.getPath() + "\"");
+        return false;
+      }
+      final int numEntries = Integer.parseInt(
+                             str.substring(NUM_ENTRIES_PREFIX_STR.length()));
+      final ArrayList listObj = new ArrayList();
+      String [] fieldsArr;
+      Entry entryObj,prevEntryObj = null;
+      while((str=rdrObj.readLine()) != null)
+      {  //for each entry line
+        if((fieldsArr=str.split("\t",-1)).length != 8)
+        {
+          setErrorMessage("Invalid entry in index file \"" +
+                                      indexFileObj.getPath() + "\":  " + str);
+          return false;
+        }
+        entryObj = new Entry(Long.parseLong(fieldsArr[0]),
+                  Integer.parseInt(fieldsArr[1]),fieldsArr[2],fieldsArr[3],
+                                                  fieldsArr[4],fieldsArr[5],
+                                     new Date(Long.parseLong(fieldsArr[6])),
+                                          ((fieldsArr[7].length() > 0) ?
+                             new Date(Long.parseLong(fieldsArr[7])) : null));
+        if(prevEntryObj != null && entryObj.filePos <= prevEntryObj.filePos)
+        {     //entries not in file-offset order
+          setErrorMessage("Entries out of order in index file \"" +
+                                           indexFileObj.getPath() + "\"");
+          return false;
+        }
+        listObj.add(entryObj);
+        prevEntryObj = entryObj;
+      }
+      if(listObj.size() != numEntries)
+      {  //number of entries does not match header (truncated file)
+        setErrorMessage("Index file \"" + indexFileObj.getPath() +
+                          "\" contains " + listObj.size() + " entries (" +
+                                               numEntries + " expected)");
+        return false;
+      }
+      entriesArr = (Entry [])listObj.toArray(new Entry[listObj.size()]);
+      return true;
+    }
+    catch(NumberFormatException ex)
+    {
+      setErrorMessage("Invalid value in index file \"" +
+                                       indexFileObj.getPath() + "\":  " + ex);
+    }
+    catch(IOException ex)
+    {
+      setErrorMessage("Error reading index file \"" +
+                                       indexFileObj.getPath() + "\":  " + ex);
+    }
+    finally
+    {
+      try
+      {
+        if(rdrObj != null)
+          rdrObj.close();
+      }
+      catch(IOException ex) {}
+    }
+    return false;
+  }
+
+  /**
+   * Builds the index by parsing the station/channel ID entries in the
+   * RESP file.
+   * @return true if successful; false if an error occurred (in which
+   * case 'getErrorMessage()' may be used to see information about the
+   * error).
+   */
+  public boolean build()
+  {
+    clearErrorMessage();
+    final RespFileParser parserObj = new RespFileParser(respFileName);
+    try
+    {
+      if(parserObj.getErrorFlag())
+      {  //error opening or reading file
+        setErrorMessage(parserObj.getErrorMessage());
+        return false;
+      }
+      final ArrayList listObj = new ArrayList();
+      long filePos;
+      int lineNum;
+      ChanIdHldr chanIdHldrObj;
+      ChannelId chIdObj;
+      Date startDateObj;
+      do
+      {  //for each station/channel ID entry in file
+        if((filePos=parserObj.getChannelIdFilePos()) < 0)
+        {     //file offsets not available (not a local RESP file)
+          setErrorMessage("Unable to index input file \"" +
+                                                      respFileName + "\"");
+          return false;
+        }
+        lineNum = parserObj.getChannelIdLineNum();
+        if((chanIdHldrObj=parserObj.findChannelId((String [])null,
+                     (String [])null,(String [])null,(String [])null,null,
+                                                            null)) == null)
+        {     //error parsing station/channel ID
+          setErrorMessage(parserObj.getErrorMessage());
+          return false;
+        }
+        chIdObj = chanIdHldrObj.channelIdObj;
+        try
+        {     //convert start date (same format used by 'findChannelId()'):
+          synchronized(RespUtils.fissDateFormatter)
+          {   //synchronize on shared formatter
+            startDateObj = RespUtils.fissDateFormatter.parse(
+                                               chIdObj.begin_time.date_time);
+          }
+        }
+        catch(ParseException ex)
+        {     //unable to convert start date
+          setErrorMessage("Unable to convert start date (line " +
+                                   lineNum + ") in \"" + respFileName + "\"");
+          return false;
+        }
+        listObj.add(new Entry(filePos,lineNum,
+                       chIdObj.network_id.network_code,chIdObj.station_code,
+                               chIdObj.site_code,chIdObj.channel_code,
+                               startDateObj,chanIdHldrObj.respEndDateObj));
+      }
+      while(parserObj.skipToNextChannelId());
+      if(parserObj.getErrorFlag())
+      {  //error while skipping to next station/channel ID entry
+        setErrorMessage(parserObj.getErrorMessage());
+        return false;
+      }
+      entriesArr = (Entry [])listObj.toArray(new Entry[listObj.size()]);
+      return true;
+    }
+    finally
+    {
+      parserObj.close();
+    }
+  }
+
+  /**
+   * Saves the index to its sidecar file.  The index is written to a
+   * temporary file in the same directory, which is then renamed to the
+   * index file (so that a partially-written index file is never seen
+   * by 'load()').  If an error occurs then the temporary file is
+   * removed.
+   * @return true if successful; false if an error occurred (in which
+   * case 'getErrorMessage()' may be used to see information about the
+   * error).
+   */
+  public boolean save()
+  {
+    clearErrorMessage();
+    File tmpFileObj = null;
+    BufferedWriter wtrObj = null;
+    try
+    {
+      tmpFileObj = RespUtils.createReplacementFile(indexFileObj);
+      wtrObj = new BufferedWriter(new FileWriter(tmpFileObj));
+      wtrObj.write(INDEX_HEADER_STR);
+      wtrObj.newLine();
+      wtrObj.write(getFileInfoStr());
+      wtrObj.newLine();
+      wtrObj.write(NUM_ENTRIES_PREFIX_STR + entriesArr.length);
+      wtrObj.newLine();
+      Entry entryObj;
+      for(int i=0; i<entriesArr.length; ++i)
+      {  //for each entry; write line
+        entryObj = entriesArr[i];
+        wtrObj.write(entryObj.filePos + "\t" + entryObj.lineNum + "\t" +
+                          entryObj.netName + "\t" + entryObj.staName + "\t" +
+                        entryObj.siteName + "\t" + entryObj.chaName + "\t" +
+                                     entryObj.startDateObj.getTime() + "\t" +
+                                       ((entryObj.endDateObj != null) ?
+                         Long.toString(entryObj.endDateObj.getTime()) : ""));
+        wtrObj.newLine();
+      }
+      wtrObj.close();
+      wtrObj = null;
+      if(RespUtils.replaceFile(tmpFileObj,indexFileObj))
+        return true;
+      setErrorMessage("Unable to rename temporary file to index file \"" +
+                                             indexFileObj.getPath() + "\"");
+      return false;
+    }
+    catch(IOException ex)
+    {
+      setErrorMessage("Error writing index file \"" +
+                                       indexFileObj.getPath() + "\":  " + ex);
+    }
+    try
+    {
+      if(wtrObj != null)
+        wtrObj.close();
+    }
+    catch(IOException ex) {}
+    if(tmpFileObj != null)
+      tmpFileObj.delete();             //remove partial temporary file
+    return false;
+  }
+
+  /**
+   * Finds the first entry at or after the given file offset that matches
+   * the given patterns and dates (as used by
+   * 'RespFileParser.findChannelId()').
+   * @param filePos the file offset to start from.
+   * @param stationPatArr an array of station name patterns, or a null
+   * or empty array to accept all station names.
+   * @param channelPatArr an array of channel name patterns, or a null
+   * or empty array to accept all channel names.
+   * @param networkPatArr an array of network name patterns, or a null
+   * or empty array to accept all network names.
+   * @param sitePatArr an array of site name patterns, or a null or
+   * empty array to accept all site names.
+   * @param beginDateObj the beginning of the date range to match, or
+   * null for no begin date.
+   * @param endDateObj the end of the date range to match, or null for
+   * no end date.
+   * @return The matching entry, or null if none found.
+   */
+  public Entry findEntry(long filePos,String [] stationPatArr,
+                            String [] channelPatArr,String [] networkPatArr,
+                     String [] sitePatArr,Date beginDateObj,Date endDateObj)
+  {
+    int lo = 0, hi = entriesArr.length, mid;
+    while(lo < hi)
+    {    //binary search for first entry with offset >= 'filePos'
+      mid = (lo + hi) >>> 1;
+      if(entriesArr[mid].filePos < filePos)
+        lo = mid + 1;
+      else
+        hi = mid;
+    }
+    Entry entryObj;
+    for(int i=lo; i<entriesArr.length; ++i)
+    {    //for each entry at or after offset; check if match
+      entryObj = entriesArr[i];
+      if(RespFileParser.channelIdMatches(entryObj.staName,entryObj.chaName,
+                                         entryObj.netName,entryObj.siteName,
+                                  entryObj.startDateObj,entryObj.endDateObj,
+                                  stationPatArr,channelPatArr,networkPatArr,
+                                       sitePatArr,beginDateObj,endDateObj))
+      {
+        return entryObj;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the number of entries in the index.
+   * @return The number of entries in the index.
+   */
+  public int getNumEntries()
+  {
+    return entriesArr.length;
+  }
+
+  /**
+   * Returns the given entry.
+   * @param idx the index of the entry (entries are in file-offset order).
+   * @return The entry object.
+   */
+  public Entry getEntry(int idx)
+  {
+    return entriesArr[idx];
+  }
+
+  /**
+   * Returns the name of the index file.
+   * @return The name of the index file.
+   */
+  public String getIndexFileName()
+  {
+    return indexFileObj.getPath();
+  }
+
+  /**
+   * Returns the error message (if any).
+   * @return The error message, or null if none.
+   */
+  public String getErrorMessage()
+  {
+    return errorMessage;
+  }
+
+  /**
+   * Sets the error message.
+   * @param str the error message.
+   */
+  protected void setErrorMessage(String str)
+  {
+    errorMessage = str;
+  }
+
+  /**
+   * Clears the error message.
+   */
+  protected void clearErrorMessage()
+  {
+    errorMessage = null;
+  }
+
+    //Returns the line identifying the size and last-modified time of
+    // the RESP file.
+  protected String getFileInfoStr()
+  {
+    return "#size=" + respFileObj.length() + " modified=" +
+                                                 respFileObj.lastModified();
+  }
+
+  /**
+   * Class Entry holds the codes, dates and file location of one
+   * station/channel ID entry.
+   */
+  public static class Entry
+  {
+      /** File offset of the "B050F03" item. */
+    public final long filePos;
+      /** Line number of the "B050F03" item. */
+    public final int lineNum;
+      /** Network code ("" if none). */
+    public final String netName;
+      /** Station code. */
+    public final String staName;
+      /** Location/site code ("" if none). */
+    public final String siteName;
+      /** Channel code. */
+    public final String chaName;
+      /** Start date of response. */
+    public final Date startDateObj;
+      /** End date of response, or null for "No Ending Time". */
+    public final Date endDateObj;
+
+    /**
+     * Creates an entry.
+     * @param filePos file offset of the "B050F03" item.
+     * @param lineNum line number of the "B050F03" item.
+     * @param netName network code.
+     * @param staName station code.
+     * @param siteName location/site code.
+     * @param chaName channel code.
+     * @param startDateObj start date of response.
+     * @param endDateObj end date of response, or null for none.
+     */
+    public Entry(long filePos,int lineNum,String netName,String staName,
+                        String siteName,String chaName,Date startDateObj,
+                                                           Date endDateObj)
+    {
+      this.filePos = filePos;
+      this.lineNum = lineNum;
+      this.netName = netName;
+      this.staName = staName;
+      this.siteName = siteName;
+      this.chaName = chaName;
+      this.startDateObj = startDateObj;
+      this.endDateObj = endDateObj;
+    }
+  }
+}
@@ -31,6 +31,16 @@
 //   8/26/2014 -- [ET]  Modified 'findChannelId()' method to properly
 //                      handle location/site value of "--" (meaning
 //                      location value empty).
+//  10/18/2026 -- [AG]  Modified to use 'RespByteLexer' (in place of
+//                      'RespTokenizer'), with local files read via
+//                      memory-mapped buffers and numeric values and
+//                      "B###F##" strings parsed without creating strings.
+//                      Added channel-index support ('useChannelIndex()')
+//                      and 'skipToNextChannelId()' method.
+//                      Modified 'skipToNextChannelId()' to scan raw input
+//                      for the next "B050" line instead of tokenizing.
+//                      Added 'seekChannelId()' method; synchronized use
+//                      of shared date formatter in 'findChannelId()'.
 //
 
 package com.isti.jevalresp;
@@ -63,7 +73,7 @@ import edu.iris.Fissures.model.TimeInterval;
 import com.isti.util.UtilFns;
 import com.isti.util.FileUtils;
 
-import static com.isti.jevalresp.x2r.ConvertingReader.toReader;
+import com.isti.jevalresp.x2r.ConvertingReader;
 
 /**
  * Class RespFileParser manages the parsing of an 'rdseed' ASCII response
@@ -72,14 +82,16 @@ import static com.isti.jevalresp.x2r.ConvertingReader.toReader;
 public class RespFileParser
 {
   private final String inputFileName;            //name of input file
-  private final Reader inReaderObj;              //input stream object
-  private final RespTokenizer inTokens;          //tokenizer object
+  private final RespByteLexer inTokens;          //lexer object
   private BlockFieldSpec firstBFSpec = null;     //pre-read spec object
+                   //prefix of station ID ("B050F03") lines:
+  private static final byte [] STA_ID_PREFIX_ARR = { 'B', '0', '5', '0' };
   protected String errorMessage = null;     //error message from parsing
   protected String infoMessage = null;      //info message from parsing
   private Vector curStagesVec = null;       //Vector of 'Stage' objects
   private int curStageSeqNum = 0;           //stage seq # tracker
   private Sensitivity curSensitivityObj = null;  //sensitivity for response
+  private RespChannelIndex channelIndexObj = null;    //index (or null)
 
     /**
      * Creates an 'rdseed' ASCII file parsing object.
@@ -87,23 +99,29 @@ public class RespFileParser
      */
   public RespFileParser(String fNameStr)
   {
-    Reader rdr;
+    RespByteLexer lexerObj;
     try
     {                   //open file for input:
-      rdr = new BufferedReader(toReader(new FileInputStream(fNameStr)));
+      final FileInputStream stmObj = new FileInputStream(fNameStr);
+      final BufferedInputStream bufStmObj = new BufferedInputStream(stmObj);
+      lexerObj = ConvertingReader.isXml(bufStmObj) ?
+                    new RespByteLexer(new ConvertingReader(bufStmObj)) :
+                                  new RespByteLexer(stmObj.getChannel());
     }
     catch(Exception ex)
     {
-      rdr = null;
+      lexerObj = null;
       setErrorMessage("Unable to open input file:  " + ex);
     }
-    if(rdr == null)
+    if(lexerObj == null)
     {    //unable to open input file (as a local file)
       try
       {       //attempt to open as a URL path:
         final String urlStr = RespUtils.fileObjPathToUrlStr(fNameStr);
+        final Reader rdr;
         if((rdr=FileUtils.fileMultiOpen(urlStr)) != null)
         {     //opened successfully as a URL path
+          lexerObj = new RespByteLexer(rdr);
           fNameStr = urlStr;      //enter "restored" URL path
           clearErrorMessage();    //clear previous error message
         }
@@ -119,20 +137,15 @@ public class RespFileParser
       }
       catch(Exception ex)
       {  //some kind of exception error; enter new error message
-        rdr = null;
+        lexerObj = null;
         clearErrorMessage();
         setErrorMessage("Unable to open input file:  " + ex);
       }
     }
     inputFileName = fNameStr;        //save file name
-    inReaderObj = rdr;               //save input reader object
-    if(rdr != null)
-    {    //input file opened OK
-      inTokens = new RespTokenizer(rdr);    //create tokenizer
-      checkInput();                         //check input data
-    }
-    else                     //if file not opened OK then
-      inTokens = null;       //set tokenizer to null
+    inTokens = lexerObj;             //save lexer object
+    if(lexerObj != null)             //if input file opened OK then
+      checkInput();                  //check input data
   }
 
     /**
@@ -142,16 +155,18 @@ public class RespFileParser
      */
   public RespFileParser(InputStream  in, String fNameStr)
   {
-    inReaderObj = toReader(in);            //save input reader object
     inputFileName = fNameStr;     //enter file name
-    if(inReaderObj != null)
-    {    //stream object handle OK
-      inTokens = new RespTokenizer(inReaderObj);    //create tokenizer
+    if(in != null)
+    {    //stream object handle OK; create lexer (converting XML data):
+      final BufferedInputStream bufStmObj = new BufferedInputStream(in);
+      inTokens = ConvertingReader.isXml(bufStmObj) ?
+                    new RespByteLexer(new ConvertingReader(bufStmObj)) :
+                                               new RespByteLexer(bufStmObj);
       checkInput();                         //check input data
     }
     else
     {    //null handle
-      inTokens = null;       //set tokenizer to null; set error message
+      inTokens = null;       //set lexer to null; set error message
       setErrorMessage("Reader object handle is null");
     }
   }
@@ -173,14 +188,14 @@ public class RespFileParser
       int tType;
       while(true)
       {       //for each token parsed
-        if((tType=inTokens.nextToken()) == RespTokenizer.TT_EOF)
+        if((tType=inTokens.nextToken()) == RespByteLexer.TT_EOF)
         {     //end-of-file reached; set error message
           setErrorMessage("No data found");
           break;
         }
-        if(tType == RespTokenizer.TT_WORD)
+        if(tType == RespByteLexer.TT_WORD)
         {     //word token found; check if station ID item
-          if((firstBFSpec=parseBlockFieldNums(inTokens.getTokenString())) ==
+          if((firstBFSpec=parseTokenBlockFieldNums()) ==
                                          null || firstBFSpec.blockNum != 50)
           {   //station ID line not found; set error message
             setErrorMessage("No valid response data found at line " +
@@ -201,8 +216,8 @@ public class RespFileParser
   {
     try
     {
-      if(inReaderObj != null)     //if handle not null then
-        inReaderObj.close();      //close input stream
+      if(inTokens != null)        //if handle not null then
+        inTokens.close();         //close input file or stream
     }
     catch(IOException ex) {};
   }
@@ -244,6 +259,11 @@ public class RespFileParser
       setErrorMessage("Unable to read from input file");
       return null;
     }
+    if(channelIndexObj != null && !seekIndexedChannelId(stationPatArr,
+             channelPatArr,networkPatArr,sitePatArr,beginDateObj,endDateObj))
+    {    //no matching entry in channel index (or error)
+      return null;
+    }
     if(firstBFSpec == null || firstBFSpec.blockNum != 50 ||
                                                   firstBFSpec.fieldNum != 3)
     {    //station ID line was not found; set error message
@@ -338,79 +358,281 @@ public class RespFileParser
         parsedEndDateObj = null;       //indicate no ending date
 
          //test if found channel ID is a match:
-      if((stationPatArr == null || stationPatArr.length <= 0 ||
-                  RespUtils.globStringArrMatch(staNameStr,stationPatArr)) &&
-         (channelPatArr == null || channelPatArr.length <= 0 ||
-                  RespUtils.globStringArrMatch(chaNameStr,channelPatArr)) &&
-         (networkPatArr == null || networkPatArr.length <= 0 ||
-                  RespUtils.globStringArrMatch(netNameStr,networkPatArr)) &&
-         (sitePatArr == null || sitePatArr.length <= 0 ||
-                  RespUtils.globStringSiteArrMatch(siteNameStr,sitePatArr)))
-      {  //matching station/channel ID found; see if dates match
-              //if no end date then treat 'beginDateObj' as a single date
-              // to be matched by being >= parsed-start-date and <=
-              // parsed-end-date; otherwise 'beginDateObj' needs to be
-              // <= parsed-end-date and 'endDateObj' needs to be >=
-              // parsed-start-date:
-        if((endDateObj == null && (beginDateObj == null ||
-                         (beginDateObj.compareTo(parsedStartDateObj) >= 0 &&
-                                                (parsedEndDateObj == null ||
-                        beginDateObj.compareTo(parsedEndDateObj) <= 0)))) ||
-           (endDateObj != null &&
-                            endDateObj.compareTo(parsedStartDateObj) >= 0 &&
-                        (beginDateObj == null || parsedEndDateObj == null ||
-                            beginDateObj.compareTo(parsedEndDateObj) <= 0)))
-        {     //date matched OK; accept response
-//          System.out.println("Response match in \"" + inputFileName +
-//                         "\":  sta=" + staNameStr + ", cha=" + chaNameStr +
-//                          ", net=" + netNameStr + ", site=" + siteNameStr +
-//            ", start=" + parsedStartDateStr + ", end=" + parsedEndDateStr);
+      if(channelIdMatches(staNameStr,chaNameStr,netNameStr,siteNameStr,
+                                     parsedStartDateObj,parsedEndDateObj,
+                              stationPatArr,channelPatArr,networkPatArr,
+                                    sitePatArr,beginDateObj,endDateObj))
+      {  //matching station/channel ID and dates
+//        System.out.println("Response match in \"" + inputFileName +
+//                       "\":  sta=" + staNameStr + ", cha=" + chaNameStr +
+//                        ", net=" + netNameStr + ", site=" + siteNameStr +
+//          ", start=" + parsedStartDateStr + ", end=" + parsedEndDateStr);
+        final String fissDateStr;
+        synchronized(RespUtils.fissDateFormatter)
+        {     //synchronize on shared formatter (may be used by
+              // concurrent parsers):
+          fissDateStr = RespUtils.fissDateFormatter.format(
+                                                        parsedStartDateObj);
+        }
                         //create Fissures Time object:
-          final Time fissTimeObj = new Time(RespUtils.fissDateFormatter.
-                                             format(parsedStartDateObj),-1);
+        final Time fissTimeObj = new Time(fissDateStr,-1);
                         //create and return 'ChanIdHldr' object:
-          return new ChanIdHldr(new ChannelId(new NetworkId(netNameStr,
+        return new ChanIdHldr(new ChannelId(new NetworkId(netNameStr,
                 fissTimeObj),staNameStr,siteNameStr,chaNameStr,fissTimeObj),
                                                           parsedEndDateObj);
-        }
       }
          //found channel ID is not a match; find next one:
-      try
-      {
-        int tType = inTokens.nextToken();   //pre-read first token
-        while(true)     //read in and discard rest of response data:
-        {                    //parse through any blank or comment lines:
-          while(tType == RespTokenizer.TT_EOL)
-            tType = inTokens.nextToken();
-          if(tType == RespTokenizer.TT_EOF)      //if end-of-file then
-            return null;                         //exit method
-          if(tType != RespTokenizer.TT_WORD || (bfSpecObj=
-                    parseBlockFieldNums(inTokens.getTokenString())) == null)
-          {   //not word token or not "B###F##" format string
-            setErrorMessage("Invalid format in file at line " +
-                                                         inTokens.lineno());
-            return null;
-          }
-          if(bfSpecObj.blockNum == 50)
-          {   //station ID data found
-            if(bfSpecObj.fieldNum != 3)
-            {      //not field number for station name; set error message
-              setErrorMessage("Invalid format in file at line " +
-                                                         inTokens.lineno());
-              return null;        //return error
-            }
-            break;      //exit inner loop; process station/channel ID data
-          }
-                   //read in and discard rest of tokens on line:
-          while((tType=inTokens.nextToken()) == RespTokenizer.TT_WORD);
+      if(channelIndexObj != null)
+      {  //channel index in use; move to next matching entry
+        if(!seekIndexedChannelId(stationPatArr,channelPatArr,
+                   networkPatArr,sitePatArr,beginDateObj,endDateObj))
+        {     //no more matching entries (or error)
+          return null;
         }
       }
-      catch(IOException ex)
-      {         //error reading token; set error message
-        setErrorMessage("Error reading from input file: " + ex);
-        return null;         //return error
+      else if(!skipToNextChannelId())
+        return null;         //if end of file or error then return
+      firstBFSpec = null;    //clear "next" block/field specifier
+    }
+  }
+
+    /**
+     * Skips the rest of the current response data, up to the next
+     * station/channel ID entry (which may then be processed via
+     * 'findChannelId()').  This may be used after 'findChannelId()'
+     * to move past a response without parsing it.  The skipped data is
+     * scanned for the next line starting with "B050" without being
+     * tokenized (and so is not checked for format errors).
+     * @return true if the next station/channel ID entry was found; false
+     * if the end of the input was reached or an error occurred (in which
+     * case 'getErorFlag()' will return true).
+     */
+  public boolean skipToNextChannelId()
+  {
+    if(inTokens == null)
+    {    //tokenizer not set up; set error message
+      setErrorMessage("Unable to read from input file");
+      return false;
+    }
+    firstBFSpec = null;      //clear "next" block/field specifier
+    BlockFieldSpec bfSpecObj;
+    try
+    {    //scan (without tokenizing) to next line starting with "B050":
+      if(!inTokens.skipToLinePrefix(STA_ID_PREFIX_ARR))
+        return false;        //if end-of-file then exit method
+      if(inTokens.nextToken() != RespByteLexer.TT_WORD ||
+                              (bfSpecObj=parseTokenBlockFieldNums()) == null ||
+                            bfSpecObj.blockNum != 50 || bfSpecObj.fieldNum != 3)
+      {  //not "B050F03" item; set error message
+        setErrorMessage("Invalid format in file at line " +
+                                                         inTokens.lineno());
+        return false;
+      }
+      firstBFSpec = bfSpecObj;     //for next 'findChannelId()'
+      return true;
+    }
+    catch(IOException ex)
+    {         //error reading token; set error message
+      setErrorMessage("Error reading from input file: " + ex);
+      return false;          //return error
+    }
+  }
+
+    /**
+     * Determines whether the given station/channel ID values and dates
+     * match the given patterns and date range (as used by
+     * 'findChannelId()').
+     * @param staNameStr station name.
+     * @param chaNameStr channel name.
+     * @param netNameStr network name.
+     * @param siteNameStr site/location name.
+     * @param startDateObj start date of response.
+     * @param endDateObj end date of response, or null if none.
+     * @param stationPatArr an array of station name patterns, or a null
+     * or empty array to accept all station names.
+     * @param channelPatArr an array of channel name patterns, or a null
+     * or empty array to accept all channel names.
+     * @param networkPatArr an array of network name patterns, or a null
+     * or empty array to accept all network names.
+     * @param sitePatArr an array of site name patterns, or a null or
+     * empty array to accept all site names.
+     * @param beginMatchDateObj the beginning of the date range to match,
+     * or null for no begin date.  If no end-date is given then this
+     * becomes a single date that must be within the date-range of the
+     * response.
+     * @param endMatchDateObj the end of the date range to match, or null
+     * for no end date.
+     * @return true if the values match.
+     */
+  public static boolean channelIdMatches(String staNameStr,
+                    String chaNameStr,String netNameStr,String siteNameStr,
+                                       Date startDateObj,Date endDateObj,
+                            String [] stationPatArr,String [] channelPatArr,
+                                String [] networkPatArr,String [] sitePatArr,
+                                 Date beginMatchDateObj,Date endMatchDateObj)
+  {
+    if((stationPatArr == null || stationPatArr.length <= 0 ||
+                  RespUtils.globStringArrMatch(staNameStr,stationPatArr)) &&
+       (channelPatArr == null || channelPatArr.length <= 0 ||
+                  RespUtils.globStringArrMatch(chaNameStr,channelPatArr)) &&
+       (networkPatArr == null || networkPatArr.length <= 0 ||
+                  RespUtils.globStringArrMatch(netNameStr,networkPatArr)) &&
+       (sitePatArr == null || sitePatArr.length <= 0 ||
+                  RespUtils.globStringSiteArrMatch(siteNameStr,sitePatArr)))
+    {    //matching station/channel ID found; see if dates match
+              //if no end date then treat 'beginMatchDateObj' as a single
+              // date to be matched by being >= start-date and <= end-date;
+              // otherwise 'beginMatchDateObj' needs to be <= end-date and
+              // 'endMatchDateObj' needs to be >= start-date:
+      return (endMatchDateObj == null && (beginMatchDateObj == null ||
+                          (beginMatchDateObj.compareTo(startDateObj) >= 0 &&
+                                                      (endDateObj == null ||
+                        beginMatchDateObj.compareTo(endDateObj) <= 0)))) ||
+             (endMatchDateObj != null &&
+                              endMatchDateObj.compareTo(startDateObj) >= 0 &&
+                        (beginMatchDateObj == null || endDateObj == null ||
+                              beginMatchDateObj.compareTo(endDateObj) <= 0));
+    }
+    return false;
+  }
+
+    //Moves to the next entry in the channel index (at or after the
+    // current position) that matches the given patterns and dates.
+    // Returns true if the lexer is positioned at the entry's "B050F03"
+    // token (with 'firstBFSpec' set); false if no matching entry
+    // remains or an error occurred (error message set).
+  private boolean seekIndexedChannelId(String [] stationPatArr,
+                            String [] channelPatArr,String [] networkPatArr,
+                     String [] sitePatArr,Date beginDateObj,Date endDateObj)
+  {
+    final long curPos = (firstBFSpec != null) ?
+                 inTokens.getTokenFilePos() : inTokens.getScanFilePos();
+    final RespChannelIndex.Entry entryObj;
+    if((entryObj=channelIndexObj.findEntry(curPos,stationPatArr,
+                                  channelPatArr,networkPatArr,sitePatArr,
+                                         beginDateObj,endDateObj)) == null)
+    {    //no more matching entries
+      return false;
+    }
+    if(firstBFSpec != null && entryObj.filePos == curPos)
+      return true;           //if already at entry then return
+    return seekChannelId(entryObj);
+  }
+
+    /**
+     * Moves to the station/channel ID entry described by the given
+     * channel-index entry, which may then be processed via
+     * 'findChannelId()'.  The index entry must have been generated from
+     * the same file as this parser's input.
+     * @param entryObj the channel-index entry to use.
+     * @return true if successful; false if the input does not support
+     * seeking (not a local file) or the entry does not match the input
+     * (in which case 'getErorFlag()' will return true).
+     */
+  public boolean seekChannelId(RespChannelIndex.Entry entryObj)
+  {
+    firstBFSpec = null;      //clear "next" block/field specifier
+    if(inTokens == null || !inTokens.isSeekable())
+    {    //not reading from local file; set error message
+      setErrorMessage("Unable to seek in input file");
+      return false;
+    }
+    try
+    {
+      if(!inTokens.seek(entryObj.filePos,entryObj.lineNum) ||
+                         inTokens.nextToken() != RespByteLexer.TT_WORD ||
+                         (firstBFSpec=parseTokenBlockFieldNums()) == null ||
+                  firstBFSpec.blockNum != 50 || firstBFSpec.fieldNum != 3)
+      {  //station ID line not found at position; set error message
+        firstBFSpec = null;
+        setErrorMessage("Channel index entry does not match file at line " +
+                                                         entryObj.lineNum);
+        return false;
       }
     }
+    catch(IOException ex)
+    {         //error reading token; set error message
+      setErrorMessage("Error reading from input file: " + ex);
+      return false;
+    }
+    return true;
+  }
+
+    /**
+     * Enables the use of a channel index for 'findChannelId()', so that
+     * non-matching responses are skipped by seeking directly to the next
+     * matching entry.  The index is loaded from its sidecar file (see
+     * 'RespChannelIndex') if that file is valid for the current input
+     * file; otherwise the index is built and saved.  Only input read
+     * from a local RESP file may be indexed.
+     * @return true if the channel index is in use; false if not (in which
+     * case an info message is entered).
+     */
+  public boolean useChannelIndex()
+  {
+    if(inTokens == null || !inTokens.isSeekable())
+    {    //not reading from local file
+      setInfoMessage("Channel index not available for input \"" +
+                                                    inputFileName + "\"");
+      return false;
+    }
+    final RespChannelIndex indexObj = new RespChannelIndex(inputFileName);
+    if(!indexObj.loadOrBuild())
+    {    //unable to load or build index; enter info message
+      setInfoMessage("Channel index not used:  " +
+                                                indexObj.getErrorMessage());
+      return false;
+    }
+    channelIndexObj = indexObj;
+    return true;
+  }
+
+    /**
+     * Sets the channel index to be used by 'findChannelId()'.  The index
+     * must have been built from the same file as this parser's input.
+     * @param indexObj the channel index to use, or null for none.
+     * @return true if successful; false if the input does not support
+     * seeking (not a local file).
+     */
+  public boolean setChannelIndex(RespChannelIndex indexObj)
+  {
+    if(indexObj != null && (inTokens == null || !inTokens.isSeekable()))
+      return false;
+    channelIndexObj = indexObj;
+    return true;
+  }
+
+    /**
+     * Returns the channel index used by 'findChannelId()'.
+     * @return The channel index, or null if none.
+     */
+  public RespChannelIndex getChannelIndex()
+  {
+    return channelIndexObj;
+  }
+
+    /**
+     * Returns the file position of the next station/channel ID entry
+     * (the one to be processed by the next call to 'findChannelId()').
+     * @return The offset (in bytes) of the "B050F03" item from the start
+     * of the input file, or -1 if not available.
+     */
+  public long getChannelIdFilePos()
+  {
+    return (firstBFSpec != null && inTokens != null &&
+            inTokens.isSeekable()) ? inTokens.getTokenFilePos() : -1;
+  }
+
+    /**
+     * Returns the line number of the next station/channel ID entry
+     * (the one to be processed by the next call to 'findChannelId()').
+     * @return The line number of the "B050F03" item, or -1 if not
+     * available.
+     */
+  public int getChannelIdLineNum()
+  {
+    return (firstBFSpec != null && inTokens != null) ?
+                                                   inTokens.lineno() : -1;
   }
 
     /**
@@ -674,18 +896,18 @@ public class RespFileParser
       }
       try          //fetch next line of response data:
       {                      //skip any blank (or comment) lines:
-        while((tType=inTokens.nextToken()) == RespTokenizer.TT_EOL);
+        while((tType=inTokens.nextToken()) == RespByteLexer.TT_EOL);
       }
       catch(IOException ex)
       {       //error reading token; set error message
         setErrorMessage("Error reading from input file: " + ex);
         return null;
       }
-      if(tType == RespTokenizer.TT_EOF)
+      if(tType == RespByteLexer.TT_EOF)
         break;          //if end-of-file reached then exit loop
               //if word token then fetch and parse "B###F##..." string:
-      if(tType != RespTokenizer.TT_WORD ||
-         (bfSpecObj=parseBlockFieldNums(inTokens.getTokenString())) == null)
+      if(tType != RespByteLexer.TT_WORD ||
+         (bfSpecObj=parseTokenBlockFieldNums()) == null)
       {       //valid "B###F##..." string not found; set error message
         setErrorMessage("Invalid data in input file at line " +
                                                          inTokens.lineno());
@@ -1052,7 +1274,7 @@ public class RespFileParser
       if((bfSpecObj=readNextBlockFieldNums()) == null ||
          bfSpecObj.blockNum != pzBlkNum || bfSpecObj.fieldNum != fieldNum ||
                                       bfSpecObj.endFieldNum != fieldNum+3 ||
-                                            readNextTokenString() == null ||
+                                                !readNextWordToken() ||
                            (zerosArr[i]=readComplexNumberErrored()) == null)
       {
         setErrorMessage("Error parsing zeros data items in " +
@@ -1069,7 +1291,7 @@ public class RespFileParser
       if((bfSpecObj=readNextBlockFieldNums(pzBlkNum,fieldNum)) == null ||
          bfSpecObj.blockNum != pzBlkNum || bfSpecObj.fieldNum != fieldNum ||
                                       bfSpecObj.endFieldNum != fieldNum+3 ||
-                                            readNextTokenString() == null ||
+                                                !readNextWordToken() ||
                            (polesArr[i]=readComplexNumberErrored()) == null)
       {
         setErrorMessage("Error parsing poles data items in " +
@@ -1316,7 +1538,7 @@ public class RespFileParser
       if((bfSpecObj=readNextBlockFieldNums(cfBlkNum,fieldNum)) == null ||
          bfSpecObj.blockNum != cfBlkNum || bfSpecObj.fieldNum != fieldNum ||
                                       bfSpecObj.endFieldNum != fieldNum+1 ||
-                                            readNextTokenString() == null ||
+                                                !readNextWordToken() ||
                         (numeratorsArr[i]=readCoefficientErrored()) == null)
       {
         setErrorMessage("Error parsing numerators data items in " +
@@ -1334,7 +1556,7 @@ public class RespFileParser
       if((bfSpecObj=readNextBlockFieldNums(cfBlkNum,fieldNum)) == null ||
          bfSpecObj.blockNum != cfBlkNum || bfSpecObj.fieldNum != fieldNum ||
                                       bfSpecObj.endFieldNum != fieldNum+1 ||
-                                            readNextTokenString() == null ||
+                                                !readNextWordToken() ||
                       (denominatorsArr[i]=readCoefficientErrored()) == null)
       {
         setErrorMessage("Error parsing denominators data items in " +
@@ -2305,8 +2527,8 @@ public class RespFileParser
               // index value; then read floating-point value string:
       if((bfSpecObj=readNextBlockFieldNums(frBlkNum,fieldNum)) == null ||
          bfSpecObj.blockNum != frBlkNum || bfSpecObj.fieldNum != fieldNum ||
-                                            readNextTokenString() == null ||
-                                        (str=readNextTokenString()) == null)
+                                                !readNextWordToken() ||
+                                                      !readNextWordToken())
       {       //error reading field; set error message
         setErrorMessage("Unable to find coefficient field in FIR " +
                                   "Blockette at line " + inTokens.lineno());
@@ -2314,11 +2536,12 @@ public class RespFileParser
       }
       try
       {            //convert string to floating-point value:
-        fVal = Float.parseFloat(str);
+        fVal = inTokens.parseTokenFloat();
       }
       catch(NumberFormatException ex)
       {       //error converting string to floating-point value; set message
-        setErrorMessage("Error parsing coefficient value (" + str +
+        setErrorMessage("Error parsing coefficient value (" +
+                                                inTokens.getTokenString() +
                          ") in FIR Blockette at line " + inTokens.lineno());
         return false;
       }
@@ -2632,7 +2855,7 @@ public class RespFileParser
       if((bfSpecObj=readNextBlockFieldNums(rpBlkNum,fieldNum)) == null ||
          bfSpecObj.blockNum != rpBlkNum || bfSpecObj.fieldNum != fieldNum ||
                                       bfSpecObj.endFieldNum != fieldNum+1 ||
-                                            readNextTokenString() == null ||
+                                                !readNextWordToken() ||
                         (coeffErrValsArr[i]=readCoefficientErrored()) == null)
       {
         setErrorMessage("Error parsing coefficients data items in " +
@@ -2898,10 +3121,10 @@ public class RespFileParser
     int tType;
     try
     {                        //skip any blank (or comment) lines:
-      while((tType=inTokens.nextToken()) == RespTokenizer.TT_EOL);
+      while((tType=inTokens.nextToken()) == RespByteLexer.TT_EOL);
          //if word token then fetch, parse and return "B###F##..." string:
-      if(tType == RespTokenizer.TT_WORD)
-        return parseBlockFieldNums(inTokens.getTokenString());
+      if(tType == RespByteLexer.TT_WORD)
+        return parseTokenBlockFieldNums();
     }
     catch(IOException ex)
     {         //error reading token; set error message
@@ -2980,7 +3203,7 @@ public class RespFileParser
   {
     try
     {
-      if(inTokens.nextToken() != RespTokenizer.TT_WORD)
+      if(inTokens.nextToken() != RespByteLexer.TT_WORD)
         return null;
     }
     catch(IOException ex)
@@ -2990,6 +3213,26 @@ public class RespFileParser
     return inTokens.getTokenString();
   }
 
+    /**
+     * Reads the next token, which is expected to be a word token.  The
+     * token may then be fetched or parsed via the lexer object without
+     * creating a string (as done by 'readNextTokenString()').
+     * @return true if a word token was read; false if token not found or
+     * error.
+     */
+  public boolean readNextWordToken()
+  {
+    try
+    {
+      return (inTokens.nextToken() == RespByteLexer.TT_WORD);
+    }
+    catch(IOException ex)
+    {         //error reading token; set error message
+      setErrorMessage("Error reading from input file: " + ex);
+      return false;
+    }
+  }
+
     /**
      * @return the token after the next "xxx:" token or
      * null if token not found or error.
@@ -3002,15 +3245,15 @@ public class RespFileParser
     String str;
     try
     {
-      while(inTokens.nextToken() == RespTokenizer.TT_WORD)
+      while(inTokens.nextToken() == RespByteLexer.TT_WORD)
       {       //for each word token found; check for "xxx:"
-        if(inTokens.getNonNullTokenString().endsWith(":"))
+        if(inTokens.tokenEndsWith(':'))
         {     //leading "xxx:" token found
-          if(inTokens.nextToken() == RespTokenizer.TT_WORD)
+          if(inTokens.nextToken() == RespByteLexer.TT_WORD)
           {   //next word token found
             str = inTokens.getTokenString();     //get token string
                         //read in any remaining word tokens on line:
-            while(inTokens.nextToken() == RespTokenizer.TT_WORD)
+            while(inTokens.nextToken() == RespByteLexer.TT_WORD)
             {      //for each token remaining on line
               if(lineFlag)   //if flag then append token
                 str += " " + inTokens.getNonNullTokenString();
@@ -3050,18 +3293,18 @@ public class RespFileParser
     {    //for each floating-point value converted
       try
       {                      //skip any blank (or comment) lines:
-        while((tType=inTokens.nextToken()) == RespTokenizer.TT_EOL);
+        while((tType=inTokens.nextToken()) == RespByteLexer.TT_EOL);
       }
       catch(IOException ex)
       {       //error reading token; set error message
         setErrorMessage("Error reading from input file: " + ex);
         return null;
       }
-      if(tType != RespTokenizer.TT_WORD)
+      if(tType != RespByteLexer.TT_WORD)
         return null;         //if not word token then return error
       try
       {                 //convert string to floating-point number:
-        floatArr[p] = Float.parseFloat(inTokens.getTokenString());
+        floatArr[p] = inTokens.parseTokenFloat();
       }
       catch(NumberFormatException ex)
       {       //error converting string to number
@@ -3084,18 +3327,18 @@ public class RespFileParser
     {    //for each floating-point value converted
       try
       {                      //skip any blank (or comment) lines:
-        while((tType=inTokens.nextToken()) == RespTokenizer.TT_EOL);
+        while((tType=inTokens.nextToken()) == RespByteLexer.TT_EOL);
       }
       catch(IOException ex)
       {       //error reading token; set error message
         setErrorMessage("Error reading from input file: " + ex);
         return null;
       }
-      if(tType != RespTokenizer.TT_WORD)
+      if(tType != RespByteLexer.TT_WORD)
         return null;         //if not word token then return error
       try
       {                 //convert string to floating-point number:
-        floatArr[p] = Float.parseFloat(inTokens.getTokenString());
+        floatArr[p] = inTokens.parseTokenFloat();
       }
       catch(NumberFormatException ex)
       {       //error converting string to number
@@ -3116,22 +3359,22 @@ public class RespFileParser
     try
     {
       int tType;             //skip any blank (or comment) lines:
-      while((tType=inTokens.nextToken()) == RespTokenizer.TT_EOL);
+      while((tType=inTokens.nextToken()) == RespByteLexer.TT_EOL);
       final float [] floatArr = new float[6];
       int p;                 //read in 5 or 6 values:
       for(p=0; p<6; ++p)
       {  //for each floating-point value converted
-        if(tType != RespTokenizer.TT_WORD)
+        if(tType != RespByteLexer.TT_WORD)
           return null;       //if not word token then return error
         try
         {               //convert string to floating-point number:
-          floatArr[p] = Float.parseFloat(inTokens.getTokenString());
+          floatArr[p] = inTokens.parseTokenFloat();
         }
         catch(NumberFormatException ex)
         {     //error converting string to number
           return null;
         }
-        if((tType=inTokens.nextToken()) == RespTokenizer.TT_EOL)
+        if((tType=inTokens.nextToken()) == RespByteLexer.TT_EOL)
           break;        //if end-of-line then exit loop
       }
       if(p < 4)              //if not enough values then
@@ -3157,7 +3400,7 @@ public class RespFileParser
   {
     try
     {     //read until end of line or file:
-      while(inTokens.nextToken() == RespTokenizer.TT_WORD);
+      while(inTokens.nextToken() == RespByteLexer.TT_WORD);
     }
     catch(IOException ex)
     {         //error reading token; set error message
@@ -3167,6 +3410,29 @@ public class RespFileParser
     return true;
   }
 
+    //Parses the current word token as a "B###F##..." string.  The
+    // common all-digits form is parsed directly from the token bytes;
+    // other forms are parsed via 'parseBlockFieldNums()'.
+  private BlockFieldSpec parseTokenBlockFieldNums()
+  {
+    final int len = inTokens.getTokenLength();
+    final int blockNum,fieldNum,endFieldNum;
+    if(len >= 7 && len <= 10 && inTokens.getTokenByte(0) == 'B' &&
+                           (blockNum=inTokens.parseTokenDigits(1,3)) >= 0 &&
+                                          inTokens.getTokenByte(4) == 'F' &&
+                           (fieldNum=inTokens.parseTokenDigits(5,2)) >= 0)
+    {    //block and field numbers parsed; check for end field number
+      if(len == 7)
+        return new BlockFieldSpec(blockNum,fieldNum,-1);
+      if(len == 10 && inTokens.getTokenByte(7) == '-' &&
+                        (endFieldNum=inTokens.parseTokenDigits(8,2)) >= 0)
+      {
+        return new BlockFieldSpec(blockNum,fieldNum,endFieldNum);
+      }
+    }
+    return parseBlockFieldNums(inTokens.getTokenString());
+  }
+
     /**
      * Parses "B###F##..." string into block and field numbers.
      * @param str string
@@ -51,13 +51,30 @@
 //                      'doReadResponses()'.
 //  10/22/2013 -- [ET]  Added optional 'b62XValue' parameter to methods
 //                      'processResponse()' and 'findAndOutputResponses()'.
+//  10/18/2026 -- [AG]  Added optional 'totalOnlyFlag' parameter to method
+//                      'processResponse()'.
+//                      Added optional 'groupDelayFlag' parameter to method
+//                      'processResponse()' and support for "gd" (group
+//                      delay) output type to 'outputData()'.
+//                      Added 'setChannelIndexFlag()' for use of channel
+//                      index files when parsing RESP files.
+//                      Added 'setParseThreads()' for concurrent parsing of
+//                      the responses in a multi-response RESP file.
+//                      Added 'setResponseCacheFlag()' for use of binary
+//                      response cache files in place of parsing.
 //
 
 package com.isti.jevalresp;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import edu.iris.Fissures.IfNetwork.ChannelId;
 import edu.iris.Fissures.IfNetwork.Response;
 import com.isti.util.UtilFns;
@@ -72,6 +89,8 @@ public class RespProcessor
   public static final String RESP_FILE_PREFIX = "RESP.";
   public static final String LINE_SEP_STR =   //"line" separator string
                        "--------------------------------------------------";
+                   //# of responses parsed by each concurrent task:
+  public static final int PARSE_GROUP_SIZE = 16;
     //flag set true to allow multiple outputs with same net.sta.loc.cha:
   protected final boolean multiOutputFlag;
   protected final boolean headerFlag;     //true for header info in output
@@ -83,6 +102,12 @@ public class RespProcessor
                              //number of names in 'outputFileNamesStr':
   protected int outputFileNamesCount = 0;
   protected final File outputDirectory;
+                   //true to use channel index files for RESP files:
+  protected boolean channelIndexFlag = false;
+                   //# of threads for parsing responses in a RESP file:
+  protected int parseThreads = 1;
+                   //true to use binary response cache files:
+  protected boolean responseCacheFlag = false;
 
 
     /**
@@ -531,9 +556,19 @@ public class RespProcessor
         }
         if(isFileFlag)
         {  //'File' references a normal file; process it here & exit
+          final RespBinaryCache cacheObj;
+          if(responseCacheFlag && (cacheObj=loadResponseCache(
+                                    fileObj.getAbsolutePath())) != null)
+          {     //binary response cache available for file; use it
+            return findCachedResponse(staArr,chaArr,netArr,siteArr,
+                      beginDateObj,endDateObj,respCallbackObj,cacheObj,
+                                                fileObj.getAbsolutePath());
+          }
                                        //create parser object for file:
           final RespFileParser parserObj = new RespFileParser(
                                     fileObj.getAbsolutePath());
+          if(channelIndexFlag && !parserObj.getErrorFlag())
+            parserObj.useChannelIndex();      //use channel index file
           ChannelId channelIdObj = null;      //handle for channel ID
           Date respEndDateObj = null;         //end-date for channel
           Response respObj = null;            //handle for response object
@@ -675,6 +710,7 @@ public class RespProcessor
       }
     }
     String inFName;
+    int numIdMatch;
     final int fileArrLen = (fileArr != null) ? fileArr.length : 0;
     int chanIdMatchCount = 0;
          //process array of files returned:
@@ -684,8 +720,17 @@ public class RespProcessor
                         //remove leading "./" from filename:
       if(inFName.startsWith("./") || inFName.startsWith(".\\"))
         inFName = inFName.substring(2);
+      if(responseCacheFlag && (numIdMatch=doReadCachedResponses(staArr,
+                     chaArr,netArr,siteArr,beginDateObj,endDateObj,
+                                        respCallbackObj,inFName)) >= 0)
+      {  //responses found via binary response cache for file
+        chanIdMatchCount += numIdMatch;
+        continue;
+      }
                                   //create parser obj for file:
       final RespFileParser parserObj = new RespFileParser(inFName);
+      if(channelIndexFlag && !parserObj.getErrorFlag())
+        parserObj.useChannelIndex();     //use channel index file
         System.out.printf("processing '%s'\n", inFName);  // XXX
          //find and read responses; add to number-matched count:
       chanIdMatchCount += doReadResponses(staArr,chaArr,netArr,siteArr,
@@ -733,9 +778,20 @@ public class RespProcessor
     ChanIdHldr chanIdHldrObj;
     ChannelId channelIdObj;
     Response respObj;
-    String channelIdFName,str;
+    String channelIdFName;
     int numIdMatch = 0;
     final Vector chanIdFNameVec = new Vector();  //Vector of chan ID fnames
+    if(multiOutputFlag && parseThreads > 1 && !parserObj.getErrorFlag() &&
+                                       parserObj.getChannelIdFilePos() >= 0)
+    {  //all responses wanted and parsing threads given for local file
+      if((numIdMatch=doReadResponsesParallel(staArr,chaArr,netArr,siteArr,
+                                beginDateObj,endDateObj,respCallbackObj,
+                                    parserObj,idNameAppendStr)) >= 0)
+      {     //responses were parsed concurrently
+        return numIdMatch;
+      }
+      numIdMatch = 0;        //unable to index file; parse serially
+    }
     if(!parserObj.getErrorFlag())
     {       //no errors detected so far
       if((chanIdHldrObj=parserObj.findChannelId(staArr,chaArr,
@@ -753,49 +809,15 @@ public class RespProcessor
           if(idNameAppendStr != null)            //if append string given
             channelIdFName += idNameAppendStr;   // then append to name
                  //read and parse response data from file:
-          if((respObj=parserObj.readResponse()) == null &&
-                                                    respCallbackObj != null)
-          { //'readResponse()' returned error; send back error message
-            if((str=parserObj.getInputFileName()) != null &&
-                                                    str.trim().length() > 0)
-            {  //file name not empty; include in error message
-              str = " from \"" + str + '\"';
-            }
-            else   //file name empty
-              str = UtilFns.EMPTY_STRING;
-            str = "Error parsing response" + str + ":  ";  //build err msg
-            respCallbackObj.responseInfo(parserObj.getInputFileName(),
-                                  channelIdObj,chanIdHldrObj.respEndDateObj,
-                                                        channelIdFName,null,
-                                       (str + parserObj.getErrorMessage()));
-          }
-          if(respObj != null && respCallbackObj != null)
-          {  //response parsed OK and callback object was given
-                   //process response and generate output:
-            if(chanIdFNameVec.indexOf(channelIdFName) < 0)
-            {  //channel ID not previously processed successfully
-                      //send back response data for processing:
-              if(respCallbackObj.responseInfo(parserObj.getInputFileName(),
-                                channelIdObj,chanIdHldrObj.respEndDateObj,
-                                             channelIdFName,respObj,null))
-              {  //response processed OK; add ID to list of processed
-                chanIdFNameVec.add(channelIdFName);
-                ++numRespFound;      //increment responses found count
-              }
-              if(parserObj.getInfoFlag())
-              {  //info message is available; forward it along
-                respCallbackObj.showInfoMessage(parserObj.getInfoMessage());
-                parserObj.clearInfoMessage();       //clear info message
-              }
-            }
-            else //channel ID was already processed
-            {         //send back warning message:
-              respCallbackObj.responseInfo(parserObj.getInputFileName(),
-                                channelIdObj,chanIdHldrObj.respEndDateObj,
-                         channelIdFName,null,("WARNING:  Response with " +
-                                    "duplicate channel ID ignored in \"" +
-                                    parserObj.getInputFileName() + "\""));
-            }
+          respObj = parserObj.readResponse();
+          if(deliverResponse(parserObj.getInputFileName(),chanIdHldrObj,
+                                              channelIdFName,respObj,
+                  ((respObj == null) ? parserObj.getErrorMessage() : null),
+                           (parserObj.getInfoFlag() ?
+                                     parserObj.getInfoMessage() : null),
+                                           respCallbackObj,chanIdFNameVec))
+          {  //info message (if any) was forwarded; clear it
+            parserObj.clearInfoMessage();
           }
         }        //loop if more than 1 output per net.sta.loc.cha allowed
         while(multiOutputFlag &&    // and next matching channel-ID found
@@ -819,6 +841,443 @@ public class RespProcessor
     return numIdMatch;
   }
 
+    /**
+     * Finds responses with matching channel IDs in a RESP file and sends
+     * them to the callback object, parsing the responses concurrently
+     * (using 'parseThreads' threads).  The file is split at its
+     * station/channel ID entries (found via the parser's channel index,
+     * or via an index built here if the parser has none), each worker
+     * parses its group of responses with its own parser object, and the
+     * results are passed to the callback object (on the calling thread)
+     * in file order, stopping after the first response that could not
+     * be parsed.  The results are the same as those from the serial
+     * path of 'doReadResponses()' with 'multiOutputFlag' set.
+     * @param staArr an array of station name patterns to search for,
+     * or a null or empty array to accept all station names.
+     * @param chaArr an array of channel name patterns to search for,
+     * or a null or empty array to accept all channel names.
+     * @param netArr an array of network name patterns to search for,
+     * or a null or empty array to accept all network names.
+     * @param siteArr an array of site name patterns to search for,
+     * or a null or empty array to accept all site names.
+     * @param beginDateObj the beginning of a date range to search for, or
+     * null for no begin date.
+     * @param endDateObj the end of a date range to search for, or
+     * null for no end date.
+     * @param respCallbackObj a 'RespCallback' object whose 'responseInfo()'
+     * method will be called to report on each response found.
+     * @param parserObj the parser object for the RESP file (must be
+     * reading a local file).
+     * @param idNameAppendStr a string to be appended to the end of each
+     * generated channel-ID filename, or null for none.
+     * @return The number of matching channel IDs found (0 or 1, as with
+     * 'doReadResponses()'), or -1 if the file could not be indexed (in
+     * which case the serial path should be used).
+     */
+  protected int doReadResponsesParallel(final String [] staArr,
+             final String [] chaArr,final String [] netArr,
+             final String [] siteArr,final Date beginDateObj,
+             final Date endDateObj,RespCallback respCallbackObj,
+                         RespFileParser parserObj,String idNameAppendStr)
+  {
+    final String fileName = parserObj.getInputFileName();
+    RespChannelIndex indexObj;
+    if((indexObj=parserObj.getChannelIndex()) == null)
+    {    //parser not using channel index; build index for file
+      indexObj = new RespChannelIndex(fileName);
+      if(!indexObj.build())
+        return -1;           //if unable to build index then return
+    }
+         //collect index entries for matching responses:
+    final ArrayList entriesList = new ArrayList();
+    RespChannelIndex.Entry entryObj;
+    long filePos = 0;
+    while((entryObj=indexObj.findEntry(filePos,staArr,chaArr,netArr,
+                                    siteArr,beginDateObj,endDateObj)) != null)
+    {
+      entriesList.add(entryObj);
+      filePos = entryObj.filePos + 1;
+    }
+    final int numEntries = entriesList.size();
+    if(numEntries <= 0)
+      return 0;              //if no matching responses then return
+    final RespChannelIndex.Entry [] entriesArr = (RespChannelIndex.Entry [])
+                       entriesList.toArray(new RespChannelIndex.Entry[0]);
+    final int numGroups = (numEntries + PARSE_GROUP_SIZE - 1) /
+                                                          PARSE_GROUP_SIZE;
+    final ExecutorService executorObj = Executors.newFixedThreadPool(
+                              Math.min(parseThreads,numGroups),
+                                                       new ThreadFactory()
+        {
+          public Thread newThread(Runnable runObj)
+          {
+            final Thread threadObj = new Thread(runObj,"RespProcessor-parse");
+            threadObj.setDaemon(true);      //don't hold up program exit
+            return threadObj;
+          }
+        });
+    final Vector chanIdFNameVec = new Vector();  //Vector of chan ID fnames
+    try
+    {
+      final Future [] futuresArr = new Future[numGroups];
+      int submitIdx = 0;
+      ParsedResponse [] resultsArr;
+      ParsedResponse resultObj;
+      String channelIdFName;
+      for(int g=0; g<numGroups; ++g)
+      {  //for each group of responses (in file order)
+              //keep up to two groups per thread in progress (limits the
+              // number of parsed responses held in memory):
+        while(submitIdx < numGroups && submitIdx < g + 2*parseThreads)
+        {
+          final int fromIdx = submitIdx * PARSE_GROUP_SIZE;
+          final int toIdx = Math.min(fromIdx+PARSE_GROUP_SIZE,numEntries);
+          futuresArr[submitIdx++] = executorObj.submit(new Callable()
+              {
+                public Object call()
+                {
+                  return parseResponseGroup(fileName,entriesArr,fromIdx,
+                                 toIdx,staArr,chaArr,netArr,siteArr,
+                                                 beginDateObj,endDateObj);
+                }
+              });
+        }
+        resultsArr = (ParsedResponse [])futuresArr[g].get();
+        futuresArr[g] = null;       //release results when done
+        for(int i=0; i<resultsArr.length; ++i)
+        {     //for each response in group
+          resultObj = resultsArr[i];
+          if(resultObj.chanIdHldrObj == null)
+          {   //error parsing channel ID
+            if(respCallbackObj != null)
+            {      //send back message
+              respCallbackObj.responseInfo(fileName,null,null,null,null,
+                                   ("Error parsing channel ID from \"" +
+                               fileName + "\":  " + resultObj.errMsgStr));
+            }
+            return 1;
+          }
+                      //generate filename from channel ID info:
+          channelIdFName = RespUtils.channelIdToFName(
+                   resultObj.chanIdHldrObj.channelIdObj,multiOutputFlag);
+          if(idNameAppendStr != null)            //if append string given
+            channelIdFName += idNameAppendStr;   // then append to name
+          deliverResponse(fileName,resultObj.chanIdHldrObj,channelIdFName,
+                                   resultObj.respObj,resultObj.errMsgStr,
+                            resultObj.infoMsgStr,respCallbackObj,
+                                                            chanIdFNameVec);
+          if(resultObj.respObj == null)
+            return 1;     //if error parsing response then stop (as serial)
+        }
+      }
+    }
+    catch(Exception ex)
+    {    //some kind of error occurred; send back message
+      if(respCallbackObj != null)
+      {
+        respCallbackObj.responseInfo(fileName,null,null,null,null,
+                                   ("Error parsing responses from \"" +
+                                                fileName + "\":  " + ex));
+      }
+    }
+    finally
+    {    //release threads
+      executorObj.shutdownNow();
+    }
+    return 1;
+  }
+
+    /**
+     * Parses a group of responses from a RESP file, using a new parser
+     * object.  This method is called by the worker threads of
+     * 'doReadResponsesParallel()'.
+     * @param fileName name of the RESP file.
+     * @param entriesArr array of channel-index entries for the matching
+     * responses in the file.
+     * @param fromIdx index of first entry to parse.
+     * @param toIdx index of last entry to parse, plus one.
+     * @param staArr an array of station name patterns.
+     * @param chaArr an array of channel name patterns.
+     * @param netArr an array of network name patterns.
+     * @param siteArr an array of site name patterns.
+     * @param beginDateObj the beginning of the date range, or null.
+     * @param endDateObj the end of the date range, or null.
+     * @return An array of 'ParsedResponse' objects.  If a channel ID
+     * could not be parsed then the last object in the array holds a
+     * null 'chanIdHldrObj' and the error message; if a response could
+     * not be parsed then the last object in the array holds a null
+     * 'respObj' and the error message.
+     */
+  protected ParsedResponse [] parseResponseGroup(String fileName,
+                       RespChannelIndex.Entry [] entriesArr,int fromIdx,
+                    int toIdx,String [] staArr,String [] chaArr,
+           String [] netArr,String [] siteArr,Date beginDateObj,
+                                                           Date endDateObj)
+  {
+    final ArrayList resultsList = new ArrayList(toIdx-fromIdx);
+    final RespFileParser parserObj = new RespFileParser(fileName);
+    try
+    {
+      ChanIdHldr chanIdHldrObj;
+      Response respObj;
+      for(int i=fromIdx; i<toIdx; ++i)
+      {  //for each entry; move to entry and find channel ID
+        if(parserObj.getErrorFlag() ||
+                                 !parserObj.seekChannelId(entriesArr[i]) ||
+                   (chanIdHldrObj=parserObj.findChannelId(staArr,chaArr,
+                           netArr,siteArr,beginDateObj,endDateObj)) == null)
+        {     //error finding channel ID; enter error and stop
+          resultsList.add(new ParsedResponse(null,null,
+                                          parserObj.getErrorMessage(),null));
+          break;
+        }
+        respObj = parserObj.readResponse();
+        resultsList.add(new ParsedResponse(chanIdHldrObj,respObj,
+                  ((respObj == null) ? parserObj.getErrorMessage() : null),
+                           (parserObj.getInfoFlag() ?
+                                     parserObj.getInfoMessage() : null)));
+        parserObj.clearInfoMessage();
+        if(respObj == null)
+          break;             //if error parsing response then stop
+      }
+    }
+    finally
+    {
+      parserObj.close();
+    }
+    return (ParsedResponse [])resultsList.toArray(
+                                   new ParsedResponse[resultsList.size()]);
+  }
+
+    /**
+     * Sends a parsed response (or the error from parsing it) to the
+     * callback object.  A response whose channel ID was already
+     * processed successfully is skipped (with a warning).
+     * @param fileName the name of the source file for the response.
+     * @param chanIdHldrObj the channel ID and end date for the response.
+     * @param channelIdFName the channel-ID filename for the response.
+     * @param respObj the response, or null if an error occurred.
+     * @param parseErrMsgStr the error message if 'respObj' is null.
+     * @param infoMsgStr info message from parsing the response, or null
+     * if none.
+     * @param respCallbackObj the callback object, or null if none.
+     * @param chanIdFNameVec Vector of channel-ID filenames for responses
+     * already processed successfully (added to).
+     * @return true if the info message was forwarded to the callback
+     * object (or was null); false if not.
+     */
+  protected boolean deliverResponse(String fileName,
+                        ChanIdHldr chanIdHldrObj,String channelIdFName,
+                            Response respObj,String parseErrMsgStr,
+                                             String infoMsgStr,
+                          RespCallback respCallbackObj,Vector chanIdFNameVec)
+  {
+    final ChannelId channelIdObj = chanIdHldrObj.channelIdObj;
+    if(respObj == null && respCallbackObj != null)
+    {    //error parsing response; send back error message
+      String str;
+      if(fileName != null && fileName.trim().length() > 0)
+      {  //file name not empty; include in error message
+        str = " from \"" + fileName + '\"';
+      }
+      else   //file name empty
+        str = UtilFns.EMPTY_STRING;
+      str = "Error parsing response" + str + ":  ";  //build err msg
+      respCallbackObj.responseInfo(fileName,
+                                  channelIdObj,chanIdHldrObj.respEndDateObj,
+                                                        channelIdFName,null,
+                                                     (str + parseErrMsgStr));
+    }
+    if(respObj != null && respCallbackObj != null)
+    {    //response parsed OK and callback object was given
+                   //process response and generate output:
+      if(chanIdFNameVec.indexOf(channelIdFName) < 0)
+      {  //channel ID not previously processed successfully
+                      //send back response data for processing:
+        if(respCallbackObj.responseInfo(fileName,
+                                channelIdObj,chanIdHldrObj.respEndDateObj,
+                                             channelIdFName,respObj,null))
+        {  //response processed OK; add ID to list of processed
+          chanIdFNameVec.add(channelIdFName);
+          ++numRespFound;      //increment responses found count
+        }
+        if(infoMsgStr != null)
+        {  //info message is available; forward it along
+          respCallbackObj.showInfoMessage(infoMsgStr);
+        }
+        return true;
+      }
+      else //channel ID was already processed
+      {         //send back warning message:
+        respCallbackObj.responseInfo(fileName,
+                                channelIdObj,chanIdHldrObj.respEndDateObj,
+                         channelIdFName,null,("WARNING:  Response with " +
+                                    "duplicate channel ID ignored in \"" +
+                                                        fileName + "\""));
+      }
+    }
+    return (infoMsgStr == null);
+  }
+
+    /**
+     * Finds and delivers responses with matching channel IDs using the
+     * binary response cache for the given file (see 'RespBinaryCache'),
+     * in place of parsing the file.  Each found channel ID and response
+     * is reported via the "RespCallback.responseInfo()' method, in the
+     * same way as by 'doReadResponses()'.
+     * @param staArr an array of station name patterns to search for,
+     * or a null or empty array to accept all station names.
+     * @param chaArr an array of channel name patterns to search for,
+     * or a null or empty array to accept all channel names.
+     * @param netArr an array of network name patterns to search for,
+     * or a null or empty array to accept all network names.
+     * @param siteArr an array of site name patterns to search for,
+     * or a null or empty array to accept all site names.
+     * @param beginDateObj the beginning of a date range to search for, or
+     * null for no begin date.  If no end-date is given then this becomes a
+     * single date that must be within the date-range of matched responses.
+     * @param endDateObj the end of a date range to search for, or
+     * null for no end date.
+     * @param respCallbackObj a 'RespCallback' object whose 'responseInfo()'
+     * method will be called to report on each response found, or 'null'
+     * for none.
+     * @param fileName the name of the RESP (or StationXML) file.
+     * @return The number of matching responses found, or -1 if the cache
+     * is not available for the file (in which case the file should be
+     * parsed).
+     */
+  protected int doReadCachedResponses(String [] staArr, String [] chaArr,
+                     String [] netArr, String [] siteArr, Date beginDateObj,
+                              Date endDateObj, RespCallback respCallbackObj,
+                                                            String fileName)
+  {
+    final RespBinaryCache cacheObj;
+    if((cacheObj=loadResponseCache(fileName)) == null)
+      return -1;        //cache not available
+    final Vector chanIdFNameVec = new Vector();  //Vector of chan ID fnames
+    final int numEntries = cacheObj.getNumEntries();
+    int numIdMatch = 0;
+    ChanIdHldr chanIdHldrObj;
+    Response respObj;
+    String channelIdFName,str,infoMsgStr = null;
+    for(int i=0; i<numEntries; ++i)
+    {    //for each response in cache
+      if(!cacheObj.entryMatches(i,staArr,chaArr,netArr,siteArr,
+                                                 beginDateObj,endDateObj))
+      {  //channel ID not a match
+        continue;
+      }
+      ++numIdMatch;
+      chanIdHldrObj = cacheObj.getChanIdHldr(i);
+                      //generate filename from channel ID info
+                      // (if allowing multiple outputs with same
+                      // net.sta.loc.cha then include date code):
+      channelIdFName = RespUtils.channelIdToFName(
+                                chanIdHldrObj.channelIdObj,multiOutputFlag);
+      respObj = cacheObj.getResponse(i);
+      if((str=cacheObj.getInfoMessage(i)) != null)
+        infoMsgStr = str;    //(kept until forwarded, as with parser)
+      if(deliverResponse(fileName,chanIdHldrObj,channelIdFName,respObj,
+                   ((respObj == null) ? cacheObj.getErrorMessage() : null),
+                             infoMsgStr,respCallbackObj,chanIdFNameVec))
+      {  //info message (if any) was forwarded; clear it
+        infoMsgStr = null;
+      }
+      if(respObj == null)    //if error parsing response then stop
+        break;               // (as when parsing the file)
+      if(!multiOutputFlag)   //if only 1 output per net.sta.loc.cha then
+        break;               //stop after first match
+    }
+    return numIdMatch;
+  }
+
+    /**
+     * Finds the first response with a matching channel ID using the
+     * binary response cache for the given file and sends it to the
+     * callback object, in the same way as the single-file path of
+     * 'findResponses()'.
+     * @param staArr an array of station name patterns to search for,
+     * or a null or empty array to accept all station names.
+     * @param chaArr an array of channel name patterns to search for,
+     * or a null or empty array to accept all channel names.
+     * @param netArr an array of network name patterns to search for,
+     * or a null or empty array to accept all network names.
+     * @param siteArr an array of site name patterns to search for,
+     * or a null or empty array to accept all site names.
+     * @param beginDateObj the beginning of a date range to search for, or
+     * null for no begin date.
+     * @param endDateObj the end of a date range to search for, or
+     * null for no end date.
+     * @param respCallbackObj a 'RespCallback' object whose 'responseInfo()'
+     * method will be called to report on the response found.
+     * @param cacheObj the response cache for the file.
+     * @param fileName the name of the RESP (or StationXML) file.
+     * @return true if successful; false if error (in which case
+     * 'getErorMessage()' may be used to see information about the error).
+     */
+  protected boolean findCachedResponse(String [] staArr, String [] chaArr,
+                     String [] netArr, String [] siteArr, Date beginDateObj,
+                              Date endDateObj, RespCallback respCallbackObj,
+                                  RespBinaryCache cacheObj, String fileName)
+  {
+    ChannelId channelIdObj = null;      //handle for channel ID
+    Date respEndDateObj = null;         //end-date for channel
+    Response respObj = null;            //handle for response object
+    String infoMsgStr = null;           //info message for response
+    int idx = 0;
+    final int numEntries = cacheObj.getNumEntries();
+    while(idx < numEntries && !cacheObj.entryMatches(idx,staArr,chaArr,
+                                 netArr,siteArr,beginDateObj,endDateObj))
+    {    //for each non-matching response in cache
+      ++idx;
+    }
+    if(idx < numEntries)
+    {    //matching channel ID found
+      channelIdObj = cacheObj.getChanIdHldr(idx).channelIdObj;
+      respEndDateObj = cacheObj.getChanIdHldr(idx).respEndDateObj;
+      infoMsgStr = cacheObj.getInfoMessage(idx);
+      if((respObj=cacheObj.getResponse(idx)) == null)
+      {  //error decoding response; set error message
+        setErrorMessage("Error parsing response from \"" + fileName +
+                                    "\":  " + cacheObj.getErrorMessage());
+      }
+    }
+    else
+    {    //no matching channel ID found; set message
+      setErrorMessage("Unable to find matching channel ID in \"" +
+                                                         fileName + "\"");
+    }
+         //send response information to callback (even if error):
+    respCallbackObj.responseInfo(fileName,channelIdObj,respEndDateObj,
+                   RespUtils.channelIdToFName(channelIdObj,multiOutputFlag),
+                                                              respObj,null);
+    if(respObj == null)        //if error then
+      return false;            //return flag
+    ++numRespFound;            //increment responses found count
+    if(infoMsgStr != null)
+    {    //info message is available; forward it along
+      respCallbackObj.showInfoMessage(infoMsgStr);
+    }
+    return true;
+  }
+
+    /**
+     * Loads the binary response cache for the given file, building (and
+     * saving) the cache if it is missing or out of date.
+     * @param fileName the name of the RESP (or StationXML) file.
+     * @return The 'RespBinaryCache' object, or null if the file is not
+     * a local file or the cache could not be built (for instance, if a
+     * station/channel ID in the file cannot be parsed, which will then
+     * be reported when the file is parsed).
+     */
+  protected RespBinaryCache loadResponseCache(String fileName)
+  {
+    if(!new File(fileName).isFile())
+      return null;           //not a local file (URL)
+    final RespBinaryCache cacheObj = new RespBinaryCache(fileName);
+    return cacheObj.loadOrBuild() ? cacheObj : null;
+  }
+
     /**
      * Finds responses with matching channel IDs.  Each found channel ID
      * and response is reported via the "RespCallback.responseInfo()'
@@ -904,6 +1363,10 @@ public class RespProcessor
      * @param totalSensitFlag true to use stage 0 (total) sensitivity;
      * false to use computed sensitivity.
      * @param b62XValue sample value for polynomial blockette (62).
+     * @param totalOnlyFlag true to only generate the response values for
+     * all stages put together (see 'OutputGenerator.setTotalOnlyFlag()').
+     * @param groupDelayFlag true to also calculate group-delay values
+     * (see 'OutputGenerator.setGroupDelayFlag()').
      * @return An 'OutputGenerator' object loaded with complex spectra
      * response output data; or null if error (in which case
      * 'getErorMessage()' may be used to see information about the error).
@@ -914,10 +1377,13 @@ public class RespProcessor
                             boolean showInputFlag,boolean listInterpOutFlag,
                           boolean listInterpInFlag,double listInterpTension,
                             boolean unwrapPhaseFlag,boolean totalSensitFlag,
-                                                           double b62XValue)
+                                   double b62XValue,boolean totalOnlyFlag,
+                                                     boolean groupDelayFlag)
   {
          //create output generator:
     final OutputGenerator outGenObj = new OutputGenerator(respObj);
+    outGenObj.setTotalOnlyFlag(totalOnlyFlag);
+    outGenObj.setGroupDelayFlag(groupDelayFlag);
          //check validity of response:
     if(!outGenObj.checkResponse(       //if 'def', don't check units
                         outUnitsConvIdx==OutputGenerator.DEFAULT_UNIT_CONV))
@@ -946,6 +1412,103 @@ public class RespProcessor
     return outGenObj;
   }
 
+    /**
+     * Processes the given response object, calculating the complex
+     * spectra output values.
+     * @param inFName the file name associated with the response object.
+     * @param respObj the response object to be processed.
+     * @param freqArr an array of frequency values to use.
+     * @param logSpacingFlag true to indicate that the frequency spacing
+     * is logarithmic; false to indicate linear spacing.
+     * @param outUnitsConvIdx output units conversion index for the
+     * requested output units type; one of the '..._UNIT_CONV' values.
+     * @param startStageNum if greater than zero then the start of the
+     * range of stage sequence numbers to use, otherwise all stages
+     * are used.
+     * @param stopStageNum if greater than zero then the end of the
+     * range of stage sequence numbers to use, otherwise only the single
+     * stage specified by 'startStageNum' is used.
+     * @param useDelayFlag true to use estimated delay in phase calculation.
+     * @param showInputFlag true to show RESP input text (sent to stdout).
+     * @param listInterpOutFlag true to interpolate amp/phase output
+     * from responses containing List blockettes.
+     * @param listInterpInFlag true to interpolate amp/phase input from
+     * List blockettes in responses (before output is calculated).
+     * @param listInterpTension tension value for List-blockette
+     * interpolation algorithm.
+     * @param unwrapPhaseFlag true to unwrap phase output values.
+     * @param totalSensitFlag true to use stage 0 (total) sensitivity;
+     * false to use computed sensitivity.
+     * @param b62XValue sample value for polynomial blockette (62).
+     * @param totalOnlyFlag true to only generate the response values for
+     * all stages put together (see 'OutputGenerator.setTotalOnlyFlag()').
+     * @return An 'OutputGenerator' object loaded with complex spectra
+     * response output data; or null if error (in which case
+     * 'getErorMessage()' may be used to see information about the error).
+     */
+  public OutputGenerator processResponse(String inFName,Response respObj,
+               double [] freqArr,boolean logSpacingFlag,int outUnitsConvIdx,
+                    int startStageNum,int stopStageNum,boolean useDelayFlag,
+                            boolean showInputFlag,boolean listInterpOutFlag,
+                          boolean listInterpInFlag,double listInterpTension,
+                            boolean unwrapPhaseFlag,boolean totalSensitFlag,
+                                   double b62XValue,boolean totalOnlyFlag)
+  {
+    return processResponse(inFName,respObj,freqArr,logSpacingFlag,
+                                 outUnitsConvIdx,startStageNum,stopStageNum,
+                               useDelayFlag,showInputFlag,listInterpOutFlag,
+                                         listInterpInFlag,listInterpTension,
+                               unwrapPhaseFlag,totalSensitFlag,b62XValue,
+                                                       totalOnlyFlag,false);
+  }
+
+    /**
+     * Processes the given response object, calculating the complex
+     * spectra output values.
+     * @param inFName the file name associated with the response object.
+     * @param respObj the response object to be processed.
+     * @param freqArr an array of frequency values to use.
+     * @param logSpacingFlag true to indicate that the frequency spacing
+     * is logarithmic; false to indicate linear spacing.
+     * @param outUnitsConvIdx output units conversion index for the
+     * requested output units type; one of the '..._UNIT_CONV' values.
+     * @param startStageNum if greater than zero then the start of the
+     * range of stage sequence numbers to use, otherwise all stages
+     * are used.
+     * @param stopStageNum if greater than zero then the end of the
+     * range of stage sequence numbers to use, otherwise only the single
+     * stage specified by 'startStageNum' is used.
+     * @param useDelayFlag true to use estimated delay in phase calculation.
+     * @param showInputFlag true to show RESP input text (sent to stdout).
+     * @param listInterpOutFlag true to interpolate amp/phase output
+     * from responses containing List blockettes.
+     * @param listInterpInFlag true to interpolate amp/phase input from
+     * List blockettes in responses (before output is calculated).
+     * @param listInterpTension tension value for List-blockette
+     * interpolation algorithm.
+     * @param unwrapPhaseFlag true to unwrap phase output values.
+     * @param totalSensitFlag true to use stage 0 (total) sensitivity;
+     * false to use computed sensitivity.
+     * @param b62XValue sample value for polynomial blockette (62).
+     * @return An 'OutputGenerator' object loaded with complex spectra
+     * response output data; or null if error (in which case
+     * 'getErorMessage()' may be used to see information about the error).
+     */
+  public OutputGenerator processResponse(String inFName,Response respObj,
+               double [] freqArr,boolean logSpacingFlag,int outUnitsConvIdx,
+                    int startStageNum,int stopStageNum,boolean useDelayFlag,
+                            boolean showInputFlag,boolean listInterpOutFlag,
+                          boolean listInterpInFlag,double listInterpTension,
+                            boolean unwrapPhaseFlag,boolean totalSensitFlag,
+                                                           double b62XValue)
+  {
+    return processResponse(inFName,respObj,freqArr,logSpacingFlag,
+                                 outUnitsConvIdx,startStageNum,stopStageNum,
+                               useDelayFlag,showInputFlag,listInterpOutFlag,
+                                         listInterpInFlag,listInterpTension,
+                           unwrapPhaseFlag,totalSensitFlag,b62XValue,false);
+  }
+
     /**
      * Processes the given response object, calculating the complex
      * spectra output values.
@@ -1090,7 +1653,39 @@ public class RespProcessor
                                Run.HDR_CMT_STR,", ",UtilFns.newline) : null;
 
          //generate output file(s):
-    if(respTypeIndex != Run.RESP_CS_TYPEIDX)
+    if(respTypeIndex == Run.RESP_GD_TYPEIDX)
+    {    //group-delay output selected
+      if(stmObj == null)
+      {  //not 'stdio' flag; write data to output file
+        final String outNameStr = "GD." + channelIdFName;
+        if(!outGenObj.writeGroupDelayData(
+                                      outputDirectory,outNameStr,headerStr))
+        {       //error writing to file
+          setErrorMessage("Error writing output file for \"" +
+                    channelIdFName + "\":  " + outGenObj.getErrorMessage());
+          return false;
+        }
+        outputFileNamesStr = "\"" + outNameStr + "\"";     //save name
+        outputFileNamesCount = 1;      //set number of names in string
+      }
+      else
+      {  //'stdio' mode; write data to 'stdout'
+        stmObj.println(LINE_SEP_STR);   //show separator
+        stmObj.println("GD." + channelIdFName);        //show name info
+        stmObj.println(LINE_SEP_STR);   //show separator
+        final String outNameStr = "(stdout)";
+        if(!outGenObj.writeGroupDelayData(new OutputStreamWriter(stmObj),
+                                                      outNameStr,headerStr))
+        {     //error writing to 'stdout'
+          setErrorMessage("Error writing output for \"" +
+                    channelIdFName + "\":  " + outGenObj.getErrorMessage());
+          return false;
+        }
+        outputFileNamesStr = "\"" + outNameStr + "\"";     //save name
+        outputFileNamesCount = 1;      //set number of names in string
+      }
+    }
+    else if(respTypeIndex != Run.RESP_CS_TYPEIDX)
     {    //amp/phase output selected
       if(stmObj == null)
       {  //not 'stdio' flag
@@ -1212,6 +1807,76 @@ public class RespProcessor
     }
   }
 
+    /**
+     * Sets whether or not channel index files are used when parsing
+     * RESP files.  When enabled, the index file for each RESP file (see
+     * 'RespChannelIndex') is loaded, or created if it is missing or out
+     * of date, and used to seek directly to the matching responses.
+     * @param flgVal true to use channel index files.
+     */
+  public void setChannelIndexFlag(boolean flgVal)
+  {
+    channelIndexFlag = flgVal;
+  }
+
+    /**
+     * Sets the number of threads used to parse the responses in a RESP
+     * file.  When more than one thread is given and multiple outputs with
+     * the same "net.sta.loc.cha" are allowed, the responses in each local
+     * RESP file are parsed concurrently (the results are processed in
+     * file order, as with serial parsing).
+     * @param numThreads number of threads to use, or 1 (or less) for
+     * serial parsing.
+     */
+  public void setParseThreads(int numThreads)
+  {
+    parseThreads = numThreads;
+  }
+
+    /**
+     * Returns the number of threads used to parse the responses in a
+     * RESP file.
+     * @return The number of threads used to parse the responses in a
+     * RESP file.
+     */
+  public int getParseThreads()
+  {
+    return parseThreads;
+  }
+
+    /**
+     * Sets whether or not binary response cache files are used in place
+     * of parsing RESP (and StationXML) files.  When enabled, the cache
+     * file for each local input file (see 'RespBinaryCache') is loaded,
+     * or created if it is missing or out of date, and the responses are
+     * read from it instead of from the input file.
+     * @param flgVal true to use binary response cache files.
+     */
+  public void setResponseCacheFlag(boolean flgVal)
+  {
+    responseCacheFlag = flgVal;
+  }
+
+    /**
+     * Returns whether or not binary response cache files are used in
+     * place of parsing RESP (and StationXML) files.
+     * @return true if binary response cache files are used.
+     */
+  public boolean getResponseCacheFlag()
+  {
+    return responseCacheFlag;
+  }
+
+    /**
+     * Returns whether or not channel index files are used when parsing
+     * RESP files.
+     * @return true if channel index files are used.
+     */
+  public boolean getChannelIndexFlag()
+  {
+    return channelIndexFlag;
+  }
+
     /**
      * @return number of responses found by last call to 'findResponses()'.
      */
@@ -1279,4 +1944,25 @@ public class RespProcessor
   {
     return numberErrors;
   }
+
+    /**
+     * Class ParsedResponse holds the results of parsing one response
+     * (used by 'doReadResponsesParallel()').
+     */
+  protected static class ParsedResponse
+  {
+    public final ChanIdHldr chanIdHldrObj;   //channel ID, or null if error
+    public final Response respObj;           //response, or null if error
+    public final String errMsgStr;           //error message, or null
+    public final String infoMsgStr;          //info message, or null
+
+    public ParsedResponse(ChanIdHldr chanIdHldrObj,Response respObj,
+                                        String errMsgStr,String infoMsgStr)
+    {
+      this.chanIdHldrObj = chanIdHldrObj;
+      this.respObj = respObj;
+      this.errMsgStr = errMsgStr;
+      this.infoMsgStr = infoMsgStr;
+    }
+  }
 }
@@ -45,6 +45,10 @@
 //   8/26/2014 -- [ET]  Added 'globStringSiteArrMatch()' method; modified
 //                      'findRespfiles()' method to make "--" match
 //                      "no location".
+//  10/18/2026 -- [AG]  Modified 'parseRespDate()' to synchronize on the
+//                      shared date formatter (for concurrent parsers).
+//                      Added 'createReplacementFile()' and
+//                      'replaceFile()' methods.
 //
 
 package com.isti.jevalresp;
@@ -100,7 +104,8 @@ public class RespUtils
      * DateFormat object for parsing and formatting 'evalresp'-style
      * date/time strings (that include fractional seconds) to/from Date
      * objects.  Uses a pattern string of "yyyy,DDD,HH:mm:ss.SSS" and is
-     * configured to the GMT time zone.
+     * configured to the GMT time zone.  Access from multiple threads
+     * must be synchronized on this object.
      */
   public static final DateFormat respDateMsFormatter =
                           UtilFns.createDateFormatObj("yyyy,D,HH:mm:ss.SSS",
@@ -109,6 +114,7 @@ public class RespUtils
      * DateFormat object for formatting FISSURES-style date/time
      * strings from Date objects.  Uses a pattern string of
      * "yyyyDDD'T'HH:mm:ss.SSS'z'" and is configured to the GMT time zone.
+     * Access from multiple threads must be synchronized on this object.
      */
   public static final DateFormat fissDateFormatter =
                     UtilFns.createDateFormatObj("yyyyDDD'T'HH:mm:ss.SSS'z'",
@@ -1159,7 +1165,11 @@ public class RespUtils
       }
       try
       {            //parse into Date object and return
-        return respDateMsFormatter.parse(dateStr);
+        synchronized(respDateMsFormatter)
+        {     //synchronize on shared formatter (may be used by
+              // concurrent parsers):
+          return respDateMsFormatter.parse(dateStr);
+        }
       }
       catch(ParseException ex) {}      //if error then return null
     }
@@ -1625,6 +1635,43 @@ public class RespUtils
     return fileArr;          //return array of 'File' objects
   }
 
+    /**
+     * Creates a new, empty temporary file in the same directory as the
+     * given file, to be written and then moved into place via
+     * 'replaceFile()' (so that readers of the given file never see a
+     * partially-written file).
+     * @param fileObj the file that the temporary file is to replace.
+     * @return A new 'File' object for the temporary file.
+     * @throws IOException if the temporary file could not be created.
+     */
+  public static File createReplacementFile(File fileObj) throws IOException
+  {
+    return File.createTempFile(fileObj.getName() + ".",".tmp",
+                                  fileObj.getAbsoluteFile().getParentFile());
+  }
+
+    /**
+     * Renames the given (fully-written) temporary file to the given
+     * destination file, replacing any existing destination file.  If
+     * the rename fails then the temporary file is deleted.
+     * @param tmpFileObj the temporary file (as created via
+     * 'createReplacementFile()').
+     * @param destFileObj the destination file.
+     * @return true if successful; false if the file could not be renamed.
+     */
+  public static boolean replaceFile(File tmpFileObj,File destFileObj)
+  {
+    if(tmpFileObj.renameTo(destFileObj))
+      return true;
+              //rename fails on some platforms if destination file exists;
+              // remove destination file and try again:
+    destFileObj.delete();
+    if(tmpFileObj.renameTo(destFileObj))
+      return true;
+    tmpFileObj.delete();
+    return false;
+  }
+
     /**
      * Resolves the given name to an array of 'File' objects.
      * @param searchPathStr path to search for files, or null or empty
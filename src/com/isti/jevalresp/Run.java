@@ -160,6 +160,14 @@
 //   8/26/2014 -- [ET]  Version 1.78:  Modified to properly handle
 //                      location/site value of "--" (meaning location
 //                      code empty).
+//  10/18/2026 -- [AG]  Added response-output ('-r') type "gd" (group
+//                      delay).
+//                      Added '-idx' (use/create channel index files)
+//                      parameter.
+//                      Added '-pthreads' (number of threads for parsing
+//                      responses in a RESP file) parameter.
+//                      Added '-rbc' (use/create binary response cache
+//                      files) parameter.
 //
 
 package com.isti.jevalresp;
@@ -204,11 +212,12 @@ public class Run
     public static final String TYPE_SPACE_LONGSTRS[] =
             { "Logarithmic", "Linear" };
     /** Strings for 'responseType' (-r) parameter. */
-    public static final String RESP_TYPE_STRS[] = { "ap", "cs", "ap2", "fap" };
+    public static final String RESP_TYPE_STRS[] =
+            { "ap", "cs", "ap2", "fap", "gd" };
     /** Longer versions of strings for 'responseType' (-r) parameter. */
     public static final String RESP_TYPE_LONGSTRS[] =
             { "Amplitude/Phase", "Complex-Spectra",
-                    "Amplitude/Phase2", "fAmplitude/Phase" };
+                    "Amplitude/Phase2", "fAmplitude/Phase", "Group-Delay" };
     /** Index value (0) for "ap" response type (separate amp/phase files). */
     public static final int RESP_AP_TYPEIDX = 0;
     /** Index value (1) for "cs" response type (complex-spectra file). */
@@ -217,6 +226,8 @@ public class Run
     public static final int RESP_AP2_TYPEIDX = 2;
     /** Index value (3) for "fap" response type (single, unwrapped file). */
     public static final int RESP_FAP_TYPEIDX = 3;
+    /** Index value (4) for "gd" response type (group-delay file). */
+    public static final int RESP_GD_TYPEIDX = 4;
     /** Default value for List-blockette interpolation. */
     public static final double INTERP_TENSION_DEFVAL = 1000.0;
     /** String containing leading comment chars for output file headers. */
@@ -258,6 +269,9 @@ public class Run
     protected double listInterpTension = 0.0;      //tension for List interp
     protected boolean unwrapPhaseFlag = false;     //unwrap phase values
     protected boolean totalSensitFlag = false;     //use stage 0 sensitivity
+    protected boolean channelIndexFlag = false;    //use channel index files
+    protected int parseThreads = 1;           //# of threads for parsing
+    protected boolean responseCacheFlag = false;   //use response cache files
     protected double b62XValue = 0.0;         //sample value for poly blockette
     protected int respTypeIndex = RESP_AP_TYPEIDX; //idx for amp/phase output
     protected String fileNameString = UtilFns.EMPTY_STRING;  //fname entered
@@ -301,7 +315,8 @@ public class Run
     protected final CfgPropItem locationIdProp =
             paramProps.add("locationId","*","l","Requested location ID(s)");
 
-    /** Type of response output, AP (amp/phase) or CS (complex-spectra). */
+    /** Type of response output, AP (amp/phase), CS (complex-spectra)
+     * or GD (group-delay). */
     protected final CfgPropItem responseTypeProp =
             paramProps.add("responseType",RESP_TYPE_STRS[0],"r",
                     "Type of output (" + optionsArrToString(RESP_TYPE_STRS) + ")");
@@ -392,6 +407,21 @@ public class Run
             paramProps.add("totalSensitFlag",Boolean.FALSE,
                     "ts","Use stage 0 (total) sensitivity");
 
+    /** Flag set true to use (and create) channel index files. */
+    protected final CfgPropItem channelIndexFlagProp =
+            paramProps.add("channelIndexFlag",Boolean.FALSE,
+                    "idx","Use/create channel index (.idx) files");
+
+    /** Number of threads for parsing the responses in a RESP file. */
+    protected final CfgPropItem parseThreadsProp =
+            paramProps.add("parseThreads",new Integer(1),
+                    "pthreads","Threads for parsing responses (with -m)");
+
+    /** Flag set true to use (and create) binary response cache files. */
+    protected final CfgPropItem responseCacheFlagProp =
+            paramProps.add("responseCacheFlag",Boolean.FALSE,
+                    "rbc","Use/create binary response cache (.rbc) files");
+
     /** Sample value for polynomial blockette (62). */
     protected final CfgPropItem b62XValueProp =
             paramProps.add("b62XValue",new Double(0.0),
@@ -906,6 +936,9 @@ public class Run
         listInterpTension = interpTensionProp.doubleValue();
         unwrapPhaseFlag = unwrapPhaseFlagProp.booleanValue();
         totalSensitFlag = totalSensitFlagProp.booleanValue();
+        channelIndexFlag = channelIndexFlagProp.booleanValue();
+        parseThreads = parseThreadsProp.intValue();
+        responseCacheFlag = responseCacheFlagProp.booleanValue();
         multiOutFlag = multiOutFlagProp.booleanValue();   //true if multi-output
         multiSvrFlag = multiSvrFlagProp.booleanValue();   //true if multi-servers
         headerFlag = headerFlagProp.booleanValue();  //true for header in output
@@ -1000,6 +1033,9 @@ public class Run
         final RespProcessor respProcObj = new RespProcessor(
                 multiOutFlag,headerFlag,outputDirectory);
         respCallBackObj.setRespProcObj(respProcObj);      //set object to use
+        respProcObj.setChannelIndexFlag(channelIndexFlag);
+        respProcObj.setParseThreads(parseThreads);
+        respProcObj.setResponseCacheFlag(responseCacheFlag);
         //find responses (each one is processed and written via
         // callback through the 'RespCallback' object):
         if(!respProcObj.findResponses(staNamesArray,chaNamesArray,netNamesArray,
@@ -33,6 +33,11 @@
 //                      'totalSensitFlag' to 'rBlksEvresp()' method.
 //  10/23/2013 -- [ET]  Added optional parameter 'b62XValue' to method
 //                      'rBlksEvresp()'.
+//  10/18/2026 -- [AG]  Modified to only generate response values for all
+//                      stages together ("total-only" mode).
+//                      Modified to check the sensitivity of the normalized
+//                      response (since the given response is no longer
+//                      modified by normalization).
 //
 
 package com.isti.jevalresp;
@@ -199,7 +204,7 @@ public class RunBlks
                                     stopStageNum,useDelayFlag,showInputFlag,
                                          listInterpOutFlag,listInterpInFlag,
                                           listInterpTension,unwrapPhaseFlag,
-                                        totalSensitFlag,b62XValue)) == null)
+                                   totalSensitFlag,b62XValue,true)) == null)
                 {  //error processing response; show error message
                   System.err.println(respProcObj.getErrorMessage());
                   if(respProcObj.getNumRespFound() > 1)    //if >1 response
@@ -226,7 +231,7 @@ public class RunBlks
                 if(respObj.stages != null &&
                     outGenObj.getNumCalcStages() >= respObj.stages.length &&
                                                           !RespUtils.isZero(
-                                 fVal=RespUtils.getRespSensitivity(respObj)))
+                   fVal=RespUtils.getRespSensitivity(outGenObj.getRespObj())))
                 {  //response OK, all stages calc'd & resp sens not zero
                         //calc percentage difference in sensitivity values:
                   if(Math.abs((fVal-outGenObj.getCalcSensitivity())/fVal) >=
@@ -6,6 +6,14 @@
 //                     'totalSensitFlag' to 'processOneResponse()' method.
 // 10/23/2013 -- [ET]  Added optional parameter 'b62XValue' to method
 //                     'processOneResponse()'.
+// 10/18/2026 -- [AG]  Added 'findOneResponse()' method and methods
+//                     'getSingleResponseAmpVal()' that use a previously-
+//                     found response; modified 'getSingleResponseAmpVal()'
+//                     to use 'OutputGenerator.calculateSingleResponse()'.
+//                     Modified 'processOneResponse()' to only generate
+//                     response values for all stages together.
+//                     Modified 'findOneResponse()' to return null (with
+//                     exit status 16) if errors are flagged.
 //
 
 package com.isti.jevalresp;
@@ -120,7 +128,7 @@ public class RunDirect extends Run
                                  freqArr,true,outUnitsConvIdx,startStageNum,
                           stopStageNum,useDelayFlag,false,listInterpOutFlag,
                                          listInterpInFlag,listInterpTension,
-                        unwrapPhaseFlag,totalSensitFlag,b62XValue)) == null)
+                   unwrapPhaseFlag,totalSensitFlag,b62XValue,true)) == null)
                 {  //error processing response; enter error message
                   setErrorMessage(respProcObj.getErrorMessage());
                   if(respProcObj.getNumRespFound() > 1)    //if >1 response
@@ -320,6 +328,182 @@ public class RunDirect extends Run
        stopStageNum,false,false,false,0.0,false,false,0.0,stdioFlag);
   }
 
+  /**
+   * Finds one response and prepares it for evaluation, returning an
+   * 'OutputGenerator' object holding the checked and normalized response.
+   * The returned object may be passed to the 'getSingleResponseAmpVal()'
+   * methods that accept an 'OutputGenerator' to quickly evaluate the
+   * response at any number of frequencies.  If more than one response
+   * matches then the first one found is used; if errors are flagged for
+   * the first one found then null is returned and the exit status value
+   * is set to 16 (as with 'processOneResponse()').
+   * @param stationStr station name to search for, or a null or empty
+   * string to accept all station names.
+   * @param channelStr channel name to search for, or a null or empty
+   * string to accept all channel names.
+   * @param networkStr network name to search for, or a null or empty
+   * string to accept all network names.
+   * @param siteStr site name to search for, or a null or empty string
+   * to accept all site names.
+   * @param dateObj date to search for, or null to accept all dates.
+   * @param outUnitsConvIdx output units conversion index for the
+   * requested output units type; one of the '..._UNIT_CONV' values.
+   * @param fileNameParam a specific filename (or directory) to use, or
+   * a null or empty string for all matching files.
+   * @param startStageNum if greater than zero then the start of the
+   * range of stage sequence numbers to use, otherwise all stages
+   * are used.
+   * @param stopStageNum if greater than zero then the end of the
+   * range of stage sequence numbers to use, otherwise only the single
+   * stage specified by 'startStageNum' is used.
+   * @param stdioFlag true for input from 'stdin', false for input from
+   * file.
+   * @return An 'OutputGenerator' object, or null if an error occurred (in
+   * which case 'getErrorMessage()' may be used to fetch information
+   * about the error).
+   */
+  public OutputGenerator findOneResponse(String stationStr,
+                       String channelStr, String networkStr, String siteStr,
+                                    Date dateObj, final int outUnitsConvIdx,
+                                                       String fileNameParam,
+                            final int startStageNum, final int stopStageNum,
+                                                    final boolean stdioFlag)
+  {
+              //convert null ID strings to empty strings:
+    if(stationStr == null)
+      stationStr = UtilFns.EMPTY_STRING;
+    if(channelStr == null)
+      channelStr = UtilFns.EMPTY_STRING;
+    if(networkStr == null)
+      networkStr = UtilFns.EMPTY_STRING;
+    if(siteStr == null)
+      siteStr = UtilFns.EMPTY_STRING;
+    final Vector outGenVec = new Vector();       //OutputGenerator objs
+         //flag set true if the first response found had errors:
+    final boolean [] respErrFlagArr = new boolean [] { false };
+         //create response processor object:
+    final RespProcessor respProcObj = new RespProcessor(false,false,
+                                                           outputDirectory);
+         //find responses (each one is reported via 'RespCallback'):
+    if(!respProcObj.findResponses(stationStr,channelStr,networkStr,
+              siteStr,dateObj,null,fileNameParam,stdioFlag,
+          new RespCallback()      //anonymous class to handle callback
+          {        //implement do-nothing set method
+            public void setRespProcObj(RespProcessor respProcObj) {}
+                   //for each response found; check and normalize it:
+            public boolean responseInfo(String fileName,
+                                 ChannelId channelIdObj,Date respEndDateObj,
+                    String channelIdFName,Response respObj,String errMsgStr)
+            {
+              if(respObj != null)
+              {    //response object contains data
+                if(outGenVec.size() > 0)    //if response already found
+                  return true;              // then ignore this one
+                final OutputGenerator outGenObj =
+                                               new OutputGenerator(respObj);
+                   //check validity of response:
+                if(!outGenObj.checkResponse(   //if 'def', don't check units
+                        outUnitsConvIdx==OutputGenerator.DEFAULT_UNIT_CONV))
+                {  //error in response; enter error message
+                  setErrorMessage("Error in response from \"" + fileName +
+                                       "\":  " + outGenObj.getErrorMessage());
+                  if(respProcObj.getNumRespFound() <= 1)   //if first resp
+                    respErrFlagArr[0] = true;              // then flag err
+                  return false;        //indicate not processed OK
+                }
+                   //response checked OK; do normalization:
+                if(!outGenObj.normalizeResponse(startStageNum,stopStageNum))
+                {  //normalization error; enter error message
+                  setErrorMessage("Error normalizing response from \"" +
+                            fileName + "\":  " + outGenObj.getErrorMessage());
+                  if(respProcObj.getNumRespFound() <= 1)   //if first resp
+                    respErrFlagArr[0] = true;              // then flag err
+                  return false;        //indicate not processed OK
+                }
+                outGenVec.add(outGenObj);
+                return true;           //indicate processed OK
+              }
+                   //no data in response object
+              if(errMsgStr != null)              //if not null then
+                setErrorMessage(errMsgStr);      //enter error message
+              return false;            //indicate not processed OK
+            }
+            public void showInfoMessage(String msgStr)
+            {
+            }
+          }))
+    {    //error finding responses; set error code and message
+      setErrorMessage(respProcObj.getErrorMessage());
+      return null;
+    }
+    if(respProcObj.getErrorFlag() || respErrFlagArr[0])
+    {    //errors were flagged
+      exitStatusValue = 16;       //set non-zero exit status code
+      return null;
+    }
+    if(outGenVec.size() <= 0)
+    {    //no responses found
+      if(getErrorFlag())          //if errors flagged then
+        exitStatusValue = 16;     //set non-zero exit status code
+      else
+        setErrorMessage("No matching responses found");
+      return null;
+    }
+    return (OutputGenerator)outGenVec.get(0);
+  }
+
+  /**
+   * Evaluates a previously-found response at a single frequency,
+   * returning the resulting amplitude value.  No arrays are created,
+   * so this method may be called repeatedly to quickly evaluate the
+   * response at different frequencies.
+   * @param outGenObj an 'OutputGenerator' object holding the response,
+   * as returned by 'findOneResponse()'.
+   * @param outUnitsConvIdx output units conversion index for the
+   * requested output units type; one of the '..._UNIT_CONV' values.
+   * @param freqVal frequency value to use.
+   * @param startStageNum if greater than zero then the start of the
+   * range of stage sequence numbers to use, otherwise all stages
+   * are used.
+   * @param stopStageNum if greater than zero then the end of the
+   * range of stage sequence numbers to use, otherwise only the single
+   * stage specified by 'startStageNum' is used.
+   * @return A 'Double' object containing the resulting amplitude value,
+   * or null if an error occurred (in which case 'getErrorMessage()' may
+   * be used to fetch information about the error).
+   */
+  public Double getSingleResponseAmpVal(OutputGenerator outGenObj,
+                                         int outUnitsConvIdx, double freqVal,
+                                       int startStageNum, int stopStageNum)
+  {
+    final double [] valArr = new double[2];
+    if(!outGenObj.calculateSingleResponse(freqVal,outUnitsConvIdx,
+                       startStageNum,stopStageNum,false,false,0.0,valArr))
+    {  //error calculating response; set error message
+      setErrorMessage(outGenObj.getErrorMessage());
+      return null;
+    }
+    return new Double(Math.sqrt(valArr[0]*valArr[0]+valArr[1]*valArr[1]));
+  }
+
+  /**
+   * Evaluates a previously-found response (using all stages) at a
+   * single frequency, returning the resulting amplitude value.
+   * @param outGenObj an 'OutputGenerator' object holding the response,
+   * as returned by 'findOneResponse()'.
+   * @param outUnitsConvIdx output units conversion index for the
+   * requested output units type; one of the '..._UNIT_CONV' values.
+   * @param freqVal frequency value to use.
+   * @return A 'Double' object containing the resulting amplitude value,
+   * or null if an error occurred (in which case 'getErrorMessage()' may
+   * be used to fetch information about the error).
+   */
+  public Double getSingleResponseAmpVal(OutputGenerator outGenObj,
+                                        int outUnitsConvIdx, double freqVal)
+  {
+    return getSingleResponseAmpVal(outGenObj,outUnitsConvIdx,freqVal,0,0);
+  }
+
   /**
    * Finds and processes one response at a single frequency, returning
    * the resulting amplitude value.
@@ -355,21 +539,14 @@ public class RunDirect extends Run
     int startStageNum, int stopStageNum, boolean stdioFlag)
   {
     final OutputGenerator outGenObj;
-    final AmpPhaseBlk [] ampPhaseArr;
-    if((outGenObj=processOneResponse(stationStr,
-                      channelStr,networkStr,siteStr,dateObj,outUnitsConvIdx,
-                                     fileNameParam,(new double[] {freqVal}),
-                           startStageNum,stopStageNum,stdioFlag)) != null &&
-                         (ampPhaseArr=outGenObj.getAmpPhaseArray()) != null)
-    {  //output generator and amp/phase array generated OK
-      if(ampPhaseArr.length <= 0)
-      {  //empty amp/phase array
-        setErrorMessage("Unable to calculate amp/phase result");
-        return null;
-      }
-      return new Double(ampPhaseArr[0].amp);     //return first amplitude
+    if((outGenObj=findOneResponse(stationStr,channelStr,networkStr,
+                          siteStr,dateObj,outUnitsConvIdx,fileNameParam,
+                           startStageNum,stopStageNum,stdioFlag)) == null)
+    {  //error finding response (error message already set)
+      return null;
     }
-    return null;
+    return getSingleResponseAmpVal(outGenObj,outUnitsConvIdx,freqVal,
+                                                startStageNum,stopStageNum);
   }
 
   /**
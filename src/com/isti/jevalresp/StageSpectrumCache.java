@@ -0,0 +1,355 @@
+//StageSpectrumCache.java:  Size-bounded, least-recently-used cache of
+//                          evaluated stage spectra, keyed by the
+//                          content of the stage.
+//
+//  10/18/2026 -- [AG]  Initial version.
+//
+
+package com.isti.jevalresp;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Class StageSpectrumCache holds the complex spectra of evaluated
+ * response stages, keyed by the content of the stage (kernel type,
+ * normalization factor, sample interval, poles/zeros or coefficients
+ * and applied delay), the evaluation mode and the frequency values.
+ * Responses for different channels often contain identical stages
+ * (such as digitizer FIR stages); when a cache object is given to
+ * 'OutputGenerator.setStageSpectrumCache()' these stages are evaluated
+ * once and then fetched from the cache.  The total number of values
+ * held is bounded, with the least-recently-used entries removed first.
+ * The methods of this class are thread-safe, so a single cache may be
+ * shared by any number of 'OutputGenerator' objects.
+ */
+public class StageSpectrumCache
+{
+    /** Default maximum number of spectrum values held by the cache. */
+  public static final int DEF_MAX_NUM_VALUES = 4*1024*1024;
+    /** Evaluation-mode bit for FIR stage evaluated via FFT. */
+  public static final int FFT_EVAL_MODE = 1;
+    /** Evaluation-mode bit for FIR/IIR stage evaluated via recurrence. */
+  public static final int RECUR_EVAL_MODE = 2;
+
+  protected final int maxNumValues;         //max # of values held
+              //table of spectrum entries, in least-recently-used order:
+  protected final LinkedHashMap entriesMap =
+                                        new LinkedHashMap(16,0.75f,true);
+  protected long totalNumValues = 0;        //# of values held in cache
+  protected long hitCount = 0;              //# of successful lookups
+  protected long missCount = 0;             //# of unsuccessful lookups
+  protected long evictCount = 0;            //# of entries removed
+              //copy of last frequency array entered (shared by keys):
+  protected double [] lastFreqArray = null;
+
+  /**
+   * Creates a stage-spectrum cache.
+   * @param maxNumValues maximum number of spectrum values (each stored
+   * frequency counts as two values, real and imaginary) to be held.
+   */
+  public StageSpectrumCache(int maxNumValues)
+  {
+    this.maxNumValues = maxNumValues;
+  }
+
+  /**
+   * Creates a stage-spectrum cache that holds up to
+   * 'DEF_MAX_NUM_VALUES' spectrum values.
+   */
+  public StageSpectrumCache()
+  {
+    this(DEF_MAX_NUM_VALUES);
+  }
+
+  /**
+   * Determines if the spectra for the given stage kernel may be held
+   * in the cache.  Poles/zeros and coefficients stages may be cached;
+   * list and polynomial stages (which are not costly to evaluate) and
+   * stages that are not evaluated are not cached.
+   * @param kernelObj the stage kernel to use.
+   * @return true if the spectra for the stage may be held in the cache.
+   */
+  public static boolean isCacheable(CompiledResponse.StageKernel kernelObj)
+  {
+    switch(kernelObj.kernelType)
+    {
+      case CompiledResponse.ANALOG_PZ_KERNEL:
+      case CompiledResponse.IIR_PZ_KERNEL:
+      case CompiledResponse.FIR_KERNEL:
+      case CompiledResponse.IIR_KERNEL:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Returns the spectrum values for the given key.
+   * @param keyObj the key to use.
+   * @return A two-element array containing the real-values array and
+   * the imaginary-values array, or null if no matching entry was
+   * found.  The returned arrays are shared and must not be modified.
+   */
+  public synchronized double [][] get(StageKey keyObj)
+  {
+    final double [][] specArrs = (double [][])entriesMap.get(keyObj);
+    if(specArrs != null)
+      ++hitCount;
+    else
+      ++missCount;
+    return specArrs;
+  }
+
+  /**
+   * Enters the given spectrum values into the cache.  The arrays are
+   * held by the cache (not copied) and must not be modified after
+   * this method is called.  If needed, least-recently-used entries are
+   * removed to keep the total number of values within the maximum.
+   * @param keyObj the key to use.
+   * @param realArr the array of real values.
+   * @param imagArr the array of imaginary values.
+   */
+  public synchronized void put(StageKey keyObj,double [] realArr,
+                                                          double [] imagArr)
+  {
+    final long numValues = realArr.length + imagArr.length;
+    if(numValues > maxNumValues || entriesMap.containsKey(keyObj))
+      return;      //if too large or already entered then leave
+              //setup copy of frequency array for key (reusing copy from
+              // last entry if possible, since arrays are often the same):
+    if(lastFreqArray == null ||
+                               !Arrays.equals(lastFreqArray,keyObj.freqArray))
+    {
+      lastFreqArray = (double [])keyObj.freqArray.clone();
+    }
+    entriesMap.put(new StageKey(keyObj,lastFreqArray),
+                                          new double [][] { realArr,imagArr });
+    totalNumValues += numValues;
+              //remove least-recently-used entries until within maximum:
+    final Iterator iterObj = entriesMap.values().iterator();
+    double [][] specArrs;
+    while(totalNumValues > maxNumValues && iterObj.hasNext())
+    {
+      specArrs = (double [][])iterObj.next();
+      totalNumValues -= specArrs[0].length + specArrs[1].length;
+      iterObj.remove();
+      ++evictCount;
+    }
+  }
+
+  /**
+   * Removes all entries from the cache.  The hit/miss counters are
+   * not changed.
+   */
+  public synchronized void clear()
+  {
+    entriesMap.clear();
+    totalNumValues = 0;
+    lastFreqArray = null;
+  }
+
+  /**
+   * Resets the hit, miss and eviction counters to zero.
+   */
+  public synchronized void resetCounters()
+  {
+    hitCount = missCount = evictCount = 0;
+  }
+
+  /**
+   * Returns the number of lookups that found a matching entry.
+   * @return The number of lookups that found a matching entry.
+   */
+  public synchronized long getHitCount()
+  {
+    return hitCount;
+  }
+
+  /**
+   * Returns the number of lookups that did not find a matching entry.
+   * @return The number of lookups that did not find a matching entry.
+   */
+  public synchronized long getMissCount()
+  {
+    return missCount;
+  }
+
+  /**
+   * Returns the number of entries removed to keep the cache within its
+   * maximum size.
+   * @return The number of entries removed.
+   */
+  public synchronized long getEvictCount()
+  {
+    return evictCount;
+  }
+
+  /**
+   * Returns the number of entries held by the cache.
+   * @return The number of entries held by the cache.
+   */
+  public synchronized int getNumEntries()
+  {
+    return entriesMap.size();
+  }
+
+  /**
+   * Returns the total number of spectrum values held by the cache.
+   * @return The total number of spectrum values held by the cache.
+   */
+  public synchronized long getTotalNumValues()
+  {
+    return totalNumValues;
+  }
+
+  /**
+   * Returns the maximum number of spectrum values held by the cache.
+   * @return The maximum number of spectrum values held by the cache.
+   */
+  public int getMaxNumValues()
+  {
+    return maxNumValues;
+  }
+
+  /**
+   * Returns a string containing the hit, miss and eviction counts and
+   * the number of entries held.
+   * @return A string containing cache statistics.
+   */
+  public synchronized String getStatsString()
+  {
+    return "hits=" + hitCount + ", misses=" + missCount + ", evictions=" +
+                          evictCount + ", entries=" + entriesMap.size() +
+                                             ", values=" + totalNumValues;
+  }
+
+
+  /**
+   * Class StageKey defines the key for a cache entry, holding the
+   * content of a stage kernel, the applied delay, the evaluation mode
+   * and the frequency values.  Keys are compared by content.
+   */
+  public static class StageKey
+  {
+    protected final CompiledResponse.StageKernel kernelObj;
+    protected final double delayVal;       //delay applied (or NaN)
+    protected final int evalModeVal;       //'..._EVAL_MODE' bits
+    protected final double [] freqArray;   //frequency values
+    protected final int hashCodeVal;       //pre-calculated hash code
+
+    /**
+     * Creates a key for a cache entry.
+     * @param kernelObj the stage kernel to use.
+     * @param delayObj the delay value applied to the stage, or null if
+     * none.
+     * @param evalModeVal the evaluation mode (a combination of the
+     * '..._EVAL_MODE' bits).
+     * @param freqArray the array of frequency values to use.  This
+     * array is not copied; it is copied if the key is entered into
+     * the cache.
+     * @param freqHashVal the hash code for the frequency values (as
+     * returned by 'Arrays.hashCode(freqArray)').
+     */
+    public StageKey(CompiledResponse.StageKernel kernelObj,Double delayObj,
+                     int evalModeVal,double [] freqArray,int freqHashVal)
+    {
+      this.kernelObj = kernelObj;
+      delayVal = (delayObj != null) ? delayObj.doubleValue() : Double.NaN;
+      this.evalModeVal = evalModeVal;
+      this.freqArray = freqArray;
+      int hVal = kernelObj.kernelType;
+      hVal = 31*hVal + evalModeVal;
+      hVal = 31*hVal + (kernelObj.laplaceFlag ? 1 : 0);
+      hVal = 31*hVal + hashDouble(kernelObj.normFact);
+      hVal = 31*hVal + hashDouble(kernelObj.sIntervalTime);
+      hVal = 31*hVal + hashDouble(delayVal);
+      hVal = 31*hVal + Arrays.hashCode(kernelObj.zerosRealArr);
+      hVal = 31*hVal + Arrays.hashCode(kernelObj.zerosImagArr);
+      hVal = 31*hVal + Arrays.hashCode(kernelObj.polesRealArr);
+      hVal = 31*hVal + Arrays.hashCode(kernelObj.polesImagArr);
+      hVal = 31*hVal + Arrays.hashCode(kernelObj.numersArr);
+      hVal = 31*hVal + Arrays.hashCode(kernelObj.denomsArr);
+      hashCodeVal = 31*hVal + freqHashVal;
+    }
+
+    /**
+     * Creates a copy of the given key, using the given frequency array.
+     * @param srcObj the source key.
+     * @param freqArray the array of frequency values to use (must
+     * contain the same values as those in the source key).
+     */
+    protected StageKey(StageKey srcObj,double [] freqArray)
+    {
+      kernelObj = srcObj.kernelObj;
+      delayVal = srcObj.delayVal;
+      evalModeVal = srcObj.evalModeVal;
+      this.freqArray = freqArray;
+      hashCodeVal = srcObj.hashCodeVal;
+    }
+
+    /**
+     * Returns the hash code for this key.
+     * @return The hash code for this key.
+     */
+    public int hashCode()
+    {
+      return hashCodeVal;
+    }
+
+    /**
+     * Determines if the given object is a key with the same content as
+     * this key.
+     * @param obj the object to compare.
+     * @return true if the given object is a key with the same content.
+     */
+    public boolean equals(Object obj)
+    {
+      if(obj == this)
+        return true;
+      if(!(obj instanceof StageKey))
+        return false;
+      final StageKey keyObj = (StageKey)obj;
+      final CompiledResponse.StageKernel kObj = keyObj.kernelObj;
+      return hashCodeVal == keyObj.hashCodeVal &&
+                         kernelObj.kernelType == kObj.kernelType &&
+                                 evalModeVal == keyObj.evalModeVal &&
+                           kernelObj.laplaceFlag == kObj.laplaceFlag &&
+                  kernelObj.firTypeVal == kObj.firTypeVal &&
+                 sameDouble(kernelObj.normFact,kObj.normFact) &&
+           sameDouble(kernelObj.sIntervalTime,kObj.sIntervalTime) &&
+                              sameDouble(delayVal,keyObj.delayVal) &&
+          Arrays.equals(kernelObj.zerosRealArr,kObj.zerosRealArr) &&
+          Arrays.equals(kernelObj.zerosImagArr,kObj.zerosImagArr) &&
+          Arrays.equals(kernelObj.polesRealArr,kObj.polesRealArr) &&
+          Arrays.equals(kernelObj.polesImagArr,kObj.polesImagArr) &&
+                Arrays.equals(kernelObj.numersArr,kObj.numersArr) &&
+                Arrays.equals(kernelObj.denomsArr,kObj.denomsArr) &&
+                           Arrays.equals(freqArray,keyObj.freqArray);
+    }
+
+    /**
+     * Returns a hash code for the given double value.
+     * @param val the value to use.
+     * @return A hash code for the given double value.
+     */
+    protected static int hashDouble(double val)
+    {
+      final long bits = Double.doubleToLongBits(val);
+      return (int)(bits ^ (bits >>> 32));
+    }
+
+    /**
+     * Determines if the given double values are the same (bit-for-bit,
+     * with NaN values considered equal).
+     * @param val1 first value.
+     * @param val2 second value.
+     * @return true if the values are the same.
+     */
+    protected static boolean sameDouble(double val1,double val2)
+    {
+      return Double.doubleToLongBits(val1) == Double.doubleToLongBits(val2);
+    }
+  }
+}
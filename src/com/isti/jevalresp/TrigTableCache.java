@@ -0,0 +1,433 @@
+//TrigTableCache.java:  Size-bounded, least-recently-used cache of the
+//                      cosine/sine tables used to evaluate FIR and IIR
+//                      coefficients stages, keyed by the frequencies
+//                      and sample interval.
+//
+//  10/18/2026 -- [AG]  Initial version.
+//                      Modified 'getNumTerms()' to use the number of
+//                      terms held by the stage's coefficient set.
+//                      Increased 'DEF_MAX_NUM_VALUES' to 16M values.
+//
+
+package com.isti.jevalresp;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Class TrigTableCache holds tables of the cosine and sine values used
+ * by the direct (non-recurrence) evaluation of FIR and IIR coefficients
+ * stages.  The terms evaluated for a stage depend only on the frequency
+ * values, the sample interval of the stage and the number of
+ * coefficients, so a table may be used by any stage with the same
+ * sample interval (and no more coefficients than the table holds terms).
+ * Across a network most coefficients stages use one of a small number
+ * of sample intervals; when a cache object is given to
+ * 'OutputGenerator.setTrigTableCache()' each distinct table is
+ * calculated once and then fetched from the cache.  The values in the
+ * tables are calculated in the same way as the values calculated by the
+ * 'CompiledResponse.StageKernel' methods 'firTrans()' and 'iirTrans()',
+ * so the results are the same as those from direct evaluation.  The
+ * total number of values held is bounded, with the least-recently-used
+ * tables removed first.  The methods of this class are thread-safe, so
+ * a single cache may be shared by any number of 'OutputGenerator'
+ * objects.
+ */
+public class TrigTableCache
+{
+    /**
+     * Default maximum number of table values held by the cache (enough
+     * for the table of a 500-term stage over 10000 frequencies, which
+     * holds 10 million values, with room for smaller tables).
+     */
+  public static final int DEF_MAX_NUM_VALUES = 16*1024*1024;
+    /** Table type for terms "m*wsint" (m = 0, 1, 2, ...). */
+  public static final int INT_TERMS_TYPE = 0;
+    /** Table type for terms "(m+0.5)*wsint" (m = 0, 1, 2, ...). */
+  public static final int HALF_TERMS_TYPE = 1;
+
+  protected final int maxNumValues;         //max # of values held
+              //table of entries, in least-recently-used order:
+  protected final LinkedHashMap entriesMap =
+                                        new LinkedHashMap(16,0.75f,true);
+  protected long totalNumValues = 0;        //# of values held in cache
+  protected long hitCount = 0;              //# of successful lookups
+  protected long missCount = 0;             //# of unsuccessful lookups
+  protected long evictCount = 0;            //# of entries removed
+              //copy of last frequency array entered (shared by keys):
+  protected double [] lastFreqArray = null;
+
+  /**
+   * Creates a trig-table cache.
+   * @param maxNumValues maximum number of table values (each term for
+   * each frequency counts as two values, cosine and sine) to be held.
+   */
+  public TrigTableCache(int maxNumValues)
+  {
+    this.maxNumValues = maxNumValues;
+  }
+
+  /**
+   * Creates a trig-table cache that holds up to 'DEF_MAX_NUM_VALUES'
+   * table values.
+   */
+  public TrigTableCache()
+  {
+    this(DEF_MAX_NUM_VALUES);
+  }
+
+  /**
+   * Returns the table type needed to evaluate the given stage kernel.
+   * @param kernelObj the stage kernel to use.
+   * @return One of the '..._TERMS_TYPE' values, or -1 if the stage is
+   * not evaluated via a table.
+   */
+  public static int getTableType(CompiledResponse.StageKernel kernelObj)
+  {
+    if(kernelObj.kernelType == CompiledResponse.IIR_KERNEL)
+      return INT_TERMS_TYPE;
+    if(kernelObj.kernelType != CompiledResponse.FIR_KERNEL ||
+                                             kernelObj.numersArr.length <= 0)
+    {    //not FIR stage or no coefficients
+      return -1;
+    }
+    if(kernelObj.firTypeVal == OutputGenerator.FIR_SYM2)
+      return HALF_TERMS_TYPE;
+    if(kernelObj.firTypeVal == OutputGenerator.FIR_SYM1 ||
+                                                !kernelObj.firSameValsFlag)
+    {    //symmetrical 1 or asymmetrical (not all same values)
+      return INT_TERMS_TYPE;
+    }
+    return -1;          //all coefficients same value; table not used
+  }
+
+  /**
+   * Returns the number of table terms needed to evaluate the given
+   * stage kernel.
+   * @param kernelObj the stage kernel to use.
+   * @return The number of table terms needed.
+   */
+  public static int getNumTerms(CompiledResponse.StageKernel kernelObj)
+  {
+    return (kernelObj.coeffSetObj != null) ?
+                                        kernelObj.coeffSetObj.numTerms : 0;
+  }
+
+  /**
+   * Returns a table for evaluating the given stage kernel over the
+   * given frequencies.  If a table for the same frequencies, sample
+   * interval and table type (with at least the number of terms needed)
+   * is held by the cache then it is returned; otherwise a table is
+   * calculated and entered into the cache.  If the table would be
+   * larger than the maximum size of the cache then null is returned.
+   * @param kernelObj the stage kernel to use.
+   * @param freqArray the array of frequency values to use.
+   * @param freqHashVal the hash code for the frequency values (as
+   * returned by 'Arrays.hashCode(freqArray)').
+   * @return A 'TrigTable' object, or null if the stage is not evaluated
+   * via a table or the table would be too large.
+   */
+  public TrigTable getTable(CompiledResponse.StageKernel kernelObj,
+                                       double [] freqArray,int freqHashVal)
+  {
+    final int tableType = getTableType(kernelObj);
+    if(tableType < 0)
+      return null;
+    final int numTerms = getNumTerms(kernelObj);
+    if((long)freqArray.length * numTerms * 2 > maxNumValues)
+      return null;      //if table too large then return null
+    final TableKey keyObj = new TableKey(freqArray,freqHashVal,
+                                       kernelObj.sIntervalTime,tableType);
+    TrigTable tableObj = lookupTable(keyObj,numTerms);
+    if(tableObj == null)
+    {    //matching table not found; calculate table and enter it
+      tableObj = new TrigTable(freqArray,kernelObj.sIntervalTime,
+                                                       tableType,numTerms);
+      putTable(keyObj,tableObj);
+    }
+    return tableObj;
+  }
+
+  /**
+   * Returns the table for the given key, if it has at least the given
+   * number of terms.
+   * @param keyObj the key to use.
+   * @param numTerms the number of terms needed.
+   * @return The 'TrigTable' object, or null if no matching table was
+   * found.
+   */
+  protected synchronized TrigTable lookupTable(TableKey keyObj,
+                                                              int numTerms)
+  {
+    final TrigTable tableObj = (TrigTable)entriesMap.get(keyObj);
+    if(tableObj != null && tableObj.numTerms >= numTerms)
+    {    //matching table found
+      ++hitCount;
+      return tableObj;
+    }
+    ++missCount;
+    return null;
+  }
+
+  /**
+   * Enters the given table into the cache, replacing any table with
+   * fewer terms for the same key.  If needed, least-recently-used
+   * entries are removed to keep the total number of values within the
+   * maximum.
+   * @param keyObj the key to use.
+   * @param tableObj the table to enter.
+   */
+  protected synchronized void putTable(TableKey keyObj,TrigTable tableObj)
+  {
+    final TrigTable prevObj = (TrigTable)entriesMap.get(keyObj);
+    if(prevObj != null)
+    {    //table already entered for key
+      if(prevObj.numTerms >= tableObj.numTerms)
+        return;         //if table at least as large then leave
+      entriesMap.remove(keyObj);
+      totalNumValues -= prevObj.getNumValues();
+    }
+              //setup copy of frequency array for key (reusing copy from
+              // last entry if possible, since arrays are often the same):
+    if(lastFreqArray == null ||
+                               !Arrays.equals(lastFreqArray,keyObj.freqArray))
+    {
+      lastFreqArray = (double [])keyObj.freqArray.clone();
+    }
+    entriesMap.put(new TableKey(keyObj,lastFreqArray),tableObj);
+    totalNumValues += tableObj.getNumValues();
+              //remove least-recently-used entries until within maximum:
+    final Iterator iterObj = entriesMap.values().iterator();
+    while(totalNumValues > maxNumValues && iterObj.hasNext())
+    {
+      totalNumValues -= ((TrigTable)iterObj.next()).getNumValues();
+      iterObj.remove();
+      ++evictCount;
+    }
+  }
+
+  /**
+   * Removes all entries from the cache.  The hit/miss counters are
+   * not changed.
+   */
+  public synchronized void clear()
+  {
+    entriesMap.clear();
+    totalNumValues = 0;
+    lastFreqArray = null;
+  }
+
+  /**
+   * Resets the hit, miss and eviction counters to zero.
+   */
+  public synchronized void resetCounters()
+  {
+    hitCount = missCount = evictCount = 0;
+  }
+
+  /**
+   * Returns the number of lookups that found a matching table.
+   * @return The number of lookups that found a matching table.
+   */
+  public synchronized long getHitCount()
+  {
+    return hitCount;
+  }
+
+  /**
+   * Returns the number of lookups that did not find a matching table.
+   * @return The number of lookups that did not find a matching table.
+   */
+  public synchronized long getMissCount()
+  {
+    return missCount;
+  }
+
+  /**
+   * Returns the number of entries removed to keep the cache within its
+   * maximum size.
+   * @return The number of entries removed.
+   */
+  public synchronized long getEvictCount()
+  {
+    return evictCount;
+  }
+
+  /**
+   * Returns the number of tables held by the cache.
+   * @return The number of tables held by the cache.
+   */
+  public synchronized int getNumEntries()
+  {
+    return entriesMap.size();
+  }
+
+  /**
+   * Returns the total number of table values held by the cache.
+   * @return The total number of table values held by the cache.
+   */
+  public synchronized long getTotalNumValues()
+  {
+    return totalNumValues;
+  }
+
+  /**
+   * Returns the maximum number of table values held by the cache.
+   * @return The maximum number of table values held by the cache.
+   */
+  public int getMaxNumValues()
+  {
+    return maxNumValues;
+  }
+
+  /**
+   * Returns a string containing the hit, miss and eviction counts and
+   * the number of entries held.
+   * @return A string containing cache statistics.
+   */
+  public synchronized String getStatsString()
+  {
+    return "hits=" + hitCount + ", misses=" + missCount + ", evictions=" +
+                          evictCount + ", entries=" + entriesMap.size() +
+                                             ", values=" + totalNumValues;
+  }
+
+
+  /**
+   * Class TrigTable holds the cosine and sine values of the terms used
+   * to evaluate coefficients stages with a given sample interval over
+   * a set of frequencies.  The values for each frequency are held in
+   * a row of 'numTerms' entries, with the row for frequency index 'i'
+   * starting at index 'i*numTerms'.  The arrays are shared and must
+   * not be modified.
+   */
+  public static class TrigTable
+  {
+         /** Table type; one of the '..._TERMS_TYPE' values. */
+    public final int tableType;
+         /** Number of terms for each frequency. */
+    public final int numTerms;
+         /** Cosine values of terms. */
+    public final double [] cosArr;
+         /** Sine values of terms. */
+    public final double [] sinArr;
+
+    /**
+     * Creates and calculates a table.
+     * @param freqArray the array of frequency values to use.
+     * @param sIntervalTime the sample interval time to use.
+     * @param tableType one of the '..._TERMS_TYPE' values.
+     * @param numTerms the number of terms for each frequency.
+     */
+    public TrigTable(double [] freqArray,double sIntervalTime,
+                                                int tableType,int numTerms)
+    {
+      this.tableType = tableType;
+      this.numTerms = numTerms;
+      cosArr = new double[freqArray.length*numTerms];
+      sinArr = new double[cosArr.length];
+      double wsint,val;
+      int idx = 0;
+      for(int fIdx=0; fIdx<freqArray.length; ++fIdx)
+      {  //for each frequency; calc radial freq. time sample interval
+        wsint = (OutputGenerator.TWO_PI * freqArray[fIdx]) * sIntervalTime;
+        for(int m=0; m<numTerms; ++m)
+        {     //for each term
+          val = (tableType == HALF_TERMS_TYPE) ?
+                                  wsint*((double)m+0.5) : wsint*m;
+          cosArr[idx] = Math.cos(val);
+          sinArr[idx] = Math.sin(val);
+          ++idx;
+        }
+      }
+    }
+
+    /**
+     * Returns the number of values (cosine and sine) held by the table.
+     * @return The number of values held by the table.
+     */
+    public long getNumValues()
+    {
+      return (long)cosArr.length + sinArr.length;
+    }
+  }
+
+
+  /**
+   * Class TableKey defines the key for a cache entry, holding the
+   * frequency values, sample interval and table type.  Keys are
+   * compared by content.
+   */
+  protected static class TableKey
+  {
+    protected final double [] freqArray;   //frequency values
+    protected final double sIntervalTime;  //sample interval time
+    protected final int tableType;         //'..._TERMS_TYPE' value
+    protected final int hashCodeVal;       //pre-calculated hash code
+
+    /**
+     * Creates a key for a cache entry.
+     * @param freqArray the array of frequency values to use.  This
+     * array is not copied; it is copied if the key is entered into
+     * the cache.
+     * @param freqHashVal the hash code for the frequency values (as
+     * returned by 'Arrays.hashCode(freqArray)').
+     * @param sIntervalTime the sample interval time to use.
+     * @param tableType one of the '..._TERMS_TYPE' values.
+     */
+    public TableKey(double [] freqArray,int freqHashVal,
+                                     double sIntervalTime,int tableType)
+    {
+      this.freqArray = freqArray;
+      this.sIntervalTime = sIntervalTime;
+      this.tableType = tableType;
+      final long bits = Double.doubleToLongBits(sIntervalTime);
+      hashCodeVal = 31*(31*tableType + (int)(bits ^ (bits >>> 32))) +
+                                                                freqHashVal;
+    }
+
+    /**
+     * Creates a copy of the given key, using the given frequency array.
+     * @param srcObj the source key.
+     * @param freqArray the array of frequency values to use (must
+     * contain the same values as those in the source key).
+     */
+    protected TableKey(TableKey srcObj,double [] freqArray)
+    {
+      this.freqArray = freqArray;
+      sIntervalTime = srcObj.sIntervalTime;
+      tableType = srcObj.tableType;
+      hashCodeVal = srcObj.hashCodeVal;
+    }
+
+    /**
+     * Returns the hash code for this key.
+     * @return The hash code for this key.
+     */
+    public int hashCode()
+    {
+      return hashCodeVal;
+    }
+
+    /**
+     * Determines if the given object is a key with the same content as
+     * this key.
+     * @param obj the object to compare.
+     * @return true if the given object is a key with the same content.
+     */
+    public boolean equals(Object obj)
+    {
+      if(obj == this)
+        return true;
+      if(!(obj instanceof TableKey))
+        return false;
+      final TableKey keyObj = (TableKey)obj;
+      return hashCodeVal == keyObj.hashCodeVal &&
+                                     tableType == keyObj.tableType &&
+                         Double.doubleToLongBits(sIntervalTime) ==
+                          Double.doubleToLongBits(keyObj.sIntervalTime) &&
+                                 Arrays.equals(freqArray,keyObj.freqArray);
+    }
+  }
+}
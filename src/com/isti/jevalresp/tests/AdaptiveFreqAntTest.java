@@ -0,0 +1,103 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.OutputGenerator;
+import com.isti.jevalresp.RespFileParser;
+import com.isti.jevalresp.RespUtils;
+import edu.iris.Fissures.IfNetwork.Response;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks that the adaptive frequency array resolves the response to
+ * within the tolerances with fewer values than a dense log-spaced array.
+ */
+public class AdaptiveFreqAntTest extends TestSupport {
+
+    private static final String[] NAMES = {"RESP.IU.ANMO..BHZ", "RESP.US.DGMT..BHZ"};
+    private static final double AMP_TOL = 0.002;
+    private static final double PHASE_TOL = 0.2;
+
+    @Test
+    public void testTolerance() {
+        for (String name : NAMES) {
+            OutputGenerator generator = generator(name);
+            double[] freqs = generator.generateAdaptiveFreqArray(1e-3, 15.0, 20, 5000,
+                    AMP_TOL, PHASE_TOL, OutputGenerator.DEFAULT_UNIT_CONV, 0, 0, false, false, 0.0);
+            assertNotNull(generator.getErrorMessage(), freqs);
+            assertEquals(name, 1e-3, freqs[0], 1e-15);
+            assertEquals(name, 15.0, freqs[freqs.length - 1], 1e-12);
+            for (int i = 1; i < freqs.length; i++) {
+                assertTrue(name, freqs[i] > freqs[i - 1]);
+            }
+            double[] dense = RespUtils.generateFreqArray(1e-3, 15.0, 10 * freqs.length, true);
+            double[] values = new double[2];
+            double[] amps = new double[freqs.length];
+            double[] phases = new double[freqs.length];
+            for (int i = 0; i < freqs.length; i++) {
+                assertTrue(generator.calculateSingleResponse(freqs[i],
+                        OutputGenerator.DEFAULT_UNIT_CONV, 0, 0, false, false, 0.0, values));
+                amps[i] = Math.hypot(values[0], values[1]);
+                phases[i] = Math.toDegrees(Math.atan2(values[1], values[0]));
+            }
+            int seg = 0;
+            for (double freq : dense) {
+                while (seg < freqs.length - 2 && freqs[seg + 1] < freq) {
+                    seg++;
+                }
+                double frac = Math.log(freq / freqs[seg]) / Math.log(freqs[seg + 1] / freqs[seg]);
+                double amp = Math.exp((1 - frac) * Math.log(amps[seg])
+                        + frac * Math.log(amps[seg + 1]));
+                double end = phases[seg + 1]
+                        + 360.0 * Math.rint((phases[seg] - phases[seg + 1]) / 360.0);
+                assertTrue(generator.calculateSingleResponse(freq,
+                        OutputGenerator.DEFAULT_UNIT_CONV, 0, 0, false, false, 0.0, values));
+                double actual = Math.hypot(values[0], values[1]);
+                double phase = Math.toDegrees(Math.atan2(values[1], values[0]));
+                double interp = (1 - frac) * phases[seg] + frac * end;
+                phase += 360.0 * Math.rint((interp - phase) / 360.0);
+                // allow for curvature missed by the midpoint test
+                assertEquals(name + " f=" + freq, actual, amp, 4 * AMP_TOL * actual);
+                assertEquals(name + " f=" + freq, phase, interp, 4 * PHASE_TOL);
+            }
+        }
+    }
+
+    @Test
+    public void testLimits() {
+        OutputGenerator generator = generator(NAMES[0]);
+        double[] loose = generator.generateAdaptiveFreqArray(1e-3, 15.0, 20, 5000,
+                0.05, 5.0, OutputGenerator.DEFAULT_UNIT_CONV, 0, 0, false, false, 0.0);
+        double[] tight = generator.generateAdaptiveFreqArray(1e-3, 15.0, 20, 5000,
+                AMP_TOL, PHASE_TOL, OutputGenerator.DEFAULT_UNIT_CONV, 0, 0, false, false, 0.0);
+        double[] capped = generator.generateAdaptiveFreqArray(1e-3, 15.0, 20, 50,
+                1e-9, 1e-9, OutputGenerator.DEFAULT_UNIT_CONV, 0, 0, false, false, 0.0);
+        assertTrue(loose.length < tight.length);
+        assertEquals(50, capped.length);
+        assertTrue(generator.generateAdaptiveFreqArray(1e-3, 15.0, 1, 50, AMP_TOL, PHASE_TOL,
+                OutputGenerator.DEFAULT_UNIT_CONV, 0, 0, false, false, 0.0) == null);
+        generator = generator(NAMES[0]);
+        assertTrue(generator.getErrorMessage(), generator.calculateAdaptiveResponse(1e-3, 15.0,
+                20, 5000, AMP_TOL, PHASE_TOL, OutputGenerator.DEFAULT_UNIT_CONV, 0, 0, false,
+                false, false, 0.0));
+        assertTrue(Arrays.equals(tight, generator.getCalcFreqArray()));
+        assertEquals(tight.length, generator.getCSpectraRealArray().length);
+    }
+
+    private OutputGenerator generator(String name) {
+        RespFileParser parser = new RespFileParser(locateFile(name));
+        assertNotNull(parser.findChannelId((String) null, null, null, null, null, null));
+        Response response = parser.readResponse();
+        assertNotNull(parser.getErrorMessage(), response);
+        parser.close();
+        OutputGenerator generator = new OutputGenerator(response);
+        assertTrue(generator.getErrorMessage(), generator.checkResponse());
+        return generator;
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.BatchResponseEvaluator;
+import com.isti.jevalresp.OutputGenerator;
+import com.isti.jevalresp.RespFileParser;
+import com.isti.jevalresp.RespUtils;
+import com.isti.jevalresp.StageSpectrumCache;
+import edu.iris.Fissures.IfNetwork.Response;
+import org.junit.Test;
+
+import static java.lang.String.format;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks that evaluating a set of responses in a batch gives the same
+ * values as evaluating each response separately.
+ */
+public class BatchResponseEvaluatorAntTest extends TestSupport {
+
+    private static final String[] NAMES = {"RESP.IU.ANMO..BHZ", "RESP.IU.ANMO.00.BHZ",
+            "RESP.IU.ANMO.10.BHZ", "RESP.US.DGMT..BHZ", "RESP.UW.ALST..ENE"};
+
+    @Test
+    public void testRows() {
+        double[] freqArray = RespUtils.generateFreqArray(0.001, 20.0, 300, true);
+        double[][] expected = separately(freqArray);
+        for (int numThreads = 1; numThreads <= 3; numThreads++) {
+            BatchResponseEvaluator evaluator =
+                    new BatchResponseEvaluator(OutputGenerator.VELOCITY_UNIT_CONV);
+            evaluator.setNumThreads(numThreads);
+            evaluator.setStageSpectrumCache(new StageSpectrumCache());
+            double[][] rows = new double[NAMES.length][2 * freqArray.length];
+            assertTrue(evaluator.getErrorMessage(),
+                    evaluator.evaluate(parseAll(), freqArray, true, rows));
+            for (int n = 0; n < NAMES.length; n++) {
+                for (int k = 0; k < rows[n].length; k++) {
+                    assertTrue(format("%s value %d differs", NAMES[n], k),
+                            rows[n][k] == expected[n][k]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFlatArray() {
+        double[] freqArray = RespUtils.generateFreqArray(0.0, 20.0, 200, false);
+        double[][] expected = separately(freqArray);
+        BatchResponseEvaluator evaluator =
+                new BatchResponseEvaluator(OutputGenerator.VELOCITY_UNIT_CONV);
+        evaluator.setNumThreads(2);
+        double[] flat = new double[NAMES.length * 2 * freqArray.length];
+        assertTrue(evaluator.getErrorMessage(),
+                evaluator.evaluate(parseAll(), freqArray, false, flat));
+        int idx = 0;
+        for (int n = 0; n < NAMES.length; n++) {
+            for (int k = 0; k < expected[n].length; k++) {
+                assertTrue(format("%s value %d differs", NAMES[n], k),
+                        flat[idx++] == expected[n][k]);
+            }
+        }
+    }
+
+    @Test
+    public void testErrors() {
+        double[] freqArray = RespUtils.generateFreqArray(0.001, 20.0, 50, true);
+        Response[] responses = parseAll();
+        responses[2] = null;
+        BatchResponseEvaluator evaluator =
+                new BatchResponseEvaluator(OutputGenerator.VELOCITY_UNIT_CONV);
+        double[][] rows = new double[NAMES.length][2 * freqArray.length];
+        assertFalse(evaluator.evaluate(responses, freqArray, true, rows));
+        assertNotNull(evaluator.getRespErrorMessage(2));
+        assertNull(evaluator.getRespErrorMessage(1));
+        assertTrue(Double.isNaN(rows[2][0]));
+        assertFalse(Double.isNaN(rows[3][0]));
+        assertFalse(evaluator.evaluate(responses, freqArray, true, new double[1]));
+    }
+
+    @Test
+    public void testOutputArrays() {
+        double[] freqArray = RespUtils.generateFreqArray(0.001, 20.0, 100, true);
+        double[][] expected = separately(freqArray);
+        Response[] responses = parseAll();
+        double[] re = new double[freqArray.length];
+        double[] im = new double[freqArray.length];
+        for (int n = 0; n < responses.length; n++) {
+            OutputGenerator generator = new OutputGenerator(responses[n]);
+            assertTrue(generator.getErrorMessage(), generator.checkResponse());
+            generator.setOutputArrays(re, im);
+            assertTrue(generator.getErrorMessage(), generator.calculateResponse(
+                    freqArray, true, OutputGenerator.VELOCITY_UNIT_CONV, 0, 0));
+            assertTrue(re == generator.getCSpectraRealArray());
+            assertTrue(im == generator.getCSpectraImagArray());
+            for (int k = 0; k < re.length; k++) {
+                assertTrue(format("%s value %d differs", NAMES[n], k),
+                        re[k] == expected[n][2 * k] && im[k] == expected[n][2 * k + 1]);
+            }
+        }
+        // arrays of the wrong length are not used
+        OutputGenerator generator = new OutputGenerator(responses[0]);
+        assertTrue(generator.getErrorMessage(), generator.checkResponse());
+        generator.setOutputArrays(new double[1], new double[1]);
+        assertTrue(generator.getErrorMessage(), generator.calculateResponse(
+                freqArray, true, OutputGenerator.VELOCITY_UNIT_CONV, 0, 0));
+        assertTrue(freqArray.length == generator.getCSpectraRealArray().length);
+    }
+
+    private double[][] separately(double[] freqArray) {
+        Response[] responses = parseAll();
+        double[][] values = new double[responses.length][];
+        for (int n = 0; n < responses.length; n++) {
+            OutputGenerator generator = new OutputGenerator(responses[n]);
+            assertTrue(generator.getErrorMessage(), generator.checkResponse());
+            assertTrue(generator.getErrorMessage(), generator.calculateResponse(
+                    freqArray, true, OutputGenerator.VELOCITY_UNIT_CONV, 0, 0));
+            double[] re = generator.getCSpectraRealArray();
+            double[] im = generator.getCSpectraImagArray();
+            values[n] = new double[2 * re.length];
+            for (int k = 0; k < re.length; k++) {
+                values[n][2 * k] = re[k];
+                values[n][2 * k + 1] = im[k];
+            }
+        }
+        return values;
+    }
+
+    private Response[] parseAll() {
+        Response[] responses = new Response[NAMES.length];
+        for (int n = 0; n < NAMES.length; n++) {
+            RespFileParser parser = new RespFileParser(locateFile(NAMES[n]));
+            assertNotNull(parser.findChannelId((String) null, null, null, null, null, null));
+            responses[n] = parser.readResponse();
+            assertNotNull(parser.getErrorMessage(), responses[n]);
+            parser.close();
+        }
+        return responses;
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.ChanIdHldr;
+import com.isti.jevalresp.RespChannelIndex;
+import com.isti.jevalresp.RespFileParser;
+import com.isti.jevalresp.RespUtils;
+import edu.iris.Fissures.IfNetwork.ChannelId;
+import edu.iris.Fissures.IfNetwork.Response;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks that responses found using a channel index are the same as those
+ * found by parsing the whole file, and that a stale index is rebuilt.
+ */
+public class ChannelIndexAntTest extends TestSupport {
+
+    private static final String[] NAMES = {"RESP.IU.ANMO..BHZ", "RESP.US.DGMT..BHZ",
+            "RESP.UW.ALST..ENE", "RESP.IU.ANMO.00.BHZ", "RESP.XX.RUB03.01.BHZ"};
+
+    @Test
+    public void testIndex() throws IOException {
+        File file = concatenate("index.resp", 1, NAMES);
+        RespChannelIndex index = new RespChannelIndex(file.getPath());
+        assertFalse(index.load());
+        assertTrue(index.getErrorMessage(), index.loadOrBuild());
+        assertTrue(index.getNumEntries() >= NAMES.length);
+        RespChannelIndex loaded = new RespChannelIndex(file.getPath());
+        assertTrue(loaded.getErrorMessage(), loaded.load());
+        assertEquals(index.getNumEntries(), loaded.getNumEntries());
+
+        Date date = RespUtils.parseRespDate("2010,001,00:00:00");
+        String[][][] patterns = {
+                {null, null, null, null},
+                {{"ANMO"}, null, null, null},
+                {null, {"BHZ"}, {"IU", "XX"}, null},
+                {{"ALST", "DGMT"}, {"EN?", "BH*"}, null, null},
+                {null, null, null, {"00"}},
+                {{"NONE"}, null, null, null}};
+        for (String[][] pats : patterns) {
+            for (Date begin : new Date[]{null, date}) {
+                List<String> expected = find(file, false, pats, begin);
+                List<String> actual = find(file, true, pats, begin);
+                assertEquals(expected, actual);
+            }
+        }
+        assertFalse(find(file, false, patterns[0], null).isEmpty());
+        assertTrue(find(file, true, patterns[5], null).isEmpty());
+
+        // changing the RESP file makes the saved index stale
+        FileOutputStream out = new FileOutputStream(file, true);
+        out.write("\n".getBytes());
+        out.close();
+        assertFalse(new RespChannelIndex(file.getPath()).load());
+        assertEquals(find(file, false, patterns[0], null), find(file, true, patterns[0], null));
+        assertTrue(new RespChannelIndex(file.getPath()).load());
+    }
+
+    @Test
+    public void testTruncatedIndex() throws IOException {
+        File file = concatenate("index.resp", 1, NAMES);
+        RespChannelIndex index = new RespChannelIndex(file.getPath());
+        assertTrue(index.getErrorMessage(), index.loadOrBuild());
+        // the index is written to a temporary file that is renamed into place
+        assertEquals(2, file.getParentFile().list().length);
+        File indexFile = new File(index.getIndexFileName());
+        String text = read(indexFile);
+        FileOutputStream out = new FileOutputStream(indexFile);
+        out.write(text.substring(0, text.lastIndexOf('\n', text.length() - 2) + 1).getBytes());
+        out.close();
+        RespChannelIndex loaded = new RespChannelIndex(file.getPath());
+        assertFalse(loaded.load());
+        assertTrue(loaded.getErrorMessage(), loaded.getErrorMessage().contains("expected"));
+        assertTrue(loaded.getErrorMessage(), loaded.loadOrBuild());
+        assertEquals(index.getNumEntries(), loaded.getNumEntries());
+        assertTrue(new RespChannelIndex(file.getPath()).load());
+        assertEquals(text, read(indexFile));
+    }
+
+    private static String read(File file) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        byte[] buf = new byte[(int) file.length()];
+        int n = 0;
+        while (n < buf.length) {
+            n += in.read(buf, n, buf.length - n);
+        }
+        in.close();
+        return new String(buf);
+    }
+
+    private List<String> find(File file, boolean useIndex, String[][] pats, Date begin) {
+        RespFileParser parser = new RespFileParser(file.getPath());
+        if (useIndex) {
+            assertTrue(parser.getInfoMessage(), parser.useChannelIndex());
+        }
+        List<String> found = new ArrayList<String>();
+        ChanIdHldr holder;
+        while ((holder = parser.findChannelId(pats[0], pats[1], pats[2], pats[3], begin,
+                null)) != null) {
+            Response response = parser.readResponse();
+            assertNotNull(parser.getErrorMessage(), response);
+            ChannelId id = holder.channelIdObj;
+            found.add(id.network_id.network_code + "." + id.station_code + "." + id.site_code
+                    + "." + id.channel_code + " " + id.begin_time.date_time + " "
+                    + holder.respEndDateObj + " " + response.stages.length + " "
+                    + response.the_sensitivity.sensitivity_factor);
+        }
+        parser.close();
+        return found;
+    }
+
+}
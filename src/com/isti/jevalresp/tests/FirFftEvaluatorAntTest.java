@@ -0,0 +1,116 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.CompiledResponse;
+import com.isti.jevalresp.FirFftEvaluator;
+import com.isti.jevalresp.OutputGenerator;
+import com.isti.jevalresp.RespArraysInfo;
+import com.isti.jevalresp.RespFileParser;
+import com.isti.jevalresp.RespUtils;
+import edu.iris.Fissures.IfNetwork.Response;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static java.lang.String.format;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks that the FFT / chirp-Z evaluation of FIR stages matches direct
+ * evaluation (to within a tolerance).
+ */
+public class FirFftEvaluatorAntTest extends TestSupport {
+
+    /** Tolerance, relative to the largest magnitude in the spectrum. */
+    private static final double TOLERANCE = 1e-9;
+
+    /**
+     * Compare the chirp-Z transform (both the Bluestein and FFT-bin paths)
+     * against a direct sum.
+     */
+    @Test
+    public void testChirpZ() {
+        Random random = new Random(12345);
+        int numIn = 301, numOut = 517;
+        double[] xRe = new double[numIn], xIm = new double[numIn];
+        for (int n = 0; n < numIn; n++) {
+            xRe[n] = random.nextGaussian();
+            xIm[n] = random.nextGaussian();
+        }
+        checkChirpZ(xRe, xIm, numIn, 0.0123, 0.00456, numOut);
+        checkChirpZ(xRe, null, numIn, 0.5, 0.003, numOut);
+        checkChirpZ(xRe, xIm, numIn, 0.0, 2 * Math.PI / 1024, numOut);
+    }
+
+    private void checkChirpZ(double[] xRe, double[] xIm, int numIn,
+                             double start, double step, int numOut) {
+        double[] outRe = new double[numOut], outIm = new double[numOut];
+        FirFftEvaluator.chirpZ(xRe, xIm, numIn, start, step, numOut, outRe, outIm);
+        double[] expRe = new double[numOut], expIm = new double[numOut];
+        for (int k = 0; k < numOut; k++) {
+            for (int n = 0; n < numIn; n++) {
+                double ang = n * (start + k * step);
+                double xi = (xIm != null) ? xIm[n] : 0.0;
+                expRe[k] += xRe[n] * Math.cos(ang) + xi * Math.sin(ang);
+                expIm[k] += xi * Math.cos(ang) - xRe[n] * Math.sin(ang);
+            }
+        }
+        compare("chirpZ", expRe, expIm, outRe, outIm);
+    }
+
+    /**
+     * Compare the spectra for a response containing long FIR stages
+     * (400 and 252 coefficients) calculated with and without FFT evaluation.
+     */
+    @Test
+    public void testFirStages() {
+        String path = locateFile("RESP.IU.ANMO..BHZ");
+        double[] freqArray = RespUtils.generateFreqArray(0.001, 20.0, 1000, false);
+        OutputGenerator direct = calculate(path, freqArray, false);
+        OutputGenerator fast = calculate(path, freqArray, true);
+        CompiledResponse compiled = fast.getCompiledResponse();
+        int numFast = 0;
+        for (int i = 0; i < compiled.getNumStages(); i++) {
+            if (FirFftEvaluator.isFastEvalSuitable(compiled.getStageKernel(i), freqArray)) {
+                numFast++;
+            }
+        }
+        assertTrue("No FIR stages evaluated via FFT", numFast > 0);
+        RespArraysInfo[] directArrs = direct.getAllStagesAmpPhaseArrays();
+        RespArraysInfo[] fastArrs = fast.getAllStagesAmpPhaseArrays();
+        for (int i = 0; i < directArrs.length; i++) {
+            if (directArrs[i] != null) {
+                compare(directArrs[i].identifyStr,
+                        directArrs[i].getRealArray(), directArrs[i].getImagArray(),
+                        fastArrs[i].getRealArray(), fastArrs[i].getImagArray());
+            }
+        }
+    }
+
+    private OutputGenerator calculate(String path, double[] freqArray, boolean fastFlag) {
+        RespFileParser parser = new RespFileParser(path);
+        assertNotNull(parser.findChannelId("ANMO", "BHZ", "IU", null, null, null));
+        Response response = parser.readResponse();
+        assertNotNull(parser.getErrorMessage(), response);
+        parser.close();
+        OutputGenerator generator = new OutputGenerator(response);
+        assertTrue(generator.checkResponse());
+        generator.setFastFirEvalFlag(fastFlag);
+        assertTrue(generator.getErrorMessage(), generator.calculateResponse(
+                freqArray, false, OutputGenerator.DEFAULT_UNIT_CONV, 0, 0));
+        return generator;
+    }
+
+    private void compare(String name, double[] expRe, double[] expIm,
+                         double[] re, double[] im) {
+        double maxMag = 0.0, maxErr = 0.0;
+        for (int k = 0; k < expRe.length; k++) {
+            maxMag = Math.max(maxMag, Math.hypot(expRe[k], expIm[k]));
+            maxErr = Math.max(maxErr, Math.hypot(re[k] - expRe[k], im[k] - expIm[k]));
+        }
+        assertTrue(format("%s: error %g exceeds tolerance (max magnitude %g)",
+                name, maxErr, maxMag), maxErr <= TOLERANCE * maxMag);
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.OutputGenerator;
+import com.isti.jevalresp.RespUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static java.lang.String.format;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks the analytic group-delay values against a numerical derivative
+ * of the phase, and that calculating them leaves the response values
+ * unchanged.
+ */
+public class GroupDelayAntTest extends TestSupport {
+
+    private static final String[] NAMES = {"RESP.IU.ANMO..BHZ", "RESP.US.DGMT..BHZ",
+            "RESP.UW.ALST..ENE"};
+    private static final double[] FREQS = RespUtils.generateFreqArray(0.001, 5.0, 300, true);
+
+    @Test
+    public void testRespFiles() throws IOException {
+        for (String name : NAMES) {
+            String path = locateFile(name);
+            OutputGenerator plain = calculate(new FileInputStream(path), false);
+            OutputGenerator generator = calculate(new FileInputStream(path), true);
+            assertNull(plain.getGroupDelayArray());
+            assertTrue(name, Arrays.equals(plain.getCSpectraRealArray(),
+                    generator.getCSpectraRealArray()));
+            assertTrue(name, Arrays.equals(plain.getCSpectraImagArray(),
+                    generator.getCSpectraImagArray()));
+            checkDerivative(name, generator);
+            StringWriter writer = new StringWriter();
+            assertTrue(generator.getErrorMessage(),
+                    generator.writeGroupDelayData(writer, "test", null));
+            assertEquals(FREQS.length, writer.toString().trim().split("\n").length);
+        }
+    }
+
+    /**
+     * Checks a response containing asymmetrical and symmetrical FIR stages
+     * and an IIR stage.
+     */
+    @Test
+    public void testStageTypes() {
+        OutputGenerator generator = calculate(
+                new ByteArrayInputStream(syntheticResp().getBytes()), true);
+        checkDerivative("synthetic", generator);
+    }
+
+    private void checkDerivative(String name, OutputGenerator generator) {
+        double[] delays = generator.getGroupDelayArray();
+        assertNotNull(name, delays);
+        double[] real = generator.getCSpectraRealArray();
+        double[] imag = generator.getCSpectraImagArray();
+        double maxAmp = 0.0;
+        for (int i = 0; i < FREQS.length; i++) {
+            maxAmp = Math.max(maxAmp, Math.hypot(real[i], imag[i]));
+        }
+        double[] lower = new double[2];
+        double[] upper = new double[2];
+        int count = 0;
+        for (int i = 0; i < FREQS.length; i++) {
+            if (Math.hypot(real[i], imag[i]) < 1e-3 * maxAmp) continue;
+            double step = 1e-5 * FREQS[i];
+            assertTrue(generator.getErrorMessage(), generator.calculateSingleResponse(
+                    FREQS[i] - step, OutputGenerator.DEFAULT_UNIT_CONV, 0, 0, false, false,
+                    0.0, lower));
+            assertTrue(generator.getErrorMessage(), generator.calculateSingleResponse(
+                    FREQS[i] + step, OutputGenerator.DEFAULT_UNIT_CONV, 0, 0, false, false,
+                    0.0, upper));
+            // phase of upper * conj(lower) is the phase difference
+            double dPhase = Math.atan2(upper[1] * lower[0] - upper[0] * lower[1],
+                    upper[0] * lower[0] + upper[1] * lower[1]);
+            double expected = -dPhase / (2 * Math.PI * 2 * step);
+            assertEquals(format("%s f=%g", name, FREQS[i]), expected, delays[i],
+                    1e-4 * Math.abs(expected) + 1e-6);
+            count++;
+        }
+        assertTrue(name, count > FREQS.length / 2);
+    }
+
+    private OutputGenerator calculate(InputStream in, boolean groupDelayFlag) {
+        OutputGenerator generator = new OutputGenerator(parseResponse(in));
+        assertTrue(generator.getErrorMessage(), generator.checkResponse());
+        generator.setGroupDelayFlag(groupDelayFlag);
+        assertTrue(generator.getErrorMessage(), generator.calculateResponse(
+                FREQS, true, OutputGenerator.DEFAULT_UNIT_CONV, 0, 0));
+        return generator;
+    }
+
+    private String syntheticResp() {
+        StringBuilder buf = new StringBuilder(channelHeader());
+        double[] asym = new double[40];
+        for (int i = 0; i < asym.length; i++) {
+            asym[i] = Math.exp(-i / 8.0) * (1.0 + 0.1 * Math.sin(i)) / 8.0;
+        }
+        buf.append(firStage(1, "M/S", "A", asym, 200.0, 2));
+        buf.append(firStage(2, "COUNTS", "B", new double[]{0.05, 0.1, 0.2, 0.3}, 100.0, 1));
+        buf.append(coeffsStage(3, "COUNTS", new double[]{0.2, 0.3, 0.2},
+                new double[]{1.0, -0.5, 0.1}, 100.0, 1));
+        return buf.toString();
+    }
+
+}
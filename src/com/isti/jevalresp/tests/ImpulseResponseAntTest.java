@@ -0,0 +1,134 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.FirFftEvaluator;
+import com.isti.jevalresp.ImpulseResponseGenerator;
+import com.isti.jevalresp.OutputGenerator;
+import com.isti.jevalresp.RespFileParser;
+import edu.iris.Fissures.IfNetwork.Response;
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks the inverse real FFT and the impulse and step responses
+ * generated from it.
+ */
+public class ImpulseResponseAntTest extends TestSupport {
+
+    private static final double SAMPLE_RATE = 40.0;
+    private static final int NUM_SAMPLES = 2048;
+
+    @Test
+    public void testInverseRealFft() {
+        for (int len = 2; len <= 256; len *= 2) {
+            double[] real = new double[len];
+            double[] imag = new double[len];
+            for (int i = 0; i <= len / 2; i++) {
+                real[i] = Math.cos(0.7 * i) + 0.1 * i;
+                imag[i] = (i == 0 || i == len / 2) ? 0.0 : Math.sin(1.3 * i);
+            }
+            for (int i = len / 2 + 1; i < len; i++) {
+                real[i] = real[len - i];
+                imag[i] = -imag[len - i];
+            }
+            double[] series = new double[len];
+            FirFftEvaluator.inverseRealFft(real, imag, len, series, new double[len / 2],
+                    new double[len / 2]);
+            FirFftEvaluator.fft(real, imag, true);
+            for (int i = 0; i < len; i++) {
+                assertEquals("len=" + len + " i=" + i, real[i], series[i], 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void testImpulse() {
+        Response response = parse("RESP.IU.ANMO..BHZ");
+        ImpulseResponseGenerator generator =
+                new ImpulseResponseGenerator(OutputGenerator.VELOCITY_UNIT_CONV);
+        assertTrue(generator.getErrorMessage(),
+                generator.generate(response, SAMPLE_RATE, NUM_SAMPLES, false));
+        int len = generator.getFftLength();
+        assertEquals(2 * NUM_SAMPLES, len);
+        double[] real = new double[len];
+        double[] imag = new double[len];
+        System.arraycopy(generator.getTimeSeriesArray(), 0, real, 0, len);
+        FirFftEvaluator.fft(real, imag, false);
+        double[] binReal = new double[len / 2 + 1];
+        double[] binImag = new double[len / 2 + 1];
+        OutputGenerator outGen = new OutputGenerator(response);
+        assertTrue(outGen.getErrorMessage(), outGen.checkResponse());
+        assertTrue(outGen.getErrorMessage(), outGen.calculateFftBinResponse(SAMPLE_RATE, len,
+                OutputGenerator.VELOCITY_UNIT_CONV, 0, 0, false, false, 0.0, binReal, binImag));
+        double maxAmp = 0.0;
+        for (int i = 0; i < binReal.length; i++) {
+            maxAmp = Math.max(maxAmp, Math.hypot(binReal[i], binImag[i]));
+        }
+        for (int i = 0; i < binReal.length; i++) {
+            assertEquals("bin " + i, binReal[i], real[i], 1e-8 * maxAmp);
+            assertEquals("bin " + i, binImag[i], imag[i], 1e-8 * maxAmp);
+        }
+    }
+
+    @Test
+    public void testStepAndReuse() {
+        ImpulseResponseGenerator generator =
+                new ImpulseResponseGenerator(OutputGenerator.VELOCITY_UNIT_CONV);
+        Response response = parse("RESP.US.DGMT..BHZ");
+        assertTrue(generator.getErrorMessage(),
+                generator.generate(response, SAMPLE_RATE, NUM_SAMPLES, false));
+        double[] series = generator.getTimeSeriesArray();
+        double[] impulse = series.clone();
+        assertTrue(generator.getErrorMessage(),
+                generator.generate(response, SAMPLE_RATE, NUM_SAMPLES, true));
+        assertTrue(series == generator.getTimeSeriesArray());
+        double sum = 0.0;
+        for (int i = 0; i < NUM_SAMPLES; i++) {
+            sum += impulse[i];
+            assertEquals(sum, series[i], 1e-12 * Math.abs(sum) + 1e-300);
+        }
+        assertTrue(generator.generate(parse("RESP.IU.ANMO..BHZ"), SAMPLE_RATE,
+                NUM_SAMPLES - 100, false));
+        assertTrue(series == generator.getTimeSeriesArray());
+        assertEquals(NUM_SAMPLES - 100, generator.getNumSamples());
+        StringWriter writer = new StringWriter();
+        assertTrue(generator.getErrorMessage(), generator.writeTimeSeries(writer, "test", null));
+        assertEquals(NUM_SAMPLES - 100, writer.toString().trim().split("\n").length);
+    }
+
+    @Test
+    public void testStepSettlesAtDcGain() {
+        // analog and gain stages of an accelerometer in default units
+        // (DC-coupled and causal; the FIR stages are evaluated as zero-phase)
+        Response response = parse("RESP.UW.ALST..ENE");
+        double sampleRate = 20000.0;
+        OutputGenerator outGen = new OutputGenerator(response);
+        assertTrue(outGen.getErrorMessage(), outGen.checkResponse(true));
+        double[] dcValue = new double[2];
+        assertTrue(outGen.getErrorMessage(), outGen.calculateSingleResponse(0.0,
+                OutputGenerator.DEFAULT_UNIT_CONV, 1, 3, false, false, 0.0, dcValue));
+        assertTrue(Math.abs(dcValue[0]) > 0.0);
+        assertEquals(0.0, dcValue[1], 1e-12 * Math.abs(dcValue[0]));
+        ImpulseResponseGenerator generator = new ImpulseResponseGenerator(
+                OutputGenerator.DEFAULT_UNIT_CONV, 1, 3, false, false, 0.0);
+        assertTrue(generator.getErrorMessage(),
+                generator.generate(response, sampleRate, NUM_SAMPLES, true));
+        double[] step = generator.getTimeSeriesArray();
+        assertEquals(dcValue[0], step[NUM_SAMPLES - 1], 1e-3 * Math.abs(dcValue[0]));
+    }
+
+    private Response parse(String name) {
+        RespFileParser parser = new RespFileParser(locateFile(name));
+        assertNotNull(parser.findChannelId((String) null, null, null, null, null, null));
+        Response response = parser.readResponse();
+        assertNotNull(parser.getErrorMessage(), response);
+        parser.close();
+        return response;
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.FirFftEvaluator;
+import com.isti.jevalresp.InverseResponseFilter;
+import com.isti.jevalresp.OutputGenerator;
+import com.isti.jevalresp.RespFileParser;
+import edu.iris.Fissures.IfNetwork.Response;
+import org.junit.Test;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks the inverse-response spectra against the response evaluated at
+ * the FFT bin frequencies, and that the spectra are cached.
+ */
+public class InverseResponseFilterAntTest extends TestSupport {
+
+    private static final double SAMPLE_RATE = 40.0;
+    private static final int FFT_LENGTH = 1024;
+    private static final double[] PRE_FILTER = {0.01, 0.05, 8.0, 15.0};
+
+    @Test
+    public void testInverse() {
+        Response response = parse("RESP.IU.ANMO..BHZ");
+        InverseResponseFilter filter = new InverseResponseFilter(
+                OutputGenerator.VELOCITY_UNIT_CONV, 0.0, PRE_FILTER);
+        InverseResponseFilter.InverseSpectrum spectrum =
+                filter.getInverseSpectrum(response, SAMPLE_RATE, FFT_LENGTH);
+        assertNotNull(filter.getErrorMessage(), spectrum);
+        assertEquals(FFT_LENGTH / 2 + 1, spectrum.getNumBins());
+        double[] real = new double[spectrum.getNumBins()];
+        double[] imag = new double[spectrum.getNumBins()];
+        OutputGenerator generator = new OutputGenerator(response);
+        assertTrue(generator.getErrorMessage(), generator.checkResponse());
+        assertTrue(generator.getErrorMessage(), generator.calculateFftBinResponse(SAMPLE_RATE,
+                FFT_LENGTH, OutputGenerator.VELOCITY_UNIT_CONV, 0, 0, false, false, 0.0,
+                real, imag));
+        for (int i = 0; i < real.length; i++) {
+            double freq = i * SAMPLE_RATE / FFT_LENGTH;
+            double taper = InverseResponseFilter.calcPreFilterValue(freq, PRE_FILTER);
+            double productReal = real[i] * spectrum.getRealArray()[i]
+                    - imag[i] * spectrum.getImagArray()[i];
+            double productImag = real[i] * spectrum.getImagArray()[i]
+                    + imag[i] * spectrum.getRealArray()[i];
+            assertEquals("f=" + freq, taper, productReal, 1e-12);
+            assertEquals("f=" + freq, 0.0, productImag, 1e-12);
+        }
+        assertEquals(0.0, spectrum.getRealArray()[0], 0.0);
+        assertEquals(0.0, spectrum.getRealArray()[FFT_LENGTH / 2], 0.0);
+    }
+
+    @Test
+    public void testWaterLevel() {
+        Response response = parse("RESP.IU.ANMO..BHZ");
+        InverseResponseFilter filter = new InverseResponseFilter(
+                OutputGenerator.VELOCITY_UNIT_CONV, 0.01, null);
+        InverseResponseFilter.InverseSpectrum spectrum =
+                filter.getInverseSpectrum(response, SAMPLE_RATE, FFT_LENGTH);
+        assertNotNull(filter.getErrorMessage(), spectrum);
+        double[] real = new double[spectrum.getNumBins()];
+        double[] imag = new double[spectrum.getNumBins()];
+        OutputGenerator generator = new OutputGenerator(response);
+        assertTrue(generator.getErrorMessage(), generator.checkResponse());
+        assertTrue(generator.getErrorMessage(), generator.calculateFftBinResponse(SAMPLE_RATE,
+                FFT_LENGTH, OutputGenerator.VELOCITY_UNIT_CONV, 0, 0, false, false, 0.0,
+                real, imag));
+        double maxAmp = 0.0;
+        for (int i = 0; i < real.length; i++) {
+            maxAmp = Math.max(maxAmp, Math.hypot(real[i], imag[i]));
+        }
+        boolean clipped = false;
+        for (int i = 1; i < real.length; i++) {
+            double amp = Math.hypot(real[i], imag[i]);
+            double inverse = Math.hypot(spectrum.getRealArray()[i], spectrum.getImagArray()[i]);
+            double expected = 1.0 / Math.max(amp, 0.01 * maxAmp);
+            assertEquals(expected, inverse, 1e-12 * expected);
+            clipped |= amp < 0.01 * maxAmp;
+        }
+        assertTrue(clipped);
+    }
+
+    @Test
+    public void testCache() {
+        Response response = parse("RESP.US.DGMT..BHZ");
+        InverseResponseFilter filter = new InverseResponseFilter(
+                OutputGenerator.VELOCITY_UNIT_CONV, 0.001, PRE_FILTER);
+        InverseResponseFilter.InverseSpectrum spectrum =
+                filter.getInverseSpectrum(response, SAMPLE_RATE, FFT_LENGTH);
+        assertNotNull(filter.getErrorMessage(), spectrum);
+        assertTrue(spectrum == filter.getInverseSpectrum(response, SAMPLE_RATE, FFT_LENGTH));
+        assertTrue(spectrum != filter.getInverseSpectrum(response, SAMPLE_RATE, 2 * FFT_LENGTH));
+        assertTrue(spectrum != filter.getInverseSpectrum(response, 20.0, FFT_LENGTH));
+        filter.clearCache();
+        assertTrue(spectrum != filter.getInverseSpectrum(response, SAMPLE_RATE, FFT_LENGTH));
+        assertTrue(new InverseResponseFilter(OutputGenerator.VELOCITY_UNIT_CONV, 0.0,
+                new double[]{1.0, 0.5, 2.0, 3.0}).getInverseSpectrum(
+                response, SAMPLE_RATE, FFT_LENGTH) == null);
+    }
+
+    @Test
+    public void testApply() {
+        Response response = parse("RESP.US.DGMT..BHZ");
+        InverseResponseFilter filter = new InverseResponseFilter(
+                OutputGenerator.VELOCITY_UNIT_CONV, 0.001, PRE_FILTER);
+        InverseResponseFilter.InverseSpectrum spectrum =
+                filter.getInverseSpectrum(response, SAMPLE_RATE, FFT_LENGTH);
+        double[] real = new double[FFT_LENGTH];
+        double[] imag = new double[FFT_LENGTH];
+        for (int i = 0; i < FFT_LENGTH; i++) {
+            real[i] = Math.sin(0.3 * i) + 0.5 * Math.cos(0.017 * i * i / FFT_LENGTH);
+        }
+        FirFftEvaluator.fft(real, imag, false);
+        spectrum.applyTo(real, imag);
+        imag[FFT_LENGTH / 2] = 0.0;
+        FirFftEvaluator.fft(real, imag, true);
+        double maxReal = 0.0;
+        for (int i = 0; i < FFT_LENGTH; i++) {
+            maxReal = Math.max(maxReal, Math.abs(real[i]));
+        }
+        for (int i = 0; i < FFT_LENGTH; i++) {
+            assertEquals(0.0, imag[i], 1e-12 * maxReal);
+        }
+    }
+
+    private Response parse(String name) {
+        RespFileParser parser = new RespFileParser(locateFile(name));
+        assertNotNull(parser.findChannelId((String) null, null, null, null, null, null));
+        Response response = parser.readResponse();
+        assertNotNull(parser.getErrorMessage(), response);
+        parser.close();
+        return response;
+    }
+
+}
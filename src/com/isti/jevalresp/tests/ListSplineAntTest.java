@@ -0,0 +1,177 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.CompiledResponse;
+import com.isti.jevalresp.ListSpline;
+import com.isti.jevalresp.OutputGenerator;
+import com.isti.jevalresp.RespUtils;
+import com.isti.util.math.CubicSpline;
+import edu.iris.Fissures.IfNetwork.ListFilter;
+import edu.iris.Fissures.IfNetwork.Response;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static java.lang.String.format;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks the List-blockette spline (fitted once and evaluated at any
+ * abscissa values) and its reuse by the compiled response.
+ */
+public class ListSplineAntTest extends TestSupport {
+
+    private static final double[] TENSIONS = {0.0, 1e-6, 0.5, 10.0, 1000.0, -0.5};
+
+    @Test
+    public void testQuadratic() {
+        // with k=1 and no tension the second derivatives are all equal,
+        // so a quadratic is reproduced exactly
+        double[] t = {0.0, 0.5, 1.5, 2.0, 3.5, 5.0};
+        double[] y = new double[t.length];
+        for (int i = 0; i < t.length; i++) {
+            y[i] = quadratic(t[i]);
+        }
+        ListSpline spline = new ListSpline(t, y, 0.0, 1.0);
+        for (double x = 0.0; x <= 5.0; x += 0.125) {
+            assertEquals("x=" + x, quadratic(x), spline.valueAt(x), 1e-12);
+        }
+    }
+
+    @Test
+    public void testKnotsAndTension() {
+        double[] t = logSpaced(0.01, 100.0, 25);
+        double[] y = new double[t.length];
+        for (int i = 0; i < t.length; i++) {
+            y[i] = Math.sin(2.0 * Math.log(t[i])) + 0.1 * i;
+        }
+        for (double tension : TENSIONS) {
+            ListSpline spline = new ListSpline(t, y, tension, 1.0);
+            assertTrue(spline.getErrorMessage(), spline.getErrorMessage() == null);
+            double[] knots = spline.interpolate(t);
+            for (int i = 0; i < t.length; i++) {
+                assertEquals(format("tension=%s t=%s", tension, t[i]), y[i], knots[i], 1e-12);
+            }
+        }
+        // a very large tension approaches linear interpolation
+        ListSpline spline = new ListSpline(t, y, 1e7, 1.0);
+        for (int i = 0; i < t.length - 1; i++) {
+            double x = 0.5 * (t[i] + t[i + 1]);
+            assertEquals("t=" + x, 0.5 * (y[i] + y[i + 1]), spline.valueAt(x), 1e-4);
+        }
+    }
+
+    @Test
+    public void testOrderAndBatch() {
+        double[] t = logSpacedList();
+        double[] y = new double[t.length];
+        double[] revT = new double[t.length];
+        double[] revY = new double[t.length];
+        for (int i = 0; i < t.length; i++) {
+            y[i] = Math.cos(t[i]);
+            revT[t.length - 1 - i] = t[i];
+            revY[t.length - 1 - i] = y[i];
+        }
+        double[] x = {3.0, 0.02, 7.5, 0.5, 19.0, 1.0, 0.011};
+        ListSpline spline = new ListSpline(t, y, 1000.0, 1.0);
+        double[] values = spline.interpolate(x);
+        assertTrue(Arrays.equals(values, new ListSpline(revT, revY, 1000.0, 1.0).interpolate(x)));
+        for (int i = 0; i < x.length; i++) {
+            assertEquals(spline.valueAt(x[i]), values[i], 0.0);
+        }
+        assertNotNull(new ListSpline(new double[]{1.0, 1.0, 2.0}, new double[3], 0.0, 1.0)
+                .getErrorMessage());
+        assertNotNull(new ListSpline(new double[]{1.0}, new double[1], 0.0, 1.0).getErrorMessage());
+    }
+
+    @Test
+    public void testListStage() {
+        OutputGenerator generator = new OutputGenerator(listResponse());
+        assertTrue(generator.getErrorMessage(), generator.checkResponse());
+        double[][] grids = {RespUtils.generateFreqArray(0.02, 15.0, 50, true),
+                RespUtils.generateFreqArray(0.05, 10.0, 77, false)};
+        CompiledResponse.ListStageSplines splines = null;
+        for (double[] grid : grids) {
+            assertTrue(generator.getErrorMessage(), generator.calculateResponse(grid, true,
+                    OutputGenerator.DEFAULT_UNIT_CONV, 0, 0, false, false, false, true, 500.0,
+                    false, false, 0.0));
+            CompiledResponse.ListStageSplines current =
+                    generator.getCompiledResponse().getListStageSplines(0, 500.0);
+            assertTrue(splines == null || splines == current);
+            splines = current;
+            double[] amps = splines.ampSplineObj.interpolate(generator.getCalcFreqArray());
+            double[] real = generator.getCSpectraRealArray();
+            double[] imag = generator.getCSpectraImagArray();
+            double sens = generator.getCalcSensitivity();
+            for (int i = 0; i < amps.length; i++) {
+                assertEquals(amps[i] * sens, Math.hypot(real[i], imag[i]), 1e-9 * amps[i] * sens);
+            }
+        }
+        assertTrue(splines != generator.getCompiledResponse().getListStageSplines(0, 10.0));
+    }
+
+    @Test
+    public void testCubicSpline() {
+        // the spline fitted to a List stage matches the values from the
+        // 'CubicSpline' class previously used for List interpolation
+        ListFilter filter = listResponse().stages[0].filters[0].list_filter();
+        double[] t = RespUtils.floatToDoubleArray(filter.frequency);
+        double[][] values = {RespUtils.floatToDoubleArray(filter.amplitude),
+                RespUtils.floatToDoubleArray(filter.phase)};
+        double[] grid = logSpaced(t[0], t[t.length - 1], 200);
+        double[] x = new double[grid.length + t.length];
+        for (int i = 0; i < grid.length; i++) {
+            x[i] = Math.max(t[0], Math.min(t[t.length - 1], grid[i]));
+        }
+        System.arraycopy(t, 0, x, grid.length, t.length);
+        for (double[] y : values) {
+            double scale = 0.0;
+            for (double value : y) {
+                scale = Math.max(scale, Math.abs(value));
+            }
+            for (double tension : TENSIONS) {
+                CubicSpline cubicSpline = new CubicSpline();
+                double[] expected = cubicSpline.calcSpline(t, y, tension, 1.0, x);
+                assertNotNull(cubicSpline.getErrorMessageString(), expected);
+                double[] actual = new ListSpline(t, y, tension, 1.0).interpolate(x);
+                for (int i = 0; i < x.length; i++) {
+                    assertEquals(format("tension=%s x=%s", tension, x[i]), expected[i],
+                            actual[i], 1e-9 * scale);
+                }
+            }
+        }
+    }
+
+    private static double quadratic(double x) {
+        return 2.0 - 0.75 * x + 0.3 * x * x;
+    }
+
+    private static double[] logSpaced(double min, double max, int num) {
+        return RespUtils.generateFreqArray(min, max, num, true);
+    }
+
+    private static double[] logSpacedList() {
+        return logSpaced(0.01, 20.0, 30);
+    }
+
+    private static Response listResponse() {
+        double[] freqs = logSpacedList();
+        StringBuilder buf = new StringBuilder(channelHeader());
+        buf.append("B055F03     Stage sequence number:                 1\n");
+        buf.append("B055F04     Response in units lookup:              M/S - Velocity\n");
+        buf.append("B055F05     Response out units lookup:             V - Volts\n");
+        buf.append(format("B055F06     Number of responses listed:            %d\n", freqs.length));
+        for (int i = 0; i < freqs.length; i++) {
+            double ratio = freqs[i] / 0.5;
+            buf.append(format("B055F07-11  %4d  %.6E  %.6E  0.000000E+00  %+.6E  0.000000E+00\n",
+                    i, freqs[i], ratio * ratio / (1.0 + ratio * ratio),
+                    Math.toDegrees(Math.atan2(1.0, ratio)) + 90.0));
+        }
+        buf.append(gain(1, 1500.0, 1.0));
+        buf.append(gain(0, 1500.0, 1.0));
+        return parseResponse(buf.toString());
+    }
+
+}
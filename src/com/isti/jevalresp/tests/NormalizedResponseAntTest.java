@@ -0,0 +1,155 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.NormalizedResponse;
+import com.isti.jevalresp.OutputGenerator;
+import com.isti.jevalresp.RespFileParser;
+import com.isti.jevalresp.RespUtils;
+import edu.iris.Fissures.IfNetwork.FilterType;
+import edu.iris.Fissures.IfNetwork.Response;
+import edu.iris.Fissures.IfNetwork.Stage;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks that normalization leaves the parsed response unchanged, that
+ * normalized responses are shared through the cache, and that one parsed
+ * response may be evaluated by several generators (and threads) with the
+ * same results as a freshly parsed response.
+ */
+public class NormalizedResponseAntTest extends TestSupport {
+
+    private static final String[] NAMES = {"RESP.IU.ANMO..BHZ", "RESP.US.DGMT..BHZ",
+            "RESP.UW.ALST..ENE", "RESP.UW.PRES.ELE"};
+
+    private final double[] freqArray = RespUtils.generateFreqArray(0.001, 50.0, 200, true);
+
+    @Test
+    public void testSourceUnchanged() {
+        for (String name : NAMES) {
+            Response response = parse(name);
+            String before = describe(response);
+            calculate(response, 0, 0);
+            assertEquals(name, before, describe(response));
+        }
+    }
+
+    @Test
+    public void testSharedResponse() {
+        for (String name : NAMES) {
+            Response response = parse(name);
+            OutputGenerator first = calculate(response, 0, 0);
+            OutputGenerator second = calculate(response, 0, 0);
+            OutputGenerator fresh = calculate(parse(name), 0, 0);
+            assertTrue(name, first.getNormalizedResponse() == second.getNormalizedResponse());
+            assertTrue(name, first.getNormalizedResponse() == NormalizedResponse.getCachedInstance(
+                    response, 0, 0));
+            assertTrue(name, first.getCompiledResponse() == second.getCompiledResponse());
+            compare(name, fresh, first);
+            compare(name, fresh, second);
+            assertEquals(name, fresh.getCalcSensitivity(), second.getCalcSensitivity(), 0.0);
+        }
+    }
+
+    @Test
+    public void testStageRanges() {
+        Response response = parse("RESP.IU.ANMO..BHZ");
+        OutputGenerator all = calculate(response, 0, 0);
+        OutputGenerator first = calculate(response, 1, 1);
+        assertTrue(all.getNormalizedResponse() != first.getNormalizedResponse());
+        compare("stage 1", calculate(parse("RESP.IU.ANMO..BHZ"), 1, 1), first);
+        compare("all", calculate(parse("RESP.IU.ANMO..BHZ"), 0, 0), calculate(response, 0, 0));
+    }
+
+    @Test
+    public void testConcurrent() throws InterruptedException {
+        final Response response = parse("RESP.US.DGMT..BHZ");
+        final OutputGenerator expected = calculate(parse("RESP.US.DGMT..BHZ"), 0, 0);
+        final List<String> failures = new ArrayList<String>();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    for (int j = 0; j < 5; j++) {
+                        OutputGenerator generator = new OutputGenerator(response);
+                        if (!generator.checkResponse() || !generator.calculateResponse(
+                                freqArray, true, OutputGenerator.DEFAULT_UNIT_CONV, 0, 0)
+                                || !Arrays.equals(expected.getCSpectraRealArray(),
+                                generator.getCSpectraRealArray())
+                                || !Arrays.equals(expected.getCSpectraImagArray(),
+                                generator.getCSpectraImagArray())) {
+                            synchronized (failures) {
+                                failures.add(generator.getErrorMessage());
+                            }
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+    private void compare(String name, OutputGenerator expected, OutputGenerator generator) {
+        assertTrue(name, Arrays.equals(expected.getCSpectraRealArray(),
+                generator.getCSpectraRealArray()));
+        assertTrue(name, Arrays.equals(expected.getCSpectraImagArray(),
+                generator.getCSpectraImagArray()));
+    }
+
+    private Response parse(String name) {
+        RespFileParser parser = new RespFileParser(locateFile(name));
+        assertNotNull(parser.findChannelId((String) null, null, null, null, null, null));
+        Response response = parser.readResponse();
+        assertNotNull(parser.getErrorMessage(), response);
+        parser.close();
+        return response;
+    }
+
+    private OutputGenerator calculate(Response response, int start, int stop) {
+        OutputGenerator generator = new OutputGenerator(response);
+        assertTrue(generator.getErrorMessage(), generator.checkResponse());
+        assertTrue(generator.getErrorMessage(), generator.calculateResponse(
+                freqArray, true, OutputGenerator.DEFAULT_UNIT_CONV, start, stop));
+        return generator;
+    }
+
+    private static String describe(Response response) {
+        StringBuilder buf = new StringBuilder();
+        if (response.the_sensitivity != null) {
+            buf.append(response.the_sensitivity.sensitivity_factor).append(' ')
+                    .append(response.the_sensitivity.frequency);
+        }
+        for (Stage stage : response.stages) {
+            buf.append('\n');
+            if (stage.the_gain != null) {
+                buf.append(stage.the_gain.gain_factor).append(' ')
+                        .append(stage.the_gain.frequency);
+            }
+            if (stage.the_normalization != null) {
+                for (int i = 0; i < stage.the_normalization.length; i++) {
+                    buf.append(' ').append(stage.the_normalization[i].ao_normalization_factor)
+                            .append(' ').append(stage.the_normalization[i].normalization_freq);
+                }
+            }
+            if (stage.filters != null && stage.filters.length > 0
+                    && stage.filters[0].discriminator().equals(FilterType.COEFFICIENT)) {
+                for (int i = 0; i < stage.filters[0].coeff_filter().numerator.length; i++) {
+                    buf.append(' ').append(stage.filters[0].coeff_filter().numerator[i].value);
+                }
+            }
+        }
+        return buf.toString();
+    }
+
+}
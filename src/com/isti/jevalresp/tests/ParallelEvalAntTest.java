@@ -0,0 +1,71 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.OutputGenerator;
+import com.isti.jevalresp.RespArraysInfo;
+import com.isti.jevalresp.RespFileParser;
+import com.isti.jevalresp.RespUtils;
+import edu.iris.Fissures.IfNetwork.Response;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static java.lang.String.format;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks that evaluating chunks of frequencies in parallel gives results
+ * identical to serial evaluation.
+ */
+public class ParallelEvalAntTest extends TestSupport {
+
+    private static final String[] NAMES =
+            {"RESP.IU.ANMO..BHZ", "RESP.UW.ALST..ENE", "RESP.US.DGMT..BHZ"};
+
+    @Test
+    public void testLogSpacing() {
+        double[] freqArray = RespUtils.generateFreqArray(0.0001, 50.0, 20011, true);
+        for (String name : NAMES) {
+            check(name, freqArray, true);
+        }
+    }
+
+    @Test
+    public void testLinearSpacing() {
+        double[] freqArray = RespUtils.generateFreqArray(0.0, 20.0, 10007, false);
+        for (String name : NAMES) {
+            check(name, freqArray, false);
+        }
+    }
+
+    private void check(String name, double[] freqArray, boolean logSpacingFlag) {
+        RespArraysInfo[] serial =
+                calculate(name, freqArray, logSpacingFlag, 1).getAllStagesAmpPhaseArrays();
+        RespArraysInfo[] parallel =
+                calculate(name, freqArray, logSpacingFlag, 7).getAllStagesAmpPhaseArrays();
+        for (int i = 0; i < serial.length; i++) {
+            if (serial[i] == null) continue;
+            assertTrue(format("%s %s: real values differ", name, serial[i].identifyStr),
+                    Arrays.equals(serial[i].getRealArray(), parallel[i].getRealArray()));
+            assertTrue(format("%s %s: imaginary values differ", name, serial[i].identifyStr),
+                    Arrays.equals(serial[i].getImagArray(), parallel[i].getImagArray()));
+        }
+    }
+
+    private OutputGenerator calculate(String name, double[] freqArray,
+                                      boolean logSpacingFlag, int numThreads) {
+        RespFileParser parser = new RespFileParser(locateFile(name));
+        assertNotNull(parser.findChannelId((String) null, null, null, null, null, null));
+        Response response = parser.readResponse();
+        assertNotNull(parser.getErrorMessage(), response);
+        parser.close();
+        OutputGenerator generator = new OutputGenerator(response);
+        assertTrue(generator.getErrorMessage(), generator.checkResponse());
+        generator.setParallelEvalThreads(numThreads);
+        assertTrue(generator.getErrorMessage(), generator.calculateResponse(
+                freqArray, logSpacingFlag, OutputGenerator.DEFAULT_UNIT_CONV, 0, 0));
+        return generator;
+    }
+
+}
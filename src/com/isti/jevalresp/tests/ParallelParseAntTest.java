@@ -0,0 +1,125 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.RespCallback;
+import com.isti.jevalresp.RespProcessor;
+import edu.iris.Fissures.IfNetwork.ChannelId;
+import edu.iris.Fissures.IfNetwork.Response;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks that parsing the responses of a RESP file concurrently gives the
+ * same callbacks, in the same order, as parsing them serially.
+ */
+public class ParallelParseAntTest extends TestSupport {
+
+    private static final String[] NAMES = {"RESP.IU.ANMO..BHZ", "RESP.US.DGMT..BHZ",
+            "RESP.UW.ALST..ENE", "RESP.IU.ANMO.00.BHZ", "RESP.XX.RUB03.01.BHZ"};
+
+    @Test
+    public void testParallel() throws IOException {
+        File file = concatenate("parallel.resp", 12, NAMES);
+        String[][][] patterns = {
+                {null, null, null, null},
+                {{"ANMO"}, null, null, null},
+                {null, {"BHZ"}, {"IU", "XX"}, null},
+                {{"NONE"}, null, null, null}};
+        for (String[][] pats : patterns) {
+            List<String> expected = run(file, 1, pats);
+            for (int threads : new int[]{2, 4, 7}) {
+                assertEquals(expected, run(file, threads, pats));
+            }
+        }
+        // responses repeated in the file are reported as duplicates
+        List<String> all = run(file, 4, patterns[0]);
+        assertTrue(all.size() > 2 * RespProcessor.PARSE_GROUP_SIZE);
+        assertTrue(all.get(all.size() - 2).startsWith("WARNING"));
+    }
+
+    @Test
+    public void testParseError() throws IOException {
+        // a response in the middle of the file that cannot be parsed ends
+        // the responses delivered, as it does when parsing serially
+        File file = concatenate("error.resp", 12, NAMES);
+        String text = read(file);
+        String line = "B058F04     Sensitivity:                           +6.29129E+05";
+        int pos = -1;
+        for (int i = 0; i < 6; i++) {
+            pos = text.indexOf(line, pos + 1);
+        }
+        assertTrue(pos > 0);
+        OutputStream out = new FileOutputStream(file);
+        out.write((text.substring(0, pos) + line.replace("+6.29129E+05", "BAD")
+                + text.substring(pos + line.length())).getBytes("US-ASCII"));
+        out.close();
+        String[][] pats = {null, null, null, null};
+        List<String> expected = run(file, 1, pats);
+        assertTrue(expected.get(expected.size() - 2).startsWith("Error parsing response"));
+        assertFalse(expected.contains("found 0"));
+        for (int threads : new int[]{2, 4, 7}) {
+            assertEquals(expected, run(file, threads, pats));
+        }
+    }
+
+    private List<String> run(File file, int threads, String[][] pats) {
+        final List<String> calls = new ArrayList<String>();
+        RespProcessor processor = new RespProcessor(true, false, null);
+        processor.setParseThreads(threads);
+        processor.findResponses(pats[0], pats[1], pats[2], pats[3], null, null,
+                file.getPath(), false, new RespCallback() {
+                    public void setRespProcObj(RespProcessor respProcObj) {
+                    }
+
+                    public boolean responseInfo(String fileName, ChannelId channelIdObj,
+                                                Date respEndDateObj, String channelIdFName,
+                                                Response respObj, String errMsgStr) {
+                        // (channelIdFName includes the current time)
+                        String id = (channelIdObj == null) ? null
+                                : channelIdObj.network_id.network_code + "."
+                                + channelIdObj.station_code + "." + channelIdObj.site_code
+                                + "." + channelIdObj.channel_code + " "
+                                + channelIdObj.begin_time.date_time;
+                        if (respObj == null) {
+                            calls.add(errMsgStr + " " + id);
+                            return false;
+                        }
+                        calls.add(id + " " + respEndDateObj + " "
+                                + respObj.stages.length + " "
+                                + respObj.the_sensitivity.sensitivity_factor);
+                        return true;
+                    }
+
+                    public void showInfoMessage(String msgStr) {
+                        calls.add("info " + msgStr);
+                    }
+                });
+        calls.add("found " + processor.getNumRespFound());
+        return calls;
+    }
+
+    private static String read(File file) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        byte[] buf = new byte[(int) file.length()];
+        int offs = 0;
+        int n;
+        while (offs < buf.length && (n = in.read(buf, offs, buf.length - offs)) > 0) {
+            offs += n;
+        }
+        in.close();
+        return new String(buf, "US-ASCII");
+    }
+
+}
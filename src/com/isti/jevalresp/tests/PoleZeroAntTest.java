@@ -0,0 +1,101 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.CompiledResponse;
+import com.isti.jevalresp.ComplexBlk;
+import com.isti.jevalresp.OutputGenerator;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static java.lang.String.format;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks the product-form evaluation of digital poles/zeros stages
+ * against the per-root modulus/phase form it replaced.
+ */
+public class PoleZeroAntTest extends TestSupport {
+
+    @Test
+    public void testIirPzTrans() {
+        CompiledResponse.StageKernel kernel = iirPzKernel(12, 24);
+        assertEquals(CompiledResponse.IIR_PZ_KERNEL, kernel.kernelType);
+        double[] value = new double[2];
+        for (int i = 0; i <= 1000; i++) {
+            double wVal = OutputGenerator.TWO_PI * 50.0 * i / 1000;
+            kernel.iirPzTrans(wVal, value);
+            double[] expected = polarIirPzTrans(kernel, wVal);
+            double tolerance = 1e-12 * Math.hypot(expected[0], expected[1]);
+            assertEquals(format("real at w=%g", wVal), expected[0], value[0], tolerance);
+            assertEquals(format("imag at w=%g", wVal), expected[1], value[1], tolerance);
+        }
+    }
+
+    @Test
+    public void testZDivide() {
+        double[] value = new double[2];
+        ComplexBlk.zDivide(3.0, 4.0, 1.0, -2.0, value);
+        assertEquals(-1.0, value[0], 1e-15);
+        assertEquals(2.0, value[1], 1e-15);
+        ComplexBlk.zDivide(1e200, 1e200, 1e300, 1e300, value);
+        assertEquals(1e-100, value[0], 1e-115);
+        assertEquals(0.0, value[1], 1e-115);
+        ComplexBlk.zDivide(1e-200, 0.0, 0.0, 1e-300, value);
+        assertTrue(Math.abs(value[1] + 1e100) < 1e85);
+    }
+
+    private static double[] polarIirPzTrans(CompiledResponse.StageKernel kernel, double wVal) {
+        double wsint = wVal * kernel.sIntervalTime;
+        double mod = 1.0, pha = 0.0;
+        for (int i = 0; i < kernel.zerosRealArr.length; i++) {
+            double rVal = Math.cos(wsint) - kernel.zerosRealArr[i];
+            double iVal = Math.sin(wsint) - kernel.zerosImagArr[i];
+            mod *= Math.sqrt(rVal * rVal + iVal * iVal);
+            pha += Math.atan2(iVal, rVal);
+        }
+        for (int i = 0; i < kernel.polesRealArr.length; i++) {
+            double rVal = Math.cos(wsint) - kernel.polesRealArr[i];
+            double iVal = Math.sin(wsint) - kernel.polesImagArr[i];
+            mod /= Math.sqrt(rVal * rVal + iVal * iVal);
+            pha -= Math.atan2(iVal, rVal);
+        }
+        return new double[]{mod * Math.cos(pha) * kernel.normFact,
+                mod * Math.sin(pha) * kernel.normFact};
+    }
+
+    private static CompiledResponse.StageKernel iirPzKernel(int numZeros, int numPoles) {
+        Random random = new Random(numPoles);
+        StringBuilder buf = new StringBuilder(channelHeader());
+        buf.append("B053F03     Transfer function type:                D\n");
+        buf.append("B053F04     Stage sequence number:                 1\n");
+        buf.append("B053F05     Response in units lookup:              COUNTS\n");
+        buf.append("B053F06     Response out units lookup:             COUNTS\n");
+        buf.append("B053F07     A0 normalization factor:               1.0\n");
+        buf.append("B053F08     Normalization frequency:               1.0\n");
+        buf.append(format("B053F09     Number of zeroes:                      %d\n", numZeros));
+        buf.append(format("B053F14     Number of poles:                       %d\n", numPoles));
+        appendRoots(buf, "B053F10-13", numZeros, random);
+        appendRoots(buf, "B053F15-18", numPoles, random);
+        buf.append(decimation(1, 200.0, 1));
+        OutputGenerator generator = new OutputGenerator(parseResponse(buf.toString()));
+        assertTrue(generator.getErrorMessage(), generator.checkResponse());
+        assertTrue(generator.getErrorMessage(), generator.calculateResponse(
+                new double[]{1.0}, true, OutputGenerator.DEFAULT_UNIT_CONV, 0, 0));
+        return generator.getCompiledResponse().getStageKernel(0);
+    }
+
+    private static void appendRoots(StringBuilder buf, String prefix, int count, Random random) {
+        for (int i = 0; i < count; i += 2) {
+            double radius = 0.5 + 0.45 * random.nextDouble();
+            double angle = Math.PI * random.nextDouble();
+            double re = radius * Math.cos(angle), im = radius * Math.sin(angle);
+            buf.append(format("%s %4d %+.6E %+.6E  0.000000E+00  0.000000E+00\n",
+                    prefix, i, re, im));
+            buf.append(format("%s %4d %+.6E %+.6E  0.000000E+00  0.000000E+00\n",
+                    prefix, i + 1, re, -im));
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.CompiledResponse;
+import com.isti.jevalresp.OutputGenerator;
+import org.junit.Test;
+
+import static java.lang.String.format;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks the Horner-form evaluation of polynomial (B62) stages against the
+ * power-sum form, and that the batch gains match single evaluations.
+ */
+public class PolynomialAntTest extends TestSupport {
+
+    private static final float[] COEFFS = {-2.5f, 0.75f, -3.2e-3f, 4.1e-5f, 2.0e-7f};
+    private static final double[] X_VALUES = {0.5, 1.0, 3.7, 12.25, 40.0, 87.5};
+
+    @Test
+    public void testDerivative() {
+        CompiledResponse.StageKernel kernel = generator().getCompiledResponse().getStageKernel(0);
+        assertEquals(CompiledResponse.POLYNOMIAL_KERNEL, kernel.kernelType);
+        double[] batch = new double[X_VALUES.length];
+        kernel.polyDerivatives(X_VALUES, 0, X_VALUES.length, batch);
+        for (int i = 0; i < X_VALUES.length; i++) {
+            double expected = 0.0;
+            for (int j = 1; j < COEFFS.length; j++) {
+                expected += (double) COEFFS[j] * j * Math.pow(X_VALUES[i], j - 1);
+            }
+            assertEquals("x=" + X_VALUES[i], expected, kernel.polyDerivative(X_VALUES[i]),
+                    1e-12 * Math.abs(expected));
+            assertEquals("x=" + X_VALUES[i], kernel.polyDerivative(X_VALUES[i]), batch[i], 0.0);
+        }
+    }
+
+    @Test
+    public void testBatchGains() {
+        OutputGenerator generator = generator();
+        double[] gains = generator.calculatePolynomialGains(X_VALUES, 1.0,
+                OutputGenerator.DEFAULT_UNIT_CONV, 0, 0, false);
+        assertNotNull(generator.getErrorMessage(), gains);
+        double[] outArr = new double[2];
+        for (int i = 0; i < X_VALUES.length; i++) {
+            assertTrue(generator.getErrorMessage(), generator.calculateSingleResponse(1.0,
+                    OutputGenerator.DEFAULT_UNIT_CONV, 0, 0, false, false, X_VALUES[i], outArr));
+            double expected = Math.hypot(outArr[0], outArr[1]);
+            assertEquals(format("x=%s", X_VALUES[i]), expected, gains[i], 1e-12 * expected);
+            assertTrue(generator.getErrorMessage(), generator.calculateResponse(
+                    new double[]{0.1, 1.0, 10.0}, true, OutputGenerator.DEFAULT_UNIT_CONV,
+                    0, 0, false, false, false, false, 0.0, false, false, X_VALUES[i]));
+            for (double real : generator.getCSpectraRealArray()) {
+                assertEquals(format("x=%s", X_VALUES[i]), outArr[0], real, 1e-12 * expected);
+            }
+        }
+    }
+
+    private static OutputGenerator generator() {
+        StringBuilder buf = new StringBuilder(channelHeader("LKO"));
+        buf.append("B062F03     Transfer function type:                P\n");
+        buf.append("B062F04     Stage sequence number:                 1\n");
+        buf.append("B062F05     Response in units lookup:              C - Degrees Celsius\n");
+        buf.append("B062F06     Response out units lookup:             V - Volts\n");
+        buf.append("B062F07     Polynomial Approximation Type:         M\n");
+        buf.append("B062F08     Valid Frequency Units:                 B\n");
+        buf.append("B062F09     Lower Valid Frequency Bound:           0.000000E+00\n");
+        buf.append("B062F10     Upper Valid Frequency Bound:           0.000000E+00\n");
+        buf.append("B062F11     Lower Bound of Approximation:          -4.000000E+01\n");
+        buf.append("B062F12     Upper Bound of Approximation:          1.000000E+02\n");
+        buf.append("B062F13     Maximum Absolute Error:                0.000000E+00\n");
+        buf.append(format("B062F14     Number of coefficients:                %d\n", COEFFS.length));
+        for (int i = 0; i < COEFFS.length; i++) {
+            buf.append(format("B062F15-16  %4d  %+.8E  +0.00000E+00\n", i, COEFFS[i]));
+        }
+        buf.append(gain(0, 1.0, 0.0));
+        OutputGenerator generator = new OutputGenerator(parseResponse(buf.toString()));
+        assertTrue(generator.getErrorMessage(), generator.checkResponse());
+        double[] outArr = new double[2];
+        assertTrue(generator.getErrorMessage(), generator.calculateSingleResponse(1.0,
+                OutputGenerator.DEFAULT_UNIT_CONV, 0, 0, false, false, 1.0, outArr));
+        return generator;
+    }
+
+}
@@ -0,0 +1,214 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.RespByteLexer;
+import com.isti.jevalresp.RespTokenizer;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks that the byte-level lexer gives the same tokens and line numbers
+ * as RespTokenizer, for each kind of input and across buffer refills, and
+ * that its numeric parsing matches the standard library.
+ */
+public class RespByteLexerAntTest extends TestSupport {
+
+    private static final String[] NAMES = {"RESP.IU.ANMO..BHZ", "RESP.US.DGMT..BHZ",
+            "RESP.UW.ALST..ENE", "RESP.XX.RUB03.01.BHZ"};
+
+    @Test
+    public void testTokens() throws IOException {
+        for (String name : NAMES) {
+            String text = read(locateFile(name));
+            String[] variants = {text, text.replace("\n", "\r\n"), text.replace("\n", "\r"),
+                    "# leading comment\n  \n" + text.replace(":", ": # comment\n#")};
+            for (String variant : variants) {
+                byte[] bytes = variant.getBytes("US-ASCII");
+                compare(name, variant, new RespByteLexer(ByteBuffer.wrap(bytes)));
+                compare(name, variant, new RespByteLexer(new ByteArrayInputStream(bytes), 7));
+                compare(name, variant, new RespByteLexer(new ByteArrayInputStream(bytes)));
+                compare(name, variant, new RespByteLexer(new StringReader(variant)));
+            }
+        }
+    }
+
+    @Test
+    public void testSkipToLinePrefix() throws IOException {
+        byte[] prefix = "B05".getBytes("US-ASCII");
+        for (String name : NAMES) {
+            String text = read(locateFile(name));
+            String[] variants = {text, text.replace("\n", "\r\n"), text.replace("\n", "\r"),
+                    "B050 first\n" + text.replace("\nB05", "\n  #B05\n \tB05") + "B0"};
+            for (String variant : variants) {
+                String expected = prefixLines(variant, "B05");
+                byte[] bytes = variant.getBytes("US-ASCII");
+                assertEquals(name, expected,
+                        skipLines(new RespByteLexer(ByteBuffer.wrap(bytes)), prefix));
+                assertEquals(name, expected,
+                        skipLines(new RespByteLexer(new ByteArrayInputStream(bytes), 7), prefix));
+                assertEquals(name, expected,
+                        skipLines(new RespByteLexer(new StringReader(variant)), prefix));
+            }
+        }
+    }
+
+    private String prefixLines(String text, String prefix) throws IOException {
+        RespTokenizer tokenizer = new RespTokenizer(new StringReader(text));
+        StringBuilder buf = new StringBuilder();
+        boolean lineStart = true;
+        int type;
+        while ((type = tokenizer.nextToken()) != RespTokenizer.TT_EOF) {
+            if (type == RespTokenizer.TT_WORD && lineStart
+                    && tokenizer.getTokenString().startsWith(prefix)) {
+                buf.append(tokenizer.lineno()).append(' ')
+                        .append(tokenizer.getTokenString()).append('\n');
+            }
+            lineStart = (type == RespTokenizer.TT_EOL);
+        }
+        return buf.toString();
+    }
+
+    private String skipLines(RespByteLexer lexer, byte[] prefix) throws IOException {
+        StringBuilder buf = new StringBuilder();
+        while (lexer.skipToLinePrefix(prefix)) {
+            assertEquals(RespByteLexer.TT_WORD, lexer.nextToken());
+            buf.append(lexer.lineno()).append(' ').append(lexer.getTokenString()).append('\n');
+        }
+        assertEquals(RespByteLexer.TT_EOF, lexer.nextToken());
+        lexer.close();
+        return buf.toString();
+    }
+
+    @Test
+    public void testMappedWindows() throws IOException {
+        String text = read(locateFile(NAMES[0])).replace("\n", "\r\n");
+        File file = new File(tmp.getRoot(), "lexer.resp");
+        RandomAccessFile out = new RandomAccessFile(file, "rw");
+        out.write(text.getBytes("US-ASCII"));
+        out.close();
+        for (int winSize : new int[]{0, 5, 64, 4096}) {
+            RandomAccessFile in = new RandomAccessFile(file, "r");
+            compare(NAMES[0], text, new RespByteLexer(in.getChannel(), winSize));
+            in = new RandomAccessFile(file, "r");
+            assertEquals(prefixLines(text, "B05"), skipLines(
+                    new RespByteLexer(in.getChannel(), winSize), "B05".getBytes("US-ASCII")));
+        }
+    }
+
+    @Test
+    public void testParseNumbers() {
+        Random random = new Random(17);
+        String[] fixed = {"0", "-0", "+0.0", "-0.0E+00", "1.", ".5", "-.5e-3", "1e", "1e+",
+                "-", "+", ".", "e5", "1.2.3", "--1", "0x10", "1.0f", "2d", "NaN", "Infinity",
+                "-Infinity", "1e99999", "1.17549435E-38", "3.4028235E38", "3.5E38",
+                "1.4E-45", "7.0E-46", "123456789012345678", "007", "-2147483648",
+                "2147483648", "+12", "B054F08-09", "+1.00000E+00", "-3.70040E-02"};
+        for (String str : fixed) {
+            checkNumber(str);
+        }
+        for (int i = 0; i < 200000; i++) {
+            StringBuilder buf = new StringBuilder();
+            int r = random.nextInt(3);
+            if (r == 1) buf.append('-');
+            if (r == 2) buf.append('+');
+            int numDigits = 1 + random.nextInt(18);
+            int point = random.nextInt(numDigits + 2) - 1;
+            for (int d = 0; d < numDigits; d++) {
+                if (d == point) buf.append('.');
+                buf.append((char) ('0' + random.nextInt(10)));
+            }
+            if (random.nextBoolean()) {
+                buf.append(random.nextBoolean() ? 'E' : 'e');
+                int exp = random.nextInt(100) - 50;
+                buf.append(exp < 0 ? "-" : (random.nextBoolean() ? "+" : ""));
+                buf.append(String.format(random.nextBoolean() ? "%02d" : "%d", Math.abs(exp)));
+            }
+            checkNumber(buf.toString());
+        }
+    }
+
+    private void checkNumber(String str) {
+        RespByteLexer lexer = new RespByteLexer(ByteBuffer.wrap(str.getBytes()));
+        try {
+            assertEquals(str, RespByteLexer.TT_WORD, lexer.nextToken());
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+        String expected, actual;
+        try {
+            expected = Integer.toHexString(Float.floatToRawIntBits(Float.parseFloat(str)));
+        } catch (NumberFormatException ex) {
+            expected = "error";
+        }
+        try {
+            actual = Integer.toHexString(Float.floatToRawIntBits(lexer.parseTokenFloat()));
+        } catch (NumberFormatException ex) {
+            actual = "error";
+        }
+        assertEquals("float " + str, expected, actual);
+        try {
+            expected = Long.toHexString(Double.doubleToRawLongBits(Double.parseDouble(str)));
+        } catch (NumberFormatException ex) {
+            expected = "error";
+        }
+        try {
+            actual = Long.toHexString(Double.doubleToRawLongBits(lexer.parseTokenDouble()));
+        } catch (NumberFormatException ex) {
+            actual = "error";
+        }
+        assertEquals("double " + str, expected, actual);
+        try {
+            expected = Integer.toString(Integer.parseInt(str));
+        } catch (NumberFormatException ex) {
+            expected = "error";
+        }
+        try {
+            actual = Integer.toString(lexer.parseTokenInt());
+        } catch (NumberFormatException ex) {
+            actual = "error";
+        }
+        assertEquals("int " + str, expected, actual);
+    }
+
+    private void compare(String name, String text, RespByteLexer lexer) throws IOException {
+        RespTokenizer tokenizer = new RespTokenizer(new StringReader(text));
+        int type;
+        do {
+            type = tokenizer.nextToken();
+            assertEquals(name + " line " + tokenizer.lineno(), type, lexer.nextToken());
+            assertEquals(name, tokenizer.lineno(), lexer.lineno());
+            if (type == RespTokenizer.TT_WORD) {
+                assertEquals(name + " line " + tokenizer.lineno(),
+                        tokenizer.getTokenString(), lexer.getTokenString());
+                assertEquals(tokenizer.getTokenString().endsWith(":"),
+                        lexer.tokenEndsWith(':'));
+            }
+        } while (type != RespTokenizer.TT_EOF);
+        assertEquals(RespByteLexer.TT_EOF, lexer.nextToken());
+        lexer.close();
+    }
+
+    private String read(String path) throws IOException {
+        FileInputStream in = new FileInputStream(path);
+        byte[] bytes = new byte[(int) new File(path).length()];
+        int n = 0;
+        while (n < bytes.length) {
+            n += in.read(bytes, n, bytes.length - n);
+        }
+        in.close();
+        assertTrue(path, bytes.length > 0);
+        return new String(bytes, "US-ASCII");
+    }
+
+}
@@ -0,0 +1,212 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.OutputGenerator;
+import com.isti.jevalresp.RespBinaryCache;
+import com.isti.jevalresp.RespCallback;
+import com.isti.jevalresp.RespProcessor;
+import com.isti.jevalresp.RespUtils;
+import edu.iris.Fissures.IfNetwork.ChannelId;
+import edu.iris.Fissures.IfNetwork.Response;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks that responses read from a binary response cache file give the
+ * same results as the parsed responses, that a stale or invalid cache
+ * file is rebuilt, and that responses that cannot be parsed are reported
+ * as when parsing the file.
+ */
+public class ResponseCacheAntTest extends TestSupport {
+
+    private static final String[] NAMES = {"RESP.IU.ANMO..BHZ", "RESP.US.DGMT..BHZ",
+            "RESP.UW.ALST..ENE", "RESP.IU.ANMO.00.BHZ", "RESP.XX.RUB03.01.BHZ",
+            "RESP.XX.RUB03.02.EPZ", "RESP.UW.PRES.ELE"};
+    private static final double[] FREQS = RespUtils.generateFreqArray(0.01, 40.0, 200, true);
+
+    @Test
+    public void testCache() throws IOException {
+        File file = concatenate("cache.resp", 1, NAMES);
+        RespBinaryCache cache = new RespBinaryCache(file.getPath());
+        assertFalse(cache.load());
+        assertTrue(cache.getErrorMessage(), cache.loadOrBuild());
+        assertTrue(cache.getNumEntries() >= NAMES.length);
+        RespBinaryCache loaded = new RespBinaryCache(file.getPath());
+        assertTrue(loaded.getErrorMessage(), loaded.load());
+        assertEquals(cache.getNumEntries(), loaded.getNumEntries());
+        for (int i = 0; i < cache.getNumEntries(); i++) {
+            ChannelId id = loaded.getChanIdHldr(i).channelIdObj;
+            assertEquals(idString(cache.getChanIdHldr(i).channelIdObj), idString(id));
+            assertEquals(cache.getChanIdHldr(i).respEndDateObj,
+                    loaded.getChanIdHldr(i).respEndDateObj);
+            assertEquals(cache.getInfoMessage(i), loaded.getInfoMessage(i));
+            Response response = loaded.getResponse(i);
+            assertNotNull(loaded.getErrorMessage(), response);
+            assertEquals(id.station_code, spectra(cache.getResponse(i)), spectra(response));
+        }
+        // the cache file is written via a temporary file that is renamed
+        assertEquals(2, tmp.getRoot().list().length);
+    }
+
+    @Test
+    public void testProcessor() throws IOException {
+        File file = concatenate("cache.resp", 1, NAMES);
+        String[][][] patterns = {
+                {null, null, null, null},
+                {{"ANMO"}, null, null, null},
+                {null, {"BHZ"}, {"IU", "XX"}, null},
+                {{"NONE"}, null, null, null}};
+        for (boolean multi : new boolean[]{false, true}) {
+            for (String[][] pats : patterns) {
+                List<String> expected = run(file, multi, false, pats);
+                // first run builds the cache file, second run loads it
+                assertEquals(expected, run(file, multi, true, pats));
+                assertEquals(expected, run(file, multi, true, pats));
+            }
+        }
+        // changing the RESP file makes the saved cache stale
+        FileOutputStream out = new FileOutputStream(file, true);
+        out.write("\n".getBytes());
+        out.close();
+        assertFalse(new RespBinaryCache(file.getPath()).load());
+        assertEquals(run(file, true, false, patterns[0]), run(file, true, true, patterns[0]));
+        assertTrue(new RespBinaryCache(file.getPath()).load());
+    }
+
+    @Test
+    public void testParseError() throws IOException {
+        // a response that cannot be parsed is kept in the cache as an
+        // error, and the other responses are cached
+        File file = concatenate("error.resp", 1, NAMES);
+        write(file, read(file).replace("+6.29129E+05", "BAD"));
+        RespBinaryCache cache = new RespBinaryCache(file.getPath());
+        assertTrue(cache.getErrorMessage(), cache.loadOrBuild());
+        RespBinaryCache loaded = new RespBinaryCache(file.getPath());
+        assertTrue(loaded.getErrorMessage(), loaded.load());
+        assertEquals(cache.getNumEntries(), loaded.getNumEntries());
+        int errors = 0;
+        for (int i = 0; i < loaded.getNumEntries(); i++) {
+            if (loaded.getResponse(i) == null) {
+                assertEquals("ALST", loaded.getChanIdHldr(i).channelIdObj.station_code);
+                assertNull(cache.getResponse(i));
+                assertEquals(cache.getErrorMessage(), loaded.getErrorMessage());
+                errors++;
+            }
+        }
+        assertEquals(1, errors);
+        String[][][] patterns = {
+                {null, null, null, null},
+                {{"ANMO"}, null, null, null},
+                {null, null, {"UW"}, null},
+                {{"ALST"}, null, null, null}};
+        for (boolean multi : new boolean[]{false, true}) {
+            for (String[][] pats : patterns) {
+                assertEquals(run(file, multi, false, pats), run(file, multi, true, pats));
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidData() throws IOException {
+        // response data that cannot be decoded is parsed from the source
+        // file, and the cache file is removed so that it is rebuilt
+        File file = concatenate("invalid.resp", 1, NAMES);
+        RespBinaryCache cache = new RespBinaryCache(file.getPath());
+        assertTrue(cache.getErrorMessage(), cache.loadOrBuild());
+        File cacheFile = new File(cache.getCacheFileName());
+        RandomAccessFile raf = new RandomAccessFile(cacheFile, "rw");
+        raf.seek(40);           // (start of the first response's data)
+        byte[] bytes = new byte[64];
+        Arrays.fill(bytes, (byte) 0x7F);
+        raf.write(bytes);
+        raf.close();
+        RespBinaryCache loaded = new RespBinaryCache(file.getPath());
+        assertTrue(loaded.getErrorMessage(), loaded.load());
+        Response response = loaded.getResponse(0);
+        assertNotNull(loaded.getErrorMessage(), response);
+        assertEquals(spectra(cache.getResponse(0)), spectra(response));
+        assertFalse(cacheFile.exists());
+        assertEquals(run(file, true, false, new String[4][]),
+                run(file, true, true, new String[4][]));
+        assertTrue(new RespBinaryCache(file.getPath()).load());
+    }
+
+    private List<String> run(File file, boolean multi, boolean useCache, String[][] pats) {
+        final List<String> calls = new ArrayList<String>();
+        RespProcessor processor = new RespProcessor(multi, false, null);
+        processor.setResponseCacheFlag(useCache);
+        boolean result = processor.findResponses(pats[0], pats[1], pats[2], pats[3], null,
+                null, file.getPath(), false, new RespCallback() {
+                    public void setRespProcObj(RespProcessor respProcObj) {
+                    }
+
+                    public boolean responseInfo(String fileName, ChannelId channelIdObj,
+                                                Date respEndDateObj, String channelIdFName,
+                                                Response respObj, String errMsgStr) {
+                        String id = (channelIdObj == null) ? null : idString(channelIdObj);
+                        if (respObj == null) {
+                            calls.add(errMsgStr + " " + id);
+                            return false;
+                        }
+                        calls.add(id + " " + respEndDateObj + " " + spectra(respObj));
+                        return true;
+                    }
+
+                    public void showInfoMessage(String msgStr) {
+                        calls.add("info " + msgStr);
+                    }
+                });
+        calls.add(result + " " + processor.getErrorMessage() + " " + processor.getNumRespFound());
+        return calls;
+    }
+
+    private static String idString(ChannelId id) {
+        return id.network_id.network_code + "." + id.station_code + "." + id.site_code + "."
+                + id.channel_code + " " + id.begin_time.date_time;
+    }
+
+    private static String spectra(Response response) {
+        OutputGenerator generator = new OutputGenerator(response);
+        if (!generator.checkResponse() || !generator.calculateResponse(FREQS, true,
+                OutputGenerator.DEFAULT_UNIT_CONV, 0, 0)) {
+            return generator.getErrorMessage();
+        }
+        return Arrays.toString(generator.getCSpectraRealArray())
+                + Arrays.toString(generator.getCSpectraImagArray());
+    }
+
+    private static String read(File file) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        byte[] buf = new byte[(int) file.length()];
+        int offs = 0;
+        int n;
+        while (offs < buf.length && (n = in.read(buf, offs, buf.length - offs)) > 0) {
+            offs += n;
+        }
+        in.close();
+        return new String(buf, "US-ASCII");
+    }
+
+    private static void write(File file, String text) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        out.write(text.getBytes("US-ASCII"));
+        out.close();
+    }
+
+}
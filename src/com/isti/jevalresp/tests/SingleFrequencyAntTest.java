@@ -0,0 +1,137 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.OutputGenerator;
+import com.isti.jevalresp.RespFileParser;
+import com.isti.jevalresp.RunDirect;
+import edu.iris.Fissures.IfNetwork.Response;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static java.lang.String.format;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks that single-frequency evaluation gives the same values as
+ * evaluating a one-element frequency array.
+ */
+public class SingleFrequencyAntTest extends TestSupport {
+
+    private static final String[] NAMES = {"RESP.IU.ANMO..BHZ", "RESP.IU.ANMO.10.BHZ",
+            "RESP.US.DGMT..BHZ", "RESP.UW.ALST..ENE", "RESP.UW.PRES.ELE"};
+    private static final double[] FREQS = {0.0, 0.001, 0.05, 1.0, 7.3, 19.99};
+    private static final int[] UNIT_CONVS = {OutputGenerator.DEFAULT_UNIT_CONV,
+            OutputGenerator.DISPLACE_UNIT_CONV, OutputGenerator.VELOCITY_UNIT_CONV,
+            OutputGenerator.ACCEL_UNIT_CONV};
+
+    @Test
+    public void testSingleFrequency() {
+        for (String name : NAMES) {
+            for (int unitConv : UNIT_CONVS) {
+                for (double freq : FREQS) {
+                    check(name, unitConv, freq, 0, 0);
+                }
+            }
+            check(name, OutputGenerator.DEFAULT_UNIT_CONV, 1.0, 2, 3);
+        }
+    }
+
+    @Test
+    public void testCachedResponse() {
+        RunDirect runDirect = new RunDirect();
+        OutputGenerator generator = runDirect.findOneResponse(null, null, null, null, null,
+                RunDirect.VELOCITY_UNIT_CONV, locateFile("RESP.IU.ANMO..BHZ"), 0, 0, false);
+        assertNotNull(runDirect.getErrorMessage(), generator);
+        for (double freq : FREQS) {
+            Double amp = runDirect.getSingleResponseAmpVal(generator,
+                    RunDirect.VELOCITY_UNIT_CONV, freq);
+            assertNotNull(runDirect.getErrorMessage(), amp);
+            assertEquals(format("Amplitude at %g", freq), runDirect.getSingleResponseAmpVal(
+                    null, null, null, null, null, RunDirect.VELOCITY_UNIT_CONV,
+                    locateFile("RESP.IU.ANMO..BHZ"), freq), amp);
+        }
+    }
+
+    @Test
+    public void testResponseErrors() throws IOException {
+        byte[] good = read(locateFile("RESP.UW.ALST..ENE"));
+        byte[] bad = new String(good, "US-ASCII").replaceFirst(
+                "(B054F05 +Response in units lookup: +)V - Volts",
+                "$1COUNTS - Digital Counts").getBytes("US-ASCII");
+        // errors in the first response found are reported, as they were
+        // before 'findOneResponse()' stopped at the first good response
+        RunDirect runDirect = new RunDirect();
+        assertNull(runDirect.findOneResponse(null, null, null, null, null,
+                RunDirect.VELOCITY_UNIT_CONV, write("bad-good.resp", bad, good), 0, 0,
+                false));
+        assertTrue(runDirect.getErrorMessage(),
+                runDirect.getErrorMessage().indexOf("do not match") >= 0);
+        assertEquals(16, runDirect.getExitStatusValue());
+        // errors in later responses are ignored
+        runDirect = new RunDirect();
+        assertNotNull(runDirect.getErrorMessage(), runDirect.findOneResponse(null, null,
+                null, null, null, RunDirect.VELOCITY_UNIT_CONV,
+                write("good-bad.resp", good, bad), 0, 0, false));
+        assertEquals(0, runDirect.getExitStatusValue());
+    }
+
+    private String write(String fileName, byte[]... contents) throws IOException {
+        File file = new File(tmp.getRoot(), fileName);
+        OutputStream out = new FileOutputStream(file);
+        for (byte[] content : contents) {
+            out.write(content);
+        }
+        out.close();
+        return file.getPath();
+    }
+
+    private static byte[] read(String fileName) throws IOException {
+        FileInputStream in = new FileInputStream(fileName);
+        byte[] buf = new byte[(int) new File(fileName).length()];
+        int offs = 0;
+        int n;
+        while (offs < buf.length && (n = in.read(buf, offs, buf.length - offs)) > 0) {
+            offs += n;
+        }
+        in.close();
+        return buf;
+    }
+
+    private void check(String name, int unitConv, double freq, int start, int stop) {
+        String msg = format("%s at %g (units %d, stages %d-%d)", name, freq, unitConv,
+                start, stop);
+        OutputGenerator expected = load(name);
+        boolean expectedOk = expected.calculateResponse(
+                new double[]{freq}, false, unitConv, start, stop);
+        OutputGenerator generator = load(name);
+        double[] value = new double[2];
+        boolean ok = generator.calculateSingleResponse(
+                freq, unitConv, start, stop, false, false, 0.0, value);
+        assertEquals(msg, expected.getErrorMessage(), generator.getErrorMessage());
+        assertEquals(msg, expectedOk, ok);
+        if (ok) {
+            assertEquals(msg, expected.getCSpectraRealArray()[0], value[0]);
+            assertEquals(msg, expected.getCSpectraImagArray()[0], value[1]);
+        }
+    }
+
+    private OutputGenerator load(String name) {
+        RespFileParser parser = new RespFileParser(locateFile(name));
+        assertNotNull(parser.findChannelId((String) null, null, null, null, null, null));
+        Response response = parser.readResponse();
+        assertNotNull(parser.getErrorMessage(), response);
+        parser.close();
+        OutputGenerator generator = new OutputGenerator(response);
+        assertTrue(generator.getErrorMessage(), generator.checkResponse());
+        return generator;
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.CompiledResponse;
+import com.isti.jevalresp.OutputGenerator;
+import com.isti.jevalresp.RespArraysInfo;
+import com.isti.jevalresp.RespUtils;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static java.lang.String.format;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks that stages with the same coefficients share their arrays, and
+ * that reusing the values of identical stages gives the same results as
+ * evaluating each stage.
+ */
+public class StageDedupAntTest extends TestSupport {
+
+    private static final double[] FIR_COEFFS = {0.1, 0.4, 0.3, 0.15, 0.05};
+    private static final double[] FREQS = RespUtils.generateFreqArray(0.01, 40.0, 500, true);
+
+    @Test
+    public void testSharedStages() {
+        OutputGenerator generator = generator();
+        assertTrue(generator.getErrorMessage(), generator.calculateResponse(
+                FREQS, true, OutputGenerator.DEFAULT_UNIT_CONV, 0, 0));
+        CompiledResponse compiled = generator.getCompiledResponse();
+        assertEquals(-1, compiled.getSameStageIndex(0));
+        assertEquals(0, compiled.getSameStageIndex(1));
+        // same coefficients but different sample interval
+        assertEquals(-1, compiled.getSameStageIndex(2));
+        assertEquals(-1, compiled.getSameStageIndex(3));
+        double[] numers = compiled.getStageKernel(0).numersArr;
+        assertTrue(numers == compiled.getStageKernel(1).numersArr);
+        assertTrue(numers == compiled.getStageKernel(2).numersArr);
+        // per-term tables are shared across sample intervals
+        CompiledResponse.CoeffSet coeffs = compiled.getStageKernel(0).coeffSetObj;
+        assertNotNull(coeffs);
+        assertTrue(coeffs == compiled.getStageKernel(1).coeffSetObj);
+        assertTrue(coeffs == compiled.getStageKernel(2).coeffSetObj);
+        assertFalse(coeffs == compiled.getStageKernel(3).coeffSetObj);
+        assertTrue(compiled.getStageKernel(0).sIntervalTime
+                != compiled.getStageKernel(2).sIntervalTime);
+        RespArraysInfo[] infos = generator.getAllStagesAmpPhaseArrays();
+        assertTrue(Arrays.equals(infos[1].getRealArray(), infos[2].getRealArray()));
+        assertTrue(Arrays.equals(infos[1].getImagArray(), infos[2].getImagArray()));
+        checkSingle(generator, 0, 0);
+    }
+
+    @Test
+    public void testStageRange() {
+        for (int start = 1; start <= 3; start++) {
+            OutputGenerator generator = generator();
+            assertTrue(generator.getErrorMessage(), generator.calculateResponse(
+                    FREQS, true, OutputGenerator.DEFAULT_UNIT_CONV, start, 4));
+            checkSingle(generator, start, 4);
+        }
+    }
+
+    private void checkSingle(OutputGenerator generator, int start, int stop) {
+        double[] real = generator.getCSpectraRealArray();
+        double[] imag = generator.getCSpectraImagArray();
+        double[] values = new double[2];
+        for (int i = 0; i < FREQS.length; i++) {
+            assertTrue(generator.getErrorMessage(), generator.calculateSingleResponse(FREQS[i],
+                    OutputGenerator.DEFAULT_UNIT_CONV, start, stop, false, false, 0.0, values));
+            double tolerance = 1e-12 * Math.hypot(values[0], values[1]);
+            assertEquals(format("start=%d f=%g", start, FREQS[i]), values[0], real[i], tolerance);
+            assertEquals(format("start=%d f=%g", start, FREQS[i]), values[1], imag[i], tolerance);
+        }
+    }
+
+    private OutputGenerator generator() {
+        StringBuilder buf = new StringBuilder(channelHeader());
+        buf.append(coeffsStage(1, "M/S", FIR_COEFFS, new double[0], 200.0, 1));
+        buf.append(coeffsStage(2, "COUNTS", FIR_COEFFS, new double[0], 200.0, 2));
+        buf.append(coeffsStage(3, "COUNTS", FIR_COEFFS, new double[0], 100.0, 1));
+        buf.append(coeffsStage(4, "COUNTS", new double[]{0.2, 0.3, 0.2},
+                new double[]{1.0, -0.5, 0.1}, 100.0, 1));
+        OutputGenerator generator = new OutputGenerator(parseResponse(buf.toString()));
+        assertTrue(generator.getErrorMessage(), generator.checkResponse());
+        return generator;
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.OutputGenerator;
+import com.isti.jevalresp.RespArraysInfo;
+import com.isti.jevalresp.RespFileParser;
+import com.isti.jevalresp.RespUtils;
+import com.isti.jevalresp.StageSpectrumCache;
+import edu.iris.Fissures.IfNetwork.Response;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static java.lang.String.format;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks that responses calculated using a stage-spectrum cache are
+ * identical to those calculated without one, and that the cache counts
+ * hits and misses and stays within its size limit.
+ */
+public class StageSpectrumCacheAntTest extends TestSupport {
+
+    private static final String[] NAMES = {"RESP.IU.ANMO..BHZ", "RESP.IU.ANMO.00.BHZ",
+            "RESP.IU.ANMO.10.BHZ", "RESP.US.DGMT..BHZ", "RESP.UW.ALST..ENE"};
+
+    @Test
+    public void testLogSpacing() {
+        check(RespUtils.generateFreqArray(0.001, 50.0, 500, true), true);
+    }
+
+    @Test
+    public void testLinearSpacing() {
+        check(RespUtils.generateFreqArray(0.0, 20.0, 600, false), false);
+    }
+
+    private void check(double[] freqArray, boolean logSpacingFlag) {
+        StageSpectrumCache cache = new StageSpectrumCache();
+        for (int pass = 0; pass < 2; pass++) {
+            long misses = cache.getMissCount();
+            for (String name : NAMES) {
+                compare(name, calculate(name, freqArray, logSpacingFlag, null),
+                        calculate(name, freqArray, logSpacingFlag, cache));
+            }
+            if (pass > 0) {
+                assertEquals("Cache misses on second pass", misses, cache.getMissCount());
+            }
+        }
+        assertTrue("No cache hits", cache.getHitCount() > 0);
+    }
+
+    @Test
+    public void testSizeLimit() {
+        double[] freqArray = RespUtils.generateFreqArray(0.001, 50.0, 500, true);
+        StageSpectrumCache cache = new StageSpectrumCache(4000);
+        for (String name : NAMES) {
+            compare(name, calculate(name, freqArray, true, null),
+                    calculate(name, freqArray, true, cache));
+        }
+        assertTrue(cache.getStatsString(), cache.getTotalNumValues() <= 4000);
+        assertTrue(cache.getStatsString(), cache.getEvictCount() > 0);
+    }
+
+    private void compare(String name, OutputGenerator expected, OutputGenerator cached) {
+        RespArraysInfo[] expArrs = expected.getAllStagesAmpPhaseArrays();
+        RespArraysInfo[] arrs = cached.getAllStagesAmpPhaseArrays();
+        for (int i = 0; i < expArrs.length; i++) {
+            if (expArrs[i] == null) continue;
+            assertTrue(format("%s %s: real values differ", name, expArrs[i].identifyStr),
+                    Arrays.equals(expArrs[i].getRealArray(), arrs[i].getRealArray()));
+            assertTrue(format("%s %s: imaginary values differ", name, expArrs[i].identifyStr),
+                    Arrays.equals(expArrs[i].getImagArray(), arrs[i].getImagArray()));
+        }
+    }
+
+    private OutputGenerator calculate(String name, double[] freqArray,
+                                      boolean logSpacingFlag, StageSpectrumCache cache) {
+        RespFileParser parser = new RespFileParser(locateFile(name));
+        assertNotNull(parser.findChannelId((String) null, null, null, null, null, null));
+        Response response = parser.readResponse();
+        assertNotNull(parser.getErrorMessage(), response);
+        parser.close();
+        OutputGenerator generator = new OutputGenerator(response);
+        assertTrue(generator.getErrorMessage(), generator.checkResponse());
+        generator.setStageSpectrumCache(cache);
+        assertTrue(generator.getErrorMessage(), generator.calculateResponse(
+                freqArray, logSpacingFlag, OutputGenerator.DEFAULT_UNIT_CONV, 0, 0));
+        return generator;
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.isti.jevalresp.tests;
 
+import com.isti.jevalresp.RespFileParser;
+import edu.iris.Fissures.IfNetwork.Response;
 import org.junit.Rule;
 import org.junit.rules.TemporaryFolder;
 
@@ -10,6 +12,7 @@ import static java.lang.String.format;
 import static java.lang.System.out;
 import static java.lang.Thread.currentThread;
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
 
 
 public abstract class TestSupport {
@@ -73,4 +76,188 @@ public abstract class TestSupport {
         out.println(format("Copied %s", name));
     }
 
+    /**
+     * Concatenate files from the classpath into a new file in the test directory.
+     * The file (and any index or cache files written beside it) is deleted with
+     * the directory after the test.
+     *
+     * @param fileName Name of the new file.
+     * @param copies Number of times to repeat the files.
+     * @param names Files to locate from the classpath.
+     * @return The new file.
+     */
+    protected final File concatenate(final String fileName, final int copies,
+                                     final String... names) throws IOException {
+        File file = new File(tmp.getRoot(), fileName);
+        OutputStream to = new FileOutputStream(file);
+        byte[] buf = new byte[8192];
+        for (int i = 0; i < copies; i++) {
+            for (String name : names) {
+                InputStream from = new FileInputStream(locateFile(name));
+                int n;
+                while ((n = from.read(buf)) > 0) {
+                    to.write(buf, 0, n);
+                }
+                from.close();
+            }
+        }
+        to.close();
+        return file;
+    }
+
+    /**
+     * The station and channel blockettes (B050/B052) that start a
+     * synthetic RESP file for channel XX.TEST.??.BHZ.
+     *
+     * @return The header lines.
+     */
+    protected static String channelHeader() {
+        return channelHeader("BHZ");
+    }
+
+    /**
+     * The station and channel blockettes (B050/B052) that start a
+     * synthetic RESP file for station XX.TEST.
+     *
+     * @param channel The channel code.
+     * @return The header lines.
+     */
+    protected static String channelHeader(final String channel) {
+        StringBuilder buf = new StringBuilder();
+        buf.append("B050F03     Station:     TEST\n");
+        buf.append("B050F16     Network:     XX\n");
+        buf.append("B052F03     Location:    ??\n");
+        buf.append(format("B052F04     Channel:     %s\n", channel));
+        buf.append("B052F22     Start date:  2000,001,00:00:00\n");
+        buf.append("B052F23     End date:    No Ending Time\n");
+        return buf.toString();
+    }
+
+    /**
+     * A digital coefficients stage (B054) with COUNTS out units, followed
+     * by its decimation and unit gain.
+     *
+     * @param stageNum Stage sequence number.
+     * @param inUnits Response in units.
+     * @param numers Numerator coefficients.
+     * @param denoms Denominator coefficients (empty for a FIR stage).
+     * @param sampleRate Input sample rate (Hz).
+     * @param factor Decimation factor.
+     * @return The stage lines.
+     */
+    protected static String coeffsStage(final int stageNum, final String inUnits,
+                                        final double[] numers, final double[] denoms,
+                                        final double sampleRate, final int factor) {
+        StringBuilder buf = new StringBuilder();
+        buf.append("B054F03     Transfer function type:                D\n");
+        buf.append(format("B054F04     Stage sequence number:                 %d\n", stageNum));
+        buf.append(format("B054F05     Response in units lookup:              %s\n", inUnits));
+        buf.append("B054F06     Response out units lookup:             COUNTS\n");
+        buf.append(format("B054F07     Number of numerators:                  %d\n", numers.length));
+        buf.append(format("B054F10     Number of denominators:                %d\n", denoms.length));
+        for (int i = 0; i < numers.length; i++) {
+            buf.append(format("B054F08-09  %4d  %+.8E  +0.00000E+00\n", i, numers[i]));
+        }
+        for (int i = 0; i < denoms.length; i++) {
+            buf.append(format("B054F11-12  %4d  %+.8E  +0.00000E+00\n", i, denoms[i]));
+        }
+        buf.append(decimation(stageNum, sampleRate, factor));
+        return buf.toString();
+    }
+
+    /**
+     * A FIR stage (B061) with COUNTS out units, followed by its decimation
+     * and unit gain.
+     *
+     * @param stageNum Stage sequence number.
+     * @param inUnits Response in units.
+     * @param symmetry Symmetry type (A, B or C).
+     * @param coeffs FIR coefficients.
+     * @param sampleRate Input sample rate (Hz).
+     * @param factor Decimation factor.
+     * @return The stage lines.
+     */
+    protected static String firStage(final int stageNum, final String inUnits,
+                                     final String symmetry, final double[] coeffs,
+                                     final double sampleRate, final int factor) {
+        StringBuilder buf = new StringBuilder();
+        buf.append(format("B061F03     Stage sequence number:                 %d\n", stageNum));
+        buf.append(format("B061F05     Symmetry type:                         %s\n", symmetry));
+        buf.append(format("B061F06     Response in units lookup:              %s\n", inUnits));
+        buf.append("B061F07     Response out units lookup:             COUNTS\n");
+        buf.append(format("B061F08     Number of numerators:                  %d\n", coeffs.length));
+        for (int i = 0; i < coeffs.length; i++) {
+            buf.append(format("B061F09    %4d  %+.8E\n", i, coeffs[i]));
+        }
+        buf.append(decimation(stageNum, sampleRate, factor));
+        return buf.toString();
+    }
+
+    /**
+     * The decimation blockette (B057) for a stage, with no offset or delay,
+     * followed by a unit gain at 1Hz.
+     *
+     * @param stageNum Stage sequence number.
+     * @param sampleRate Input sample rate (Hz).
+     * @param factor Decimation factor.
+     * @return The decimation and gain lines.
+     */
+    protected static String decimation(final int stageNum, final double sampleRate,
+                                       final int factor) {
+        StringBuilder buf = new StringBuilder();
+        buf.append(format("B057F03     Stage sequence number:                 %d\n", stageNum));
+        buf.append(format("B057F04     Input sample rate (HZ):                %.4E\n", sampleRate));
+        buf.append(format("B057F05     Decimation factor:                     %05d\n", factor));
+        buf.append("B057F06     Decimation offset:                     00000\n");
+        buf.append("B057F07     Estimated delay (seconds):             +0.0000E+00\n");
+        buf.append("B057F08     Correction applied (seconds):          +0.0000E+00\n");
+        buf.append(gain(stageNum, 1.0, 1.0));
+        return buf.toString();
+    }
+
+    /**
+     * The gain blockette (B058) for a stage (stage 0 for the overall
+     * sensitivity), with no calibrations.
+     *
+     * @param stageNum Stage sequence number.
+     * @param sensitivity Sensitivity (gain).
+     * @param freq Frequency of sensitivity (Hz).
+     * @return The gain lines.
+     */
+    protected static String gain(final int stageNum, final double sensitivity,
+                                 final double freq) {
+        StringBuilder buf = new StringBuilder();
+        buf.append(format("B058F03     Stage sequence number:                 %d\n", stageNum));
+        buf.append(format("B058F04     Sensitivity:                           %+.5E\n", sensitivity));
+        buf.append(format("B058F05     Frequency of sensitivity:              %+.5E\n", freq));
+        buf.append("B058F06     Number of calibrations:                0\n");
+        return buf.toString();
+    }
+
+    /**
+     * Parse the single channel in the text of a synthetic RESP file.
+     *
+     * @param respText The RESP file contents.
+     * @return The parsed response.
+     */
+    protected static Response parseResponse(final String respText) {
+        return parseResponse(new ByteArrayInputStream(respText.getBytes()));
+    }
+
+    /**
+     * Parse the first channel in a RESP stream, which is closed.
+     *
+     * @param in The RESP file contents.
+     * @return The parsed response.
+     */
+    protected static Response parseResponse(final InputStream in) {
+        RespFileParser parser = new RespFileParser(in, "test");
+        assertNotNull(parser.getErrorMessage(),
+                parser.findChannelId((String) null, null, null, null, null, null));
+        Response response = parser.readResponse();
+        assertNotNull(parser.getErrorMessage(), response);
+        parser.close();
+        return response;
+    }
+
 }
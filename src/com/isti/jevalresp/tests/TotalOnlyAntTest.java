@@ -0,0 +1,57 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.OutputGenerator;
+import com.isti.jevalresp.RespArraysInfo;
+import com.isti.jevalresp.RespFileParser;
+import com.isti.jevalresp.RespUtils;
+import edu.iris.Fissures.IfNetwork.Response;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks that the "total-only" mode gives the same all-stages values as
+ * the default mode, without holding values for each stage.
+ */
+public class TotalOnlyAntTest extends TestSupport {
+
+    private static final String[] NAMES = {"RESP.IU.ANMO..BHZ", "RESP.US.DGMT..BHZ",
+            "RESP.UW.ALST..ENE", "RESP.UW.PRES.ELE"};
+
+    @Test
+    public void testTotalOnly() {
+        double[] freqArray = RespUtils.generateFreqArray(0.001, 50.0, 300, true);
+        for (String name : NAMES) {
+            OutputGenerator expected = calculate(name, freqArray, false);
+            OutputGenerator generator = calculate(name, freqArray, true);
+            assertTrue(name, Arrays.equals(expected.getCSpectraRealArray(),
+                    generator.getCSpectraRealArray()));
+            assertTrue(name, Arrays.equals(expected.getCSpectraImagArray(),
+                    generator.getCSpectraImagArray()));
+            RespArraysInfo[] arrs = generator.getAllStagesAmpPhaseArrays();
+            assertNotNull(name, arrs[0]);
+            for (int i = 1; i < arrs.length; i++) {
+                assertTrue(name, arrs[i] == null);
+            }
+        }
+    }
+
+    private OutputGenerator calculate(String name, double[] freqArray, boolean totalOnly) {
+        RespFileParser parser = new RespFileParser(locateFile(name));
+        assertNotNull(parser.findChannelId((String) null, null, null, null, null, null));
+        Response response = parser.readResponse();
+        assertNotNull(parser.getErrorMessage(), response);
+        parser.close();
+        OutputGenerator generator = new OutputGenerator(response);
+        assertTrue(generator.getErrorMessage(), generator.checkResponse());
+        generator.setTotalOnlyFlag(totalOnly);
+        assertTrue(generator.getErrorMessage(), generator.calculateResponse(
+                freqArray, true, OutputGenerator.DEFAULT_UNIT_CONV, 0, 0));
+        return generator;
+    }
+
+}
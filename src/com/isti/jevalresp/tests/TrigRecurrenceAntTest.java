@@ -0,0 +1,134 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.OutputGenerator;
+import com.isti.jevalresp.RespArraysInfo;
+import com.isti.jevalresp.RespUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static java.lang.String.format;
+import static java.lang.System.out;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Reports the accuracy of the trig-recurrence evaluation of FIR and IIR
+ * stages versus direct evaluation, and checks it against a tolerance.
+ */
+public class TrigRecurrenceAntTest extends TestSupport {
+
+    /** Tolerance, relative to the largest magnitude in the spectrum. */
+    private static final double TOLERANCE = 1e-12;
+
+    /**
+     * Compare responses containing FIR stages of up to 400 coefficients.
+     */
+    @Test
+    public void testRespFiles() throws IOException {
+        String[] names = {"RESP.IU.ANMO..BHZ", "RESP.UW.ALST..ENE", "RESP.US.DGMT..BHZ"};
+        for (String name : names) {
+            String path = locateFile(name);
+            check(name, new FileInputStream(path), new FileInputStream(path));
+        }
+    }
+
+    /**
+     * Compare a response containing a long (2000 coefficient) asymmetrical
+     * FIR stage and an IIR coefficients stage.
+     */
+    @Test
+    public void testLongFirAndIir() {
+        String resp = syntheticResp();
+        check("synthetic", new ByteArrayInputStream(resp.getBytes()),
+                new ByteArrayInputStream(resp.getBytes()));
+    }
+
+    /**
+     * Check that evaluating groups of frequencies together gives results
+     * identical to evaluating each frequency separately.
+     */
+    @Test
+    public void testLaneEval() throws IOException {
+        String resp = syntheticResp();
+        double[] freqArray = RespUtils.generateFreqArray(0.001, 50.0, 1003, true);
+        RespArraysInfo[] separate = calculate(new ByteArrayInputStream(resp.getBytes()),
+                freqArray, true, false).getAllStagesAmpPhaseArrays();
+        RespArraysInfo[] lanes = calculate(new ByteArrayInputStream(resp.getBytes()),
+                freqArray, true, true).getAllStagesAmpPhaseArrays();
+        String path = locateFile("RESP.US.DGMT..BHZ");
+        RespArraysInfo[] separate2 = calculate(new FileInputStream(path),
+                freqArray, true, false).getAllStagesAmpPhaseArrays();
+        RespArraysInfo[] lanes2 = calculate(new FileInputStream(path),
+                freqArray, true, true).getAllStagesAmpPhaseArrays();
+        checkIdentical("synthetic", separate, lanes);
+        checkIdentical("RESP.US.DGMT..BHZ", separate2, lanes2);
+    }
+
+    private void checkIdentical(String name, RespArraysInfo[] expected, RespArraysInfo[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            if (expected[i] == null) continue;
+            assertTrue(format("%s %s: values differ", name, expected[i].identifyStr),
+                    Arrays.equals(expected[i].getRealArray(), actual[i].getRealArray())
+                            && Arrays.equals(expected[i].getImagArray(), actual[i].getImagArray()));
+        }
+    }
+
+    private void check(String name, InputStream in1, InputStream in2) {
+        double[] freqArray = RespUtils.generateFreqArray(0.001, 50.0, 2000, true);
+        RespArraysInfo[] direct = calculate(in1, freqArray, false, true).getAllStagesAmpPhaseArrays();
+        RespArraysInfo[] recur = calculate(in2, freqArray, true, true).getAllStagesAmpPhaseArrays();
+        for (int i = 0; i < direct.length; i++) {
+            if (direct[i] == null) continue;
+            double[] expRe = direct[i].getRealArray(), expIm = direct[i].getImagArray();
+            double[] re = recur[i].getRealArray(), im = recur[i].getImagArray();
+            double maxMag = 0.0, maxErr = 0.0;
+            for (int k = 0; k < expRe.length; k++) {
+                maxMag = Math.max(maxMag, Math.hypot(expRe[k], expIm[k]));
+                maxErr = Math.max(maxErr, Math.hypot(re[k] - expRe[k], im[k] - expIm[k]));
+            }
+            double relErr = (maxMag > 0.0) ? maxErr / maxMag : maxErr;
+            out.println(format("%s %s: max error %.3g relative to peak", name,
+                    direct[i].identifyStr, relErr));
+            assertTrue(format("%s %s: error %g exceeds tolerance", name,
+                    direct[i].identifyStr, relErr), relErr <= TOLERANCE);
+        }
+    }
+
+    private OutputGenerator calculate(InputStream in, double[] freqArray,
+                                      boolean recurFlag, boolean laneFlag) {
+        OutputGenerator generator = new OutputGenerator(parseResponse(in));
+        assertTrue(generator.getErrorMessage(), generator.checkResponse());
+        generator.setTrigRecurEvalFlag(recurFlag);
+        generator.setLaneEvalFlag(laneFlag);
+        assertTrue(generator.getErrorMessage(), generator.calculateResponse(
+                freqArray, true, OutputGenerator.DEFAULT_UNIT_CONV, 0, 0));
+        return generator;
+    }
+
+    private String syntheticResp() {
+        Random random = new Random(4321);
+        StringBuilder buf = new StringBuilder(channelHeader());
+        int numCoeffs = 2000;
+        double[] coeffs = new double[numCoeffs];
+        double sum = 0.0;
+        for (int i = 0; i < numCoeffs; i++) {
+            coeffs[i] = Math.exp(-i / 400.0) * (1.0 + 0.1 * random.nextGaussian());
+            sum += coeffs[i];
+        }
+        for (int i = 0; i < numCoeffs; i++) {
+            coeffs[i] /= sum;
+        }
+        buf.append(coeffsStage(1, "M/S", coeffs, new double[0], 200.0, 1));
+        buf.append(coeffsStage(2, "COUNTS", new double[]{0.2, 0.3, 0.2},
+                new double[]{1.0, -0.5, 0.1}, 200.0, 1));
+        return buf.toString();
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.isti.jevalresp.tests;
+
+import com.isti.jevalresp.CompiledResponse;
+import com.isti.jevalresp.OutputGenerator;
+import com.isti.jevalresp.RespArraysInfo;
+import com.isti.jevalresp.RespUtils;
+import com.isti.jevalresp.TrigTableCache;
+import edu.iris.Fissures.IfNetwork.Response;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static java.lang.String.format;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertTrue;
+
+
+/**
+ * Checks that responses calculated using a trig-table cache are
+ * identical to those calculated without one, and that the cache counts
+ * hits and misses and stays within its size limit.
+ */
+public class TrigTableCacheAntTest extends TestSupport {
+
+    private static final String[] NAMES = {"RESP.IU.ANMO..BHZ", "RESP.IU.ANMO.00.BHZ",
+            "RESP.US.DGMT..BHZ", "RESP.UW.ALST..ENE"};
+    private static final double[] FREQS = RespUtils.generateFreqArray(0.001, 50.0, 400, true);
+
+    @Test
+    public void testRespFiles() throws IOException {
+        TrigTableCache cache = new TrigTableCache();
+        for (int pass = 0; pass < 2; pass++) {
+            long misses = cache.getMissCount();
+            for (String name : NAMES) {
+                String path = locateFile(name);
+                compare(name, calculate(new FileInputStream(path), null),
+                        calculate(new FileInputStream(path), cache));
+            }
+            if (pass > 0) {
+                assertEquals("Cache misses on second pass", misses, cache.getMissCount());
+            }
+        }
+        assertTrue("No cache hits", cache.getHitCount() > 0);
+    }
+
+    /**
+     * Compare a response containing asymmetrical, symmetrical 1 and
+     * symmetrical 2 FIR stages and an IIR stage, at two sample rates.
+     */
+    @Test
+    public void testStageTypes() {
+        String resp = syntheticResp();
+        TrigTableCache cache = new TrigTableCache();
+        compare("synthetic", calculate(new ByteArrayInputStream(resp.getBytes()), null),
+                calculate(new ByteArrayInputStream(resp.getBytes()), cache));
+        // tables for 200Hz terms, 100Hz half terms and 100Hz terms
+        assertEquals(cache.getStatsString(), 3, cache.getNumEntries());
+    }
+
+    @Test
+    public void testSizeLimit() throws IOException {
+        TrigTableCache cache = new TrigTableCache(200000);
+        for (String name : NAMES) {
+            String path = locateFile(name);
+            compare(name, calculate(new FileInputStream(path), null),
+                    calculate(new FileInputStream(path), cache));
+        }
+        assertTrue(cache.getStatsString(), cache.getTotalNumValues() <= 200000);
+        assertTrue(cache.getStatsString(), cache.getEvictCount() > 0);
+    }
+
+    /**
+     * A long FIR stage evaluated over many frequencies needs a table of
+     * 500 * 10000 * 2 values, which must fit within the default limit.
+     */
+    @Test
+    public void testLargeTable() {
+        double[] coeffs = new double[500];
+        for (int i = 0; i < coeffs.length; i++) {
+            coeffs[i] = Math.exp(-i / 50.0) * (1.0 + 0.1 * Math.sin(i)) / 50.0;
+        }
+        Response response = parseResponse(channelHeader()
+                + firStage(1, "M/S", "A", coeffs, 200.0, 1));
+        CompiledResponse.StageKernel kernel =
+                new CompiledResponse(response).getStageKernel(0);
+        double[] freqs = RespUtils.generateFreqArray(0.001, 100.0, 10000, false);
+        TrigTableCache cache = new TrigTableCache();
+        TrigTableCache.TrigTable table = cache.getTable(kernel, freqs, Arrays.hashCode(freqs));
+        assertNotNull("Table not returned", table);
+        assertEquals(500, table.numTerms);
+        assertEquals(10000000L, table.getNumValues());
+        assertTrue(table == cache.getTable(kernel, freqs, Arrays.hashCode(freqs)));
+        assertEquals(1, cache.getHitCount());
+    }
+
+    private void compare(String name, OutputGenerator expected, OutputGenerator cached) {
+        RespArraysInfo[] expArrs = expected.getAllStagesAmpPhaseArrays();
+        RespArraysInfo[] arrs = cached.getAllStagesAmpPhaseArrays();
+        for (int i = 0; i < expArrs.length; i++) {
+            if (expArrs[i] == null) continue;
+            assertTrue(format("%s %s: real values differ", name, expArrs[i].identifyStr),
+                    Arrays.equals(expArrs[i].getRealArray(), arrs[i].getRealArray()));
+            assertTrue(format("%s %s: imaginary values differ", name, expArrs[i].identifyStr),
+                    Arrays.equals(expArrs[i].getImagArray(), arrs[i].getImagArray()));
+        }
+    }
+
+    private OutputGenerator calculate(InputStream in, TrigTableCache cache) {
+        OutputGenerator generator = new OutputGenerator(parseResponse(in));
+        assertTrue(generator.getErrorMessage(), generator.checkResponse());
+        generator.setTrigTableCache(cache);
+        assertTrue(generator.getErrorMessage(), generator.calculateResponse(
+                FREQS, true, OutputGenerator.DEFAULT_UNIT_CONV, 0, 0));
+        return generator;
+    }
+
+    private String syntheticResp() {
+        StringBuilder buf = new StringBuilder(channelHeader());
+        double[] asym = new double[40];
+        for (int i = 0; i < asym.length; i++) {
+            asym[i] = Math.exp(-i / 8.0) * (1.0 + 0.1 * Math.sin(i)) / 8.0;
+        }
+        buf.append(firStage(1, "M/S", "A", asym, 200.0, 2));
+        buf.append(firStage(2, "COUNTS", "B", new double[]{0.05, 0.1, 0.2, 0.3}, 100.0, 1));
+        buf.append(firStage(3, "COUNTS", "C", new double[]{0.1, 0.15, 0.25}, 100.0, 1));
+        buf.append(coeffsStage(4, "COUNTS", new double[]{0.2, 0.3, 0.2},
+                new double[]{1.0, -0.5, 0.1}, 100.0, 1));
+        return buf.toString();
+    }
+
+}
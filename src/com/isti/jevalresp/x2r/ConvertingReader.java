@@ -105,23 +105,7 @@ public class ConvertingReader extends Reader {
             return null;
         } else {
             BufferedInputStream buffer = new BufferedInputStream(input);
-            buffer.mark(NON_BLANK_SPACE);
-            boolean xml = false;
-            try {
-                for (int i = 0; i < NON_BLANK_SPACE; ++i) {
-                    int c = buffer.read();
-                    if (c == -1) break;
-                    if (c == (int)' ') continue;
-                    if (c == (int)'\n') continue;
-                    if (c == (int)'\r') continue;
-                    if (c == (int)'<') {xml = true; break;}
-                    break;  // other character
-                }
-                buffer.reset();
-            } catch (IOException e) {
-                // this will come out later
-            }
-            if (xml) {
+            if (isXml(buffer)) {
                 return new ConvertingReader(buffer);
             } else {
                 return new InputStreamReader(buffer);
@@ -129,6 +113,33 @@ public class ConvertingReader extends Reader {
         }
     }
 
+    /**
+     * Checks whether the data in the stream are XML (the first non-blank
+     * character is '<').  The stream is reset to its initial position.
+     *
+     * @param buffer The source of input data.
+     * @return True if the data should be converted.
+     */
+    public static boolean isXml(BufferedInputStream buffer) {
+        buffer.mark(NON_BLANK_SPACE);
+        boolean xml = false;
+        try {
+            for (int i = 0; i < NON_BLANK_SPACE; ++i) {
+                int c = buffer.read();
+                if (c == -1) break;
+                if (c == (int)' ') continue;
+                if (c == (int)'\n') continue;
+                if (c == (int)'\r') continue;
+                if (c == (int)'<') {xml = true; break;}
+                break;  // other character
+            }
+            buffer.reset();
+        } catch (IOException e) {
+            // this will come out later
+        }
+        return xml;
+    }
+
     /**
      * Debug method to check the above.
      *